@@ -30,11 +30,9 @@ import hudson.model.AbstractBuild;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.util.ArgumentListBuilder;
-import jenkins.model.Jenkins;
 
 import java.io.IOException;
 import java.io.PrintStream;
-import java.net.URL;
 
 @SuppressWarnings("squid:S1160")
 public class AlmToolsUtils {
@@ -92,16 +90,15 @@ public class AlmToolsUtils {
         ArgumentListBuilder args = new ArgumentListBuilder();
         PrintStream out = listener.getLogger();
 
-        String hpToolsAborter_exe = "HpToolsAborter.exe";
-
-		URL hpToolsAborterUrl = Jenkins.getInstance().pluginManager.uberClassLoader.getResource("HpToolsAborter.exe");
-        FilePath hpToolsAborterFile = runWorkspace.child(hpToolsAborter_exe);
+        FilePath hpToolsAborterFile = LauncherToolsCache.install(LauncherToolsCache.HP_TOOLS_ABORTER_EXE, runWorkspace, listener);
+        if (hpToolsAborterFile == null) {
+            listener.error(LauncherToolsCache.HP_TOOLS_ABORTER_EXE + " not found in resources");
+            return;
+        }
         
         args.add(hpToolsAborterFile);
         args.add(paramFileName);
         
-        hpToolsAborterFile.copyFrom(hpToolsAborterUrl);
-        
         int returnCode = launcher.launch().cmds(args).stdout(out).pwd(hpToolsAborterFile.getParent()).join();
         
         try {
@@ -0,0 +1,244 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools;
+
+import hudson.FilePath;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import jenkins.model.Jenkins;
+import jenkins.security.MasterToSlaveCallable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Node level cache of the launcher executables bundled in the plugin.
+ * <p>
+ * Every node keeps the executables under its root folder, in a folder named by the SHA-256 of the bundled binary,
+ * so a plugin upgrade never picks up a stale copy. A build hard-links the cached executable into its workspace
+ * (or copies it locally where hard links are not supported); the binary is sent over remoting only when the node
+ * doesn't hold the current version yet or its copy doesn't match the digest.
+ * Set LauncherToolsCache.Disabled system property to copy the executables from the controller on every build.
+ */
+public final class LauncherToolsCache {
+
+    public static final String HP_TOOLS_LAUNCHER_EXE = "HpToolsLauncher.exe";
+    public static final String LRANALYSIS_LAUNCHER_EXE = "LRAnalysisLauncher.exe";
+    public static final String HP_TOOLS_ABORTER_EXE = "HpToolsAborter.exe";
+
+    static final String CACHE_FOLDER = "hp-tools-cache";
+
+    private static final Logger logger = Logger.getLogger(LauncherToolsCache.class.getName());
+    private static final boolean DISABLED = Boolean.parseBoolean(System.getProperty("LauncherToolsCache.Disabled"));
+    private static final ConcurrentMap<String, BundledTool> bundledTools = new ConcurrentHashMap<>();
+
+    private LauncherToolsCache() {
+    }
+
+    /**
+     * Digests of the bundled executables are computed once, when the plugin is loaded
+     */
+    @Initializer(after = InitMilestone.PLUGINS_STARTED)
+    public static void computeDigests() {
+        for (String toolName : new String[]{HP_TOOLS_LAUNCHER_EXE, LRANALYSIS_LAUNCHER_EXE, HP_TOOLS_ABORTER_EXE}) {
+            try {
+                getBundledTool(toolName);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to compute digest of " + toolName, e);
+            }
+        }
+    }
+
+    /**
+     * Places the bundled executable into the folder, taking it from the node cache when possible
+     *
+     * @return the executable in the folder, null if the plugin doesn't bundle such executable
+     */
+    public static FilePath install(String toolName, FilePath folder, TaskListener listener) throws IOException, InterruptedException {
+        BundledTool tool = getBundledTool(toolName);
+        if (tool == null) {
+            return null;
+        }
+
+        FilePath target = folder.child(toolName);
+        FilePath cacheRoot = DISABLED ? null : getCacheRoot(folder);
+        if (cacheRoot == null) {
+            target.copyFrom(tool.url);
+            return target;
+        }
+
+        FilePath cached = cacheRoot.child(tool.sha256).child(toolName);
+        LinkCachedTool link = new LinkCachedTool(cached.getRemote(), tool.sha256, target.getRemote());
+        if (folder.act(link)) {
+            listener.getLogger().println(String.format("%s is taken from the node tools cache, %d bytes transfer saved",
+                    toolName, tool.size));
+            return target;
+        }
+
+        transfer(tool, cached);
+        if (folder.act(link)) {
+            listener.getLogger().println(String.format("%s (sha256 %s) is transferred to the node tools cache, %d bytes",
+                    toolName, tool.sha256, tool.size));
+        } else {
+            logger.warning("Failed to cache " + toolName + " in " + cached.getParent() + ", copying it to the workspace");
+            target.copyFrom(tool.url);
+        }
+        return target;
+    }
+
+    private static void transfer(BundledTool tool, FilePath cached) throws IOException, InterruptedException {
+        FilePath cacheFolder = cached.getParent();
+        cacheFolder.mkdirs();
+        FilePath temp = cacheFolder.createTempFile(cached.getName(), ".tmp");
+        try {
+            temp.copyFrom(tool.url);
+            if (cached.exists()) {
+                // corrupted copy, the folder name is the digest of the bundled binary
+                cached.delete();
+            }
+            temp.renameTo(cached);
+        } catch (IOException e) {
+            // another build may have cached it first, the digest is verified by the caller anyway
+            logger.log(Level.FINE, "Failed to store " + cached, e);
+        } finally {
+            if (temp.exists()) {
+                temp.delete();
+            }
+        }
+    }
+
+    private static FilePath getCacheRoot(FilePath folder) {
+        Computer computer = folder.toComputer();
+        Node node = computer == null ? null : computer.getNode();
+        FilePath root = node == null ? null : node.getRootPath();
+        return root == null ? null : root.child(CACHE_FOLDER);
+    }
+
+    private static BundledTool getBundledTool(String toolName) throws IOException {
+        BundledTool tool = bundledTools.get(toolName);
+        if (tool == null) {
+            Jenkins jenkins = Jenkins.getInstance();
+            URL url = jenkins == null ? null : jenkins.pluginManager.uberClassLoader.getResource(toolName);
+            if (url == null) {
+                return null;
+            }
+            try (InputStream in = url.openStream()) {
+                tool = new BundledTool(url, in);
+            }
+            bundledTools.putIfAbsent(toolName, tool);
+        }
+        return tool;
+    }
+
+    static String sha256(InputStream in, long[] size) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            total += read;
+        }
+        if (size != null) {
+            size[0] = total;
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static final class BundledTool {
+        private final URL url;
+        private final String sha256;
+        private final long size;
+
+        private BundledTool(URL url, InputStream content) throws IOException {
+            long[] length = new long[1];
+            this.url = url;
+            this.sha256 = sha256(content, length);
+            this.size = length[0];
+        }
+    }
+
+    /**
+     * Runs on the node: links the cached executable into the workspace, if the cached copy matches the digest.
+     * Returns false if the executable has to be transferred to the cache first.
+     */
+    static final class LinkCachedTool extends MasterToSlaveCallable<Boolean, IOException> {
+        private static final long serialVersionUID = 1L;
+
+        private final String cached;
+        private final String sha256;
+        private final String target;
+
+        LinkCachedTool(String cached, String sha256, String target) {
+            this.cached = cached;
+            this.sha256 = sha256;
+            this.target = target;
+        }
+
+        @Override
+        public Boolean call() throws IOException {
+            File cachedFile = new File(cached);
+            if (!cachedFile.isFile()) {
+                return false;
+            }
+            try (InputStream in = new FileInputStream(cachedFile)) {
+                if (!sha256.equals(sha256(in, null))) {
+                    return false;
+                }
+            }
+
+            Path targetPath = new File(target).toPath();
+            Files.deleteIfExists(targetPath);
+            try {
+                Files.createLink(targetPath, cachedFile.toPath());
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(cachedFile.toPath(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,450 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.common;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/***
+ * Shared scheduler for monitoring of remote runs (ALM Lab, Performance Center).
+ * <p>
+ * Probes of watched runs are timed by a small pool of scheduler threads and executed on a separate pool, so a server
+ * that stops answering holds only the thread of its own probe. A probe exceeding the probe timeout of its policy is
+ * reported as a failure, and while it is still running the watch doesn't start another one. While the run stays in the same state
+ * the interval between probes grows exponentially up to the maximum of that state, and drops back to the state
+ * minimum as soon as the state changes. Every interval is spread by a random jitter so parallel runs don't poll the
+ * server in lockstep. The build waiting in {@link Watch#awaitChange(long)} is woken only when the state changes,
+ * the probe fails or the wait times out.
+ */
+public class AdaptivePoller {
+
+    private static final int THREADS = Integer.getInteger("AdaptivePoller.Threads", 4);
+    private static final long PROBE_TIMEOUT = Long.getLong("AdaptivePoller.ProbeTimeout", 10 * 60 * 1000); // millisecond
+
+    private static AdaptivePoller shared;
+
+    private final Timer timer;
+    private final Random random;
+
+    /**
+     * Source of time and of delayed execution; replaced by a virtual clock in tests
+     */
+    public interface Timer {
+
+        long now();
+
+        void schedule(Runnable task, long delayMillis);
+
+        /**
+         * Runs a probe; onTimeout is invoked if the probe doesn't finish within the given time (0 for no limit)
+         */
+        void execute(Runnable probe, long timeoutMillis, Runnable onTimeout);
+    }
+
+    /**
+     * Reads the current state of the watched run; states are compared with {@link Object#equals(Object)}
+     */
+    public interface Probe<S> {
+
+        S check() throws Exception;
+    }
+
+    public AdaptivePoller(Timer timer, Random random) {
+
+        this.timer = timer;
+        this.random = random;
+    }
+
+    public static synchronized AdaptivePoller getShared() {
+
+        if (shared == null) {
+            shared = new AdaptivePoller(new ExecutorTimer(THREADS), new Random());
+        }
+
+        return shared;
+    }
+
+    /**
+     * Starts watching a run, the first probe is executed right away
+     */
+    public <S> Watch<S> watch(Probe<S> probe, Policy policy) {
+
+        Watch<S> ret = new Watch<S>(probe, policy);
+        ret.resume(0);
+
+        return ret;
+    }
+
+    /**
+     * Polling intervals, per state; states without their own range use the default one
+     */
+    public static class Policy {
+
+        private final long[] _defaultRange;
+        private final Map<Object, long[]> _ranges = new HashMap<Object, long[]>();
+        private double _multiplier = 2;
+        private double _jitter = 0.2;
+        private long _probeTimeout = PROBE_TIMEOUT;
+
+        public Policy(long minInterval, long maxInterval) {
+
+            _defaultRange = range(minInterval, maxInterval);
+        }
+
+        public Policy withState(Object state, long minInterval, long maxInterval) {
+
+            _ranges.put(state, range(minInterval, maxInterval));
+
+            return this;
+        }
+
+        public Policy withMultiplier(double multiplier) {
+
+            if (multiplier < 1) {
+                throw new IllegalArgumentException("multiplier must not be less than 1");
+            }
+            _multiplier = multiplier;
+
+            return this;
+        }
+
+        /**
+         * @param jitter fraction of the interval by which every delay is randomly shortened or prolonged
+         */
+        public Policy withJitter(double jitter) {
+
+            if (jitter < 0 || jitter >= 1) {
+                throw new IllegalArgumentException("jitter must be in [0, 1)");
+            }
+            _jitter = jitter;
+
+            return this;
+        }
+
+        /**
+         * @param probeTimeout maximal duration of a single probe in milliseconds, 0 for no limit
+         */
+        public Policy withProbeTimeout(long probeTimeout) {
+
+            if (probeTimeout < 0) {
+                throw new IllegalArgumentException("probe timeout must not be negative");
+            }
+            _probeTimeout = probeTimeout;
+
+            return this;
+        }
+
+        long getProbeTimeout() {
+
+            return _probeTimeout;
+        }
+
+        long nextInterval(Object state, long previousInterval, boolean stateChanged) {
+
+            long[] range = _ranges.containsKey(state) ? _ranges.get(state) : _defaultRange;
+            if (stateChanged) {
+                return range[0];
+            }
+            double grown = previousInterval * _multiplier;
+
+            return Math.max(range[0], Math.min(range[1], (long) Math.min(grown, Long.MAX_VALUE)));
+        }
+
+        long withJitter(long interval, Random random) {
+
+            long spread = (long) (interval * _jitter * (2 * random.nextDouble() - 1));
+
+            return Math.max(0, interval + spread);
+        }
+
+        private static long[] range(long minInterval, long maxInterval) {
+
+            if (minInterval < 0 || maxInterval < minInterval) {
+                throw new IllegalArgumentException(String.format(
+                        "invalid polling interval range [%s, %s]",
+                        minInterval,
+                        maxInterval));
+            }
+
+            return new long[] { minInterval, maxInterval };
+        }
+    }
+
+    /**
+     * A watched run. Polling is paused whenever there is something to report (a state change, a failure or a
+     * timeout) and is resumed by the next {@link #awaitChange(long)}, so no transition is ever missed.
+     */
+    public class Watch<S> implements Closeable {
+
+        private final Probe<S> _probe;
+        private final Policy _policy;
+        private final Object _lock = new Object();
+        private S _state;
+        private boolean _hasState;
+        private boolean _changed;
+        private Exception _failure;
+        private boolean _timedOut;
+        private boolean _scheduled;
+        private boolean _closed;
+        private long _interval;
+        private long _deadline = Long.MAX_VALUE;
+        private int _polls;
+        private int _probeId;
+        private int _pendingProbe;
+        private boolean _probing;
+
+        private Watch(Probe<S> probe, Policy policy) {
+
+            _probe = probe;
+            _policy = policy;
+        }
+
+        /**
+         * Blocks until the state differs from the one returned by the previous call.
+         *
+         * @param timeoutMillis maximal time to wait for a change, 0 to wait as long as needed
+         * @return the new state, or the unchanged state if the wait timed out
+         * @throws ExecutionException if the probe failed; the following call resumes polling
+         */
+        public S awaitChange(long timeoutMillis) throws InterruptedException, ExecutionException {
+
+            synchronized (_lock) {
+                _deadline = timeoutMillis > 0 ? timer.now() + timeoutMillis : Long.MAX_VALUE;
+                if (!_changed && !_scheduled) {
+                    resume(_interval);
+                }
+                while (!_changed && _failure == null && !_timedOut && !_closed) {
+                    _lock.wait();
+                }
+                if (_failure != null) {
+                    Exception failure = _failure;
+                    _failure = null;
+                    throw new ExecutionException(failure);
+                }
+                _changed = false;
+                _timedOut = false;
+
+                return _state;
+            }
+        }
+
+        public long now() {
+
+            return timer.now();
+        }
+
+        public int getPolls() {
+
+            synchronized (_lock) {
+                return _polls;
+            }
+        }
+
+        @Override
+        public void close() {
+
+            synchronized (_lock) {
+                _closed = true;
+                _lock.notifyAll();
+            }
+        }
+
+        private void resume(long interval) {
+
+            synchronized (_lock) {
+                if (_closed) {
+                    return;
+                }
+                long delay = Math.min(_policy.withJitter(interval, random), Math.max(0, _deadline - timer.now()));
+                _scheduled = true;
+                timer.schedule(new Runnable() {
+
+                    @Override
+                    public void run() {
+
+                        poll();
+                    }
+                }, delay);
+            }
+        }
+
+        private void poll() {
+
+            final int probeId;
+            boolean busy;
+            synchronized (_lock) {
+                if (_closed) {
+                    _scheduled = false;
+                    return;
+                }
+                probeId = ++_probeId;
+                _pendingProbe = probeId;
+                busy = _probing;
+            }
+            if (busy) {
+                // the server didn't answer the previous probe yet, don't pile up threads waiting for it
+                complete(probeId, null, new TimeoutException("the previous probe is still running"));
+                return;
+            }
+            final long probeTimeout = _policy.getProbeTimeout();
+            timer.execute(new Runnable() {
+
+                @Override
+                public void run() {
+
+                    probe(probeId);
+                }
+            }, probeTimeout, new Runnable() {
+
+                @Override
+                public void run() {
+
+                    complete(probeId, null, new TimeoutException(String.format(
+                            "probe did not finish in %d ms",
+                            probeTimeout)));
+                }
+            });
+        }
+
+        private void probe(int probeId) {
+
+            synchronized (_lock) {
+                _probing = true;
+            }
+            S state = null;
+            Exception failure = null;
+            try {
+                state = _probe.check();
+            } catch (Exception cause) {
+                failure = cause;
+            } finally {
+                synchronized (_lock) {
+                    _probing = false;
+                }
+            }
+            complete(probeId, state, failure);
+        }
+
+        /**
+         * Records the outcome of a probe, unless the probe already timed out
+         */
+        private void complete(int probeId, S state, Exception failure) {
+
+            synchronized (_lock) {
+                if (_pendingProbe != probeId) {
+                    return;
+                }
+                _pendingProbe = 0;
+                _polls++;
+                _scheduled = false;
+                if (_closed) {
+                    return;
+                }
+                if (failure != null) {
+                    _failure = failure;
+                    _interval = _policy.nextInterval(_state, _interval, true);
+                } else {
+                    boolean stateChanged = !_hasState || !equal(_state, state);
+                    _interval = _policy.nextInterval(state, _interval, stateChanged);
+                    _state = state;
+                    _hasState = true;
+                    if (stateChanged) {
+                        _changed = true;
+                    } else if (timer.now() >= _deadline) {
+                        _timedOut = true;
+                    } else {
+                        resume(_interval);
+                        return;
+                    }
+                }
+                _lock.notifyAll();
+            }
+        }
+    }
+
+    private static boolean equal(Object a, Object b) {
+
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Times probes on a few scheduler threads and runs them on a pool growing with the number of watched runs
+     */
+    static class ExecutorTimer implements Timer {
+
+        private final ScheduledExecutorService _executor;
+        private final ExecutorService _probes = Executors.newCachedThreadPool(
+                new NamingThreadFactory(new DaemonThreadFactory(), "Run monitoring probe"));
+
+        ExecutorTimer(int threads) {
+
+            _executor = Executors.newScheduledThreadPool(
+                    threads,
+                    new NamingThreadFactory(new DaemonThreadFactory(), "Run monitoring poller"));
+        }
+
+        @Override
+        public long now() {
+
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public void schedule(Runnable task, long delayMillis) {
+
+            _executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void execute(Runnable probe, long timeoutMillis, final Runnable onTimeout) {
+
+            final Future<?> future = _probes.submit(probe);
+            if (timeoutMillis > 0) {
+                _executor.schedule(new Runnable() {
+
+                    @Override
+                    public void run() {
+
+                        if (!future.isDone()) {
+                            onTimeout.run();
+                            // interrupts a probe blocked in an interruptible call
+                            future.cancel(true);
+                        }
+                    }
+                }, timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@
 
 package com.microfocus.application.automation.tools.common.model;
 
+import com.microfocus.application.automation.tools.common.utils.HealthCheckPlan;
 import hudson.*;
 import hudson.model.Describable;
 import hudson.model.Descriptor;
@@ -45,6 +46,15 @@ public abstract class HealthAnalyzerModel implements ExtensionPoint, Describable
             @Nonnull Launcher launcher, @Nonnull TaskListener listener)
             throws InterruptedException, IOException;
 
+    /**
+     * Adds the checks of this product to a plan which is evaluated together with the other products in one call
+     * to the node
+     * @return false if the product has no such checks and has to be performed on its own
+     */
+    public boolean addChecks(@Nonnull HealthCheckPlan plan) {
+        return false;
+    }
+
     public abstract static class HealthAnalyzerModelDescriptor extends Descriptor<HealthAnalyzerModel> {
         protected HealthAnalyzerModelDescriptor() {
         }
@@ -22,6 +22,8 @@ package com.microfocus.application.automation.tools.common.run;
 
 import com.microfocus.application.automation.tools.common.Messages;
 import com.microfocus.application.automation.tools.common.model.HealthAnalyzerModel;
+import com.microfocus.application.automation.tools.common.utils.HealthAnalyzerCommon;
+import com.microfocus.application.automation.tools.common.utils.HealthCheckPlan;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
@@ -36,6 +38,7 @@ import org.kohsuke.stapler.DataBoundConstructor;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.microfocus.application.automation.tools.Messages.CompanyName;
@@ -54,7 +57,14 @@ public class HealthAnalyzerBuilder extends Builder implements SimpleBuildStep {
 
     @Override
     public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace, @Nonnull Launcher launcher, @Nonnull TaskListener listener) throws InterruptedException, IOException {
+        HealthCheckPlan plan = new HealthCheckPlan();
+        List<HealthAnalyzerModel> unplanned = new ArrayList<>();
         for (HealthAnalyzerModel product : products)
+            if (!product.addChecks(plan))
+                unplanned.add(product);
+
+        HealthAnalyzerCommon.performChecks(plan, workspace);
+        for (HealthAnalyzerModel product : unplanned)
             product.perform(run, workspace, launcher, listener);
     }
 
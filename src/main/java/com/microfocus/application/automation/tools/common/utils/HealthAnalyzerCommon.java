@@ -26,6 +26,9 @@ import com.microfocus.application.automation.tools.common.masterToSlave.Supplier
 import com.microfocus.application.automation.tools.common.model.VariableWrapper;
 import hudson.AbortException;
 import hudson.FilePath;
+import hudson.PluginWrapper;
+import hudson.model.Computer;
+import jenkins.model.Jenkins;
 
 import javax.annotation.Nonnull;
 import java.io.*;
@@ -44,6 +47,9 @@ import java.util.stream.Stream;
 public class HealthAnalyzerCommon implements Serializable {
     private static final String AN_EXCEPTION_WAS_THROWN = "An exception was thrown";
     private static final Logger logger = Logger.getLogger(HealthAnalyzerCommon.class.getName());
+    private static final HealthCheckCache CACHE = new HealthCheckCache(
+            TimeUnit.SECONDS.toMillis(Long.getLong("HealthAnalyzerCommon.CacheTtlSeconds", 600)),
+            System::currentTimeMillis);
     private final String productName;
 
     public HealthAnalyzerCommon(@Nonnull final String productName) {
@@ -51,17 +57,6 @@ public class HealthAnalyzerCommon implements Serializable {
         this.productName = productName;
     }
 
-    public void ifCheckedPerformWindowsInstallationCheck(@Nonnull final String registryPath, final boolean toCheck,
-                                                         FilePath workspace)
-            throws IOException, InterruptedException {
-        if (toCheck) {
-            Objects.requireNonNull(registryPath, Messages.HealthAnalyzerCommon_registryValueMustBeNotNull());
-
-            if (!isRegistryExistsOnSlave(registryPath, workspace))
-                throw new AbortException(Messages.HealthAnalyzerCommon_notInstalled(productName));
-        }
-    }
-
     public boolean isRegistryExistsOnSlave(@Nonnull final String registryPath, FilePath workspace) throws
             InterruptedException {
         FunctionFileCallable<String, Boolean> callable = new FunctionFileCallable<>(this::isRegistryExist,
@@ -79,7 +74,7 @@ public class HealthAnalyzerCommon implements Serializable {
     public boolean isRegistryExist(@Nonnull String registryPath)
             throws InterruptedException, AbortException {
         ExecutorService executor = Executors.newSingleThreadExecutor();
-        Callable<Boolean> task = () -> startRegistryQueryAndGetStatus(registryPath);
+        Callable<Boolean> task = () -> queryRegistry(registryPath);
         Future<Boolean> future = executor.submit(task);
         executor.shutdown();
         executor.awaitTermination(500, TimeUnit.MILLISECONDS);
@@ -95,13 +90,13 @@ public class HealthAnalyzerCommon implements Serializable {
         }
     }
 
-    private boolean startRegistryQueryAndGetStatus(@Nonnull final String registryPath) throws IOException {
+    static boolean queryRegistry(@Nonnull final String registryPath) throws IOException {
         ProcessBuilder builder = new ProcessBuilder("reg", "query", registryPath);
         Process reg = builder.start();
         return isProcessStreamHasRegistry(reg);
     }
 
-    private boolean isProcessStreamHasRegistry(@Nonnull final Process reg) throws IOException {
+    private static boolean isProcessStreamHasRegistry(@Nonnull final Process reg) throws IOException {
         try (BufferedReader output = new BufferedReader(
                 new InputStreamReader(reg.getInputStream()))) {
             Stream<String> keys = output.lines().filter(l -> !l.isEmpty());
@@ -109,18 +104,6 @@ public class HealthAnalyzerCommon implements Serializable {
         }
     }
 
-    private boolean isFileExistOnSlave(@Nonnull final String path, FilePath workspace) throws InterruptedException {
-        FunctionFileCallable<String, Boolean> callable = new FunctionFileCallable<>(this::isFileExist, path);
-
-        try {
-            return workspace.act(callable);
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, AN_EXCEPTION_WAS_THROWN, e);
-        }
-
-        return false;
-    }
-
     public boolean isFileExist(final String path) throws AbortException {
         if (path == null || path.isEmpty())
             return true;
@@ -135,28 +118,89 @@ public class HealthAnalyzerCommon implements Serializable {
         return false;
     }
 
-    public void ifCheckedPerformFilesExistenceCheck(final List<VariableWrapper> files, boolean toCheck, FilePath
-            workspace)
-            throws AbortException, InterruptedException {
-        if (!toCheck || files == null || files.isEmpty())
+    public void ifCheckedPlanWindowsInstallationCheck(@Nonnull final String registryPath, final boolean toCheck,
+                                                      @Nonnull final HealthCheckPlan plan) {
+        if (toCheck) {
+            Objects.requireNonNull(registryPath, Messages.HealthAnalyzerCommon_registryValueMustBeNotNull());
+            plan.add(HealthCheckPlan.Kind.REGISTRY_KEY, registryPath,
+                    Messages.HealthAnalyzerCommon_notInstalled(productName));
+        }
+    }
+
+    public void ifCheckedPlanFilesExistenceCheck(final List<VariableWrapper> files, boolean toCheck,
+                                                 @Nonnull final HealthCheckPlan plan) {
+        if (!toCheck || files == null)
             return;
 
         for (VariableWrapper file : files)
-            if (!isFileExistOnSlave(file.getField(), workspace))
-                throw new AbortException(Messages.HealthAnalyzerCommon_fileNotExist(file.getField()));
+            if (file.getField() != null && !file.getField().isEmpty())
+                plan.add(HealthCheckPlan.Kind.FILE, file.getField(),
+                        Messages.HealthAnalyzerCommon_fileNotExist(file.getField()));
+    }
 
+    public void ifCheckedPlanOsCheck(final OperatingSystem os, boolean toCheck, @Nonnull final HealthCheckPlan plan) {
+        if (toCheck)
+            plan.add(HealthCheckPlan.Kind.OPERATING_SYSTEM, os.name(),
+                    Messages.HealthAnalyzerCommon_operatingSystemIncorrect(os.toString().toLowerCase()));
     }
 
-    public void ifCheckedPerformOsCheck(final OperatingSystem os, boolean toCheck, FilePath workspace) throws
-            InterruptedException {
-        SupplierFileCallable<Boolean> supplier = new SupplierFileCallable<>(os::equalsCurrentOs);
+    /**
+     * Evaluates all the checks of the plan, which are not known to pass on this node, in one call to the node
+     * @throws AbortException describing the first failed check
+     */
+    public static void performChecks(@Nonnull final HealthCheckPlan plan, @Nonnull final FilePath workspace)
+            throws IOException, InterruptedException {
+        if (plan.isEmpty())
+            return;
 
-        try {
-            if (toCheck && !workspace.act(supplier))
-                throw new AbortException(Messages.HealthAnalyzerCommon_operatingSystemIncorrect(os.toString()
-                        .toLowerCase()));
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, AN_EXCEPTION_WAS_THROWN, e);
+        String node = getNodeKey(workspace);
+        String pluginVersion = getPluginVersion();
+        HealthCheckPlan pending = new HealthCheckPlan();
+        for (HealthCheckPlan.Check check : plan.getChecks())
+            if (!CACHE.isPassed(node, pluginVersion, check))
+                pending.add(check.getKind(), check.getTarget(), check.getFailureMessage());
+
+        logger.log(Level.FINE, "Health checks on {0}: {1} to evaluate, {2} passed recently",
+                new Object[] {node, pending.getChecks().size(), plan.getChecks().size() - pending.getChecks().size()});
+        if (pending.isEmpty())
+            return;
+
+        HealthCheckPlan.Status[] statuses = workspace.act(new SupplierFileCallable<>(pending::evaluate));
+        AbortException failure = null;
+        for (int i = 0; i < statuses.length; i++) {
+            HealthCheckPlan.Check check = pending.getChecks().get(i);
+            if (statuses[i] == HealthCheckPlan.Status.PASSED)
+                CACHE.passed(node, pluginVersion, check);
+            else if (failure == null)
+                failure = new AbortException(getFailureMessage(check, statuses[i]));
+        }
+
+        if (failure != null)
+            throw failure;
+    }
+
+    private static String getFailureMessage(final HealthCheckPlan.Check check, final HealthCheckPlan.Status status) {
+        switch (status) {
+            case IS_DIRECTORY:
+                return Messages.HealthAnalyzerCommon_isDirectory(check.getTarget());
+            case UNSUPPORTED:
+                return Messages.HealthAnalyzerCommon_registryWorksOnlyOnWindows();
+            default:
+                return check.getFailureMessage();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @return identity of the node connection, a reconnected agent may be a different machine; null if unknown
+     */
+    private static String getNodeKey(final FilePath workspace) {
+        Computer computer = workspace.toComputer();
+        return computer == null ? null : computer.getName() + "@" + computer.getConnectTime();
+    }
+
+    private static String getPluginVersion() {
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        PluginWrapper plugin = jenkins == null ? null : jenkins.getPluginManager().whichPlugin(HealthAnalyzerCommon.class);
+        return plugin == null ? "na" : plugin.getVersion();
+    }
+}
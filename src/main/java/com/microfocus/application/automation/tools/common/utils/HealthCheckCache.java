@@ -0,0 +1,83 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+
+package com.microfocus.application.automation.tools.common.utils;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers passed health checks per node and plugin version for a limited time, so that stable checks
+ * (installed products, operating system) are not repeated by every build on the same node
+ */
+public class HealthCheckCache {
+    private static final int PRUNE_THRESHOLD = 1000;
+    private final Map<String, Long> expirations = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    public HealthCheckCache(final long ttlMillis, final LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    public boolean isPassed(final String node, final String pluginVersion, final HealthCheckPlan.Check check) {
+        if (node == null || !check.isStable() || ttlMillis <= 0)
+            return false;
+
+        String key = key(node, pluginVersion, check);
+        Long expiration = expirations.get(key);
+        if (expiration == null)
+            return false;
+        if (expiration > clock.getAsLong())
+            return true;
+
+        expirations.remove(key, expiration);
+        return false;
+    }
+
+    public void passed(final String node, final String pluginVersion, final HealthCheckPlan.Check check) {
+        if (node == null || !check.isStable() || ttlMillis <= 0)
+            return;
+
+        long now = clock.getAsLong();
+        if (expirations.size() >= PRUNE_THRESHOLD)
+            prune(now);
+        expirations.put(key(node, pluginVersion, check), now + ttlMillis);
+    }
+
+    public int size() {
+        return expirations.size();
+    }
+
+    private void prune(final long now) {
+        Iterator<Long> it = expirations.values().iterator();
+        while (it.hasNext())
+            if (it.next() <= now)
+                it.remove();
+    }
+
+    private static String key(final String node, final String pluginVersion, final HealthCheckPlan.Check check) {
+        return node + "\n" + pluginVersion + "\n" + check.key();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+
+package com.microfocus.application.automation.tools.common.utils;
+
+import hudson.AbortException;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+
+/**
+ * Declarative list of health checks, serialized to the agent and evaluated there in a single call.
+ * Independent checks are evaluated concurrently; the outcome is a vector of statuses in the order of the checks.
+ */
+public class HealthCheckPlan implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int THREADS = Integer.getInteger("HealthCheckPlan.Threads", 4);
+    private static final long TIMEOUT_MILLIS = Long.getLong("HealthCheckPlan.TimeoutMillis", 5000);
+
+    public enum Kind {
+        REGISTRY_KEY,
+        FILE,
+        OPERATING_SYSTEM
+    }
+
+    public enum Status {
+        PASSED,
+        FAILED,
+        IS_DIRECTORY,
+        UNSUPPORTED
+    }
+
+    private final List<Check> checks = new ArrayList<>();
+
+    public HealthCheckPlan add(@Nonnull final Kind kind, @Nonnull final String target, final String failureMessage) {
+        checks.add(new Check(kind, target, failureMessage));
+        return this;
+    }
+
+    public List<Check> getChecks() {
+        return Collections.unmodifiableList(checks);
+    }
+
+    public boolean isEmpty() {
+        return checks.isEmpty();
+    }
+
+    /**
+     * Evaluates all the checks on the current machine. Checks which don't finish within the timeout are failed.
+     */
+    public Status[] evaluate() throws AbortException {
+        Status[] statuses = new Status[checks.size()];
+        if (checks.isEmpty())
+            return statuses;
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(THREADS, checks.size())),
+                new NamingThreadFactory(new DaemonThreadFactory(), "Health check"));
+        try {
+            List<Future<Status>> futures = new ArrayList<>(checks.size());
+            for (Check check : checks)
+                futures.add(executor.submit(check::evaluate));
+
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            for (int i = 0; i < futures.size(); i++)
+                statuses[i] = getStatus(futures.get(i), deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortException("Health check was interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return statuses;
+    }
+
+    private static Status getStatus(Future<Status> future, long deadline) throws InterruptedException {
+        try {
+            return future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            return Status.FAILED;
+        }
+    }
+
+    public static class Check implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final Kind kind;
+        private final String target;
+        // shown on the master only, no need to send it to the agent
+        private final transient String failureMessage;
+
+        Check(@Nonnull final Kind kind, @Nonnull final String target, final String failureMessage) {
+            this.kind = Objects.requireNonNull(kind);
+            this.target = Objects.requireNonNull(target);
+            this.failureMessage = failureMessage;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public String getFailureMessage() {
+            return failureMessage;
+        }
+
+        /**
+         * @return true if the outcome of the check doesn't change between builds (installed products, OS),
+         * unlike files which may be created by the build itself
+         */
+        public boolean isStable() {
+            return kind != Kind.FILE;
+        }
+
+        Status evaluate() throws IOException {
+            switch (kind) {
+                case REGISTRY_KEY:
+                    if (!System.getProperty("os.name").toLowerCase().contains("windows"))
+                        return Status.UNSUPPORTED;
+                    return HealthAnalyzerCommon.queryRegistry(target) ? Status.PASSED : Status.FAILED;
+                case FILE:
+                    File file = Paths.get(target).toFile();
+                    if (file.isDirectory())
+                        return Status.IS_DIRECTORY;
+                    return file.isFile() ? Status.PASSED : Status.FAILED;
+                case OPERATING_SYSTEM:
+                    return OperatingSystem.valueOf(target).equalsCurrentOs() ? Status.PASSED : Status.FAILED;
+                default:
+                    throw new IllegalStateException("Unknown health check " + kind);
+            }
+        }
+
+        String key() {
+            return kind + ":" + target;
+        }
+    }
+}
@@ -21,6 +21,7 @@
 package com.microfocus.application.automation.tools.lr.run;
 
 import com.microfocus.application.automation.tools.common.utils.HealthAnalyzerCommon;
+import com.microfocus.application.automation.tools.common.utils.HealthCheckPlan;
 import com.microfocus.application.automation.tools.common.utils.OperatingSystem;
 import com.microfocus.application.automation.tools.common.model.HealthAnalyzerModel;
 import com.microfocus.application.automation.tools.common.model.VariableWrapper;
@@ -77,9 +78,17 @@ public class HealthAnalyzerLrStep extends HealthAnalyzerModel {
     @Override
     public void perform(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace, @Nonnull Launcher launcher,
                         @Nonnull TaskListener listener) throws InterruptedException, IOException {
-        healthAnalyzerCommon.ifCheckedPerformWindowsInstallationCheck(LR_REGISTRY_PATH, checkLrInstallation, workspace);
-        healthAnalyzerCommon.ifCheckedPerformFilesExistenceCheck(getFilesList(), isFilesExist(), workspace);
-        healthAnalyzerCommon.ifCheckedPerformOsCheck(OperatingSystem.WINDOWS, checkOsVersion, workspace);
+        HealthCheckPlan plan = new HealthCheckPlan();
+        addChecks(plan);
+        HealthAnalyzerCommon.performChecks(plan, workspace);
+    }
+
+    @Override
+    public boolean addChecks(@Nonnull HealthCheckPlan plan) {
+        healthAnalyzerCommon.ifCheckedPlanWindowsInstallationCheck(LR_REGISTRY_PATH, checkLrInstallation, plan);
+        healthAnalyzerCommon.ifCheckedPlanFilesExistenceCheck(getFilesList(), isFilesExist(), plan);
+        healthAnalyzerCommon.ifCheckedPlanOsCheck(OperatingSystem.WINDOWS, checkOsVersion, plan);
+        return true;
     }
 
     @Extension
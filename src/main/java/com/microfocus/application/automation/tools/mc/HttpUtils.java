@@ -40,18 +40,37 @@ public class HttpUtils {
 
     }
 
+    /**
+     * Request payload of a known length, written straight to the connection
+     */
+    public interface RequestBody {
+
+        long getLength();
+
+        void writeTo(OutputStream out) throws IOException;
+    }
+
     public static HttpResponse post(ProxyInfo proxyInfo, String url, Map<String, String> headers, byte[] data) {
 
         HttpResponse response = null;
 
         try {
-            response = doHttp(proxyInfo, POST, url, null, headers, data);
+            response = doHttp(proxyInfo, POST, url, null, headers, data == null ? null : new BytesBody(data));
         } catch (Exception e) {
             e.printStackTrace();
         }
         return response;
     }
 
+    /**
+     * Posts the body in fixed length streaming mode, so it is never buffered in memory.
+     * Unlike {@link #post(ProxyInfo, String, Map, byte[])} failures to send the body are thrown to the caller.
+     */
+    public static HttpResponse upload(ProxyInfo proxyInfo, String url, Map<String, String> headers, RequestBody body) throws IOException {
+
+        return doHttp(proxyInfo, POST, url, null, headers, body, true);
+    }
+
     public static HttpResponse get(ProxyInfo proxyInfo, String url, Map<String, String> headers, String queryString) {
 
         HttpResponse response = null;
@@ -64,7 +83,12 @@ public class HttpUtils {
     }
 
 
-    private static HttpResponse doHttp(ProxyInfo proxyInfo, String requestMethod, String connectionUrl, String queryString, Map<String, String> headers, byte[] data) throws IOException {
+    private static HttpResponse doHttp(ProxyInfo proxyInfo, String requestMethod, String connectionUrl, String queryString, Map<String, String> headers, RequestBody body) throws IOException {
+
+        return doHttp(proxyInfo, requestMethod, connectionUrl, queryString, headers, body, false);
+    }
+
+    private static HttpResponse doHttp(ProxyInfo proxyInfo, String requestMethod, String connectionUrl, String queryString, Map<String, String> headers, RequestBody body, boolean streaming) throws IOException {
         HttpResponse response = new HttpResponse();
 
         if ((queryString != null) && !queryString.isEmpty()) {
@@ -80,15 +104,26 @@ public class HttpUtils {
 
         setConnectionHeaders(connection, headers);
 
-        if (data != null && data.length > 0) {
+        if (body != null && body.getLength() > 0) {
             connection.setDoOutput(true);
-            try {
+            if (streaming) {
+                connection.setFixedLengthStreamingMode(body.getLength());
                 OutputStream out = connection.getOutputStream();
-                out.write(data);
-                out.flush();
-                out.close();
-            } catch (Throwable cause) {
-                cause.printStackTrace();
+                try {
+                    body.writeTo(out);
+                    out.flush();
+                } finally {
+                    out.close();
+                }
+            } else {
+                try {
+                    OutputStream out = connection.getOutputStream();
+                    body.writeTo(out);
+                    out.flush();
+                    out.close();
+                } catch (Throwable cause) {
+                    cause.printStackTrace();
+                }
             }
         }
 
@@ -218,6 +253,25 @@ public class HttpUtils {
         return proxyInfo;
     }
 
+    private static class BytesBody implements RequestBody {
+
+        private final byte[] data;
+
+        BytesBody(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public long getLength() {
+            return data.length;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(data);
+        }
+    }
+
     static class ProxyInfo {
         String _host;
         String _port;
@@ -27,9 +27,12 @@ import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
 import net.minidev.json.JSONValue;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -40,6 +43,8 @@ import java.util.Map;
  */
 public class JobConfigurationProxy {
 
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+
     private static JobConfigurationProxy instance = null;
 
     private JobConfigurationProxy() {
@@ -115,38 +120,23 @@ public class JobConfigurationProxy {
     public JSONObject upload(String mcUrl, String mcUserName, String mcPassword, String mcTenantId,
                              String proxyAddress, String proxyUsername, String proxyPassword, String appPath) throws Exception {
 
-        JSONObject json = null;
-        String hp4mSecret = null;
-        String jsessionId = null;
-
-        File appFile = new File(appPath);
-
-        String uploadUrl = mcUrl + Constants.APP_UPLOAD;
+        JSONObject loginJson = loginToMC(mcUrl, mcUserName, mcPassword, mcTenantId, proxyAddress, proxyUsername, proxyPassword);
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        return upload(mcUrl, loginJson, proxyAddress, proxyUsername, proxyPassword, new File(appPath));
+    }
 
-        StringBuffer content = new StringBuffer();
-        content.append("\r\n").append("------").append(Constants.BOUNDARYSTR).append("\r\n");
-        content.append("Content-Disposition: form-data; name=\"file\"; filename=\"" + appFile.getName() + "\"\r\n");
-        content.append("Content-Type: application/octet-stream\r\n\r\n");
+    //upload app to MC within an existing session, the app is streamed from the disk
+    public JSONObject upload(String mcUrl, JSONObject loginJson, String proxyAddress, String proxyUsername, String proxyPassword, File appFile) throws IOException {
 
-        outputStream.write(content.toString().getBytes());
+        JSONObject json = null;
+        String hp4mSecret = null;
+        String jsessionId = null;
 
-        FileInputStream in = new FileInputStream(appFile);
-        byte[] b = new byte[1024];
-        int i = 0;
-        while ((i = in.read(b)) != -1) {
-            outputStream.write(b, 0, i);
+        if (!appFile.isFile()) {
+            throw new FileNotFoundException(appFile.getPath());
         }
-        in.close();
-
-        outputStream.write(("\r\n------" + Constants.BOUNDARYSTR + "--\r\n").getBytes());
-
-        byte[] bytes = outputStream.toByteArray();
 
-        outputStream.close();
-
-        JSONObject loginJson = loginToMC(mcUrl, mcUserName, mcPassword, mcTenantId, proxyAddress, proxyUsername, proxyPassword);
+        String uploadUrl = mcUrl + Constants.APP_UPLOAD;
 
         if (loginJson != null) {
             hp4mSecret = (String) loginJson.get(Constants.LOGIN_SECRET);
@@ -159,7 +149,7 @@ public class JobConfigurationProxy {
         headers.put(Constants.FILENAME, appFile.getName());
 
         HttpUtils.ProxyInfo proxyInfo = HttpUtils.setProxyCfg(proxyAddress, proxyUsername, proxyPassword);
-        HttpResponse response = HttpUtils.post(proxyInfo, uploadUrl, headers, bytes);
+        HttpResponse response = HttpUtils.upload(proxyInfo, uploadUrl, headers, new MultipartFileBody(appFile));
 
         if (response != null && response.getJsonObject() != null) {
             json = response.getJsonObject();
@@ -448,4 +438,45 @@ public class JobConfigurationProxy {
         }
         return jobJSON;
     }
+
+    /**
+     * multipart/form-data body with a single file part, the file content is copied from the disk to the connection
+     */
+    private static class MultipartFileBody implements HttpUtils.RequestBody {
+
+        private final File file;
+        private final byte[] preamble;
+        private final byte[] epilogue;
+
+        MultipartFileBody(File file) {
+            this.file = file;
+            StringBuilder content = new StringBuilder();
+            content.append("\r\n").append("------").append(Constants.BOUNDARYSTR).append("\r\n");
+            content.append("Content-Disposition: form-data; name=\"file\"; filename=\"" + file.getName() + "\"\r\n");
+            content.append("Content-Type: application/octet-stream\r\n\r\n");
+            preamble = content.toString().getBytes();
+            epilogue = ("\r\n------" + Constants.BOUNDARYSTR + "--\r\n").getBytes();
+        }
+
+        @Override
+        public long getLength() {
+            return preamble.length + file.length() + epilogue.length;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(preamble);
+            InputStream in = new FileInputStream(file);
+            try {
+                byte[] b = new byte[UPLOAD_BUFFER_SIZE];
+                int i;
+                while ((i = in.read(b)) != -1) {
+                    out.write(b, 0, i);
+                }
+            } finally {
+                in.close();
+            }
+            out.write(epilogue);
+        }
+    }
 }
@@ -0,0 +1,65 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.mc;
+
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+import net.minidev.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Uploads an app to MC from the node holding it, so the app is streamed from the node disk and never passes
+ * through the controller. The MC session is opened once per build and handed over to every upload.
+ * Returns the MC response as JSON string, null if MC didn't respond.
+ */
+public class UploadAppCallable extends MasterToSlaveFileCallable<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String mcUrl;
+    private final String hp4mSecret;
+    private final String jsessionId;
+    private final String proxyAddress;
+    private final String proxyUsername;
+    private final String proxyPassword;
+
+    public UploadAppCallable(String mcUrl, JSONObject loginJson, String proxyAddress, String proxyUsername, String proxyPassword) {
+        this.mcUrl = mcUrl;
+        this.hp4mSecret = (String) loginJson.get(Constants.LOGIN_SECRET);
+        this.jsessionId = (String) loginJson.get(Constants.JSESSIONID);
+        this.proxyAddress = proxyAddress;
+        this.proxyUsername = proxyUsername;
+        this.proxyPassword = proxyPassword;
+    }
+
+    @Override
+    public String invoke(File appFile, VirtualChannel channel) throws IOException, InterruptedException {
+        JSONObject loginJson = new JSONObject();
+        loginJson.put(Constants.LOGIN_SECRET, hp4mSecret);
+        loginJson.put(Constants.JSESSIONID, jsessionId);
+        JSONObject app = JobConfigurationProxy.getInstance().upload(mcUrl, loginJson, proxyAddress, proxyUsername, proxyPassword, appFile);
+        return app == null ? null : app.toJSONString();
+    }
+}
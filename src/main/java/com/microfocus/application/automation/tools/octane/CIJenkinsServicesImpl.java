@@ -44,19 +44,20 @@ import com.hp.octane.integrations.dto.snapshots.SnapshotNode;
 import com.hp.octane.integrations.exceptions.ConfigurationException;
 import com.hp.octane.integrations.exceptions.PermissionException;
 import com.microfocus.application.automation.tools.model.OctaneServerSettingsModel;
+import com.microfocus.application.automation.tools.octane.buildLogs.PlainTextLogInputStream;
 import com.microfocus.application.automation.tools.octane.configuration.ConfigurationService;
 import com.microfocus.application.automation.tools.octane.configuration.SSCServerConfigUtil;
 import com.microfocus.application.automation.tools.octane.executor.ExecutorConnectivityService;
 import com.microfocus.application.automation.tools.octane.executor.TestExecutionJobCreatorService;
 import com.microfocus.application.automation.tools.octane.executor.UftConstants;
 import com.microfocus.application.automation.tools.octane.executor.UftJobCleaner;
+import com.microfocus.application.automation.tools.octane.model.JobsListIndex;
 import com.microfocus.application.automation.tools.octane.model.ModelFactory;
 import com.microfocus.application.automation.tools.octane.model.processors.parameters.ParameterProcessors;
 import com.microfocus.application.automation.tools.octane.model.processors.projects.AbstractProjectProcessor;
 import com.microfocus.application.automation.tools.octane.model.processors.projects.JobProcessorFactory;
 import com.microfocus.application.automation.tools.octane.tests.TestListener;
 import hudson.ProxyConfiguration;
-import hudson.console.PlainTextConsoleOutputStream;
 import hudson.model.*;
 import hudson.security.ACL;
 import jenkins.branch.OrganizationFolder;
@@ -66,7 +67,6 @@ import org.acegisecurity.context.SecurityContext;
 import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.fileupload.FileItemFactory;
 import org.apache.commons.fileupload.disk.DiskFileItemFactory;
-import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -137,10 +137,19 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
 
 	@Override
 	public CIJobsList getJobsList(boolean includeParameters) {
+		return getJobsList(includeParameters, null, 0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Jobs list served from {@link JobsListIndex}, filtered by the permissions of the impersonated user
+	 *
+	 * @param nameFilter case insensitive part of the job name, null for all jobs
+	 * @param offset     number of jobs to skip
+	 * @param limit      maximal number of jobs to return
+	 */
+	public CIJobsList getJobsList(boolean includeParameters, String nameFilter, int offset, int limit) {
 		SecurityContext securityContext = startImpersonation();
 		CIJobsList result = dtoFactory.newDTO(CIJobsList.class);
-		PipelineNode tmpConfig;
-		TopLevelItem tmpItem;
 		List<PipelineNode> list = new ArrayList<>();
 		try {
 			boolean hasReadPermission = Jenkins.getInstance().hasPermission(Item.READ);
@@ -148,46 +157,19 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
 				stopImpersonation(securityContext);
 				throw new PermissionException(403);
 			}
-			List<String> itemNames = (List<String>) Jenkins.getInstance().getTopLevelItemNames();
-			for (String name : itemNames) {
-				tmpItem = Jenkins.getInstance().getItem(name);
-
-				if (tmpItem == null) {
-					continue;
-				}
-
-				String jobClassName = tmpItem.getClass().getName();
+			for (JobsListIndex.VisibleEntry visibleEntry : JobsListIndex.getInstance().getVisibleEntries(nameFilter, offset, limit)) {
+				JobsListIndex.Entry entry = visibleEntry.getEntry();
 				try {
-					if (tmpItem instanceof AbstractProject) {
-						AbstractProject abstractProject = (AbstractProject) tmpItem;
-						if (abstractProject.isDisabled()) {
-							continue;
-						}
-						tmpConfig = createPipelineNode(name, abstractProject, includeParameters);
-						list.add(tmpConfig);
-					} else if (jobClassName.equals(JobProcessorFactory.WORKFLOW_JOB_NAME)) {
-						tmpConfig = createPipelineNode(name, (Job) tmpItem, includeParameters);
-						list.add(tmpConfig);
-					} else if (jobClassName.equals(JobProcessorFactory.FOLDER_JOB_NAME)) {
-						for (Job tmpJob : tmpItem.getAllJobs()) {
-							tmpConfig = createPipelineNode(tmpJob.getName(), tmpJob, includeParameters);
-							list.add(tmpConfig);
-						}
-					} else if (jobClassName.equals(JobProcessorFactory.WORKFLOW_MULTI_BRANCH_JOB_NAME)) {
-						tmpConfig = createPipelineNodeFromJobName(name);
-						list.add(tmpConfig);
-					} else if (jobClassName.equals(JobProcessorFactory.GITHUB_ORGANIZATION_FOLDER)) {
-						for (Item item : ((OrganizationFolder) tmpItem).getItems()) {
-							tmpConfig = createPipelineNodeFromJobNameAndFolder(item.getDisplayName(), name);
-							list.add(tmpConfig);
-						}
-					} else {
-						logger.info(String.format("getJobsList : Item '%s' of type '%s' is not supported", name, jobClassName));
+					PipelineNode tmpConfig = dtoFactory.newDTO(PipelineNode.class)
+							.setJobCiId(entry.getJobCiId())
+							.setName(entry.getName());
+					if (includeParameters && visibleEntry.getJob() != null) {
+						tmpConfig.setParameters(ParameterProcessors.getConfigs(visibleEntry.getJob()));
 					}
+					list.add(tmpConfig);
 				} catch (Throwable e) {
-					logger.error("getJobsList : Failed to add job '" + name + "' to JobList  : " + e.getClass().getCanonicalName() + " - " + e.getMessage(), e);
+					logger.error("getJobsList : Failed to add job '" + entry.getFullName() + "' to JobList  : " + e.getClass().getCanonicalName() + " - " + e.getMessage(), e);
 				}
-
 			}
 			result.setJobs(list.toArray(new PipelineNode[0]));
 		} catch (AccessDeniedException e) {
@@ -491,46 +473,23 @@ public class CIJenkinsServicesImpl extends CIPluginServices {
 		}
 	}
 
-	private PipelineNode createPipelineNode(String name, Job job, boolean includeParameters) {
-		PipelineNode tmpConfig = dtoFactory.newDTO(PipelineNode.class)
-				.setJobCiId(JobProcessorFactory.getFlowProcessor(job).getTranslateJobName())
-				.setName(name);
-		if (includeParameters) {
-			tmpConfig.setParameters(ParameterProcessors.getConfigs(job));
-		}
-		return tmpConfig;
-	}
-
 	private PipelineNode createPipelineNodeFromJobName(String name) {
 		return dtoFactory.newDTO(PipelineNode.class)
 				.setJobCiId(name)
 				.setName(name);
 	}
 
-	private PipelineNode createPipelineNodeFromJobNameAndFolder(String name, String folderName) {
-		return dtoFactory.newDTO(PipelineNode.class)
-				.setJobCiId(folderName + "/" + name)
-				.setName(folderName + "/" + name);
-	}
-
 	private InputStream getOctaneLogFile(Run run) {
 		InputStream result = null;
-		String octaneLogFilePath = run.getLogFile().getParent() + File.separator + "octane_log";
-		File logFile = new File(octaneLogFilePath);
-		if (!logFile.exists()) {
-			try (FileOutputStream fileOutputStream = new FileOutputStream(logFile);
-			     InputStream logStream = run.getLogInputStream();
-			     PlainTextConsoleOutputStream out = new PlainTextConsoleOutputStream(fileOutputStream)) {
-				IOUtils.copy(logStream, out);
-				out.flush();
-			} catch (IOException ioe) {
-				logger.error("failed to transfer native log to Octane's one for " + run);
-			}
+		// the plain text copy used to be written next to the log by previous versions
+		File legacyLogFile = new File(run.getRootDir(), "octane_log");
+		if (legacyLogFile.exists() && !legacyLogFile.delete()) {
+			logger.warn("failed to delete " + legacyLogFile);
 		}
 		try {
-			result = new FileInputStream(octaneLogFilePath);
+			result = PlainTextLogInputStream.open(run);
 		} catch (IOException ioe) {
-			logger.error("failed to obtain log for " + run);
+			logger.error("failed to obtain log for " + run, ioe);
 		}
 		return result;
 	}
@@ -0,0 +1,555 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import net.sf.json.JSONObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Durable ResultQueue supporting several concurrent consumers.
+ * <p>
+ * Items are kept in memory and journaled in an append-only file of checksummed binary records (add / retry / dead / done),
+ * which is replayed on start and compacted once it is mostly made of completed items.
+ * Every record is flushed to the operating system, so it survives a crash of Jenkins; with DurableResultQueue.Sync
+ * it is also synced to the disk, to survive a crash of the machine.
+ * <p>
+ * Consumers take ready items with {@link #take()} and report the outcome with {@link #complete} or {@link #retry}.
+ * A failed item is retried after an exponential backoff, so it doesn't block the items behind it;
+ * once out of retries it is moved to the dead-letter segment.
+ * Items of the same project are handed out one at a time, in the order they were added.
+ * The single consumer methods of ResultQueue (peekFirst / remove / failed) are implemented on top of take / complete / retry.
+ */
+public class DurableResultQueue implements ResultQueue {
+	private static final Logger logger = LogManager.getLogger(DurableResultQueue.class);
+
+	private static final byte RECORD_ADD = 1;
+	private static final byte RECORD_RETRY = 2;
+	private static final byte RECORD_DEAD = 3;
+	private static final byte RECORD_DONE = 4;
+	private static final int MIN_RECORDS_TO_COMPACT = 1000;
+	private static final long THROUGHPUT_WINDOW_MS = 60000;
+	//  records are flushed to the OS on every write, forcing them to the disk as well is opt-in as it costs an fsync per record
+	private static final boolean SYNC = Boolean.getBoolean("DurableResultQueue.Sync");
+
+	private static final Comparator<Entry> BY_NEXT_ATTEMPT = (e1, e2) -> {
+		int result = Long.compare(e1.nextAttemptAt, e2.nextAttemptAt);
+		return result != 0 ? result : Long.compare(e1.id, e2.id);
+	};
+
+	private final int maxRetries;
+	private final long backoffBaseMs;
+	private final long backoffMaxMs;
+
+	private final TreeMap<Long, Entry> entries = new TreeMap<>();
+	//  pending items which are not taken by a consumer, by the time of their next attempt
+	private final TreeSet<Entry> waiting = new TreeSet<>(BY_NEXT_ATTEMPT);
+	//  pending items by project, only the first one of each project may be taken
+	private final Map<String, TreeMap<Long, Entry>> pendingByProject = new HashMap<>();
+	private final Map<QueueItem, Entry> taken = new IdentityHashMap<>();
+	private final ArrayDeque<Long> completionTimes = new ArrayDeque<>();
+
+	private File file;
+	private OutputStream out;
+	private int journalRecords;
+	private long nextId = 1;
+	private long addedCount;
+	private long completedCount;
+	private long retriedCount;
+	private long deadLetteredCount;
+	private QueueItem currentItem;
+
+	/**
+	 * @param maxRetries    number of retries of a failed item before it is moved to the dead-letter segment
+	 * @param backoffBaseMs delay before the first retry, doubled on each following retry
+	 * @param backoffMaxMs  maximal delay between retries
+	 */
+	public DurableResultQueue(int maxRetries, long backoffBaseMs, long backoffMaxMs) {
+		this.maxRetries = maxRetries;
+		this.backoffBaseMs = backoffBaseMs;
+		this.backoffMaxMs = backoffMaxMs;
+	}
+
+	protected synchronized void init(File queueFile) throws IOException {
+		this.file = queueFile;
+		if (file.exists()) {
+			replay();
+		}
+		compact();
+	}
+
+	/**
+	 * Moves the items of a queue file written by {@link AbstractResultQueueImpl} to this queue, and deletes it
+	 */
+	protected void migrate(File legacyQueueFile) throws IOException {
+		if (!legacyQueueFile.exists()) {
+			return;
+		}
+		AbstractResultQueueImpl legacyQueue = new AbstractResultQueueImpl() {
+		};
+		legacyQueue.init(legacyQueueFile);
+		int migrated = 0;
+		QueueItem item;
+		while ((item = legacyQueue.peekFirst()) != null) {
+			addItem(item);
+			legacyQueue.remove();
+			migrated++;
+		}
+		legacyQueue.close();
+		Files.delete(legacyQueueFile.toPath());
+		logger.info("migrated " + migrated + " items of " + legacyQueueFile + " to " + file);
+	}
+
+	/**
+	 * Takes the next item ready to be processed
+	 *
+	 * @return the item, to be reported back with complete or retry; null if there is no item ready
+	 */
+	public synchronized QueueItem take() {
+		long now = now();
+		for (Entry entry : waiting) {
+			if (entry.nextAttemptAt > now) {
+				break;
+			}
+			if (pendingByProject.get(entry.item.projectName).firstKey() == entry.id) {
+				waiting.remove(entry);
+				taken.put(entry.item, entry);
+				return entry.item;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the taken item, once successfully processed
+	 */
+	public synchronized void complete(QueueItem item) {
+		Entry entry = release(item);
+		removePending(entry);
+		entries.remove(entry.id);
+		append(RECORD_DONE, entry);
+		completedCount++;
+		long now = now();
+		completionTimes.addLast(now);
+		trimCompletionTimes(now);
+	}
+
+	/**
+	 * Returns the taken item to the queue, to be retried after a backoff delay
+	 *
+	 * @return true if the item will be retried, false if it is out of retries and was moved to the dead-letter segment
+	 */
+	public synchronized boolean retry(QueueItem item) {
+		Entry entry = release(item);
+		if (++entry.item.failCount <= maxRetries) {
+			entry.nextAttemptAt = now() + getBackoff(entry.item.failCount);
+			waiting.add(entry);
+			append(RECORD_RETRY, entry);
+			retriedCount++;
+			return true;
+		} else {
+			entry.dead = true;
+			removePending(entry);
+			append(RECORD_DEAD, entry);
+			deadLetteredCount++;
+			return false;
+		}
+	}
+
+	/**
+	 * @return number of pending items, including items in backoff and items taken by consumers, excluding dead letters
+	 */
+	public synchronized int size() {
+		return waiting.size() + taken.size();
+	}
+
+	public synchronized List<QueueItem> getDeadLetters() {
+		List<QueueItem> result = new ArrayList<>();
+		for (Entry entry : entries.values()) {
+			if (entry.dead) {
+				result.add(entry.item);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the dead letters to the queue with a fresh retries count
+	 */
+	public synchronized int requeueDeadLetters() {
+		int requeued = 0;
+		for (Entry entry : entries.values()) {
+			if (entry.dead) {
+				entry.dead = false;
+				entry.item.failCount = 0;
+				entry.nextAttemptAt = now();
+				addPending(entry);
+				append(RECORD_RETRY, entry);
+				requeued++;
+			}
+		}
+		return requeued;
+	}
+
+	public synchronized JSONObject getStatus() {
+		long now = now();
+		int ready = 0;
+		for (Entry entry : waiting) {
+			if (entry.nextAttemptAt > now) {
+				break;
+			}
+			ready++;
+		}
+		long oldestEnqueuedAt = now;
+		for (Entry entry : entries.values()) {
+			if (!entry.dead) {
+				oldestEnqueuedAt = entry.enqueuedAt;
+				break;
+			}
+		}
+		trimCompletionTimes(now);
+
+		JSONObject status = new JSONObject();
+		status.put("depth", size());
+		status.put("ready", ready);
+		status.put("inBackoff", waiting.size() - ready);
+		status.put("inProgress", taken.size());
+		status.put("deadLetters", entries.size() - size());
+		status.put("oldestItemAgeMs", now - oldestEnqueuedAt);
+		status.put("added", addedCount);
+		status.put("completed", completedCount);
+		status.put("retried", retriedCount);
+		status.put("deadLettered", deadLetteredCount);
+		status.put("completedLastMinute", completionTimes.size());
+		return status;
+	}
+
+	@Override
+	public synchronized QueueItem peekFirst() {
+		if (currentItem == null) {
+			currentItem = take();
+		}
+		return currentItem;
+	}
+
+	@Override
+	public synchronized boolean failed() {
+		if (currentItem == null) {
+			throw new IllegalStateException("no outstanding item");
+		}
+		boolean retry = retry(currentItem);
+		currentItem = null;
+		return retry;
+	}
+
+	@Override
+	public synchronized void remove() {
+		if (currentItem == null) {
+			throw new IllegalStateException("no outstanding item");
+		}
+		complete(currentItem);
+		currentItem = null;
+	}
+
+	@Override
+	public void add(String projectName, int buildNumber) {
+		addItem(new QueueItem(projectName, buildNumber));
+	}
+
+	@Override
+	public void add(String projectName, String type, int buildNumber) {
+		addItem(new QueueItem(projectName, type, buildNumber));
+	}
+
+	@Override
+	public void add(String projectName, int buildNumber, String workspace) {
+		addItem(new QueueItem(projectName, buildNumber, workspace));
+	}
+
+	@Override
+	public void add(String instanceId, String projectName, int buildNumber, String workspace) {
+		QueueItem item = new QueueItem(projectName, buildNumber, workspace);
+		item.setInstanceId(instanceId);
+		addItem(item);
+	}
+
+	@Override
+	public synchronized void clear() {
+		entries.clear();
+		waiting.clear();
+		pendingByProject.clear();
+		taken.clear();
+		currentItem = null;
+		try {
+			compact();
+		} catch (IOException ioe) {
+			throw new IllegalStateException("failed to clear queue journal " + file, ioe);
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		if (out != null) {
+			try {
+				out.close();
+			} catch (IOException ioe) {
+				logger.warn("failed to close queue journal " + file, ioe);
+			}
+			out = null;
+		}
+	}
+
+	protected long now() {
+		return System.currentTimeMillis();
+	}
+
+	private synchronized void addItem(QueueItem item) {
+		long now = now();
+		Entry entry = new Entry(nextId++, item, now);
+		entry.nextAttemptAt = now;
+		entries.put(entry.id, entry);
+		addPending(entry);
+		append(RECORD_ADD, entry);
+		addedCount++;
+	}
+
+	private Entry release(QueueItem item) {
+		Entry entry = taken.remove(item);
+		if (entry == null) {
+			throw new IllegalStateException("item " + item.projectName + "#" + item.buildNumber + " is not taken from the queue");
+		}
+		return entry;
+	}
+
+	private void addPending(Entry entry) {
+		waiting.add(entry);
+		pendingByProject.computeIfAbsent(entry.item.projectName, k -> new TreeMap<>()).put(entry.id, entry);
+	}
+
+	private void removePending(Entry entry) {
+		TreeMap<Long, Entry> projectEntries = pendingByProject.get(entry.item.projectName);
+		projectEntries.remove(entry.id);
+		if (projectEntries.isEmpty()) {
+			pendingByProject.remove(entry.item.projectName);
+		}
+	}
+
+	private long getBackoff(int failCount) {
+		long backoff = backoffBaseMs << Math.min(failCount - 1, 30);
+		return backoff < 0 || backoff > backoffMaxMs ? backoffMaxMs : backoff;
+	}
+
+	private void trimCompletionTimes(long now) {
+		while (!completionTimes.isEmpty() && completionTimes.peekFirst() <= now - THROUGHPUT_WINDOW_MS) {
+			completionTimes.removeFirst();
+		}
+	}
+
+	private void append(byte recordType, Entry entry) {
+		if (out == null) {
+			throw new IllegalStateException("queue " + file + " is closed");
+		}
+		try {
+			out.write(encode(recordType, entry));
+			out.flush();
+			if (SYNC && out instanceof FileOutputStream) {
+				((FileOutputStream) out).getFD().sync();
+			}
+			journalRecords++;
+			if (journalRecords > MIN_RECORDS_TO_COMPACT && journalRecords > 4 * entries.size()) {
+				compact();
+			}
+		} catch (IOException ioe) {
+			throw new IllegalStateException("failed to write queue journal " + file, ioe);
+		}
+	}
+
+	/**
+	 * Rewrites the journal with the current items only
+	 */
+	private void compact() throws IOException {
+		close();
+		File compacted = new File(file.getPath() + ".tmp");
+		try (FileOutputStream compactedOut = new FileOutputStream(compacted)) {
+			OutputStream bufferedOut = new BufferedOutputStream(compactedOut);
+			for (Entry entry : entries.values()) {
+				bufferedOut.write(encode(RECORD_ADD, entry));
+			}
+			bufferedOut.flush();
+			compactedOut.getFD().sync();
+		}
+		Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		journalRecords = entries.size();
+		out = new FileOutputStream(file, true);
+	}
+
+	private void replay() throws IOException {
+		int records = 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			while (true) {
+				int length;
+				try {
+					length = in.readInt();
+				} catch (EOFException eof) {
+					break;
+				}
+				byte[] payload;
+				long checksum;
+				try {
+					checksum = in.readInt() & 0xFFFFFFFFL;
+					if (length <= 0 || length > file.length()) {
+						throw new IOException("invalid record length " + length);
+					}
+					payload = new byte[length];
+					in.readFully(payload);
+				} catch (IOException ioe) {
+					logger.warn("queue journal " + file + " ends with a partial record, ignoring it");
+					break;
+				}
+				if (checksum != crc(payload)) {
+					logger.warn("queue journal " + file + " has a corrupted record after " + records + " records, ignoring the rest of it");
+					break;
+				}
+				apply(new DataInputStream(new ByteArrayInputStream(payload)));
+				records++;
+			}
+		}
+		for (Entry entry : entries.values()) {
+			if (!entry.dead) {
+				addPending(entry);
+			}
+		}
+		logger.info("replayed " + records + " records of " + file + ", " + size() + " items pending, " + (entries.size() - size()) + " dead letters");
+	}
+
+	private void apply(DataInputStream record) throws IOException {
+		byte recordType = record.readByte();
+		long id = record.readLong();
+		nextId = Math.max(nextId, id + 1);
+		if (recordType == RECORD_ADD) {
+			long enqueuedAt = record.readLong();
+			long nextAttemptAt = record.readLong();
+			int buildNumber = record.readInt();
+			int failCount = record.readInt();
+			boolean dead = record.readBoolean();
+			QueueItem item = new QueueItem(readString(record), buildNumber, failCount, readString(record));
+			item.setType(readString(record));
+			item.setInstanceId(readString(record));
+			Entry entry = new Entry(id, item, enqueuedAt);
+			entry.nextAttemptAt = nextAttemptAt;
+			entry.dead = dead;
+			entries.put(id, entry);
+			return;
+		}
+
+		Entry entry = entries.get(id);
+		if (entry == null) {
+			return;
+		}
+		if (recordType == RECORD_RETRY) {
+			entry.item.failCount = record.readInt();
+			entry.nextAttemptAt = record.readLong();
+			entry.dead = false;
+		} else if (recordType == RECORD_DEAD) {
+			entry.item.failCount = record.readInt();
+			entry.dead = true;
+		} else if (recordType == RECORD_DONE) {
+			entries.remove(id);
+		} else {
+			throw new IOException("unknown record type " + recordType);
+		}
+	}
+
+	/**
+	 * record frame: payload length, payload CRC32, payload (record type, item id, record fields)
+	 */
+	private static byte[] encode(byte recordType, Entry entry) throws IOException {
+		ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64);
+		DataOutputStream payload = new DataOutputStream(payloadBytes);
+		payload.writeByte(recordType);
+		payload.writeLong(entry.id);
+		if (recordType == RECORD_ADD) {
+			payload.writeLong(entry.enqueuedAt);
+			payload.writeLong(entry.nextAttemptAt);
+			payload.writeInt(entry.item.buildNumber);
+			payload.writeInt(entry.item.failCount);
+			payload.writeBoolean(entry.dead);
+			writeString(payload, entry.item.projectName);
+			writeString(payload, entry.item.workspace);
+			writeString(payload, entry.item.type);
+			writeString(payload, entry.item.instanceId);
+		} else if (recordType == RECORD_RETRY) {
+			payload.writeInt(entry.item.failCount);
+			payload.writeLong(entry.nextAttemptAt);
+		} else if (recordType == RECORD_DEAD) {
+			payload.writeInt(entry.item.failCount);
+		}
+		payload.flush();
+		byte[] bytes = payloadBytes.toByteArray();
+
+		ByteArrayOutputStream frameBytes = new ByteArrayOutputStream(bytes.length + 8);
+		DataOutputStream frame = new DataOutputStream(frameBytes);
+		frame.writeInt(bytes.length);
+		frame.writeInt((int) crc(bytes));
+		frame.write(bytes);
+		frame.flush();
+		return frameBytes.toByteArray();
+	}
+
+	private static long crc(byte[] bytes) {
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length);
+		return crc.getValue();
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static final class Entry {
+		private final long id;
+		private final QueueItem item;
+		private final long enqueuedAt;
+		private long nextAttemptAt;
+		private boolean dead;
+
+		private Entry(long id, QueueItem item, long enqueuedAt) {
+			this.id = id;
+			this.item = item;
+			this.enqueuedAt = enqueuedAt;
+		}
+	}
+}
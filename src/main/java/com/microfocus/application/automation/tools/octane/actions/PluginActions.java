@@ -34,8 +34,12 @@ import com.microfocus.application.automation.tools.model.OctaneServerSettingsMod
 import com.microfocus.application.automation.tools.octane.CIJenkinsServicesImpl;
 import com.microfocus.application.automation.tools.octane.configuration.ConfigApi;
 import com.microfocus.application.automation.tools.octane.configuration.ConfigurationService;
+import com.microfocus.application.automation.tools.octane.configuration.OctaneLookupCache;
+import com.microfocus.application.automation.tools.octane.executor.UftTestDiscoveryDispatcher;
+import com.microfocus.application.automation.tools.octane.tests.TestResultsProcessor;
 import hudson.Extension;
 import hudson.model.RootAction;
+import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
 import org.apache.http.entity.ContentType;
 import org.kohsuke.stapler.StaplerRequest;
@@ -57,6 +61,7 @@ import java.util.UUID;
 @Extension
 public class PluginActions implements RootAction {
 	private String STATUS_REQUEST = "/nga/api/v1/status";
+	private String METRICS_REQUEST = "/nga/api/v1/metrics";
 
 	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
 
@@ -84,6 +89,12 @@ public class PluginActions implements RootAction {
 			res.setStatus(200);
 			res.getWriter().write(result.toString());
 			return;
+		} else if (req.getRequestURI().toLowerCase().contains(METRICS_REQUEST)) {
+			JSONObject result = getMetricsResult();
+			res.setHeader("Content-Type", ContentType.APPLICATION_JSON.getMimeType());
+			res.setStatus(200);
+			res.getWriter().write(result.toString());
+			return;
 		} else {
 			res.setStatus(404);
 			res.getWriter().write("");
@@ -122,6 +133,14 @@ public class PluginActions implements RootAction {
 		return result;
 	}
 
+	private JSONObject getMetricsResult() {
+		JSONObject result = new JSONObject();
+		result.put("testResultsProcessing", Jenkins.getInstance().getExtensionList(TestResultsProcessor.class).get(0).getStatus());
+		result.put("uftTestDiscoveryQueue", Jenkins.getInstance().getExtensionList(UftTestDiscoveryDispatcher.class).get(0).getQueueStatus());
+		result.put("octaneLookupCache", OctaneLookupCache.getInstance().getStatus());
+		return result;
+	}
+
 	private static String getBody(BufferedReader reader) throws IOException {
 		StringBuilder buffer = new StringBuilder();
 		String line;
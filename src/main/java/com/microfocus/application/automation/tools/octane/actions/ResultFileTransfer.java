@@ -0,0 +1,183 @@
+/*
+ *     Copyright 2017 Hewlett-Packard Development Company, L.P.
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+
+package com.microfocus.application.automation.tools.octane.actions;
+
+import hudson.FilePath;
+import hudson.remoting.Channel;
+import hudson.remoting.RemoteOutputStream;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+import java.io.*;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterOutputStream;
+
+/**
+ * Copies result files from the workspace to the build folder as a stream, never holding a whole file in memory.
+ * Files on an agent are deflated on the agent and inflated on the controller while being written to disk,
+ * unless disabled with the system property {@code ResultFileTransfer.Compress=false}.
+ */
+public class ResultFileTransfer {
+    private static final int BUFFER_SIZE = Integer.getInteger("ResultFileTransfer.BufferSize", 64 * 1024);
+    private static final boolean COMPRESS = Boolean.parseBoolean(System.getProperty("ResultFileTransfer.Compress", "true"));
+
+    private ResultFileTransfer() {
+    }
+
+    /**
+     * Statistics of a finished copy
+     */
+    public static final class Copy {
+        private final long bytes;
+        private final long wireBytes;
+        private final long millis;
+
+        private Copy(long bytes, long wireBytes, long millis) {
+            this.bytes = bytes;
+            this.wireBytes = wireBytes;
+            this.millis = millis;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            double megabytes = bytes / (1024.0 * 1024.0);
+            return String.format("%d bytes (%d on the wire) in %d ms, %.1f MB/s",
+                    bytes, wireBytes, millis, millis == 0 ? megabytes * 1000 : megabytes * 1000 / millis);
+        }
+    }
+
+    /**
+     * Copies the file, a partially written target is deleted if the copy fails
+     */
+    public static Copy copy(FilePath source, File target) throws IOException, InterruptedException {
+        try {
+            return doCopy(source, target);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            if (target.exists() && !target.delete()) {
+                target.deleteOnExit();
+            }
+            throw e;
+        }
+    }
+
+    private static Copy doCopy(FilePath source, File target) throws IOException, InterruptedException {
+        long started = System.currentTimeMillis();
+        if (!source.isRemote() || !COMPRESS) {
+            source.copyTo(new FilePath(target));
+            long bytes = target.length();
+            return new Copy(bytes, bytes, System.currentTimeMillis() - started);
+        }
+
+        long[] sizes;
+        try (OutputStream os = new InflaterOutputStream(new BufferedOutputStream(new FileOutputStream(target), BUFFER_SIZE))) {
+            sizes = source.act(new DeflatedCopyCallable(new RemoteOutputStream(os)));
+            // the chunks written by the agent are delivered asynchronously
+            VirtualChannel channel = source.getChannel();
+            if (channel instanceof Channel) {
+                ((Channel) channel).syncLocalIO();
+            }
+        }
+        return new Copy(sizes[0], sizes[1], System.currentTimeMillis() - started);
+    }
+
+    /**
+     * @return up to {@code length} first bytes of the file, read on the node holding it
+     */
+    public static byte[] readPrefix(FilePath source, int length) throws IOException, InterruptedException {
+        return source.act(new PrefixCallable(length));
+    }
+
+    private static final class DeflatedCopyCallable extends MasterToSlaveFileCallable<long[]> {
+        private static final long serialVersionUID = 1L;
+        private final OutputStream out;
+
+        private DeflatedCopyCallable(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public long[] invoke(File file, VirtualChannel channel) throws IOException {
+            CountingOutputStream wire = new CountingOutputStream(out);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            long bytes = 0;
+            try (InputStream is = new FileInputStream(file);
+                 OutputStream os = new DeflaterOutputStream(wire, deflater, BUFFER_SIZE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = is.read(buffer)) != -1) {
+                    os.write(buffer, 0, read);
+                    bytes += read;
+                }
+            } finally {
+                deflater.end();
+            }
+            return new long[]{bytes, wire.count};
+        }
+    }
+
+    private static final class PrefixCallable extends MasterToSlaveFileCallable<byte[]> {
+        private static final long serialVersionUID = 1L;
+        private final int length;
+
+        private PrefixCallable(int length) {
+            this.length = length;
+        }
+
+        @Override
+        public byte[] invoke(File file, VirtualChannel channel) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(length, file.length())];
+            int total = 0;
+            try (InputStream is = new FileInputStream(file)) {
+                int read;
+                while (total < buffer.length && (read = is.read(buffer, total, buffer.length - total)) != -1) {
+                    total += read;
+                }
+            }
+            if (total == buffer.length) {
+                return buffer;
+            }
+            byte[] ret = new byte[total];
+            System.arraycopy(buffer, 0, ret, 0, total);
+            return ret;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.microfocus.application.automation.tools.octane.actions.coverage;
 
+import com.microfocus.application.automation.tools.octane.actions.ResultFileTransfer;
 import hudson.FilePath;
 import hudson.Util;
 import hudson.model.BuildListener;
@@ -25,9 +26,7 @@ import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.types.FileSet;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
 
 /**
  * Helper Service for coverage publisher
@@ -63,16 +62,14 @@ public class CoverageService {
     public static void copyCoverageFile(File resultFile, File targetReportFile, final FilePath workspace) throws IOException, InterruptedException {
         log(String.format("Copying %s to %s", resultFile.getPath(), targetReportFile));
 
-        byte[] content = workspace.act(new FileContentCallable(resultFile));
+        ResultFileTransfer.Copy copy = ResultFileTransfer.copy(new FilePath(workspace.getChannel(), resultFile.getPath()), targetReportFile);
 
-        if (validateContent(content)) {
-            log("Got coverage file content");
-
-            try (FileOutputStream os = new FileOutputStream(targetReportFile)) {
-                os.write(content);
-            }
-            log(String.format("coverage file copied successfully to %s", targetReportFile.getPath()));
+        if (validateContent(copy)) {
+            log(String.format("coverage file copied successfully to %s: %s", targetReportFile.getPath(), copy));
         } else {
+            if (!targetReportFile.delete()) {
+                log(String.format("failed to delete %s", targetReportFile.getPath()));
+            }
             log("coverage file content corrupted, failed to copy the file to target destination");
         }
     }
@@ -80,11 +77,11 @@ public class CoverageService {
     /**
      * most of the validations will be done in octane side
      * this is a place holder to do more validations if needed
-     * @param content of the file
+     * @param copy statistics of the copied file
      * @return status
      */
-    private static boolean validateContent(byte[] content) {
-        return content.length > 0;
+    private static boolean validateContent(ResultFileTransfer.Copy copy) {
+        return copy.getBytes() > 0;
     }
 
     public static void log(final String message) {
@@ -115,17 +112,4 @@ public class CoverageService {
         }
     }
 
-    private static final class FileContentCallable extends MasterToSlaveFileCallable<byte[]> {
-        private final File file;
-
-        private FileContentCallable(File file) {
-            this.file = file;
-        }
-
-        @Override
-        public byte[] invoke(File rootDir, VirtualChannel channel) throws IOException {
-            return Files.readAllBytes(file.toPath());
-        }
-    }
-
 }
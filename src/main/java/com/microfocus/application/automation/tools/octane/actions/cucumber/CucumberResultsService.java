@@ -23,6 +23,7 @@
 package com.microfocus.application.automation.tools.octane.actions.cucumber;
 
 import com.microfocus.application.automation.tools.octane.Messages;
+import com.microfocus.application.automation.tools.octane.actions.ResultFileTransfer;
 import hudson.FilePath;
 import hudson.Util;
 import hudson.model.TaskListener;
@@ -32,9 +33,8 @@ import org.apache.tools.ant.DirectoryScanner;
 import org.apache.tools.ant.types.FileSet;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Helper Service for Gherkin results
@@ -44,6 +44,7 @@ public class CucumberResultsService {
     public static final String GHERKIN_NGA_RESULTS_XML = "OctaneGherkinResults.xml";
     public static final String GHERKIN_NGA_RESULTS = "OctaneGherkinResults";
     public static final String DEFAULT_GLOB = "**/*" + GHERKIN_NGA_RESULTS_XML;
+    private static final int VALIDATED_PREFIX_LENGTH = 2000;
 
     private static TaskListener listener;
 
@@ -72,20 +73,16 @@ public class CucumberResultsService {
         } while (existingReportFile.exists());
         log("New file name on destination will be %s", existingReportFile.getPath());
 
-        byte[] content = workspace.act(new FileContentCallable(resultFile));
-        log("Got result file content");
-
-        validateContent(content);
+        FilePath source = new FilePath(workspace.getChannel(), resultFile.getPath());
+        validateContent(ResultFileTransfer.readPrefix(source, VALIDATED_PREFIX_LENGTH));
 
         File target = existingReportFile;
-        try (FileOutputStream os = new FileOutputStream(target)) {
-            os.write(content);
-        }
-        log("Result file copied to %s", target.getPath());
+        ResultFileTransfer.Copy copy = ResultFileTransfer.copy(source, target);
+        log("Result file copied to %s: %s", target.getPath(), copy.toString());
     }
 
-    private static void validateContent(byte[] content) {
-        String contentStr = new String(content, 0, content.length > 2000 ? 2000 : content.length);
+    private static void validateContent(byte[] prefix) {
+        String contentStr = new String(prefix, StandardCharsets.UTF_8);
         //Heuristic validation. we don't check the whole file structure here - we should be quick.
         if(!contentStr.contains("<features")) {
             throw new IllegalArgumentException("The file is not Octane Gherkin results file");
@@ -118,17 +115,4 @@ public class CucumberResultsService {
         }
     }
 
-    private static final class FileContentCallable extends MasterToSlaveFileCallable<byte[]> {
-        private final File file;
-
-        private FileContentCallable(File file) {
-            this.file = file;
-        }
-
-        @Override
-        public byte[] invoke(File rootDir, VirtualChannel channel) throws IOException {
-            return Files.readAllBytes(file.toPath());
-        }
-    }
-
 }
@@ -0,0 +1,134 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+package com.microfocus.application.automation.tools.octane.buildLogs;
+
+import hudson.console.PlainTextConsoleOutputStream;
+import hudson.model.Run;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Console log of a build without the console annotations, stripped while it is read.
+ * Only a chunk of the raw log (and the line in progress) is held in memory, nothing is written to disk.
+ * {@link #skip(long)} counts plain text bytes; the skipped part of the raw log is still read and stripped.
+ */
+public class PlainTextLogInputStream extends InputStream {
+	private static final int BUFFER_SIZE = Integer.getInteger("PlainTextLogInputStream.BufferSize", 64 * 1024);
+
+	private final InputStream raw;
+	private final byte[] chunk = new byte[BUFFER_SIZE];
+	private final StrippedBuffer stripped = new StrippedBuffer();
+	private final PlainTextConsoleOutputStream stripper = new PlainTextConsoleOutputStream(stripped);
+	private int position;
+	private boolean eof;
+
+	public PlainTextLogInputStream(InputStream raw) {
+		this.raw = raw;
+	}
+
+	public static PlainTextLogInputStream open(Run<?, ?> run) throws IOException {
+		return new PlainTextLogInputStream(run.getLogInputStream());
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!ensureAvailable()) {
+			return -1;
+		}
+		return stripped.byteAt(position++) & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!ensureAvailable()) {
+			return -1;
+		}
+		int count = Math.min(len, stripped.size() - position);
+		stripped.copyTo(position, b, off, count);
+		position += count;
+		return count;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = 0;
+		while (skipped < n && ensureAvailable()) {
+			int step = (int) Math.min(n - skipped, stripped.size() - position);
+			position += step;
+			skipped += step;
+		}
+		return skipped;
+	}
+
+	@Override
+	public int available() {
+		return stripped.size() - position;
+	}
+
+	@Override
+	public void close() throws IOException {
+		raw.close();
+	}
+
+	/**
+	 * Strips raw chunks until there are unread plain text bytes
+	 *
+	 * @return false at the end of the log
+	 */
+	private boolean ensureAvailable() throws IOException {
+		while (position >= stripped.size()) {
+			if (eof) {
+				return false;
+			}
+			stripped.reset();
+			position = 0;
+			int read = raw.read(chunk);
+			if (read == -1) {
+				eof = true;
+				// flushes the last line when the log doesn't end with a new line
+				stripper.close();
+			} else {
+				stripper.write(chunk, 0, read);
+			}
+		}
+		return true;
+	}
+
+	private static final class StrippedBuffer extends ByteArrayOutputStream {
+		private StrippedBuffer() {
+			super(BUFFER_SIZE);
+		}
+
+		private byte byteAt(int index) {
+			return buf[index];
+		}
+
+		private void copyTo(int from, byte[] b, int off, int len) {
+			System.arraycopy(buf, from, b, off, len);
+		}
+	}
+}
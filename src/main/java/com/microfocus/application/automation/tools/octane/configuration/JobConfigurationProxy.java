@@ -52,7 +52,6 @@ import org.kohsuke.stapler.bind.JavaScriptMethod;
 
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -65,6 +64,7 @@ public class JobConfigurationProxy {
 	final private Job job;
 
 	private static final String NOT_SPECIFIED = "-- Not specified --";
+	private static final String NOT_SPECIFIED_LOWER_CASE = NOT_SPECIFIED.toLowerCase();
 
 	JobConfigurationProxy(Job job) {
 		this.job = job;
@@ -173,6 +173,8 @@ public class JobConfigurationProxy {
 					.setListFields(fields);
 
 			PipelineContext pipeline = octaneClient.getPipelineContextService().updatePipeline(octaneClient.getInstanceId(), jobCiId, pipelineContext);
+			//new taxonomies and list values may have been created along with the pipeline
+			OctaneLookupCache.getInstance().invalidate(instanceId, pipelineContext.getWorkspaceId());
 
 			//WORKAROUND BEGIN
 			//getting workspaceName - because the workspaceName is not returned from configuration API
@@ -452,7 +454,7 @@ public class JobConfigurationProxy {
 		JSONObject ret = new JSONObject();
 		OctaneClient octaneClient = OctaneSDK.getClientByInstanceId(instanceId);
 		try {
-			ResponseEntityList listItemPagedList = queryListItems(octaneClient, logicalListName, term, workspaceId, defaultSize);
+			OctaneLookupCache.SearchResult listItemPagedList = queryListItems(octaneClient, logicalListName, term, workspaceId, defaultSize);
 			List<Entity> listItems = listItemPagedList.getData();
 			boolean moreResults = listItemPagedList.getTotalCount() > listItems.size();
 
@@ -462,8 +464,7 @@ public class JobConfigurationProxy {
 			}
 
 			if (!multiValue) {
-				String quotedTerm = Pattern.quote(term.toLowerCase());
-				if (Pattern.matches(".*" + quotedTerm + ".*", NOT_SPECIFIED.toLowerCase())) {
+				if (NOT_SPECIFIED_LOWER_CASE.contains(term.toLowerCase())) {
 					JSONObject notSpecifiedItemJson = new JSONObject();
 					notSpecifiedItemJson.put("id", -1);
 					notSpecifiedItemJson.put("text", NOT_SPECIFIED);
@@ -510,7 +511,7 @@ public class JobConfigurationProxy {
 
 		try {
 
-			ResponseEntityList releasePagedList = queryReleasesByName(octaneClient, term, workspaceId, defaultSize);
+			OctaneLookupCache.SearchResult releasePagedList = queryReleasesByName(octaneClient, term, workspaceId, defaultSize);
 			List<Entity> releases = releasePagedList.getData();
 			boolean moreResults = releasePagedList.getTotalCount() > releases.size();
 
@@ -519,8 +520,7 @@ public class JobConfigurationProxy {
 				retArray.add(createMoreResultsJson());
 			}
 
-			String quotedTerm = Pattern.quote(term.toLowerCase());
-			if (Pattern.matches(".*" + quotedTerm + ".*", NOT_SPECIFIED.toLowerCase())) {
+			if (NOT_SPECIFIED_LOWER_CASE.contains(term.toLowerCase())) {
 				JSONObject notSpecifiedItemJson = new JSONObject();
 				notSpecifiedItemJson.put("id", -1);
 				notSpecifiedItemJson.put("text", NOT_SPECIFIED);
@@ -550,7 +550,7 @@ public class JobConfigurationProxy {
 		OctaneClient octaneClient = OctaneSDK.getClientByInstanceId(instanceId);
 
 		try {
-			ResponseEntityList workspacePagedList = queryWorkspacesByName(octaneClient, term, defaultSize);
+			OctaneLookupCache.SearchResult workspacePagedList = queryWorkspacesByName(octaneClient, term, defaultSize);
 			List<Entity> workspaces = workspacePagedList.getData();
 			boolean moreResults = workspacePagedList.getTotalCount() > workspaces.size();
 
@@ -610,7 +610,7 @@ public class JobConfigurationProxy {
 				}
 			}
 			//retrieving taxonomies from server
-			ResponseEntityList foundTaxonomies = queryTaxonomiesByName(octaneClient, term, workspaceId, defaultSize);
+			OctaneLookupCache.SearchResult foundTaxonomies = queryTaxonomiesByName(octaneClient, term, workspaceId, defaultSize);
 			final List<Entity> foundTaxonomiesList = foundTaxonomies.getData();
 			boolean moreResults = foundTaxonomies.getTotalCount() > foundTaxonomiesList.size();
 
@@ -844,15 +844,21 @@ public class JobConfigurationProxy {
 		}
 	}
 
-	private static ResponseEntityList queryWorkspacesByName(OctaneClient octaneClient, String name, int limit) {
-		return queryEntitiesByName(octaneClient, name, null, "workspaces", limit);
+	private static OctaneLookupCache.SearchResult queryWorkspacesByName(OctaneClient octaneClient, String name, int limit) {
+		return searchEntitiesByName(octaneClient, name, null, "workspaces", limit);
 	}
 
-	private static ResponseEntityList queryReleasesByName(OctaneClient octaneClient, String name, long workspaceId, int limit) {
-		return queryEntitiesByName(octaneClient, name, workspaceId, "releases", limit);
+	private static OctaneLookupCache.SearchResult queryReleasesByName(OctaneClient octaneClient, String name, long workspaceId, int limit) {
+		return searchEntitiesByName(octaneClient, name, workspaceId, "releases", limit);
 	}
 
-	private static ResponseEntityList queryTaxonomiesByName(OctaneClient octaneClient, String name, long workspaceId, int limit) {
+	private static OctaneLookupCache.SearchResult queryTaxonomiesByName(OctaneClient octaneClient, String name, long workspaceId, int limit) {
+		return OctaneLookupCache.getInstance().search(octaneClient.getInstanceId(), workspaceId, "taxonomy_nodes", name, limit, JobConfigurationProxy::searchKeys,
+				prefetchLimit -> queryTaxonomies(octaneClient, null, workspaceId, prefetchLimit),
+				searchLimit -> queryTaxonomies(octaneClient, name, workspaceId, searchLimit));
+	}
+
+	private static ResponseEntityList queryTaxonomies(OctaneClient octaneClient, String name, long workspaceId, int limit) {
 
 		EntitiesService entityService = octaneClient.getEntitiesService();
 
@@ -868,6 +874,16 @@ public class JobConfigurationProxy {
 		return result;
 	}
 
+	private static OctaneLookupCache.SearchResult searchEntitiesByName(OctaneClient octaneClient, String name, Long workspaceId, String collectionName, int limit) {
+		return OctaneLookupCache.getInstance().search(octaneClient.getInstanceId(), workspaceId, collectionName, name, limit, JobConfigurationProxy::searchKeys,
+				prefetchLimit -> queryEntitiesByName(octaneClient, null, workspaceId, collectionName, prefetchLimit),
+				searchLimit -> queryEntitiesByName(octaneClient, name, workspaceId, collectionName, searchLimit));
+	}
+
+	private static List<String> searchKeys(Entity entity) {
+		return Collections.singletonList(entity.getName());
+	}
+
 	private static ResponseEntityList queryEntitiesByName(OctaneClient octaneClient, String name, Long workspaceId, String collectionName, int limit) {
 		EntitiesService entityService = octaneClient.getEntitiesService();
 
@@ -880,7 +896,13 @@ public class JobConfigurationProxy {
 		return result;
 	}
 
-	private static ResponseEntityList queryListItems(OctaneClient octaneClient, String logicalListName, String name, long workspaceId, int limit) {
+	private static OctaneLookupCache.SearchResult queryListItems(OctaneClient octaneClient, String logicalListName, String name, long workspaceId, int limit) {
+		return OctaneLookupCache.getInstance().search(octaneClient.getInstanceId(), workspaceId, "list_nodes:" + logicalListName, name, limit, JobConfigurationProxy::searchKeys,
+				prefetchLimit -> queryListNodes(octaneClient, logicalListName, null, workspaceId, prefetchLimit),
+				searchLimit -> queryListNodes(octaneClient, logicalListName, name, workspaceId, searchLimit));
+	}
+
+	private static ResponseEntityList queryListNodes(OctaneClient octaneClient, String logicalListName, String name, long workspaceId, int limit) {
 		int myLimit = limit;
 		EntitiesService entityService = octaneClient.getEntitiesService();
 		List<String> conditions = new LinkedList();
@@ -939,6 +961,11 @@ public class JobConfigurationProxy {
 	}
 
 	private static List<Entity> getPipelineListNodeFieldsMetadata(OctaneClient octaneClient, long workspaceId) {
+		return OctaneLookupCache.getInstance().getList(octaneClient.getInstanceId(), workspaceId, "metadata/fields:pipeline_node",
+				() -> queryPipelineListNodeFieldsMetadata(octaneClient, workspaceId));
+	}
+
+	private static List<Entity> queryPipelineListNodeFieldsMetadata(OctaneClient octaneClient, long workspaceId) {
 		List<String> conditions = new LinkedList<>();
 		conditions.add(com.hp.octane.integrations.services.entities.QueryHelper.condition("entity_name", "pipeline_node"));
 		conditions.add(com.hp.octane.integrations.services.entities.QueryHelper.conditionIn("name", Arrays.asList("test_tool_type", "test_level", "test_type", "test_framework"), false));
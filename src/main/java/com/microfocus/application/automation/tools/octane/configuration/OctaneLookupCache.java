@@ -0,0 +1,238 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+package com.microfocus.application.automation.tools.octane.configuration;
+
+import com.hp.octane.integrations.dto.entities.Entity;
+import com.hp.octane.integrations.dto.entities.ResponseEntityList;
+import net.sf.json.JSONObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the Octane entities looked up by the job configuration page, per (server, workspace, entity type).
+ * Collections small enough to be fetched at once are kept as a list sorted by name, and searches are filtered locally;
+ * larger collections are searched on the server as before. Entries expire after a TTL and the least recently used
+ * ones are dropped when the cache is full.
+ */
+public class OctaneLookupCache {
+	private static final Logger logger = LogManager.getLogger(OctaneLookupCache.class);
+
+	static final int PREFETCH_LIMIT = Integer.getInteger("OctaneLookupCache.PrefetchLimit", 1000);
+	private static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("OctaneLookupCache.TtlSeconds", 300));
+	private static final int MAX_ENTRIES = Integer.getInteger("OctaneLookupCache.MaxEntries", 500);
+
+	private static final OctaneLookupCache instance = new OctaneLookupCache(TTL_MILLIS, MAX_ENTRIES, System::currentTimeMillis);
+
+	private final long ttlMillis;
+	private final LongSupplier clock;
+	private final Map<String, CachedList> entries;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong serverSearches = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Queries Octane for up to {@code limit} entities
+	 */
+	public interface Query {
+		ResponseEntityList query(int limit);
+	}
+
+	/**
+	 * Page of the found entities
+	 */
+	public static final class SearchResult {
+		private final List<Entity> data;
+		private final int totalCount;
+
+		SearchResult(List<Entity> data, int totalCount) {
+			this.data = data;
+			this.totalCount = totalCount;
+		}
+
+		public List<Entity> getData() {
+			return data;
+		}
+
+		/**
+		 * @return count of all the matching entities, may be more than returned
+		 */
+		public int getTotalCount() {
+			return totalCount;
+		}
+	}
+
+	OctaneLookupCache(long ttlMillis, final int maxEntries, LongSupplier clock) {
+		this.ttlMillis = ttlMillis;
+		this.clock = clock;
+		this.entries = new LinkedHashMap<String, CachedList>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedList> eldest) {
+				if (size() > maxEntries) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public static OctaneLookupCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Searches the entities whose search keys contain the term, ignoring case, in the order of their names
+	 *
+	 * @param workspaceId  null for the entities of the shared space
+	 * @param type         entity type, together with anything else the collection is restricted by
+	 * @param searchKeys   texts of an entity the term is looked up in
+	 * @param prefetch     query of the whole collection, used when it has no more than {@link #PREFETCH_LIMIT} entities
+	 * @param serverSearch query of the matching entities, used for larger collections
+	 * @return up to {@code limit} matching entities, with the total count of the matches
+	 */
+	public SearchResult search(String instanceId, Long workspaceId, String type, String term, int limit,
+	                          Function<Entity, List<String>> searchKeys, Query prefetch, Query serverSearch) {
+		CachedList cached = get(key(instanceId, workspaceId, type), () -> new CachedList(prefetch.query(PREFETCH_LIMIT), searchKeys));
+		if (cached.entities == null) {
+			serverSearches.incrementAndGet();
+			ResponseEntityList found = serverSearch.query(limit);
+			return new SearchResult(found.getData(), found.getTotalCount());
+		}
+		return cached.search(term == null ? "" : term.toLowerCase(), limit);
+	}
+
+	/**
+	 * @return the entities returned by the query, cached for the TTL
+	 */
+	public List<Entity> getList(String instanceId, Long workspaceId, String type, Supplier<List<Entity>> query) {
+		return get(key(instanceId, workspaceId, type), () -> new CachedList(query.get())).entities;
+	}
+
+	/**
+	 * Drops the cached entities of a workspace, e.g. after values were created in it
+	 */
+	public void invalidate(String instanceId, Long workspaceId) {
+		String prefix = key(instanceId, workspaceId, "");
+		synchronized (entries) {
+			entries.keySet().removeIf(key -> key.startsWith(prefix));
+		}
+	}
+
+	public JSONObject getStatus() {
+		JSONObject status = new JSONObject();
+		synchronized (entries) {
+			status.put("entries", entries.size());
+		}
+		status.put("hits", hits.get());
+		status.put("misses", misses.get());
+		status.put("serverSearches", serverSearches.get());
+		status.put("evictions", evictions.get());
+		status.put("ttlSeconds", TimeUnit.MILLISECONDS.toSeconds(ttlMillis));
+		return status;
+	}
+
+	private CachedList get(String key, Supplier<CachedList> loader) {
+		long now = clock.getAsLong();
+		synchronized (entries) {
+			CachedList cached = entries.get(key);
+			if (cached != null && now - cached.loadedAt < ttlMillis) {
+				hits.incrementAndGet();
+				return cached;
+			}
+		}
+		// loaded outside of the lock, concurrent misses of the same key may query Octane more than once
+		misses.incrementAndGet();
+		CachedList loaded = loader.get();
+		loaded.loadedAt = now;
+		synchronized (entries) {
+			entries.put(key, loaded);
+		}
+		logger.debug("loaded " + key + (loaded.entities == null ? ", too many entities to prefetch" : ", " + loaded.entities.size() + " entities"));
+		return loaded;
+	}
+
+	private static String key(String instanceId, Long workspaceId, String type) {
+		return instanceId + "|" + workspaceId + "|" + type;
+	}
+
+	private static final class CachedList {
+		private final List<Entity> entities;
+		private final String[][] lowerCaseKeys;
+		private long loadedAt;
+
+		private CachedList(List<Entity> entities) {
+			this.entities = Collections.unmodifiableList(new ArrayList<>(entities));
+			this.lowerCaseKeys = null;
+		}
+
+		private CachedList(ResponseEntityList prefetched, Function<Entity, List<String>> searchKeys) {
+			List<Entity> data = prefetched.getData();
+			if (prefetched.getTotalCount() > data.size()) {
+				entities = null;
+				lowerCaseKeys = null;
+				return;
+			}
+			List<Entity> sorted = new ArrayList<>(data);
+			sorted.sort(Comparator.comparing(entity -> entity.getName() == null ? "" : entity.getName(), String.CASE_INSENSITIVE_ORDER));
+			entities = Collections.unmodifiableList(sorted);
+			lowerCaseKeys = new String[sorted.size()][];
+			for (int i = 0; i < sorted.size(); i++) {
+				List<String> keys = searchKeys.apply(sorted.get(i));
+				lowerCaseKeys[i] = new String[keys.size()];
+				for (int j = 0; j < keys.size(); j++) {
+					lowerCaseKeys[i][j] = keys.get(j) == null ? "" : keys.get(j).toLowerCase();
+				}
+			}
+		}
+
+		private SearchResult search(String lowerCaseTerm, int limit) {
+			List<Entity> matches = new ArrayList<>(Math.min(limit, entities.size()));
+			int totalCount = 0;
+			for (int i = 0; i < lowerCaseKeys.length; i++) {
+				if (matches(lowerCaseKeys[i], lowerCaseTerm)) {
+					if (matches.size() < limit) {
+						matches.add(entities.get(i));
+					}
+					totalCount++;
+				}
+			}
+			return new SearchResult(Collections.unmodifiableList(matches), totalCount);
+		}
+
+		private static boolean matches(String[] keys, String lowerCaseTerm) {
+			for (String key : keys) {
+				if (key.contains(lowerCaseTerm)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -34,7 +34,7 @@ import com.microfocus.application.automation.tools.octane.model.processors.proje
 import com.microfocus.application.automation.tools.octane.model.processors.scm.CommonOriginRevision;
 import com.microfocus.application.automation.tools.octane.model.processors.scm.SCMProcessor;
 import com.microfocus.application.automation.tools.octane.model.processors.scm.SCMProcessors;
-import com.microfocus.application.automation.tools.octane.tests.TestListener;
+import com.microfocus.application.automation.tools.octane.tests.TestResultsProcessor;
 import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
 import hudson.Extension;
 import hudson.model.*;
@@ -61,7 +61,7 @@ public final class AbstractBuildListenerOctaneImpl extends RunListener<AbstractB
 	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
 
 	@Inject
-	private TestListener testListener;
+	private TestResultsProcessor testResultsProcessor;
 
 	@Override
 	public void onStarted(AbstractBuild build, TaskListener listener) {
@@ -90,7 +90,22 @@ public final class AbstractBuildListenerOctaneImpl extends RunListener<AbstractB
 	@Override
 	public void onFinalized(AbstractBuild build) {
 		try {
-			boolean hasTests = testListener.processBuild(build);
+			if (!testResultsProcessor.enqueue(build)) {
+				publishFinishedEvent(build, false);
+			}
+		} catch (Throwable throwable) {
+			logger.error("failed to queue test results processing of " + build, throwable);
+		}
+	}
+
+	/**
+	 * Publish FINISHED event of the build, called once its test results are processed
+	 *
+	 * @param build    finished build
+	 * @param hasTests whether test results of the build are to be pushed to Octane
+	 */
+	public static void publishFinishedEvent(AbstractBuild build, boolean hasTests) {
+		try {
 			CIEvent event = dtoFactory.newDTO(CIEvent.class)
 					.setEventType(CIEventType.FINISHED)
 					.setProject(BuildHandlerUtils.getJobCiId(build))
@@ -116,7 +131,7 @@ public final class AbstractBuildListenerOctaneImpl extends RunListener<AbstractB
 		}
 	}
 
-	private CommonOriginRevision getCommonOriginRevision(AbstractBuild build) {
+	private static CommonOriginRevision getCommonOriginRevision(AbstractBuild build) {
 		CommonOriginRevision commonOriginRevision = null;
 		SCM scm = build.getProject().getScm();
 		if (scm != null) {
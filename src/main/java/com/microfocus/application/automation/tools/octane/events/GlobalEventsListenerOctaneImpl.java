@@ -26,6 +26,7 @@ import com.hp.octane.integrations.dto.events.CIEvent;
 import com.hp.octane.integrations.dto.events.CIEventType;
 import com.microfocus.application.automation.tools.octane.executor.UftTestDiscoveryDispatcher;
 import com.microfocus.application.automation.tools.octane.model.processors.projects.JobProcessorFactory;
+import com.microfocus.application.automation.tools.octane.tests.TestResultsProcessor;
 import com.microfocus.application.automation.tools.settings.OctaneServerSettingsBuilder;
 import hudson.Extension;
 import hudson.model.Item;
@@ -50,6 +51,9 @@ public class GlobalEventsListenerOctaneImpl extends ItemListener {
 	@Override
 	public void onLoaded() {
 		OctaneServerSettingsBuilder.getOctaneSettingsManager().initOctaneClients();
+
+		TestResultsProcessor testResultsProcessor = Jenkins.getInstance().getExtensionList(TestResultsProcessor.class).get(0);
+		testResultsProcessor.recoverPendingBuilds();
 	}
 
 	@Override
@@ -74,5 +78,8 @@ public class GlobalEventsListenerOctaneImpl extends ItemListener {
 
 		UftTestDiscoveryDispatcher dispatcher = Jenkins.getInstance().getExtensionList(UftTestDiscoveryDispatcher.class).get(0);
 		dispatcher.close();
+
+		TestResultsProcessor testResultsProcessor = Jenkins.getInstance().getExtensionList(TestResultsProcessor.class).get(0);
+		testResultsProcessor.close();
 	}
 }
@@ -31,7 +31,7 @@ import com.hp.octane.integrations.dto.snapshots.CIBuildResult;
 import com.microfocus.application.automation.tools.octane.model.CIEventCausesFactory;
 import com.microfocus.application.automation.tools.octane.model.processors.parameters.ParameterProcessors;
 import com.microfocus.application.automation.tools.octane.model.processors.projects.JobProcessorFactory;
-import com.microfocus.application.automation.tools.octane.tests.TestListener;
+import com.microfocus.application.automation.tools.octane.tests.TestResultsProcessor;
 import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
 import hudson.Extension;
 import org.apache.logging.log4j.LogManager;
@@ -61,7 +61,7 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
 
 	@Inject
-	private TestListener testListener;
+	private TestResultsProcessor testResultsProcessor;
 
 	@Override
 	public void onNewHead(FlowNode flowNode) {
@@ -78,6 +78,11 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 		} catch (Throwable throwable) {
 			logger.error("failed to build and/or dispatch STARTED/FINISHED event for " + flowNode, throwable);
 		}
+		try {
+			CIEventCausesFactory.onNewHead(flowNode);
+		} catch (Throwable throwable) {
+			logger.error("failed to track new head " + flowNode, throwable);
+		}
 	}
 
 	private void sendPipelineStartedEvent(FlowNode flowNode) {
@@ -104,8 +109,18 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 
 	private void sendPipelineFinishedEvent(FlowEndNode flowEndNode) {
 		WorkflowRun parentRun = BuildHandlerUtils.extractParentRun(flowEndNode);
-		boolean hasTests = testListener.processBuild(parentRun);
+		if (!testResultsProcessor.enqueue(parentRun)) {
+			publishFinishedEvent(parentRun, false);
+		}
+	}
 
+	/**
+	 * Publish FINISHED event of the pipeline run, called once its test results are processed
+	 *
+	 * @param parentRun finished pipeline run
+	 * @param hasTests  whether test results of the run are to be pushed to Octane
+	 */
+	public static void publishFinishedEvent(WorkflowRun parentRun, boolean hasTests) {
 		CIEvent event = dtoFactory.newDTO(CIEvent.class)
 				.setEventType(CIEventType.FINISHED)
 				.setProject(BuildHandlerUtils.getJobCiId(parentRun))
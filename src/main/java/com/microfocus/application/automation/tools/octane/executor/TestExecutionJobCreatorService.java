@@ -127,6 +127,7 @@ public class TestExecutionJobCreatorService {
 				proj.setDescription(String.format("This job was created by the Micro Focus Application Automation Tools plugin for running %s tests. It is associated with ALM Octane test suite #%s.",
 						suiteExecutionInfo.getTestingToolType().toString(), suiteExecutionInfo.getSuiteId()));
 			}
+			UftJobRegistry.getInstance().register(proj, UftJobRegistry.Kind.EXECUTION);
 
 			setScmRepository(suiteExecutionInfo.getScmRepository(), suiteExecutionInfo.getScmRepositoryCredentialsId(), proj, true);
 			setBuildDiscarder(proj, 40);
@@ -288,6 +289,7 @@ public class TestExecutionJobCreatorService {
 				proj.setDescription(String.format("This job was created by the Micro Focus Application Automation Tools plugin for discovery of %s tests. It is associated with ALM Octane testing tool connection #%s.",
 						discoveryInfo.getTestingToolType().toString(), discoveryInfo.getExecutorId()));
 			}
+			UftJobRegistry.getInstance().register(proj, UftJobRegistry.Kind.DISCOVERY);
 
 			setScmRepository(discoveryInfo.getScmRepository(), discoveryInfo.getScmRepositoryCredentialsId(), proj, false);
 			setBuildDiscarder(proj, 20);
@@ -334,6 +336,7 @@ public class TestExecutionJobCreatorService {
 				proj.setDescription(String.format("This job was created by the Micro Focus Application Automation Tools plugin for discovery of %s tests. It is associated with ALM Octane test runner #%s.",
 						discoveryInfo.getTestingToolType().toString(), discoveryInfo.getExecutorId()));
 			}
+			UftJobRegistry.getInstance().register(proj, UftJobRegistry.Kind.DISCOVERY);
 
 			setScmRepository(discoveryInfo.getScmRepository(), discoveryInfo.getScmRepositoryCredentialsId(), proj, false);
 			setBuildDiscarder(proj, 20);
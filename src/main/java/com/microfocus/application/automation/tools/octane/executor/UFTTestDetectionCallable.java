@@ -0,0 +1,275 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.octane.executor;
+
+import com.hp.octane.integrations.uft.UftTestDiscoveryUtils;
+import com.hp.octane.integrations.uft.items.*;
+import com.hp.octane.integrations.utils.SdkConstants;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+import javax.xml.bind.JAXBException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Detects UFT tests and data tables on the node holding the workspace.
+ * Full discovery walks the workspace with a fork/join walker: test folders are not descended into, and SCM metadata folders are skipped.
+ * Only the detection result is sent back, serialized as XML.
+ */
+public class UFTTestDetectionCallable extends MasterToSlaveFileCallable<UFTTestDetectionCallable.Output> {
+    private static final long serialVersionUID = 1L;
+    private static final Set<String> SCM_FOLDERS = new HashSet<>(Arrays.asList(".git", ".svn", ".hg", ".bzr", "CVS"));
+
+    private final List<AffectedPath> affectedPaths;
+    private final int parallelism;
+
+    /**
+     * @param affectedPaths paths affected by the build change set, null for full discovery
+     * @param parallelism   number of threads walking the workspace in full discovery, 0 for the number of processors of the node
+     */
+    public UFTTestDetectionCallable(List<AffectedPath> affectedPaths, int parallelism) {
+        this.affectedPaths = affectedPaths;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public Output invoke(File workspace, VirtualChannel channel) throws IOException {
+        long startTime = System.currentTimeMillis();
+        UftTestDiscoveryResult result;
+        int scannedFolders;
+        if (affectedPaths == null) {
+            AtomicInteger folderCounter = new AtomicInteger();
+            result = doFullDiscovery(workspace, folderCounter);
+            scannedFolders = folderCounter.get();
+        } else {
+            result = doChangeSetDetection(workspace);
+            scannedFolders = 0;
+        }
+        long elapsed = System.currentTimeMillis() - startTime;
+
+        File resultFile = File.createTempFile("uft-detection-result", ".xml");
+        try {
+            result.writeToFile(resultFile);
+            return new Output(Files.readAllBytes(resultFile.toPath()), elapsed, scannedFolders);
+        } catch (JAXBException e) {
+            throw new IOException("Failed to serialize detection result : " + e.getMessage(), e);
+        } finally {
+            Files.deleteIfExists(resultFile.toPath());
+        }
+    }
+
+    private UftTestDiscoveryResult doFullDiscovery(File workspace, AtomicInteger folderCounter) {
+        Queue<AutomatedTest> tests = new ConcurrentLinkedQueue<>();
+        Queue<ScmResourceFile> dataTables = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = parallelism > 0 ? new ForkJoinPool(parallelism) : new ForkJoinPool();
+        try {
+            pool.invoke(new FolderScanTask(workspace, workspace, tests, dataTables, folderCounter));
+        } finally {
+            pool.shutdown();
+        }
+
+        // folders are scanned concurrently, the result is sorted to be the same from one discovery to another
+        List<AutomatedTest> sortedTests = new ArrayList<>(tests);
+        sortedTests.sort(Comparator.comparing(AutomatedTest::getPackage, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(AutomatedTest::getName, Comparator.nullsFirst(Comparator.<String>naturalOrder())));
+        List<ScmResourceFile> sortedDataTables = new ArrayList<>(dataTables);
+        sortedDataTables.sort(Comparator.comparing(ScmResourceFile::getRelativePath, Comparator.nullsFirst(Comparator.<String>naturalOrder())));
+
+        UftTestDiscoveryResult result = new UftTestDiscoveryResult();
+        result.getAllTests().addAll(sortedTests);
+        result.getAllScmResourceFiles().addAll(sortedDataTables);
+        return result;
+    }
+
+    private UftTestDiscoveryResult doChangeSetDetection(File workspace) {
+        UftTestDiscoveryResult result = new UftTestDiscoveryResult();
+        for (AffectedPath affectedPath : affectedPaths) {
+            if (affectedPath.path.startsWith("\"")) {
+                result.setHasQuotedPaths(true);
+            }
+            String affectedFileFullPath = workspace + File.separator + affectedPath.path;
+            if (!affectedPath.dir) {
+                if (UftTestDiscoveryUtils.isTestMainFilePath(affectedPath.path)) {
+                    File testFolder = UftTestDiscoveryUtils.getTestFolderForTestMainFile(affectedFileFullPath);
+                    File affectedFile = new File(affectedFileFullPath);
+                    boolean fileExist = affectedFile.exists();
+                    UftTestType uftTestType = UftTestDiscoveryUtils.getUftTestType(affectedPath.path);
+
+                    AutomatedTest test = UftTestDiscoveryUtils.createAutomatedTest(workspace, testFolder, uftTestType);
+                    affectedPath.setChangeSetSrcAndDst(test);
+
+                    if (affectedPath.editType == AffectedPath.EditType.ADD) {
+                        if (fileExist) {
+                            result.getAllTests().add(test);
+                        }
+                    } else if (affectedPath.editType == AffectedPath.EditType.DELETE) {
+                        if (!fileExist) {
+                            test.setOctaneStatus(OctaneStatus.DELETED);
+                            test.setExecutable(false);
+                            result.getAllTests().add(test);
+                        }
+                    } else if (affectedPath.editType == AffectedPath.EditType.EDIT) {
+                        if (fileExist) {
+                            test.setOctaneStatus(OctaneStatus.MODIFIED);
+                            result.getAllTests().add(test);
+                        }
+                    }
+                } else if (UftTestDiscoveryUtils.isUftDataTableFile(affectedPath.path)) {
+                    File affectedFile = new File(affectedFileFullPath);
+                    ScmResourceFile resourceFile = UftTestDiscoveryUtils.createDataTable(workspace, affectedFile);
+                    affectedPath.setChangeSetSrcAndDst(resourceFile);
+                    if (affectedPath.editType == AffectedPath.EditType.ADD) {
+                        UftTestType testType = UftTestDiscoveryUtils.isUftTestFolder(affectedFile.getParentFile().listFiles());
+                        if (testType.isNone()) {
+                            if (affectedFile.exists()) {
+                                result.getAllScmResourceFiles().add(resourceFile);
+                            }
+                        }
+                    } else if (affectedPath.editType == AffectedPath.EditType.DELETE) {
+                        if (!affectedFile.exists()) {
+                            resourceFile.setOctaneStatus(OctaneStatus.DELETED);
+                            result.getAllScmResourceFiles().add(resourceFile);
+                        }
+                    }
+                }
+            } else if (affectedPath.editType == AffectedPath.EditType.DELETE) {
+                String deletedFolder = new File(affectedPath.path).getPath().replace(SdkConstants.FileSystem.LINUX_PATH_SPLITTER, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
+                result.getDeletedFolders().add(deletedFolder);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Scans a folder: a UFT test folder becomes a test and is not descended into,
+     * otherwise its data tables are collected and its sub folders are scanned as separate tasks
+     */
+    private static final class FolderScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final File root;
+        private final File folder;
+        private final Queue<AutomatedTest> tests;
+        private final Queue<ScmResourceFile> dataTables;
+        private final AtomicInteger folderCounter;
+
+        private FolderScanTask(File root, File folder, Queue<AutomatedTest> tests, Queue<ScmResourceFile> dataTables, AtomicInteger folderCounter) {
+            this.root = root;
+            this.folder = folder;
+            this.tests = tests;
+            this.dataTables = dataTables;
+            this.folderCounter = folderCounter;
+        }
+
+        @Override
+        protected void compute() {
+            File[] children = folder.listFiles();
+            if (children == null) {
+                return;
+            }
+            folderCounter.incrementAndGet();
+
+            UftTestType testType = UftTestDiscoveryUtils.isUftTestFolder(children);
+            if (!testType.isNone()) {
+                tests.add(UftTestDiscoveryUtils.createAutomatedTest(root, folder, testType));
+                return;
+            }
+
+            List<FolderScanTask> subTasks = new ArrayList<>();
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    if (!SCM_FOLDERS.contains(child.getName())) {
+                        subTasks.add(new FolderScanTask(root, child, tests, dataTables, folderCounter));
+                    }
+                } else if (UftTestDiscoveryUtils.isUftDataTableFile(child.getName())) {
+                    dataTables.add(UftTestDiscoveryUtils.createDataTable(root, child));
+                }
+            }
+            invokeAll(subTasks);
+        }
+    }
+
+    /**
+     * Path affected by the change set, with the details resolved on master from the SCM plugin
+     */
+    public static final class AffectedPath implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        public enum EditType {ADD, EDIT, DELETE, OTHER}
+
+        private final String path;
+        private final EditType editType;
+        private final boolean dir;
+        private final String changeSetSrc;
+        private final String changeSetDst;
+
+        public AffectedPath(String path, EditType editType, boolean dir, String changeSetSrc, String changeSetDst) {
+            this.path = path;
+            this.editType = editType;
+            this.dir = dir;
+            this.changeSetSrc = changeSetSrc;
+            this.changeSetDst = changeSetDst;
+        }
+
+        private void setChangeSetSrcAndDst(SupportsMoveDetection entity) {
+            if (changeSetSrc != null || changeSetDst != null) {
+                entity.setChangeSetSrc(changeSetSrc);
+                entity.setChangeSetDst(changeSetDst);
+            }
+        }
+    }
+
+    public static final class Output implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] result;
+        private final long elapsedMs;
+        private final int scannedFolders;
+
+        private Output(byte[] result, long elapsedMs, int scannedFolders) {
+            this.result = result;
+            this.elapsedMs = elapsedMs;
+            this.scannedFolders = scannedFolders;
+        }
+
+        public byte[] getResult() {
+            return result;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        public int getScannedFolders() {
+            return scannedFolders;
+        }
+    }
+}
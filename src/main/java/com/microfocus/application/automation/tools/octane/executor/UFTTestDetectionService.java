@@ -22,7 +22,6 @@
 
 package com.microfocus.application.automation.tools.octane.executor;
 
-import com.hp.octane.integrations.uft.UftTestDiscoveryUtils;
 import com.hp.octane.integrations.uft.items.*;
 import com.hp.octane.integrations.utils.SdkConstants;
 import com.hp.octane.integrations.utils.SdkStringUtils;
@@ -34,6 +33,7 @@ import hudson.model.*;
 import hudson.scm.ChangeLogSet;
 import hudson.scm.EditType;
 import jenkins.model.Jenkins;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.reflect.FieldUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -51,6 +51,7 @@ public class UFTTestDetectionService {
     private static final Logger logger = LogManager.getLogger(UFTTestDetectionService.class);
     private static final String INITIAL_DETECTION_FILE = "INITIAL_DETECTION_FILE.txt";
     private static final String DETECTION_RESULT_FILE = "detection_result.xml";
+    private static final int DISCOVERY_PARALLELISM = Integer.getInteger("UFTTestDetectionService.DiscoveryParallelism", 0);
 
     public static UftTestDiscoveryResult startScanning(AbstractBuild<?, ?> build, String configurationId, String workspaceId, String scmRepositoryId, BuildListener buildListener) {
         ChangeLogSet<? extends ChangeLogSet.Entry> changeSet = build.getChangeSet();
@@ -62,10 +63,10 @@ public class UFTTestDetectionService {
             boolean fullScan = build.getId().equals("1") || !initialDetectionFileExist(build.getWorkspace()) || isFullScan((build));
             if (fullScan) {
                 printToConsole(buildListener, "Executing full sync");
-                result = UftTestDiscoveryUtils.doFullDiscovery(new File(build.getWorkspace().getRemote()));
+                result = runDetection(build, null, buildListener);
             } else {
                 printToConsole(buildListener, "Executing changeSet sync");
-                result = doChangeSetDetection(changeSetItems, new File(build.getWorkspace().getRemote()));
+                result = runDetection(build, getAffectedPaths(changeSetItems), buildListener);
                 removeTestDuplicatedForUpdateTests(result);
                 removeFalsePositiveDataTables(result, result.getDeletedTests(), result.getDeletedScmResourceFiles());
                 removeFalsePositiveDataTables(result, result.getNewTests(), result.getNewScmResourceFiles());
@@ -224,77 +225,55 @@ public class UFTTestDetectionService {
         }
     }
 
-    private static UftTestDiscoveryResult doChangeSetDetection(Object[] changeSetItems, File workspace) {
-        UftTestDiscoveryResult result = new UftTestDiscoveryResult();
-        if (changeSetItems.length == 0) {
-            return result;
+    /**
+     * Runs the detection on the node holding the workspace, and reads back its result
+     *
+     * @param affectedPaths paths affected by the change set, null for full discovery
+     */
+    private static UftTestDiscoveryResult runDetection(AbstractBuild<?, ?> build, List<UFTTestDetectionCallable.AffectedPath> affectedPaths, BuildListener buildListener)
+            throws IOException, InterruptedException, JAXBException {
+        UFTTestDetectionCallable.Output output = build.getWorkspace().act(new UFTTestDetectionCallable(affectedPaths, DISCOVERY_PARALLELISM));
+        if (affectedPaths == null) {
+            double foldersPerSecond = output.getScannedFolders() * 1000.0 / Math.max(1, output.getElapsedMs());
+            printToConsole(buildListener, String.format("Scanned %d folders in %d ms (%.0f folders/sec)", output.getScannedFolders(), output.getElapsedMs(), foldersPerSecond));
+        } else {
+            printToConsole(buildListener, String.format("Checked %d changed paths in %d ms", affectedPaths.size(), output.getElapsedMs()));
         }
 
-        for (int i = 0; i < changeSetItems.length; i++) {
-            ChangeLogSet.Entry changeSet = (ChangeLogSet.Entry) changeSetItems[i];
-            for (ChangeLogSet.AffectedFile affectedFileChange : changeSet.getAffectedFiles()) {
-                if (affectedFileChange.getPath().startsWith("\"")) {
-                    result.setHasQuotedPaths(true);
-                }
-                boolean isDir = isDir(affectedFileChange);
-                String affectedFileFullPath = workspace + File.separator + affectedFileChange.getPath();
-                if (!isDir) {
-                    if (UftTestDiscoveryUtils.isTestMainFilePath(affectedFileChange.getPath())) {
-                        File testFolder = UftTestDiscoveryUtils.getTestFolderForTestMainFile(affectedFileFullPath);
-                        File affectedFile = new File(affectedFileFullPath);
-                        boolean fileExist = affectedFile.exists();
-                        UftTestType uftTestType = UftTestDiscoveryUtils.getUftTestType(affectedFileChange.getPath());
-
-                        AutomatedTest test = UftTestDiscoveryUtils.createAutomatedTest(workspace, testFolder, uftTestType);
-                        addChangeSetSrcAndDst(test, affectedFileChange);
-
-                        if (EditType.ADD.equals(affectedFileChange.getEditType())) {
-                            if (fileExist) {
-                                result.getAllTests().add(test);
-                            }
-                        } else if (EditType.DELETE.equals(affectedFileChange.getEditType())) {
-                            if (!fileExist) {
-                                test.setOctaneStatus(OctaneStatus.DELETED);
-                                test.setExecutable(false);
-                                result.getAllTests().add(test);
-                            }
-                        } else if (EditType.EDIT.equals(affectedFileChange.getEditType())) {
-                            if (fileExist) {
-                                test.setOctaneStatus(OctaneStatus.MODIFIED);
-                                result.getAllTests().add(test);
-                            }
-                        }
-                    } else if (UftTestDiscoveryUtils.isUftDataTableFile(affectedFileChange.getPath())) {
-                        File affectedFile = new File(affectedFileFullPath);
-                        ScmResourceFile resourceFile = UftTestDiscoveryUtils.createDataTable(workspace, affectedFile);
-                        addChangeSetSrcAndDst(resourceFile, affectedFileChange);
-                        if (EditType.ADD.equals(affectedFileChange.getEditType())) {
-                            UftTestType testType = UftTestDiscoveryUtils.isUftTestFolder(affectedFile.getParentFile().listFiles());
-                            if (testType.isNone()) {
-                                if (affectedFile.exists()) {
-                                    result.getAllScmResourceFiles().add(resourceFile);
-                                }
-                            }
-                        } else if (EditType.DELETE.equals(affectedFileChange.getEditType())) {
-                            if (!affectedFile.exists()) {
-                                resourceFile.setOctaneStatus(OctaneStatus.DELETED);
-                                result.getAllScmResourceFiles().add(resourceFile);
-                            }
-                        }
-                    }
-                } else //isDir
-                {
-                    if (EditType.DELETE.equals(affectedFileChange.getEditType())) {
+        //the result file is rewritten once the result is completed
+        File reportXmlFile = getReportXmlFile(build);
+        FileUtils.writeByteArrayToFile(reportXmlFile, output.getResult());
+        return UftTestDiscoveryResult.readFromFile(reportXmlFile);
+    }
 
-                        FilePath filePath = new FilePath(new File(affectedFileChange.getPath()));
-                        String deletedFolder = filePath.getRemote().replace(SdkConstants.FileSystem.LINUX_PATH_SPLITTER, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
-                        result.getDeletedFolders().add(deletedFolder);
-                    }
+    private static List<UFTTestDetectionCallable.AffectedPath> getAffectedPaths(Object[] changeSetItems) {
+        List<UFTTestDetectionCallable.AffectedPath> affectedPaths = new ArrayList<>();
+        for (Object changeSetItem : changeSetItems) {
+            ChangeLogSet.Entry changeSet = (ChangeLogSet.Entry) changeSetItem;
+            for (ChangeLogSet.AffectedFile affectedFile : changeSet.getAffectedFiles()) {
+                String changeSetSrc = null;
+                String changeSetDst = null;
+                ScmPluginHandler handler = ScmPluginFactory.getScmHandlerByChangePathClass(affectedFile.getClass().getName());
+                if (handler != null) {
+                    changeSetSrc = handler.getChangeSetSrc(affectedFile);
+                    changeSetDst = handler.getChangeSetDst(affectedFile);
                 }
+                affectedPaths.add(new UFTTestDetectionCallable.AffectedPath(affectedFile.getPath(), getEditType(affectedFile.getEditType()),
+                        isDir(affectedFile), changeSetSrc, changeSetDst));
             }
         }
+        return affectedPaths;
+    }
 
-        return result;
+    private static UFTTestDetectionCallable.AffectedPath.EditType getEditType(EditType editType) {
+        if (EditType.ADD.equals(editType)) {
+            return UFTTestDetectionCallable.AffectedPath.EditType.ADD;
+        } else if (EditType.EDIT.equals(editType)) {
+            return UFTTestDetectionCallable.AffectedPath.EditType.EDIT;
+        } else if (EditType.DELETE.equals(editType)) {
+            return UFTTestDetectionCallable.AffectedPath.EditType.DELETE;
+        }
+        return UFTTestDetectionCallable.AffectedPath.EditType.OTHER;
     }
 
     private static boolean isDir(ChangeLogSet.AffectedFile path) {
@@ -310,22 +289,9 @@ public class UFTTestDetectionService {
         return false;
     }
 
-    private static void addChangeSetSrcAndDst(SupportsMoveDetection entity, ChangeLogSet.AffectedFile affectedFile) {
-        if (affectedFile != null) {
-            ScmPluginHandler handler = ScmPluginFactory.getScmHandlerByChangePathClass(affectedFile.getClass().getName());
-            if (handler != null) {
-                entity.setChangeSetSrc(handler.getChangeSetSrc(affectedFile));
-                entity.setChangeSetDst(handler.getChangeSetDst(affectedFile));
-            }
-        }
-    }
-
     private static boolean initialDetectionFileExist(FilePath workspace) {
         try {
-            File rootFile = new File(workspace.toURI());
-            File file = new File(rootFile, INITIAL_DETECTION_FILE);
-            return file.exists();
-
+            return workspace.child(INITIAL_DETECTION_FILE).exists();
         } catch (Exception e) {
             return false;
         }
@@ -333,10 +299,9 @@ public class UFTTestDetectionService {
 
     private static void createInitialDetectionFile(FilePath workspace) {
         try {
-            File rootFile = new File(workspace.toURI());
-            File file = new File(rootFile, INITIAL_DETECTION_FILE);
-            logger.info("Initial detection file path : " + file.getPath());
-            file.createNewFile();
+            FilePath file = workspace.child(INITIAL_DETECTION_FILE);
+            logger.info("Initial detection file path : " + file.getRemote());
+            file.touch(System.currentTimeMillis());
         } catch (IOException | InterruptedException e) {
             logger.error("Failed to createInitialDetectionFile : " + e.getMessage());
         }
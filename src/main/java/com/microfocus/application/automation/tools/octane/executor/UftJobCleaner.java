@@ -47,10 +47,12 @@ import java.util.*;
 public class UftJobCleaner extends AbstractSafeLoggingAsyncPeriodWork {
 
     private static Logger logger = LogManager.getLogger(UftJobCleaner.class);
+    private static final int BATCH_SIZE = Integer.getInteger("octane.plugin.UftJobCleaner.batchSize", 50);
+    private static final long BATCH_PAUSE_MILLIS = Long.getLong("octane.plugin.UftJobCleaner.batchPauseMillis", 1000L);
 
     public UftJobCleaner() {
         super("Uft Job Cleaner");
-        logger.warn(String.format("Initial delay %d minutes, recurrencePeriod %d minutes, outdate threshold %d days", getInitialDelay() / MIN, getRecurrencePeriod() / MIN, getOutdateThreshold()));
+        logger.warn(String.format("Initial delay %d minutes, recurrencePeriod %d minutes, outdate threshold %d days%s", getInitialDelay() / MIN, getRecurrencePeriod() / MIN, getOutdateThreshold(), isDryRun() ? ", dry run" : ""));
     }
 
     @Override
@@ -77,33 +79,59 @@ public class UftJobCleaner extends AbstractSafeLoggingAsyncPeriodWork {
         return threshold;
     }
 
+    private boolean isDryRun() {
+        return Boolean.getBoolean("octane.plugin.UftJobCleaner.dryRun");
+    }
+
     @Override
     protected void doExecute(TaskListener listener) throws IOException, InterruptedException {
-        List<FreeStyleProject> jobs = Jenkins.getInstance().getAllItems(FreeStyleProject.class);
+        UftJobRegistry registry = UftJobRegistry.getInstance();
+        registry.scanOnce();
 
-        clearExecutionJobs(jobs);
+        clearExecutionJobs(registry, new Date().getTime() - PeriodicWork.DAY * getOutdateThreshold(), isDryRun());
         //clearDiscoveryJobs(jobs); temporary disabled
     }
 
-    private void clearExecutionJobs(List<FreeStyleProject> jobs) {
-        long thresholdTimeInMillis = new Date().getTime() - PeriodicWork.DAY * getOutdateThreshold();
+    /**
+     * Deletes the execution jobs that didn't run since the threshold, in batches with a pause in between.
+     * The registry only narrows the candidates, the decision is taken on the last build of the job itself.
+     */
+    void clearExecutionJobs(UftJobRegistry registry, long thresholdTimeInMillis, boolean dryRun) throws InterruptedException {
+        List<String> candidates = registry.getJobsNotRunSince(UftJobRegistry.Kind.EXECUTION, thresholdTimeInMillis);
         int clearCounter = 0;
-        for (FreeStyleProject job : jobs) {
-            if (UftJobRecognizer.isExecutorJob(job) && job.getLastBuild() != null && !job.isBuilding()) {
-                if (thresholdTimeInMillis > job.getLastBuild().getTimeInMillis()) {
-                    try {
-                        logger.warn(String.format("Job %s is going to be deleted as outdated job, last build was executed at %s", job.getName(), job.getLastBuild().getTimestampString2()));
-                        job.delete();
-                    } catch (Exception e) {
-                        logger.warn(String.format("Failed to delete job %s : %s", job.getName(), e.getMessage()));
-                    }
+        for (int from = 0; from < candidates.size(); from += BATCH_SIZE) {
+            if (from > 0) {
+                Thread.sleep(BATCH_PAUSE_MILLIS);
+            }
+            for (String jobName : candidates.subList(from, Math.min(from + BATCH_SIZE, candidates.size()))) {
+                FreeStyleProject job = Jenkins.getInstance().getItemByFullName(jobName, FreeStyleProject.class);
+                if (job == null) {
+                    registry.remove(jobName);
+                    continue;
+                }
+                Run<?, ?> lastBuild = job.getLastBuild();
+                if (UftJobRecognizer.isExecutorJob(job) && lastBuild != null && !job.isBuilding()) {
+                    if (thresholdTimeInMillis > lastBuild.getTimeInMillis()) {
+                        if (dryRun) {
+                            logger.warn(String.format("Job %s would be deleted as outdated job (dry run), last build was executed at %s", job.getName(), lastBuild.getTimestampString2()));
+                        } else {
+                            try {
+                                logger.warn(String.format("Job %s is going to be deleted as outdated job, last build was executed at %s", job.getName(), lastBuild.getTimestampString2()));
+                                job.delete();
+                            } catch (Exception e) {
+                                logger.warn(String.format("Failed to delete job %s : %s", job.getName(), e.getMessage()));
+                            }
+                        }
 
-                    clearCounter++;
+                        clearCounter++;
+                    } else {
+                        registry.recordRun(lastBuild);
+                    }
                 }
             }
         }
 
-        logger.warn(String.format("Cleaner found %s outdated execution job", clearCounter));
+        logger.warn(String.format("Cleaner found %s outdated execution job%s", clearCounter, dryRun ? ", nothing deleted in dry run" : ""));
     }
 
     private void clearDiscoveryJobs(List<FreeStyleProject> jobs) {
@@ -197,9 +225,11 @@ public class UftJobCleaner extends AbstractSafeLoggingAsyncPeriodWork {
      */
     public static void deleteDiscoveryJobByExecutor(String executorToDelete) {
 
-        List<FreeStyleProject> jobs = Jenkins.getInstance().getAllItems(FreeStyleProject.class);
-        for (FreeStyleProject proj : jobs) {
-            if (UftJobRecognizer.isDiscoveryJob(proj)) {
+        UftJobRegistry registry = UftJobRegistry.getInstance();
+        registry.scanOnce();
+        for (String jobName : registry.getJobs(UftJobRegistry.Kind.DISCOVERY)) {
+            FreeStyleProject proj = Jenkins.getInstance().getItemByFullName(jobName, FreeStyleProject.class);
+            if (proj != null && UftJobRecognizer.isDiscoveryJob(proj)) {
                 String executorId = UftJobRecognizer.getExecutorId(proj);
                 String executorLogicalName = UftJobRecognizer.getExecutorLogicalName(proj);
                 if ((StringUtils.isNotEmpty(executorId) && executorId.equals(executorToDelete)) ||
@@ -0,0 +1,243 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+package com.microfocus.application.automation.tools.octane.executor;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import jenkins.model.Jenkins;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Registry of the jobs created by {@link TestExecutionJobCreatorService}, with the start time of their last run.
+ * Jobs are registered when they are created (or updated) for Octane, and the jobs created by older versions of the plugin
+ * are found by a single scan of all the jobs, see {@link #scanOnce()}. The registry is persisted in the Jenkins root directory,
+ * so {@link UftJobCleaner} doesn't need to load the builds of all the jobs to find the outdated ones.
+ */
+public class UftJobRegistry {
+
+    private static final Logger logger = LogManager.getLogger(UftJobRegistry.class);
+    private static final String REGISTRY_FILE = "octane-uft-jobs.xml";
+
+    private static UftJobRegistry instance;
+
+    public enum Kind {
+        EXECUTION,
+        DISCOVERY
+    }
+
+    public static final class Record {
+        private final Kind kind;
+        // start time of the last run, 0 if the job has not run yet
+        private long lastRun;
+
+        private Record(Kind kind, long lastRun) {
+            this.kind = kind;
+            this.lastRun = lastRun;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public long getLastRun() {
+            return lastRun;
+        }
+    }
+
+    // job full name -> record
+    private Map<String, Record> jobs = new TreeMap<>();
+    // true once the jobs created before the registry existed were registered
+    private boolean scanned;
+    private transient XmlFile file;
+
+    private UftJobRegistry() {
+    }
+
+    public static synchronized UftJobRegistry getInstance() {
+        if (instance == null) {
+            instance = load(new XmlFile(new File(Jenkins.getInstance().getRootDir(), REGISTRY_FILE)));
+        }
+        return instance;
+    }
+
+    static UftJobRegistry load(XmlFile file) {
+        UftJobRegistry registry = null;
+        if (file.exists()) {
+            try {
+                registry = (UftJobRegistry) file.read();
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to load the registry of the UFT jobs, all the jobs will be scanned again", e);
+            }
+        }
+        if (registry == null || registry.jobs == null) {
+            registry = new UftJobRegistry();
+        }
+        registry.file = file;
+        return registry;
+    }
+
+    public synchronized void register(Job<?, ?> job, Kind kind) {
+        if (!jobs.containsKey(job.getFullName())) {
+            jobs.put(job.getFullName(), new Record(kind, 0));
+            save();
+        }
+    }
+
+    /**
+     * Registers the Octane jobs created before the registry existed, the builds of all the jobs are loaded only this time
+     */
+    public void scanOnce() {
+        synchronized (this) {
+            if (scanned) {
+                return;
+            }
+        }
+        Map<String, Record> found = new TreeMap<>();
+        for (FreeStyleProject job : Jenkins.getInstance().getAllItems(FreeStyleProject.class)) {
+            Kind kind = UftJobRecognizer.isExecutorJob(job) ? Kind.EXECUTION : UftJobRecognizer.isDiscoveryJob(job) ? Kind.DISCOVERY : null;
+            if (kind != null) {
+                Run<?, ?> lastBuild = job.getLastBuild();
+                found.put(job.getFullName(), new Record(kind, lastBuild == null ? 0 : lastBuild.getTimeInMillis()));
+            }
+        }
+        synchronized (this) {
+            for (Map.Entry<String, Record> entry : found.entrySet()) {
+                Record existing = jobs.get(entry.getKey());
+                if (existing == null) {
+                    jobs.put(entry.getKey(), entry.getValue());
+                } else {
+                    existing.lastRun = Math.max(existing.lastRun, entry.getValue().lastRun);
+                }
+            }
+            scanned = true;
+            save();
+        }
+        logger.info(String.format("Registered %d UFT jobs created by previous versions", found.size()));
+    }
+
+    public synchronized void recordRun(Run<?, ?> run) {
+        Record record = jobs.get(run.getParent().getFullName());
+        if (record != null && run.getTimeInMillis() > record.lastRun) {
+            record.lastRun = run.getTimeInMillis();
+            save();
+        }
+    }
+
+    public synchronized void remove(String fullName) {
+        if (jobs.remove(fullName) != null) {
+            save();
+        }
+    }
+
+    synchronized void rename(String oldFullName, String newFullName) {
+        Record record = jobs.remove(oldFullName);
+        if (record != null) {
+            jobs.put(newFullName, record);
+            save();
+        }
+    }
+
+    /**
+     * @return full names of the registered jobs of the kind
+     */
+    public synchronized List<String> getJobs(Kind kind) {
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, Record> entry : jobs.entrySet()) {
+            if (entry.getValue().kind == kind) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return full names of the registered jobs of the kind which ran, but not since the time
+     */
+    public synchronized List<String> getJobsNotRunSince(Kind kind, long time) {
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, Record> entry : jobs.entrySet()) {
+            Record record = entry.getValue();
+            if (record.kind == kind && record.lastRun > 0 && record.lastRun < time) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    synchronized Record getRecord(String fullName) {
+        return jobs.get(fullName);
+    }
+
+    private void save() {
+        try {
+            file.write(this);
+        } catch (IOException e) {
+            logger.warn("Failed to save the registry of the UFT jobs", e);
+        }
+    }
+
+    /**
+     * Keeps the start time of the last run of the registered jobs
+     */
+    @Extension
+    public static class RunsListener extends RunListener<Run> {
+        @Override
+        public void onStarted(Run run, TaskListener listener) {
+            try {
+                getInstance().recordRun(run);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to record the run " + run + " in the registry of the UFT jobs", e);
+            }
+        }
+    }
+
+    /**
+     * Follows deletion and renaming of the registered jobs
+     */
+    @Extension
+    public static class ItemEventsListener extends ItemListener {
+        @Override
+        public void onDeleted(Item item) {
+            getInstance().remove(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            getInstance().rename(oldFullName, newFullName);
+        }
+    }
+}
@@ -40,8 +40,14 @@ import hudson.model.FreeStyleProject;
 import hudson.model.Job;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import hudson.util.TimeUnit2;
 import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
+import org.acegisecurity.context.SecurityContext;
+import org.acegisecurity.context.SecurityContextHolder;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.HttpStatus;
 import org.apache.logging.log4j.LogManager;
@@ -51,11 +57,17 @@ import javax.xml.bind.JAXBException;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is responsible to send discovered uft tests to Octane.
  * Class uses file-based queue so if octane or jenkins will be down before sending,
  * after connection is up - this dispatcher will send tests to Octane.
+ * Queue is drained by several workers; a failed item is retried after a backoff without blocking the items behind it.
  * <p>
  * Actually list of discovered tests are persisted in job run directory. Queue contains only reference to that job run.
  */
@@ -64,9 +76,12 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
 
 	private final static Logger logger = LogManager.getLogger(UftTestDiscoveryDispatcher.class);
 
-	private final static int MAX_DISPATCH_TRIALS = 5;
 	private static final String OCTANE_VERSION_SUPPORTING_TEST_RENAME = "12.60.3";
+	private static final int WORKERS = Integer.getInteger("UftTestDiscoveryDispatcher.Workers", 4);
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
 
+	private final ExecutorService executor = Executors.newFixedThreadPool(WORKERS,
+			new NamingThreadFactory(new DaemonThreadFactory(), "Uft Test Discovery Dispatcher worker"));
 	private UftTestDiscoveryQueue queue;
 	private volatile boolean stopped = false;
 
@@ -81,55 +96,120 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
 			return;
 		}
 
-		if (queue.peekFirst() == null) {
+		int queueSize = queue.size();
+		if (queueSize == 0) {
 			return;
 		}
 
-		logger.warn("Queue size  " + queue.size());
+		logger.warn("Queue size  " + queueSize);
 
 		if (OctaneSDK.getClients().isEmpty()) {
 			logger.warn("There are pending discovered UFT tests, but no Octane configuration is found, results can't be submitted");
 			return;
 		}
 
-		ResultQueue.QueueItem item = null;
+		//  each worker drains the items ready for dispatching; items in backoff are left for the following periods
+		List<Future<?>> workers = new ArrayList<>();
+		for (int i = 0; i < Math.min(WORKERS, queueSize); i++) {
+			workers.add(executor.submit(this::drainQueue));
+		}
+		for (Future<?> worker : workers) {
+			try {
+				worker.get();
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException ee) {
+				logger.error("UFT discovery dispatching worker failed", ee.getCause());
+			}
+		}
+	}
+
+	public JSONObject getQueueStatus() {
+		JSONObject status = queue.getStatus();
+		status.put("workers", WORKERS);
+		return status;
+	}
+
+	public void close() {
+		logger.info("stopping the UFT dispatcher and closing its queue");
+		stopped = true;
+		executor.shutdown();
 		try {
-			while ((item = queue.peekFirst()) != null) {
+			if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				logger.warn("UFT discovery dispatching is still in progress, pending items will be dispatched after restart");
+			}
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+		queue.close();
+	}
 
-				Job project = (Job) Jenkins.getInstance().getItemByFullName(item.getProjectName());
-				if (project == null) {
-					logger.warn("Project [" + item.getProjectName() + "] no longer exists, pending discovered tests can't be submitted");
-					queue.remove();
-					continue;
-				}
+	private void drainQueue() {
+		SecurityContext originalContext = ACL.impersonate(ACL.SYSTEM);
+		try {
+			ResultQueue.QueueItem item;
+			while (!stopped && (item = queue.take()) != null) {
+				dispatch(item);
+			}
+		} finally {
+			SecurityContextHolder.setContext(originalContext);
+		}
+	}
 
-				Run build = project.getBuildByNumber(item.getBuildNumber());
-				if (build == null) {
-					logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer exists, pending discovered tests can't be submitted");
-					queue.remove();
-					continue;
-				}
+	private void dispatch(ResultQueue.QueueItem item) {
+		boolean dispatched = false;
+		Exception failure = null;
+		try {
+			doDispatch(item);
+			dispatched = true;
+		} catch (Exception e) {
+			failure = e;
+		} finally {
+			//  released on any outcome, an Error included, so the item never stays taken until restart
+			if (dispatched) {
+				queue.complete(item);
+			} else if (queue.retry(item)) {
+				logger.warn("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "], will retry : " + (failure != null ? failure.getMessage() : "unexpected error"));
+			} else {
+				logger.error("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "]  after " + item.getFailCount() + " trials, moved to dead letters", failure);
+			}
+		}
+	}
 
-				UftTestDiscoveryResult result = UFTTestDetectionService.readDetectionResults(build);
-				if (result == null) {
-					logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer contains valid detection result file");
-					queue.remove();
-					continue;
-				}
+	/**
+	 * Dispatches the detection result of the item; returns normally also when there is nothing that could be dispatched
+	 */
+	private void doDispatch(ResultQueue.QueueItem item) throws Exception {
+		try {
+			Job project = (Job) Jenkins.getInstance().getItemByFullName(item.getProjectName());
+			if (project == null) {
+				logger.warn("Project [" + item.getProjectName() + "] no longer exists, pending discovered tests can't be submitted");
+				return;
+			}
 
-				OctaneClient client = null;
-				try {
-					client = OctaneSDK.getClientByInstanceId(result.getConfigurationId());
-				} catch (Exception e) {
-					logger.error("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] does not have valid configuration " + result.getConfigurationId() + " : " + e.getMessage());
-					queue.remove();
-					continue;
-				}
+			Run build = project.getBuildByNumber(item.getBuildNumber());
+			if (build == null) {
+				logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer exists, pending discovered tests can't be submitted");
+				return;
+			}
+
+			UftTestDiscoveryResult result = UFTTestDetectionService.readDetectionResults(build);
+			if (result == null) {
+				logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer contains valid detection result file");
+				return;
+			}
 
-				logger.warn("Persistence [" + item.getProjectName() + "#" + item.getBuildNumber() + "]");
-				dispatchDetectionResults(item, client.getEntitiesService(), result);
-				queue.remove();
+			OctaneClient client;
+			try {
+				client = OctaneSDK.getClientByInstanceId(result.getConfigurationId());
+			} catch (Exception e) {
+				logger.error("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] does not have valid configuration " + result.getConfigurationId() + " : " + e.getMessage());
+				return;
 			}
+
+			logger.warn("Persistence [" + item.getProjectName() + "#" + item.getBuildNumber() + "]");
+			dispatchDetectionResults(item, client.getEntitiesService(), result);
 		} catch (OctaneRestException e) {
 			String reasonDesc = StringUtils.isNotEmpty(e.getData().getDescriptionTranslated()) ? e.getData().getDescriptionTranslated() : e.getData().getDescription();
 			if (e.getResponseStatus() == HttpStatus.SC_FORBIDDEN) {
@@ -137,24 +217,9 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
 			} else {
 				logger.error("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "]  : " + reasonDesc);
 			}
-			queue.remove();
-		} catch (Exception e) {
-			if (item != null) {
-				item.incrementFailCount();
-				if (item.incrementFailCount() > MAX_DISPATCH_TRIALS) {
-					queue.remove();
-					logger.error("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "]  after " + MAX_DISPATCH_TRIALS + " trials");
-				}
-			}
 		}
 	}
 
-	public void close() {
-		logger.info("stopping the UFT dispatcher and closing its queue");
-		stopped = true;
-		queue.close();
-	}
-
 	private static void dispatchDetectionResults(ResultQueue.QueueItem item, EntitiesService entitiesService, UftTestDiscoveryResult result) {
 		//Check if there is diff in discovery and server status
 		//for example : discovery found new test , but it already exist in server , instead of create new tests we will do update test
@@ -22,7 +22,7 @@
 
 package com.microfocus.application.automation.tools.octane.executor;
 
-import com.microfocus.application.automation.tools.octane.AbstractResultQueueImpl;
+import com.microfocus.application.automation.tools.octane.DurableResultQueue;
 import jenkins.model.Jenkins;
 
 import java.io.File;
@@ -31,10 +31,16 @@ import java.io.IOException;
 /**
  * Queue for uft test discovery before dispatching
  */
-public class UftTestDiscoveryQueue extends AbstractResultQueueImpl {
+public class UftTestDiscoveryQueue extends DurableResultQueue {
+
+    private static final int MAX_RETRIES = 5;
+    private static final long BACKOFF_BASE_MS = Long.getLong("UftTestDiscoveryQueue.BackoffBaseMs", 30000L);
+    private static final long BACKOFF_MAX_MS = Long.getLong("UftTestDiscoveryQueue.BackoffMaxMs", 1800000L);
 
     public UftTestDiscoveryQueue() throws IOException {
-        File queueFile = new File(Jenkins.getInstance().getRootDir(), "octane-uft-tests-queue.dat");
-        init(queueFile);
+        super(MAX_RETRIES, BACKOFF_BASE_MS, BACKOFF_MAX_MS);
+        File rootDir = Jenkins.getInstance().getRootDir();
+        init(new File(rootDir, "octane-uft-tests-queue.journal"));
+        migrate(new File(rootDir, "octane-uft-tests-queue.dat"));
     }
 }
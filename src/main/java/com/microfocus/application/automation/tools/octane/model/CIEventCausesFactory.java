@@ -38,15 +38,13 @@ import org.apache.logging.log4j.Logger;
 import org.jenkinsci.plugins.workflow.actions.LabelAction;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepAtomNode;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepEndNode;
+import org.jenkinsci.plugins.workflow.graph.FlowEndNode;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
 
 import java.io.IOException;
-import java.util.LinkedHashSet;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Causes Factory is a collection of static stateless methods to extract/traverse/transform causes chains of the runs
@@ -122,12 +120,42 @@ public final class CIEventCausesFactory {
 	}
 
 	public static List<CIEventCause> processCauses(FlowNode flowNode) {
+		return processCauses(flowNode, FlowCausesCache.get(flowNode));
+	}
+
+	static List<CIEventCause> processCauses(FlowNode flowNode, FlowCausesCache cache) {
 		List<CIEventCause> causes = new LinkedList<>();
-		processCauses(flowNode, causes, new LinkedHashSet<>());
+		processCauses(flowNode, causes, new LinkedHashSet<>(), cache);
 		return causes;
 	}
 
-	private static void processCauses(FlowNode flowNode, List<CIEventCause> causes, Set<FlowNode> startStagesToSkip) {
+	/**
+	 * Tracks the flow graph of a running pipeline, to be called for every new head
+	 */
+	public static void onNewHead(FlowNode flowNode) {
+		if (isBuildTriggerStep(flowNode)) {
+			FlowCausesCache cache = FlowCausesCache.get(flowNode);
+			if (cache != null) {
+				cache.addPendingTrigger(flowNode);
+			}
+		} else if (flowNode instanceof FlowEndNode) {
+			FlowCausesCache.evict(flowNode.getExecution());
+		}
+	}
+
+	private static void processCauses(FlowNode flowNode, List<CIEventCause> causes, Set<FlowNode> startStagesToSkip, FlowCausesCache cache) {
+		//  resolution of a node with nothing to skip doesn't depend on the caller - reuse it if already done
+		boolean memoizable = cache != null && startStagesToSkip.isEmpty();
+		if (memoizable) {
+			FlowCausesCache.Memo memo = cache.getMemo(flowNode);
+			if (memo != null) {
+				causes.addAll(copyCauses(memo.causes));
+				startStagesToSkip.addAll(memo.startStagesToSkip);
+				return;
+			}
+		}
+		int firstAdded = causes.size();
+
 		//  we reached the start of the flow - add WorkflowRun as an initial UPSTREAM cause
 		if (flowNode.getParents().isEmpty()) {
 			WorkflowRun parentRun = BuildHandlerUtils.extractParentRun(flowNode);
@@ -147,7 +175,7 @@ public final class CIEventCausesFactory {
 		for (FlowNode parent : flowNode.getParents()) {
 			if (BuildHandlerUtils.isStageEndNode(parent)) {
 				startStagesToSkip.add(((StepEndNode) parent).getStartNode());
-				processCauses(parent, causes, startStagesToSkip);
+				processCauses(parent, causes, startStagesToSkip, cache);
 			} else if (BuildHandlerUtils.isStageStartNode(parent)) {
 				if (!startStagesToSkip.contains(parent)) {
 					CIEventCause cause = dtoFactory.newDTO(CIEventCause.class)
@@ -155,15 +183,37 @@ public final class CIEventCausesFactory {
 							.setProject(parent.getDisplayName())
 							.setBuildCiId(String.valueOf(BuildHandlerUtils.extractParentRun(parent).getNumber()));
 					causes.add(cause);
-					processCauses(parent, cause.getCauses(), startStagesToSkip);
+					processCauses(parent, cause.getCauses(), startStagesToSkip, cache);
 				} else {
 					startStagesToSkip.remove(parent);
-					processCauses(parent, causes, startStagesToSkip);
+					processCauses(parent, causes, startStagesToSkip, cache);
 				}
 			} else {
-				processCauses(parent, causes, startStagesToSkip);
+				processCauses(parent, causes, startStagesToSkip, cache);
 			}
 		}
+
+		if (memoizable) {
+			cache.putMemo(flowNode, new FlowCausesCache.Memo(
+					copyCauses(causes.subList(firstAdded, causes.size())),
+					new HashSet<>(startStagesToSkip)));
+		}
+	}
+
+	/**
+	 * Deep copy of the causes, so the DTOs of memoized causes are never shared between events
+	 */
+	private static List<CIEventCause> copyCauses(List<CIEventCause> causes) {
+		List<CIEventCause> result = new ArrayList<>(causes.size());
+		for (CIEventCause cause : causes) {
+			result.add(dtoFactory.newDTO(CIEventCause.class)
+					.setType(cause.getType())
+					.setUser(cause.getUser())
+					.setProject(cause.getProject())
+					.setBuildCiId(cause.getBuildCiId())
+					.setCauses(cause.getCauses() == null ? null : copyCauses(cause.getCauses())));
+		}
+		return result;
 	}
 
 	private static String resolveJobCiId(String jobPlainName) {
@@ -199,26 +249,48 @@ public final class CIEventCausesFactory {
 		} else {
 			//  started event case - we expect a strict bond here since the parent FlowNode MUST be among the current heads
 			//  the only case for potential break here is if the same JOB will be running concurrently by 2 distinct FlowNodes
-			List<FlowNode> potentialAncestors = parentRun.getExecution().getCurrentHeads();
+			FlowCausesCache cache = FlowCausesCache.peek(parentRun.getExecution());
+			if (cache != null) {
+				//  build trigger steps seen by onNewHead which didn't start their job yet
+				for (FlowNode trigger : cache.getPendingTriggers()) {
+					if (isTriggerOf(trigger, targetRun) && trigger.isActive()) {
+						result = trigger;
+						cache.removePendingTrigger(trigger);
+						break;
+					}
+				}
+			}
+			List<FlowNode> potentialAncestors = result == null ? parentRun.getExecution().getCurrentHeads() : null;
 			if (potentialAncestors != null) {
 				for (FlowNode head : potentialAncestors) {
-					if (head instanceof StepAtomNode && head.getAction(LabelAction.class) != null) {
-						StepDescriptor descriptor = ((StepAtomNode) head).getDescriptor();
-						String label = head.getAction(LabelAction.class).getDisplayName();
-						if (descriptor != null && descriptor.getId().endsWith("BuildTriggerStep") &&
-								label != null && label.endsWith(targetRun.getParent().getFullDisplayName())) {
-							result = head;
-							targetRun.addAction(new OctaneParentNodeAction(result.getId()));
-							break;
-						}
+					if (isBuildTriggerStep(head) && isTriggerOf(head, targetRun)) {
+						result = head;
+						break;
 					}
 				}
 			}
+			if (result != null) {
+				targetRun.addAction(new OctaneParentNodeAction(result.getId()));
+			}
 		}
 
 		return result;
 	}
 
+	private static boolean isBuildTriggerStep(FlowNode flowNode) {
+		if (!(flowNode instanceof StepAtomNode)) {
+			return false;
+		}
+		StepDescriptor descriptor = ((StepAtomNode) flowNode).getDescriptor();
+		return descriptor != null && descriptor.getId().endsWith("BuildTriggerStep");
+	}
+
+	private static boolean isTriggerOf(FlowNode trigger, Run targetRun) {
+		LabelAction labelAction = trigger.getAction(LabelAction.class);
+		String label = labelAction == null ? null : labelAction.getDisplayName();
+		return label != null && label.endsWith(targetRun.getParent().getFullDisplayName());
+	}
+
 	private final static class OctaneParentNodeAction extends InvisibleAction {
 		private final String parentFlowNodeId;
 
@@ -0,0 +1,158 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import hudson.Extension;
+import hudson.model.Cause;
+import hudson.model.InvisibleAction;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Index of the runs started by a run (downstream runs), kept in the invoking run and persisted with it.
+ * Runs started after the plugin upgrade record every downstream run as soon as it starts, see {@link Recorder};
+ * for older runs the downstream runs of a job are found by scanning the job once, and remembered.
+ */
+public class DownstreamRunsAction extends InvisibleAction {
+	private static final Logger logger = LogManager.getLogger(DownstreamRunsAction.class);
+
+	// true if the action exists since the start of the run, so every downstream run is recorded
+	private final boolean complete;
+	// downstream job full name -> numbers of its runs started by this run, in the order of start;
+	// concurrent, since Run.save() serializes it under the lock of the run while other downstream runs are added
+	private final Map<String, CopyOnWriteArrayList<Integer>> runs = new ConcurrentHashMap<>();
+
+	private DownstreamRunsAction(boolean complete) {
+		this.complete = complete;
+	}
+
+	/**
+	 * @return runs of the job started by the invoker ordered by number, null if the invoker doesn't know them
+	 */
+	public static List<Run> getDownstreamRuns(Run invoker, Job job) {
+		DownstreamRunsAction action = invoker.getAction(DownstreamRunsAction.class);
+		if (action == null) {
+			return null;
+		}
+		List<Integer> numbers = action.getNumbers(job.getFullName());
+		if (numbers == null) {
+			return null;
+		}
+		List<Run> result = new ArrayList<>(numbers.size());
+		for (int number : numbers) {
+			Run run = job.getBuildByNumber(number);
+			if (run != null) {
+				result.add(run);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Remembers the downstream runs of the job found by a scan, for a run started without the index
+	 */
+	public static void remember(Run invoker, Job job, List<Run> downstreamRuns) {
+		DownstreamRunsAction action;
+		synchronized (invoker) {
+			action = invoker.getAction(DownstreamRunsAction.class);
+			if (action == null) {
+				action = new DownstreamRunsAction(false);
+				invoker.addAction(action);
+			}
+		}
+		if (action.complete) {
+			return;
+		}
+		List<Integer> numbers = new ArrayList<>(downstreamRuns.size());
+		for (Run run : downstreamRuns) {
+			numbers.add(run.getNumber());
+		}
+		action.runs.put(job.getFullName(), new CopyOnWriteArrayList<>(numbers));
+		save(invoker);
+	}
+
+	private List<Integer> getNumbers(String jobFullName) {
+		List<Integer> numbers = runs.get(jobFullName);
+		if (numbers == null) {
+			return complete ? Collections.emptyList() : null;
+		}
+		List<Integer> result = new ArrayList<>(numbers);
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * @return true if the run was recorded
+	 */
+	private boolean add(String jobFullName, int number) {
+		// if this job was not scanned yet, the scan will find the run
+		CopyOnWriteArrayList<Integer> numbers = complete
+				? runs.computeIfAbsent(jobFullName, name -> new CopyOnWriteArrayList<>())
+				: runs.get(jobFullName);
+		return numbers != null && numbers.addIfAbsent(number);
+	}
+
+	private static void save(Run run) {
+		try {
+			run.save();
+		} catch (IOException e) {
+			logger.error("failed to save downstream runs of " + run, e);
+		}
+	}
+
+	/**
+	 * Attaches the index to every started run and records the run in the indexes of its upstream runs
+	 */
+	@Extension
+	public static class Recorder extends RunListener<Run> {
+		@Override
+		@SuppressWarnings("unchecked")
+		public void onStarted(Run run, TaskListener listener) {
+			try {
+				if (run.getAction(DownstreamRunsAction.class) == null) {
+					run.addAction(new DownstreamRunsAction(true));
+				}
+				for (Cause cause : (List<Cause>) run.getCauses()) {
+					if (cause instanceof Cause.UpstreamCause) {
+						Run upstream = ((Cause.UpstreamCause) cause).getUpstreamRun();
+						DownstreamRunsAction action = upstream == null ? null : upstream.getAction(DownstreamRunsAction.class);
+						if (action != null && action.add(run.getParent().getFullName(), run.getNumber())) {
+							save(upstream);
+						}
+					}
+				}
+			} catch (Throwable t) {
+				logger.error("failed to record " + run + " in the downstream runs of its upstream runs", t);
+			}
+		}
+	}
+}
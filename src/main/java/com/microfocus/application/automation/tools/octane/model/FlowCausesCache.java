@@ -0,0 +1,139 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import com.hp.octane.integrations.dto.causes.CIEventCause;
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per pipeline execution memory of the causes resolution: the causes chain of every flow node resolved so far, and
+ * the build trigger steps which didn't start their job yet. Flow graph only grows, so nothing here gets stale while
+ * the execution runs; the whole cache is dropped when the execution completes.
+ * The memoized nodes of all the executions together are bounded by CIEventCausesFactory.MaxCachedNodes.
+ */
+final class FlowCausesCache {
+	private static final int MAX_CACHED_NODES = Integer.getInteger("CIEventCausesFactory.MaxCachedNodes", 20000);
+	private static final int MAX_CACHED_EXECUTIONS = Integer.getInteger("CIEventCausesFactory.MaxCachedExecutions", 50);
+	private static final AtomicInteger cachedNodes = new AtomicInteger();
+	// least recently used first, so an execution which never reported its end is eventually dropped
+	private static final Map<FlowExecution, FlowCausesCache> caches = Collections.synchronizedMap(
+			new LinkedHashMap<FlowExecution, FlowCausesCache>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<FlowExecution, FlowCausesCache> eldest) {
+					if (size() > MAX_CACHED_EXECUTIONS) {
+						eldest.getValue().drop();
+						return true;
+					}
+					return false;
+				}
+			});
+
+	private final Map<String, Memo> memos = new ConcurrentHashMap<>();
+	private final Map<String, FlowNode> pendingTriggers = Collections.synchronizedMap(new LinkedHashMap<>());
+	private boolean dropped;
+
+	/**
+	 * Causes appended by the resolution of a node started with no stages to skip, and the stages to skip it left
+	 */
+	static final class Memo {
+		final List<CIEventCause> causes;
+		final Set<FlowNode> startStagesToSkip;
+
+		Memo(List<CIEventCause> causes, Set<FlowNode> startStagesToSkip) {
+			this.causes = causes;
+			this.startStagesToSkip = startStagesToSkip;
+		}
+	}
+
+	/**
+	 * @return cache of the running execution, null if the execution is not known or already complete
+	 */
+	static FlowCausesCache get(FlowNode flowNode) {
+		FlowExecution execution = flowNode.getExecution();
+		if (execution == null || execution.isComplete()) {
+			return null;
+		}
+		synchronized (caches) {
+			FlowCausesCache cache = caches.get(execution);
+			if (cache == null) {
+				cache = new FlowCausesCache();
+				caches.put(execution, cache);
+			}
+			return cache;
+		}
+	}
+
+	static FlowCausesCache peek(FlowExecution execution) {
+		return caches.get(execution);
+	}
+
+	static void evict(FlowExecution execution) {
+		FlowCausesCache cache = caches.remove(execution);
+		if (cache != null) {
+			cache.drop();
+		}
+	}
+
+	Memo getMemo(FlowNode flowNode) {
+		return memos.get(flowNode.getId());
+	}
+
+	synchronized void putMemo(FlowNode flowNode, Memo memo) {
+		if (!dropped && !memos.containsKey(flowNode.getId()) && cachedNodes.get() < MAX_CACHED_NODES) {
+			memos.put(flowNode.getId(), memo);
+			cachedNodes.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Releases the memoized nodes from the global bound
+	 */
+	synchronized void drop() {
+		dropped = true;
+		cachedNodes.addAndGet(-memos.size());
+		memos.clear();
+	}
+
+	int size() {
+		return memos.size();
+	}
+
+	void addPendingTrigger(FlowNode triggerNode) {
+		pendingTriggers.put(triggerNode.getId(), triggerNode);
+	}
+
+	List<FlowNode> getPendingTriggers() {
+		synchronized (pendingTriggers) {
+			return new ArrayList<>(pendingTriggers.values());
+		}
+	}
+
+	void removePendingTrigger(FlowNode triggerNode) {
+		pendingTriggers.remove(triggerNode.getId());
+	}
+}
@@ -0,0 +1,370 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import com.microfocus.application.automation.tools.octane.model.processors.projects.JobProcessorFactory;
+import hudson.Extension;
+import hudson.model.AbstractProject;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.TopLevelItem;
+import hudson.model.listeners.ItemListener;
+import hudson.security.ACL;
+import jenkins.branch.OrganizationFolder;
+import jenkins.model.Jenkins;
+import org.acegisecurity.context.SecurityContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index of the jobs reported to Octane by the jobs list, built by one full scan and then kept up to date by item
+ * events: an event only marks the top level item containing the affected item, and marked items are scanned again
+ * by the next request, so a burst of events (e.g. a branch indexing) costs one scan per top level item.
+ * The index is an immutable snapshot, replaced on every change, so readers don't lock unless there are changes.
+ * <p>
+ * Only the structure (names and CI IDs) is indexed. Whatever may change without an item event - permissions,
+ * disabled state, parameters - is resolved when the list is served, under the ACL of the caller.
+ */
+public class JobsListIndex {
+	private static final Logger logger = LogManager.getLogger(JobsListIndex.class);
+	private static final long RESYNC_MILLIS = TimeUnit.MINUTES.toMillis(Integer.getInteger("JobsListIndex.ResyncMinutes", 60));
+	private static final JobsListIndex instance = new JobsListIndex();
+
+	private final Set<String> changedTopLevelItems = new HashSet<>();
+	private volatile SortedMap<String, List<Entry>> snapshot;
+	private volatile boolean changed;
+	private volatile long lastScan;
+
+	public static JobsListIndex getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Job of the jobs list
+	 */
+	public static final class Entry {
+		private final String fullName;
+		private final String name;
+		private final String jobCiId;
+		private final boolean job;
+
+		Entry(String fullName, String name, String jobCiId, boolean job) {
+			this.fullName = fullName;
+			this.name = name;
+			this.jobCiId = jobCiId;
+			this.job = job;
+		}
+
+		/**
+		 * @return full name of the indexed item, to resolve it with
+		 */
+		public String getFullName() {
+			return fullName;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getJobCiId() {
+			return jobCiId;
+		}
+
+		/**
+		 * @return true if the item is a job which may have parameters, false for multibranch/organization items
+		 */
+		public boolean isJob() {
+			return job;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Entry entry = (Entry) o;
+			return job == entry.job &&
+					fullName.equals(entry.fullName) &&
+					Objects.equals(name, entry.name) &&
+					Objects.equals(jobCiId, entry.jobCiId);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(fullName, name, jobCiId, job);
+		}
+
+		@Override
+		public String toString() {
+			return jobCiId + " (" + fullName + ")";
+		}
+	}
+
+	/**
+	 * Returns the indexed jobs which are visible to the current user, in the order of top level items
+	 *
+	 * @param nameFilter case insensitive part of the job name, null for all jobs
+	 * @param offset     number of matching visible jobs to skip
+	 * @param limit      maximal number of jobs to return
+	 * @return visible jobs, with the resolved items
+	 */
+	public List<VisibleEntry> getVisibleEntries(String nameFilter, int offset, int limit) {
+		String filter = nameFilter == null || nameFilter.isEmpty() ? null : nameFilter.toLowerCase(Locale.ROOT);
+		Jenkins jenkins = Jenkins.getInstance();
+		List<VisibleEntry> result = new ArrayList<>();
+		int skipped = 0;
+		for (List<Entry> entries : getSnapshot().values()) {
+			for (Entry entry : entries) {
+				if (result.size() >= limit) {
+					return result;
+				}
+				if (filter != null && (entry.name == null || !entry.name.toLowerCase(Locale.ROOT).contains(filter))) {
+					continue;
+				}
+				// resolved with the permissions of the caller, null if the item is not readable
+				Item item = jenkins.getItemByFullName(entry.fullName);
+				if (item == null || isDisabledTopLevelProject(jenkins, item)) {
+					continue;
+				}
+				if (skipped < offset) {
+					skipped++;
+					continue;
+				}
+				result.add(new VisibleEntry(entry, item));
+			}
+		}
+		return result;
+	}
+
+	private static boolean isDisabledTopLevelProject(Jenkins jenkins, Item item) {
+		return item instanceof AbstractProject && item.getParent() == jenkins && ((AbstractProject) item).isDisabled();
+	}
+
+	/**
+	 * Indexed job together with its item resolved for the current user
+	 */
+	public static final class VisibleEntry {
+		private final Entry entry;
+		private final Item item;
+
+		VisibleEntry(Entry entry, Item item) {
+			this.entry = entry;
+			this.item = item;
+		}
+
+		public Entry getEntry() {
+			return entry;
+		}
+
+		/**
+		 * @return the job, null for multibranch/organization items
+		 */
+		public Job getJob() {
+			return entry.job && item instanceof Job ? (Job) item : null;
+		}
+	}
+
+	/**
+	 * @return all indexed jobs, regardless of permissions and disabled state
+	 */
+	public List<Entry> getEntries() {
+		List<Entry> result = new ArrayList<>();
+		for (List<Entry> entries : getSnapshot().values()) {
+			result.addAll(entries);
+		}
+		return result;
+	}
+
+	/**
+	 * Drops the index, the next request rebuilds it with a full scan
+	 */
+	public synchronized void invalidate() {
+		snapshot = null;
+		changedTopLevelItems.clear();
+		changed = false;
+	}
+
+	/**
+	 * Scans all the top level items the way the index is built, to verify it against
+	 */
+	public static List<Entry> scan() {
+		SecurityContext originalContext = ACL.impersonate(ACL.SYSTEM);
+		try {
+			List<Entry> result = new ArrayList<>();
+			for (List<Entry> entries : scanAll().values()) {
+				result.addAll(entries);
+			}
+			return result;
+		} finally {
+			ACL.impersonate(originalContext.getAuthentication());
+		}
+	}
+
+	private SortedMap<String, List<Entry>> getSnapshot() {
+		SortedMap<String, List<Entry>> current = snapshot;
+		if (current == null || changed || System.currentTimeMillis() - lastScan > RESYNC_MILLIS) {
+			synchronized (this) {
+				if (snapshot == null || System.currentTimeMillis() - lastScan > RESYNC_MILLIS) {
+					rebuild();
+				} else if (changed) {
+					applyChanges();
+				}
+				current = snapshot;
+			}
+		}
+		return current;
+	}
+
+	private void rebuild() {
+		SecurityContext originalContext = ACL.impersonate(ACL.SYSTEM);
+		try {
+			long start = System.currentTimeMillis();
+			changedTopLevelItems.clear();
+			changed = false;
+			snapshot = Collections.unmodifiableSortedMap(scanAll());
+			lastScan = System.currentTimeMillis();
+			logger.info("jobs list index built in " + (lastScan - start) + " ms, " + snapshot.size() + " top level items");
+		} finally {
+			ACL.impersonate(originalContext.getAuthentication());
+		}
+	}
+
+	private void applyChanges() {
+		SecurityContext originalContext = ACL.impersonate(ACL.SYSTEM);
+		try {
+			SortedMap<String, List<Entry>> updated = new TreeMap<>(snapshot);
+			for (String topLevelName : changedTopLevelItems) {
+				TopLevelItem topLevelItem = Jenkins.getInstance().getItem(topLevelName);
+				if (topLevelItem == null) {
+					updated.remove(topLevelName);
+				} else {
+					updated.put(topLevelName, scanTopLevelItem(topLevelName, topLevelItem));
+				}
+			}
+			snapshot = Collections.unmodifiableSortedMap(updated);
+		} catch (RuntimeException e) {
+			logger.error("failed to update jobs list index, rebuilding it", e);
+			rebuild();
+		} finally {
+			changedTopLevelItems.clear();
+			changed = false;
+			ACL.impersonate(originalContext.getAuthentication());
+		}
+	}
+
+	/**
+	 * Marks the top level items, which contained or contain the changed items, to be scanned again
+	 */
+	synchronized void itemsChanged(String... fullNames) {
+		if (snapshot == null) {
+			return;
+		}
+		for (String fullName : fullNames) {
+			if (fullName != null && !fullName.isEmpty()) {
+				changedTopLevelItems.add(fullName.split("/", 2)[0]);
+				changed = true;
+			}
+		}
+	}
+
+	private static SortedMap<String, List<Entry>> scanAll() {
+		SortedMap<String, List<Entry>> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		Jenkins jenkins = Jenkins.getInstance();
+		for (String name : jenkins.getTopLevelItemNames()) {
+			TopLevelItem item = jenkins.getItem(name);
+			if (item != null) {
+				result.put(name, scanTopLevelItem(name, item));
+			}
+		}
+		return result;
+	}
+
+	private static List<Entry> scanTopLevelItem(String name, TopLevelItem item) {
+		List<Entry> result = new ArrayList<>();
+		String jobClassName = item.getClass().getName();
+		try {
+			if (item instanceof AbstractProject || jobClassName.equals(JobProcessorFactory.WORKFLOW_JOB_NAME)) {
+				result.add(createJobEntry(name, (Job) item));
+			} else if (jobClassName.equals(JobProcessorFactory.FOLDER_JOB_NAME)) {
+				for (Job job : item.getAllJobs()) {
+					result.add(createJobEntry(job.getName(), job));
+				}
+			} else if (jobClassName.equals(JobProcessorFactory.WORKFLOW_MULTI_BRANCH_JOB_NAME)) {
+				result.add(new Entry(name, name, name, false));
+			} else if (jobClassName.equals(JobProcessorFactory.GITHUB_ORGANIZATION_FOLDER)) {
+				for (Item child : ((OrganizationFolder) item).getItems()) {
+					String childName = name + "/" + child.getDisplayName();
+					result.add(new Entry(child.getFullName(), childName, childName, false));
+				}
+			} else {
+				logger.info(String.format("jobs list index : Item '%s' of type '%s' is not supported", name, jobClassName));
+			}
+		} catch (Throwable e) {
+			logger.error("jobs list index : Failed to index job '" + name + "' : " + e.getClass().getCanonicalName() + " - " + e.getMessage(), e);
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	private static Entry createJobEntry(String name, Job job) {
+		return new Entry(job.getFullName(), name, JobProcessorFactory.getFlowProcessor(job).getTranslateJobName(), true);
+	}
+
+	@Extension
+	public static class ItemEventsListener extends ItemListener {
+		@Override
+		public void onLoaded() {
+			instance.invalidate();
+		}
+
+		@Override
+		public void onCreated(Item item) {
+			instance.itemsChanged(item.getFullName());
+		}
+
+		@Override
+		public void onCopied(Item src, Item item) {
+			instance.itemsChanged(item.getFullName());
+		}
+
+		@Override
+		public void onDeleted(Item item) {
+			instance.itemsChanged(item.getFullName());
+		}
+
+		@Override
+		public void onUpdated(Item item) {
+			instance.itemsChanged(item.getFullName());
+		}
+
+		@Override
+		public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+			instance.itemsChanged(oldFullName, newFullName);
+		}
+	}
+}
@@ -168,8 +168,18 @@ public class ModelFactory {
 		return result;
 	}
 
-	@SuppressWarnings("unchecked")
 	private static List<Run> getInvokees(Run invoker, Job job) {
+		List<Run> result = DownstreamRunsAction.getDownstreamRuns(invoker, job);
+		if (result == null) {
+			// invoker started before the downstream runs were indexed
+			result = scanInvokees(invoker, job);
+			DownstreamRunsAction.remember(invoker, job, result);
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Run> scanInvokees(Run invoker, Job job) {
 		List<Run> result = new ArrayList<>();
 		Cause.UpstreamCause tmpCause;
 		for (Object o : job.getBuilds()) {
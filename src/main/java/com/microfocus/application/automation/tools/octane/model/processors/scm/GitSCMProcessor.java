@@ -47,6 +47,7 @@ import org.eclipse.jgit.errors.NoMergeBaseException;
 import org.eclipse.jgit.internal.JGitText;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
@@ -57,8 +58,12 @@ import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by gullery on 31/03/2015.
@@ -67,7 +72,9 @@ import java.util.List;
 class GitSCMProcessor implements SCMProcessor {
     private static final Logger logger = LogManager.getLogger(GitSCMProcessor.class);
     private static final DTOFactory dtoFactory = DTOFactory.getInstance();
+    private static final String ORIGIN = "origin";
     private static final String MASTER = "refs/remotes/origin/master";
+    private static final String REMOTE_HEAD = "refs/remotes/origin/HEAD";
 
     @Override
     public SCMData getSCMData(AbstractBuild build, SCM scm) {
@@ -93,7 +100,7 @@ class GitSCMProcessor implements SCMProcessor {
             FilePath workspace = ((AbstractBuild) run).getWorkspace();
             if (workspace != null) {
                 File repoDir = new File(getRemoteString(abstractBuild) + File.separator + ".git");
-                commonOriginRevision.revision = workspace.act(new FileContentCallable(repoDir));
+                commonOriginRevision.revision = workspace.act(new MergeBaseCallable(repoDir));
 
             }
             logger.info("most recent common revision resolved to " + commonOriginRevision.revision + " (branch: " + commonOriginRevision.branch + ")");
@@ -104,62 +111,90 @@ class GitSCMProcessor implements SCMProcessor {
         return commonOriginRevision;
     }
 
-    private static final class FileContentCallable extends MasterToSlaveFileCallable<String> {
+    /**
+     * Computes the merge base of HEAD and the default branch of origin, on the node holding the workspace.
+     * Merge bases are remembered per node, keyed by the repository URL, both tips and the base ref, so a rebuild of
+     * an unchanged revision doesn't walk the history again.
+     */
+    private static final class MergeBaseCallable extends MasterToSlaveFileCallable<String> {
+        private static final int CACHE_SIZE = Integer.getInteger("GitSCMProcessor.MergeBaseCacheSize", 256);
+        private static final Map<String, String> mergeBases = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        });
         private final File repoDir;
 
-        private FileContentCallable(File file) {
+        private MergeBaseCallable(File file) {
             this.repoDir = file;
         }
 
         @Override
         public String invoke(File rootDir, VirtualChannel channel) throws IOException {
+            try (Git git = Git.open(repoDir)) {
+                Repository repo = git.getRepository();
+                ObjectId resolveForCurrentBranch = repo.resolve(Constants.HEAD);
+                if (resolveForCurrentBranch == null) {
+                    return "";
+                }
+                String baseRef = getDefaultBranchRef(repo);
+                ObjectId resolveForBase = repo.resolve(baseRef);
+                if (resolveForBase == null) {
+                    return "";
+                }
 
-            Git git = Git.open(repoDir);
-            Repository repo = git.getRepository();
-            if(repo==null){
-                return "";
-            }
-            final RevWalk walk = new RevWalk(repo);
-            if(walk==null){
-                return "";
-            }
-            ObjectId resolveForCurrentBranch = repo.resolve(Constants.HEAD);
-            if(resolveForCurrentBranch==null){
-                return "";
-            }
-            RevCommit currentBranchCommit = walk.parseCommit(resolveForCurrentBranch);
-            if(currentBranchCommit==null){
-                return "";
-            }
-            ObjectId resolveForMaster = repo.resolve(MASTER);
-            if(resolveForMaster==null){
-                return "";
+                String key = repo.getConfig().getString("remote", ORIGIN, "url") + "|" + resolveForCurrentBranch.getName() + "|" + baseRef + "|" + resolveForBase.getName();
+                String cached = mergeBases.get(key);
+                if (cached != null) {
+                    return cached;
+                }
+                String result = computeMergeBase(repo, resolveForCurrentBranch, resolveForBase);
+                mergeBases.put(key, result);
+                return result;
             }
-            RevCommit masterCommit = walk.parseCommit(resolveForMaster);
+        }
 
-            walk.reset();
-            walk.setRevFilter(RevFilter.MERGE_BASE);
-            walk.markStart(currentBranchCommit);
-            walk.markStart(masterCommit);
-            RevCommit base = walk.next();
-            if (base == null)
-                return "";
-            final RevCommit base2 = walk.next();
-            if (base2 != null) {
-                throw new NoMergeBaseException(NoMergeBaseException.MergeBaseFailureReason.MULTIPLE_MERGE_BASES_NOT_SUPPORTED,
-                        MessageFormat.format(JGitText.get().multipleMergeBasesFor, currentBranchCommit.name(), masterCommit.name(), base.name(), base2.name()));
+        /**
+         * @return the ref origin/HEAD points to, falling back to origin/master when the remote HEAD is not known locally
+         */
+        private static String getDefaultBranchRef(Repository repo) throws IOException {
+            Ref remoteHead = repo.exactRef(REMOTE_HEAD);
+            if (remoteHead != null && remoteHead.isSymbolic()) {
+                return remoteHead.getTarget().getName();
             }
-            //in order to return actual revision and not merge commit
-            while (base.getParents().length>1){
-                RevCommit base_1 = base.getParent(0);
-                RevCommit base_2 = base.getParent(1);
-                if(base_1.getParents().length==1){
-                    base = base_1;
-                }else{
-                    base = base_2;
+            return MASTER;
+        }
+
+        private static String computeMergeBase(Repository repo, ObjectId currentBranchId, ObjectId baseId) throws IOException {
+            try (RevWalk walk = new RevWalk(repo)) {
+                RevCommit currentBranchCommit = walk.parseCommit(currentBranchId);
+                RevCommit baseCommit = walk.parseCommit(baseId);
+
+                walk.reset();
+                walk.setRevFilter(RevFilter.MERGE_BASE);
+                walk.markStart(currentBranchCommit);
+                walk.markStart(baseCommit);
+                RevCommit base = walk.next();
+                if (base == null)
+                    return "";
+                final RevCommit base2 = walk.next();
+                if (base2 != null) {
+                    throw new NoMergeBaseException(NoMergeBaseException.MergeBaseFailureReason.MULTIPLE_MERGE_BASES_NOT_SUPPORTED,
+                            MessageFormat.format(JGitText.get().multipleMergeBasesFor, currentBranchCommit.name(), baseCommit.name(), base.name(), base2.name()));
                 }
+                //in order to return actual revision and not merge commit
+                while (base.getParents().length > 1) {
+                    RevCommit base_1 = walk.parseCommit(base.getParent(0));
+                    RevCommit base_2 = walk.parseCommit(base.getParent(1));
+                    if (base_1.getParents().length == 1) {
+                        base = base_1;
+                    } else {
+                        base = base_2;
+                    }
+                }
+                return base.getId().getName();
             }
-            return base.getId().getName();
         }
     }
 
@@ -257,12 +292,13 @@ class GitSCMProcessor implements SCMProcessor {
 
     private List<SCMCommit> extractCommits(List<ChangeLogSet<? extends ChangeLogSet.Entry>> changes) {
         List<SCMCommit> commits = new LinkedList<>();
+        Map<String, String> userEmails = new HashMap<>();
         for (ChangeLogSet<? extends ChangeLogSet.Entry> set : changes) {
             for (ChangeLogSet.Entry change : set) {
                 if (change instanceof GitChangeSet) {
                     GitChangeSet commit = (GitChangeSet) change;
                     User user = commit.getAuthor();
-                    String userEmail = null;
+                    String userEmail = getUserEmail(user, userEmails);
 
                     List<SCMChange> tmpChanges = new ArrayList<>();
                     for (GitChangeSet.Path item : commit.getAffectedFiles()) {
@@ -272,12 +308,6 @@ class GitSCMProcessor implements SCMProcessor {
                         tmpChanges.add(tmpChange);
                     }
 
-                    for (UserProperty property : user.getAllProperties()) {
-                        if (property instanceof Mailer.UserProperty) {
-                            userEmail = ((Mailer.UserProperty) property).getAddress();
-                        }
-                    }
-
                     SCMCommit tmpCommit = dtoFactory.newDTO(SCMCommit.class)
                             .setTime(commit.getTimestamp())
                             .setUser(user.getId())
@@ -293,4 +323,17 @@ class GitSCMProcessor implements SCMProcessor {
         }
         return commits;
     }
+
+    /**
+     * @param userEmails emails of the users resolved so far, to look up every author once per change set
+     */
+    private static String getUserEmail(User user, Map<String, String> userEmails) {
+        if (userEmails.containsKey(user.getId())) {
+            return userEmails.get(user.getId());
+        }
+        Mailer.UserProperty mailProperty = user.getProperty(Mailer.UserProperty.class);
+        String userEmail = mailProperty == null ? null : mailProperty.getAddress();
+        userEmails.put(user.getId(), userEmail);
+        return userEmail;
+    }
 }
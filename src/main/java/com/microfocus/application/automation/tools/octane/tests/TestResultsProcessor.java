@@ -0,0 +1,334 @@
+/*
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests;
+
+import com.google.inject.Inject;
+import com.microfocus.application.automation.tools.octane.ResultQueue;
+import com.microfocus.application.automation.tools.octane.events.AbstractBuildListenerOctaneImpl;
+import com.microfocus.application.automation.tools.octane.events.WorkflowListenerOctaneImpl;
+import hudson.Extension;
+import hudson.model.AbstractBuild;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.security.ACL;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+import net.sf.json.JSONObject;
+import org.acegisecurity.context.SecurityContext;
+import org.acegisecurity.context.SecurityContextHolder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processes test results of finished builds on a bounded pool of workers, off the build finalization and pipeline CPS threads.
+ * FINISHED event of the build is published by the worker once the test results collection is done.
+ * <p>
+ * Builds pending processing are journaled in a file-based queue, so builds finalized before the restart are processed after it.
+ * Processed builds are marked in their run directory, so a build is never processed (and reported) twice.
+ * When all workers are busy and the pending tasks buffer is full, the build is deferred: it stays in the journal and is
+ * re-submitted by the workers as they free up, so the calling thread is never blocked by the processing.
+ */
+@Extension
+public class TestResultsProcessor {
+	private static final Logger logger = LogManager.getLogger(TestResultsProcessor.class);
+
+	public static final String TEST_RESULT_PROCESSED_MARKER = "mqmTests.processed";
+	private static final int POOL_SIZE = Integer.getInteger("TestResultsProcessor.PoolSize", 4);
+	private static final int QUEUE_CAPACITY = Integer.getInteger("TestResultsProcessor.QueueCapacity", 500);
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+	private static final long DEFERRED_RETRY_SECONDS = 5;
+
+	private final Set<String> pendingBuilds = ConcurrentHashMap.newKeySet();
+	private final Set<String> completedBuilds = new HashSet<>();
+	private final AtomicLong processedCount = new AtomicLong();
+	private final AtomicLong failedCount = new AtomicLong();
+	private final AtomicLong deferredCount = new AtomicLong();
+	private final Queue<ResultQueue.QueueItem> deferredBuilds = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean deferredRetryScheduled = new AtomicBoolean();
+	private final int poolSize;
+	private final int queueCapacity;
+	private final ThreadPoolExecutor executor;
+
+	private TestListener testListener;
+	private TestResultsProcessingQueue journal;
+	private boolean stopped = false;
+
+	public TestResultsProcessor() {
+		this(POOL_SIZE, QUEUE_CAPACITY);
+	}
+
+	TestResultsProcessor(int poolSize, int queueCapacity) {
+		this.poolSize = poolSize;
+		this.queueCapacity = queueCapacity;
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				new NamingThreadFactory(new DaemonThreadFactory(), "Octane test results processor"),
+				(task, pool) -> {
+					//  the build is already journaled, it is left there and re-submitted once a worker is free
+					if (!pool.isShutdown()) {
+						deferredCount.incrementAndGet();
+						deferredBuilds.add(((ProcessingTask) task).item);
+						scheduleDeferredRetry();
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	@Inject
+	public void setTestListener(TestListener testListener) {
+		this.testListener = testListener;
+	}
+
+	@Inject
+	public void setJournal(TestResultsProcessingQueue journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * Queue the finished build for test results processing
+	 *
+	 * @param run finished build
+	 * @return false if no test results are expected for the build, in which case the caller is responsible to publish FINISHED event;
+	 * true if the build is queued (or already being processed) and FINISHED event will be published once its processing is done
+	 */
+	public boolean enqueue(Run<?, ?> run) {
+		if (!isTestResultsExpected(run)) {
+			return false;
+		}
+
+		ResultQueue.QueueItem item = new ResultQueue.QueueItem(run.getParent().getFullName(), run.getNumber());
+		if (pendingBuilds.add(getKey(item))) {
+			synchronized (this) {
+				journal.add(item.getProjectName(), item.getBuildNumber());
+			}
+			executor.execute(new ProcessingTask(item));
+		}
+		return true;
+	}
+
+	/**
+	 * Re-submit builds that were finalized but not processed before the last shutdown
+	 */
+	public void recoverPendingBuilds() {
+		List<ResultQueue.QueueItem> recovered = new LinkedList<>();
+		synchronized (this) {
+			//  rotate the journal: each pending item is re-added to the tail and submitted, duplicates are dropped
+			int size = journal.size();
+			for (int i = 0; i < size; i++) {
+				ResultQueue.QueueItem item = journal.peekFirst();
+				if (item == null) {
+					break;
+				}
+				if (pendingBuilds.add(getKey(item))) {
+					journal.add(item.getProjectName(), item.getBuildNumber());
+					recovered.add(item);
+				}
+				journal.remove();
+			}
+		}
+
+		if (!recovered.isEmpty()) {
+			logger.info("recovered " + recovered.size() + " builds pending test results processing");
+			recovered.forEach(item -> executor.execute(new ProcessingTask(item)));
+		}
+	}
+
+	public JSONObject getStatus() {
+		JSONObject status = new JSONObject();
+		status.put("poolSize", poolSize);
+		status.put("activeWorkers", executor.getActiveCount());
+		status.put("queueDepth", executor.getQueue().size());
+		status.put("queueCapacity", queueCapacity);
+		status.put("pendingBuilds", pendingBuilds.size());
+		status.put("deferredBuilds", deferredBuilds.size());
+		status.put("processed", processedCount.get());
+		status.put("failed", failedCount.get());
+		status.put("deferred", deferredCount.get());
+		return status;
+	}
+
+	/**
+	 * Wait until all the queued builds are processed, used by tests which inspect the processing results
+	 *
+	 * @param timeoutMillis maximal time to wait
+	 * @return true if no build is pending processing
+	 */
+	public synchronized boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		long remaining;
+		while (!pendingBuilds.isEmpty() && (remaining = deadline - System.currentTimeMillis()) > 0) {
+			wait(remaining);
+		}
+		return pendingBuilds.isEmpty();
+	}
+
+	public void close() {
+		logger.info("stopping the test results processor and closing its journal");
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				logger.warn(pendingBuilds.size() + " builds are still pending test results processing, they will be processed after restart");
+			}
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+		synchronized (this) {
+			stopped = true;
+			journal.close();
+		}
+	}
+
+	private void process(ResultQueue.QueueItem item) {
+		SecurityContext originalContext = ACL.impersonate(ACL.SYSTEM);
+		try {
+			Run<?, ?> run = getRun(item);
+			if (run == null) {
+				logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer exists, test results won't be processed");
+			} else if (new File(run.getRootDir(), TEST_RESULT_PROCESSED_MARKER).exists()) {
+				logger.info("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] test results already processed");
+			} else {
+				long startTime = System.currentTimeMillis();
+				boolean hasTests = testListener.processBuild(run);
+				publishFinishedEvent(run, hasTests);
+				markProcessed(run);
+				processedCount.incrementAndGet();
+				logger.debug("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] test results processed in " + (System.currentTimeMillis() - startTime) + " ms");
+			}
+		} catch (Throwable throwable) {
+			failedCount.incrementAndGet();
+			logger.error("failed to process test results of [" + item.getProjectName() + "#" + item.getBuildNumber() + "]", throwable);
+		} finally {
+			SecurityContextHolder.setContext(originalContext);
+			complete(item);
+			resubmitDeferred();
+		}
+	}
+
+	private void resubmitDeferred() {
+		ResultQueue.QueueItem item;
+		while (!executor.isShutdown() && executor.getQueue().remainingCapacity() > 0 && (item = deferredBuilds.poll()) != null) {
+			executor.execute(new ProcessingTask(item));
+		}
+	}
+
+	/**
+	 * safety net for the builds deferred while the last busy worker was finishing
+	 */
+	private void scheduleDeferredRetry() {
+		if (deferredRetryScheduled.compareAndSet(false, true)) {
+			Timer.get().schedule(() -> {
+				deferredRetryScheduled.set(false);
+				resubmitDeferred();
+				if (!deferredBuilds.isEmpty()) {
+					scheduleDeferredRetry();
+				}
+			}, DEFERRED_RETRY_SECONDS, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * journal may be trimmed only from its head, so items completed out of order are remembered until they reach the head
+	 */
+	private synchronized void complete(ResultQueue.QueueItem item) {
+		String key = getKey(item);
+		pendingBuilds.remove(key);
+		notifyAll();
+		if (stopped) {
+			return;
+		}
+		completedBuilds.add(key);
+		ResultQueue.QueueItem head;
+		while ((head = journal.peekFirst()) != null && completedBuilds.remove(getKey(head))) {
+			journal.remove();
+		}
+	}
+
+	private static boolean isTestResultsExpected(Run<?, ?> run) {
+		for (OctaneTestsExtension ext : OctaneTestsExtension.all()) {
+			try {
+				if (ext.supports(run)) {
+					return true;
+				}
+			} catch (IOException e) {
+				logger.warn("failed to check test results support of " + ext.getClass().getSimpleName() + " for " + run + ", assuming results are expected", e);
+				return true;
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Run<?, ?> getRun(ResultQueue.QueueItem item) {
+		Job project = (Job) Jenkins.getInstance().getItemByFullName(item.getProjectName());
+		return project == null ? null : project.getBuildByNumber(item.getBuildNumber());
+	}
+
+	private static void publishFinishedEvent(Run<?, ?> run, boolean hasTests) {
+		if (run instanceof AbstractBuild) {
+			AbstractBuildListenerOctaneImpl.publishFinishedEvent((AbstractBuild) run, hasTests);
+		} else if (run instanceof WorkflowRun) {
+			WorkflowListenerOctaneImpl.publishFinishedEvent((WorkflowRun) run, hasTests);
+		}
+	}
+
+	private static void markProcessed(Run<?, ?> run) {
+		try {
+			if (!new File(run.getRootDir(), TEST_RESULT_PROCESSED_MARKER).createNewFile()) {
+				logger.debug("processed marker of " + run + " already exists");
+			}
+		} catch (IOException ioe) {
+			logger.warn("failed to mark test results of " + run + " as processed", ioe);
+		}
+	}
+
+	private static String getKey(ResultQueue.QueueItem item) {
+		return item.getProjectName() + "#" + item.getBuildNumber();
+	}
+
+	private final class ProcessingTask implements Runnable {
+		private final ResultQueue.QueueItem item;
+
+		private ProcessingTask(ResultQueue.QueueItem item) {
+			this.item = item;
+		}
+
+		@Override
+		public void run() {
+			process(item);
+		}
+	}
+}
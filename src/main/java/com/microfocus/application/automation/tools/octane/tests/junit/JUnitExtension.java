@@ -31,7 +31,6 @@ import com.microfocus.application.automation.tools.octane.tests.TestResultContai
 import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFields;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFieldsDetectionService;
-import com.microfocus.application.automation.tools.octane.tests.impl.ObjectStreamIterator;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.maven.MavenBuild;
@@ -97,7 +96,7 @@ public class JUnitExtension extends OctaneTestsExtension {
 			logger.debug("JUnit result report found");
 			ResultFields detectedFields = getResultFields(run, hpRunnerType, isLoadRunnerProject);
 			FilePath filePath = BuildHandlerUtils.getWorkspace(run).act(new GetJUnitTestResults(run, Collections.singletonList(resultFile), false, hpRunnerType, jenkinsRootUrl));
-			return new TestResultContainer(new ObjectStreamIterator<>(filePath), detectedFields);
+			return new TestResultContainer(new JUnitTestResultIterator(filePath), detectedFields);
 		} else {
 			//avoid java.lang.NoClassDefFoundError when maven plugin is not present
 			if ("hudson.maven.MavenModuleSetBuild".equals(run.getClass().getName())) {
@@ -118,7 +117,7 @@ public class JUnitExtension extends OctaneTestsExtension {
 				if (!resultFiles.isEmpty()) {
 					ResultFields detectedFields = getResultFields(run, hpRunnerType, isLoadRunnerProject);
 					FilePath filePath = BuildHandlerUtils.getWorkspace(run).act(new GetJUnitTestResults(run, resultFiles, false, hpRunnerType, jenkinsRootUrl));
-					return new TestResultContainer(new ObjectStreamIterator<>(filePath), detectedFields);
+					return new TestResultContainer(new JUnitTestResultIterator(filePath), detectedFields);
 				}
 			}
 			logger.debug("No JUnit result report found");
@@ -235,23 +234,16 @@ public class JUnitExtension extends OctaneTestsExtension {
 
 		@Override
 		public FilePath invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
-			OutputStream os = filePath.write();
-			BufferedOutputStream bos = new BufferedOutputStream(os);
-			ObjectOutputStream oos = new ObjectOutputStream(bos);
-
-			try {
+			try (JUnitTestResultWriter writer = new JUnitTestResultWriter(new BufferedOutputStream(filePath.write()))) {
 				for (FilePath report : reports) {
 					JUnitXmlIterator iterator = new JUnitXmlIterator(report.read(), moduleDetection, workspace, sharedCheckOutDirectory, jobName, buildId, buildStarted, stripPackageAndClass, hpRunnerType, jenkinsRootUrl, additionalContext);
 					while (iterator.hasNext()) {
-						oos.writeObject(iterator.next());
+						writer.write(iterator.next());
 					}
 				}
 			} catch (XMLStreamException e) {
 				throw new IOException(e);
 			}
-			os.flush();
-
-			oos.close();
 			return filePath;
 		}
 
@@ -0,0 +1,182 @@
+/*
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
+import hudson.FilePath;
+import org.apache.commons.io.IOUtils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming reader of JUnit test results written by {@link JUnitTestResultWriter}.
+ * The stream is closed once the end-of-stream marker is reached; a stream ending without the marker is reported as error.
+ */
+public class JUnitTestResultIterator implements Iterator<TestResult> {
+
+	private static final TestResultStatus[] STATUSES = TestResultStatus.values();
+
+	private final DataInputStream in;
+	private final List<String> internedStrings = new ArrayList<>();
+	private JUnitTestResult next;
+	private boolean finished;
+
+	public JUnitTestResultIterator(FilePath filePath) throws IOException, InterruptedException {
+		this(filePath.read());
+	}
+
+	public JUnitTestResultIterator(InputStream inputStream) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(inputStream));
+		try {
+			if (in.readInt() != JUnitTestResultWriter.MAGIC) {
+				throw new IOException("not a test results stream");
+			}
+			int version = in.readUnsignedByte();
+			if (version != JUnitTestResultWriter.VERSION) {
+				throw new IOException("unsupported test results stream version " + version);
+			}
+		} catch (IOException ioe) {
+			IOUtils.closeQuietly(in);
+			throw ioe;
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next != null) {
+			return true;
+		}
+		if (finished) {
+			return false;
+		}
+		try {
+			int tag = in.readUnsignedByte();
+			if (tag == JUnitTestResultWriter.RECORD_TEST) {
+				next = readTestResult();
+				return true;
+			} else if (tag == JUnitTestResultWriter.RECORD_END) {
+				finish();
+				return false;
+			} else {
+				throw new IOException("unexpected record tag " + tag);
+			}
+		} catch (IOException ioe) {
+			finish();
+			throw new IllegalStateException("failed to read test results stream", ioe);
+		}
+	}
+
+	@Override
+	public TestResult next() {
+		if (hasNext()) {
+			TestResult value = next;
+			next = null;
+			return value;
+		} else {
+			throw new NoSuchElementException();
+		}
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	private JUnitTestResult readTestResult() throws IOException {
+		String moduleName = readInterned();
+		String packageName = readInterned();
+		String className = readInterned();
+		String testName = readString();
+		int status = in.readUnsignedByte();
+		if (status >= STATUSES.length) {
+			throw new IOException("unexpected test status " + status);
+		}
+		long duration = readVarLong();
+		long started = readVarLong();
+		String externalReportUrl = readString();
+		TestError testError = null;
+		if (in.readBoolean()) {
+			String errorType = readInterned();
+			String errorMsg = readString();
+			String stackTrace = readString();
+			testError = new TestError(stackTrace, errorType, errorMsg);
+		}
+		return new JUnitTestResult(moduleName, packageName, className, testName, STATUSES[status], duration, started, testError, externalReportUrl);
+	}
+
+	private String readInterned() throws IOException {
+		long code = readVarLong();
+		if (code == JUnitTestResultWriter.STRING_NULL) {
+			return null;
+		} else if (code == JUnitTestResultWriter.STRING_NEW) {
+			String value = readString();
+			internedStrings.add(value);
+			return value;
+		} else {
+			long index = code - JUnitTestResultWriter.STRING_REF_BASE;
+			if (index < 0 || index >= internedStrings.size()) {
+				throw new IOException("unknown string reference " + index);
+			}
+			return internedStrings.get((int) index);
+		}
+	}
+
+	private String readString() throws IOException {
+		long length = readVarLong();
+		if (length == 0) {
+			return null;
+		}
+		if (length - 1 > Integer.MAX_VALUE) {
+			throw new IOException("string length out of range: " + (length - 1));
+		}
+		byte[] bytes = new byte[(int) (length - 1)];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private long readVarLong() throws IOException {
+		long encoded = 0;
+		int shift = 0;
+		int b;
+		do {
+			if (shift > 63) {
+				throw new IOException("malformed variable length number");
+			}
+			b = in.readUnsignedByte();
+			encoded |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return (encoded >>> 1) ^ -(encoded & 1);
+	}
+
+	private void finish() {
+		finished = true;
+		IOUtils.closeQuietly(in);
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streaming writer of JUnit test results in a compact binary format, read back by {@link JUnitTestResultIterator}.
+ * <p>
+ * Format: header (magic, version), then a sequence of test records, each starting with {@link #RECORD_TEST} tag,
+ * terminated by {@link #RECORD_END} tag.
+ * Numbers are written as variable length integers, strings are length-prefixed UTF-8.
+ * Module, package, class and error type names repeat a lot, so they are interned: the first occurrence is written in full,
+ * all the following occurrences are written as an index into the table of strings seen so far.
+ */
+public class JUnitTestResultWriter implements Closeable {
+
+	static final int MAGIC = 0x4F54_5252;       // "OTRR"
+	static final int VERSION = 1;
+	static final int RECORD_END = 0;
+	static final int RECORD_TEST = 1;
+
+	static final int STRING_NULL = 0;
+	static final int STRING_NEW = 1;
+	static final int STRING_REF_BASE = 2;
+
+	private final DataOutputStream out;
+	private final Map<String, Integer> internedStrings = new HashMap<>();
+	private int count;
+	private boolean closed;
+
+	public JUnitTestResultWriter(OutputStream outputStream) throws IOException {
+		this.out = new DataOutputStream(outputStream);
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+	}
+
+	public void write(JUnitTestResult testResult) throws IOException {
+		out.writeByte(RECORD_TEST);
+		writeInterned(testResult.getModuleName());
+		writeInterned(testResult.getPackageName());
+		writeInterned(testResult.getClassName());
+		writeString(testResult.getTestName());
+		out.writeByte(testResult.getResult().ordinal());
+		writeVarLong(testResult.getDuration());
+		writeVarLong(testResult.getStarted());
+		writeString(testResult.getExternalReportUrl());
+		TestError testError = testResult.getTestError();
+		if (testError == null) {
+			out.writeBoolean(false);
+		} else {
+			out.writeBoolean(true);
+			writeInterned(testError.getErrorType());
+			writeString(testError.getErrorMsg());
+			writeString(testError.getStackTraceStr());
+		}
+		count++;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * writes the end-of-stream marker and closes the underlying stream
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			out.writeByte(RECORD_END);
+			out.close();
+		}
+	}
+
+	private void writeInterned(String value) throws IOException {
+		if (value == null) {
+			writeVarLong(STRING_NULL);
+			return;
+		}
+		Integer index = internedStrings.get(value);
+		if (index != null) {
+			writeVarLong((long) STRING_REF_BASE + index);
+		} else {
+			internedStrings.put(value, internedStrings.size());
+			writeVarLong(STRING_NEW);
+			writeString(value);
+		}
+	}
+
+	private void writeString(String value) throws IOException {
+		if (value == null) {
+			writeVarLong(0);
+		} else {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarLong((long) bytes.length + 1);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * zig-zag encoded variable length integer, 7 bits per byte
+	 */
+	private void writeVarLong(long value) throws IOException {
+		long encoded = (value << 1) ^ (value >> 63);
+		while ((encoded & ~0x7FL) != 0) {
+			out.writeByte((int) ((encoded & 0x7F) | 0x80));
+			encoded >>>= 7;
+		}
+		out.writeByte((int) encoded);
+	}
+}
@@ -29,6 +29,7 @@
 package com.microfocus.application.automation.tools.pc;
 
 import com.cloudbees.plugins.credentials.common.UsernamePasswordCredentials;
+import com.microfocus.application.automation.tools.common.AdaptivePoller;
 import com.microfocus.application.automation.tools.pc.helper.DateFormatter;
 import com.microfocus.application.automation.tools.run.PcBuilder;
 import hudson.FilePath;
@@ -40,6 +41,8 @@ import java.io.InputStream;
 import java.io.PrintStream;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import hudson.console.HyperlinkNote;
 import org.apache.commons.io.IOUtils;
@@ -50,6 +53,12 @@ import com.microfocus.adm.performancecenter.plugins.common.rest.PcRestProxy;
 
 public class PcClient {
 
+    private static final long MAX_POLL_INTERVAL = Long.getLong("PcClient.MaxPollInterval", 30000);
+    private static final long COLLATE_TIMEOUT = 60 * 1000;
+    private static final long PUBLISH_TIMEOUT = 10 * 60 * 1000;
+    private static final String TREND_REPORT_EMPTY = "#empty";
+    private static final String TREND_RUN_NOT_FOUND = "#not-found";
+
     private PcModel model;
     private PcRestProxy restProxy;
     private boolean loggedIn;
@@ -367,48 +376,54 @@ public class PcClient {
     }
 
 
-    private PcRunResponse waitForRunState(int runId, RunState completionState, int interval) throws InterruptedException,
+    private PcRunResponse waitForRunState(final int runId, RunState completionState, int interval) throws InterruptedException,
             ClientProtocolException, PcException, IOException {
 
-        int counter = 0;
-        RunState[] states = {RunState.BEFORE_COLLATING_RESULTS,RunState.BEFORE_CREATING_ANALYSIS_DATA};
+        List<RunState> states = Arrays.asList(RunState.BEFORE_COLLATING_RESULTS, RunState.BEFORE_CREATING_ANALYSIS_DATA);
+        final AtomicReference<PcRunResponse> lastResponse = new AtomicReference<PcRunResponse>();
+        AdaptivePoller.Policy policy = new AdaptivePoller.Policy(interval, Math.max(interval, MAX_POLL_INTERVAL));
+        for (RunState state : states) {
+            policy.withState(state, 1000, 5000);
+        }
+        AdaptivePoller.Watch<RunState> watch = AdaptivePoller.getShared().watch(new AdaptivePoller.Probe<RunState>() {
+            @Override
+            public RunState check() throws Exception {
+                PcRunResponse response = restProxy.getRunData(runId);
+                lastResponse.set(response);
+                return RunState.get(response.getRunState());
+            }
+        }, policy);
         PcRunResponse response = null;
         RunState lastState = RunState.UNDEFINED;
+        RunState currentState = null;
         int threeStrikes = 3;
-        do {
-            try {
+        try {
+            do {
+                try {
 
-                if (threeStrikes < 3) {
-                    logger.println(String.format("%s - Cannot get response from PC about the state of the Run (ID=%s) %s time(s) consecutively",
-                            dateFormatter.getDate(),
-                            runId,
-                            (3 - threeStrikes)));
-                    if(threeStrikes==0) {
-                        logger.println(String.format("%s - %s: %s",
+                    if (threeStrikes < 3) {
+                        logger.println(String.format("%s - Cannot get response from PC about the state of the Run (ID=%s) %s time(s) consecutively",
                                 dateFormatter.getDate(),
-                                Messages.StoppingMonitoringOnRun(),
-                                runId));
-                        break;
+                                runId,
+                                (3 - threeStrikes)));
+                        if(threeStrikes==0) {
+                            logger.println(String.format("%s - %s: %s",
+                                    dateFormatter.getDate(),
+                                    Messages.StoppingMonitoringOnRun(),
+                                    runId));
+                            break;
+                        }
+                        login();
                     }
-                    Thread.sleep(2000);
-                    login();
-                }
-                response = restProxy.getRunData(runId);
-                RunState currentState = RunState.get(response.getRunState());
-                if (lastState.ordinal() < currentState.ordinal()) {
-                    lastState = currentState;
-                    logger.println(String.format("%s - RunID: %s - State = %s",
-                            dateFormatter.getDate(),
-                            runId,
-                            currentState.value()));
-                }
 
-                // In case we are in state before collate or before analyze, we will wait 1 minute for the state to change otherwise we exit
-                // because the user probably stopped the run from PC or timeslot has reached the end.
-                if (Arrays.asList(states).contains(currentState)) {
-                    counter++;
-                    Thread.sleep(1000);
-                    if (counter > 60) {
+                    // In case we are in state before collate or before analyze, we will wait 1 minute for the state to change otherwise we exit
+                    // because the user probably stopped the run from PC or timeslot has reached the end.
+                    boolean collating = states.contains(currentState);
+                    RunState previousState = currentState;
+                    currentState = awaitChange(watch, collating ? COLLATE_TIMEOUT : 0);
+                    response = lastResponse.get();
+                    threeStrikes = 3;
+                    if (collating && currentState == previousState) {
                         logger.println(String.format("%s - Run ID: %s  - %s = %s",
                                 dateFormatter.getDate(),
                                 runId,
@@ -416,20 +431,44 @@ public class PcClient {
                                 currentState.value()));
                         break;
                     }
-                } else {
-                    counter = 0;
-                    Thread.sleep(interval);
+                    if (lastState.ordinal() < currentState.ordinal()) {
+                        lastState = currentState;
+                        logger.println(String.format("%s - RunID: %s - State = %s",
+                                dateFormatter.getDate(),
+                                runId,
+                                currentState.value()));
+                    }
                 }
-                threeStrikes = 3;
-            }
-            catch(InterruptedException|PcException e)
-            {
-                threeStrikes--;
-            }
-        } while (lastState.ordinal() < completionState.ordinal());
+                catch(InterruptedException|PcException e)
+                {
+                    threeStrikes--;
+                }
+            } while (lastState.ordinal() < completionState.ordinal());
+        } finally {
+            watch.close();
+        }
         return response;
     }
 
+    /**
+     * Waits on the shared poller for the next state reported by the watch, unwrapping failures of the probe
+     */
+    private static <S> S awaitChange(AdaptivePoller.Watch<S> watch, long timeoutMillis) throws InterruptedException, PcException, IOException {
+        try {
+            return watch.awaitChange(timeoutMillis);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof PcException) {
+                throw (PcException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
     public FilePath publishRunReport(int runId, String reportDirectory) throws IOException, PcException, InterruptedException {
         PcRunResults runResultsList = restProxy.getRunResults(runId);
         if (runResultsList.getResultsList() != null){
@@ -532,59 +571,75 @@ public class PcClient {
         }
     }
 
-    public void waitForRunToPublishOnTrendReport(int runId, String trendReportId) throws PcException,IOException,InterruptedException{
-
-        ArrayList<PcTrendedRun> trendReportMetaDataResultsList;
-        boolean publishEnded = false;
-        int counterPublishStarted = 0;
-        int counterPublishNotStarted = 0;
-        boolean resultNotFound = true;
-
-        do {
-            trendReportMetaDataResultsList = restProxy.getTrendReportMetaData(trendReportId);
+    public void waitForRunToPublishOnTrendReport(final int runId, final String trendReportId) throws PcException,IOException,InterruptedException{
 
-            if (trendReportMetaDataResultsList.isEmpty())  break;
-
-            for (PcTrendedRun result : trendReportMetaDataResultsList) {
-                resultNotFound = result.getRunID() != runId;
-                if (resultNotFound) continue;
+        AdaptivePoller.Watch<String> watch = AdaptivePoller.getShared().watch(new AdaptivePoller.Probe<String>() {
+            @Override
+            public String check() throws Exception {
+                ArrayList<PcTrendedRun> trendReportMetaDataResultsList = restProxy.getTrendReportMetaData(trendReportId);
+                if (trendReportMetaDataResultsList.isEmpty()) {
+                    return TREND_REPORT_EMPTY;
+                }
+                for (PcTrendedRun result : trendReportMetaDataResultsList) {
+                    if (result.getRunID() == runId) {
+                        return String.valueOf(result.getState());
+                    }
+                }
+                return TREND_RUN_NOT_FOUND;
+            }
+        }, new AdaptivePoller.Policy(5000, Math.max(5000, MAX_POLL_INTERVAL)));
+        String state = null;
+        long publishStarted = -1;
+        int minutesNotStarted = 0;
+        try {
+            while (true) {
+                long timeout = 0;
+                if (TREND_RUN_NOT_FOUND.equals(state)) {
+                    timeout = 60 * 1000; //warning every minute until timeout
+                } else if (state != null) {
+                    timeout = Math.max(1, publishStarted + PUBLISH_TIMEOUT - watch.now());
+                }
+                String previousState = state;
+                state = awaitChange(watch, timeout);
+                boolean timedOut = state.equals(previousState);
 
-                if (result.getState().equals(PcBuilder.TRENDED) || result.getState().equals(PcBuilder.ERROR)){
-                    publishEnded = true;
+                if (TREND_REPORT_EMPTY.equals(state)) {
+                    break;
+                } else if (state.equals(PcBuilder.TRENDED) || state.equals(PcBuilder.ERROR)) {
                     logger.println(String.format("%s - Run: %s %s: %s",
                             dateFormatter.getDate(),
                             runId,
                             Messages.PublishingStatus(),
-                            result.getState()));
+                            state));
                     break;
+                } else if (TREND_RUN_NOT_FOUND.equals(state)) {
+                    if (timedOut && ++minutesNotStarted >= 10) { //waiting 10 minutes for timeout
+                        String msg = String.format("%s",
+                                Messages.PublishingStartTimeout());
+                        throw new PcException(msg);
+                    } else if (timedOut) {
+                        logger.println(String.format("%s - %s. %s: %s ... ",
+                                dateFormatter.getDate(),
+                                Messages.WaitingForTrendReportToStart(),
+                                Messages.MinutesUntilTimeout(),
+                                10 - minutesNotStarted
+                        ));
+                    }
                 } else {
-                    Thread.sleep(5000);
-                    counterPublishStarted++;
-                    if(counterPublishStarted >= 120){
+                    if (publishStarted < 0) {
+                        publishStarted = watch.now();
+                    }
+                    if (timedOut) {
                         String msg = String.format("%s: %s",
                                 Messages.Error(),
                                 Messages.PublishingEndTimeout());
                         throw new PcException(msg);
                     }
                 }
-             }
-             if (!publishEnded && resultNotFound) {
-                Thread.sleep(5000);
-                 counterPublishNotStarted++;
-                 if(counterPublishNotStarted >= 120){ //waiting 10 minutes for timeout
-                     String msg = String.format("%s",
-                             Messages.PublishingStartTimeout());
-                     throw new PcException(msg);
-                 } else if (counterPublishNotStarted % 12 == 0){ //warning every minute until timeout
-                     logger.println(String.format("%s - %s. %s: %s ... ",
-                             dateFormatter.getDate(),
-                             Messages.WaitingForTrendReportToStart(),
-                             Messages.MinutesUntilTimeout(),
-                             10 - (counterPublishNotStarted / 12)
-                     ));
-                 }
             }
-        } while (!publishEnded && counterPublishStarted < 120 && counterPublishNotStarted < 120);
+        } finally {
+            watch.close();
+        }
     }
 
     public boolean downloadTrendReportAsPdf(String trendReportId, String directory) throws PcException {
@@ -638,54 +693,30 @@ public class PcClient {
     // for example:
     // <Action_Transaction:0.001>
     // <Virtual transaction 2:0.51>
-    // This function uses reflection since we know only at runtime which transactions data will be reposed from the rest request.
+    // When several measurements are needed, prefer getTrendReportTable which downloads the trend report only once.
     public Map<String, String>  getTrendReportByXML(String trendReportId, int runId, TrendReportTypes.DataType dataType, TrendReportTypes.PctType pctType,TrendReportTypes.Measurement measurement) throws IOException, PcException, IntrospectionException, NoSuchMethodException {
+        return getTrendReportMeasurements(getTrendReportTable(trendReportId, runId), runId, dataType, pctType, measurement);
+    }
 
+    // Downloads the trend report of the run once and indexes all its measurements,
+    // so all the plot files of the run can be produced with a single request to the server.
+    public TrendReportTable getTrendReportTable(String trendReportId, int runId) throws IOException, PcException, IntrospectionException, NoSuchMethodException {
+        TrendReportTransactionDataRoot res = restProxy.getTrendReportByXML(trendReportId, runId);
+        TrendReportTable table = TrendReportTable.index(res.getTrendReportRoot());
+        if (table.getSkippedRows() > 0) {
+            logger.println(String.format("%s - Error on getTrendReportByXML: %d rows could not be read", dateFormatter.getDate(), table.getSkippedRows()));
+        }
+        return table;
+    }
+
+    // Returns the measurements of the trend report table prefixed by the run id and measurement type columns,
+    // in the structure expected by the plot plugin CSV files
+    public static Map<String, String> getTrendReportMeasurements(TrendReportTable table, int runId, TrendReportTypes.DataType dataType, TrendReportTypes.PctType pctType, TrendReportTypes.Measurement measurement) {
         Map<String, String> measurmentsMap = new LinkedHashMap<String, String>();
         measurmentsMap.put("RunId","_" + runId + "_");
         measurmentsMap.put("Trend Measurement Type",measurement.toString() + "_" + pctType.toString());
-
-
-
-            TrendReportTransactionDataRoot res = restProxy.getTrendReportByXML(trendReportId, runId);
-
-//            java.lang.reflect.Method rootMethod =  res.getClass().getMethod("getTrendReport" + dataType.toString() + "DataRowsList");
-//            ArrayList<Object> RowsListObj = (ArrayList<Object>) rootMethod.invoke(res);
-//            RowsListObj.get(0);
-
-            List<Object> RowsListObj = res.getTrendReportRoot();
-
-            for (int i=0; i< RowsListObj.size();i++){
-                try {
-
-                    java.lang.reflect.Method rowListMethod = RowsListObj.get(i).getClass().getMethod("getTrendReport" + dataType.toString() + "DataRowList");
-
-                for ( Object DataRowObj : (ArrayList<Object>)rowListMethod.invoke(RowsListObj.get(i)))
-                {
-                    if (DataRowObj.getClass().getMethod("getPCT_TYPE").invoke(DataRowObj).equals(pctType.toString()))
-                    {
-                        java.lang.reflect.Method method;
-                        method = DataRowObj.getClass().getMethod("get" + measurement.toString());
-                        measurmentsMap.put(DataRowObj.getClass().getMethod("getPCT_NAME").invoke(DataRowObj).toString(),method.invoke(DataRowObj)==null?"":method.invoke(DataRowObj).toString());
-                    }
-                }
-                }catch (NoSuchMethodException e){
-                  //  logger.println("No such method exception: " + e);
-                }
-                catch (Exception e){
-                    logger.println(String.format("%s - Error on getTrendReportByXML: %s ", dateFormatter.getDate(), e));
-                }
-            }
-
-
-
-
-          //  logger.print(res);
-
-
+        measurmentsMap.putAll(table.getMeasurements(dataType, pctType, measurement));
         return measurmentsMap;
-
-
     }
 
 }
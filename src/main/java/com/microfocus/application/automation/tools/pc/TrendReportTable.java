@@ -0,0 +1,148 @@
+/*
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.pc;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.TrendReportTypes;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * In-memory index of a trend report, built with a single pass over the rows of the trend report XML.
+ * Holds the value of every measurement per transaction/monitor name, keyed by (data type, PCT type, measurement).
+ * <p>
+ * The row classes are known only at runtime, so their getters are looked up by reflection, once per class.
+ */
+public class TrendReportTable {
+
+    private final Map<String, Map<String, String>> values = new HashMap<String, Map<String, String>>();
+    private final Map<String, Method> getters = new HashMap<String, Method>();
+    private int skippedRows;
+
+    /**
+     * Indexes the rows returned by {@code TrendReportTransactionDataRoot.getTrendReportRoot()}
+     *
+     * @param trendReportRoot trend report root rows
+     * @return indexed trend report
+     */
+    public static TrendReportTable index(List<Object> trendReportRoot) {
+        TrendReportTable table = new TrendReportTable();
+        if (trendReportRoot != null) {
+            for (Object rootRow : trendReportRoot) {
+                for (TrendReportTypes.DataType dataType : TrendReportTypes.DataType.values()) {
+                    table.indexDataRows(rootRow, dataType);
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @return map of transaction/monitor name to the measurement value, in the trend report order; empty map if there is no such data
+     */
+    public Map<String, String> getMeasurements(TrendReportTypes.DataType dataType, TrendReportTypes.PctType pctType, TrendReportTypes.Measurement measurement) {
+        Map<String, String> measurements = values.get(key(dataType.toString(), pctType.toString(), measurement.toString()));
+        return measurements == null ? Collections.<String, String>emptyMap() : Collections.unmodifiableMap(measurements);
+    }
+
+    /**
+     * @return number of data rows which could not be read
+     */
+    public int getSkippedRows() {
+        return skippedRows;
+    }
+
+    private void indexDataRows(Object rootRow, TrendReportTypes.DataType dataType) {
+        Method rowListGetter = getGetter(rootRow.getClass(), "getTrendReport" + dataType.toString() + "DataRowList");
+        if (rowListGetter == null) {
+            return;
+        }
+
+        Collection<?> dataRows;
+        try {
+            dataRows = (Collection<?>) rowListGetter.invoke(rootRow);
+        } catch (Exception e) {
+            skippedRows++;
+            return;
+        }
+        if (dataRows == null) {
+            return;
+        }
+
+        for (Object dataRow : dataRows) {
+            try {
+                indexDataRow(dataRow, dataType);
+            } catch (Exception e) {
+                skippedRows++;
+            }
+        }
+    }
+
+    private void indexDataRow(Object dataRow, TrendReportTypes.DataType dataType) throws Exception {
+        Class<?> rowClass = dataRow.getClass();
+        Method pctTypeGetter = getGetter(rowClass, "getPCT_TYPE");
+        Method pctNameGetter = getGetter(rowClass, "getPCT_NAME");
+        if (pctTypeGetter == null || pctNameGetter == null) {
+            skippedRows++;
+            return;
+        }
+
+        Object pctType = pctTypeGetter.invoke(dataRow);
+        Object pctName = pctNameGetter.invoke(dataRow);
+        if (pctType == null || pctName == null) {
+            skippedRows++;
+            return;
+        }
+
+        for (TrendReportTypes.Measurement measurement : TrendReportTypes.Measurement.values()) {
+            Method measurementGetter = getGetter(rowClass, "get" + measurement.toString());
+            if (measurementGetter != null) {
+                Object value = measurementGetter.invoke(dataRow);
+                String tableKey = key(dataType.toString(), pctType.toString(), measurement.toString());
+                Map<String, String> measurements = values.get(tableKey);
+                if (measurements == null) {
+                    measurements = new LinkedHashMap<String, String>();
+                    values.put(tableKey, measurements);
+                }
+                measurements.put(pctName.toString(), value == null ? "" : value.toString());
+            }
+        }
+    }
+
+    private Method getGetter(Class<?> clazz, String name) {
+        String getterKey = clazz.getName() + "#" + name;
+        if (getters.containsKey(getterKey)) {
+            return getters.get(getterKey);
+        }
+        Method getter;
+        try {
+            getter = clazz.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            getter = null;
+        }
+        getters.put(getterKey, getter);
+        return getter;
+    }
+
+    private static String key(String dataType, String pctType, String measurement) {
+        return dataType + "|" + pctType + "|" + measurement;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.rest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import com.microfocus.application.automation.tools.common.SSEException;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import hudson.ProxyConfiguration;
+import jenkins.model.Jenkins;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.DefaultRoutePlanner;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+/***
+ * Transport keeping connections alive in a bounded pool, so polling requests don't pay TCP and TLS setup each time.
+ * Like the connection based transport, it trusts any server certificate and goes through the Jenkins proxy configuration.
+ * Cookies are left to {@link RestClient}, which keeps a single store per client.
+ */
+public class PooledHttpTransport implements HttpTransport, Closeable {
+
+    private static final int MAX_CONNECTIONS_PER_ROUTE = Integer.getInteger("RestClient.MaxConnectionsPerRoute", 10);
+    private static final int MAX_CONNECTIONS = Integer.getInteger("RestClient.MaxConnections", 100);
+    private static final int CONNECT_TIMEOUT_MS = Integer.getInteger("RestClient.ConnectTimeoutMs", 60 * 1000);
+    private static final int SOCKET_TIMEOUT_MS = Integer.getInteger("RestClient.SocketTimeoutMs", 5 * 60 * 1000);
+    private static final int CONNECTION_REQUEST_TIMEOUT_MS = Integer.getInteger("RestClient.ConnectionRequestTimeoutMs", 60 * 1000);
+    private static final long IDLE_CONNECTION_TIMEOUT_SECONDS = 30;
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 2000;
+
+    private static PooledHttpTransport shared;
+
+    private final PoolingHttpClientConnectionManager _connectionManager;
+    private final CloseableHttpClient _httpClient;
+
+    /**
+     * @return transport shared by all the clients, configured by RestClient.MaxConnectionsPerRoute, RestClient.MaxConnections
+     * and the RestClient.ConnectTimeoutMs, RestClient.SocketTimeoutMs and RestClient.ConnectionRequestTimeoutMs timeouts
+     */
+    public static synchronized PooledHttpTransport getShared() {
+
+        if (shared == null) {
+            shared = new PooledHttpTransport(MAX_CONNECTIONS_PER_ROUTE, MAX_CONNECTIONS);
+        }
+        return shared;
+    }
+
+    public PooledHttpTransport(int maxConnectionsPerRoute, int maxConnections) {
+
+        this(maxConnectionsPerRoute, maxConnections, CONNECT_TIMEOUT_MS, SOCKET_TIMEOUT_MS, CONNECTION_REQUEST_TIMEOUT_MS);
+    }
+
+    /**
+     * @param connectTimeoutMs time to establish a connection
+     * @param socketTimeoutMs longest silence while waiting for response data, so a stuck server doesn't hold a pooled connection forever
+     * @param connectionRequestTimeoutMs time to wait for a free connection when the pool is exhausted
+     */
+    public PooledHttpTransport(
+            int maxConnectionsPerRoute,
+            int maxConnections,
+            int connectTimeoutMs,
+            int socketTimeoutMs,
+            int connectionRequestTimeoutMs) {
+
+        Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(createTrustAllContext(), NoopHostnameVerifier.INSTANCE))
+                .build();
+        _connectionManager = new PoolingHttpClientConnectionManager(socketFactories);
+        _connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        _connectionManager.setMaxTotal(maxConnections);
+        _connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(socketTimeoutMs)
+                .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+                .build();
+
+        _httpClient = HttpClients.custom()
+                .setConnectionManager(_connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setRoutePlanner(new JenkinsProxyRoutePlanner())
+                .disableCookieManagement()
+                .evictIdleConnections(IDLE_CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public Response execute(String method, String url, Map<String, String> headers, byte[] data) throws IOException {
+
+        RequestBuilder request = RequestBuilder.create(method).setUri(url);
+        if (headers != null) {
+            for (Entry<String, String> header : headers.entrySet()) {
+                request.addHeader(header.getKey(), header.getValue());
+            }
+        }
+        if (data != null && data.length > 0) {
+            request.setEntity(new ByteArrayEntity(data));
+        }
+
+        try (CloseableHttpResponse response = _httpClient.execute(request.build(), createContext())) {
+            Response ret = new Response();
+            int statusCode = response.getStatusLine().getStatusCode();
+            ret.setStatusCode(statusCode);
+            ret.setHeaders(getHeaders(response));
+            // consuming the entity fully returns the connection to the pool; the buffer is sized by Content-Length
+            HttpEntity entity = response.getEntity();
+            ret.setData(entity == null ? new byte[0] : EntityUtils.toByteArray(entity));
+            if (statusCode >= 400) {
+                ret.setFailure(new IOException(String.format(
+                        "Server returned HTTP response code: %d for URL: %s",
+                        statusCode,
+                        url)));
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * @return connections currently leased and kept alive in the pool, for diagnostics
+     */
+    public String getPoolStats() {
+
+        return _connectionManager.getTotalStats().toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        _httpClient.close();
+    }
+
+    private static HttpClientContext createContext() {
+
+        HttpClientContext context = HttpClientContext.create();
+        ProxyConfiguration proxy = getProxyConfiguration();
+        if (proxy != null && proxy.getUserName() != null) {
+            CredentialsProvider credentials = new BasicCredentialsProvider();
+            credentials.setCredentials(
+                    new AuthScope(proxy.name, proxy.port),
+                    new UsernamePasswordCredentials(proxy.getUserName(), proxy.getPassword()));
+            context.setCredentialsProvider(credentials);
+        }
+        return context;
+    }
+
+    /**
+     * header names are case insensitive, as in the headers of HttpURLConnection
+     */
+    private static Map<String, List<String>> getHeaders(CloseableHttpResponse response) {
+
+        Map<String, List<String>> ret = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        for (Header header : response.getAllHeaders()) {
+            List<String> values = ret.get(header.getName());
+            if (values == null) {
+                values = new ArrayList<String>();
+                ret.put(header.getName(), values);
+            }
+            values.add(header.getValue());
+        }
+        return ret;
+    }
+
+    private static ProxyConfiguration getProxyConfiguration() {
+
+        Jenkins jenkins = Jenkins.getInstance();
+        return jenkins == null ? null : jenkins.proxy;
+    }
+
+    private static SSLContext createTrustAllContext() {
+
+        X509TrustManager trustManager = new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+                // Don't do anything.
+            }
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+                // Don't do anything.
+            }
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, new TrustManager[] { trustManager }, null);
+            return sslContext;
+        } catch (KeyManagementException | NoSuchAlgorithmException e) {
+            throw new SSEException(e);
+        }
+    }
+
+    /**
+     * Routes requests through the Jenkins proxy, unless the target host is excluded from it
+     */
+    private static final class JenkinsProxyRoutePlanner extends DefaultRoutePlanner {
+
+        private JenkinsProxyRoutePlanner() {
+
+            super(DefaultSchemePortResolver.INSTANCE);
+        }
+
+        @Override
+        protected HttpHost determineProxy(HttpHost target, HttpRequest request, HttpContext context) {
+
+            ProxyConfiguration proxy = getProxyConfiguration();
+            if (proxy == null) {
+                return null;
+            }
+            Proxy javaProxy = proxy.createProxy(target.getHostName());
+            if (javaProxy.type() == Proxy.Type.DIRECT || !(javaProxy.address() instanceof InetSocketAddress)) {
+                return null;
+            }
+            InetSocketAddress address = (InetSocketAddress) javaProxy.address();
+            return new HttpHost(address.getHostString(), address.getPort());
+        }
+    }
+}
@@ -22,19 +22,14 @@
 
 package com.microfocus.application.automation.tools.rest;
 
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
@@ -47,7 +42,6 @@ import com.microfocus.application.automation.tools.common.SSEException;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
-import hudson.ProxyConfiguration;
 
 import com.microfocus.application.automation.tools.sse.sdk.HttpRequestDecorator;
 
@@ -62,10 +56,14 @@ import com.microfocus.adm.performancecenter.plugins.common.rest.RESTConstants;
 public class RestClient implements Client {
 
     private final String _serverUrl;
-    protected Map<String, String> _cookies = new HashMap<String, String>();
+    protected Map<String, String> _cookies = new ConcurrentHashMap<String, String>();
     private final String _restPrefix;
     private final String _webuiPrefix;
     private final String _username;
+    private final HttpTransport _transport;
+
+    private static final boolean POOLED_TRANSPORT =
+            Boolean.parseBoolean(System.getProperty("RestClient.PooledTransport", "true"));
 
     /**
      * Configure SSL context for the client.
@@ -111,9 +109,19 @@ public class RestClient implements Client {
 
     /**
      * Constructor for setting rest client properties.
+     * Requests are sent through the shared connection pool, unless disabled by -DRestClient.PooledTransport=false
      */
     public RestClient(String url, String domain, String project, String username) {
 
+        this(url, domain, project, username, POOLED_TRANSPORT ? PooledHttpTransport.getShared() : new UrlConnectionTransport());
+    }
+
+    /**
+     * Constructor for setting rest client properties, with the transport sending the requests.
+     */
+    public RestClient(String url, String domain, String project, String username, HttpTransport transport) {
+
+        _transport = transport;
         if (!url.endsWith("/")) {
             url = String.format("%s/", url);
         }
@@ -248,10 +256,12 @@ public class RestClient implements Client {
             url += "?" + queryString;
         }
         try {
-            HttpURLConnection connection = (HttpURLConnection)ProxyConfiguration.open(new URL(url));
-            connection.setRequestMethod(type);
-
             Map<String, String> decoratedHeaders = new HashMap<String, String>();
+            // set all cookies for request, the given headers take precedence
+            String cookies = getCookiesString();
+            if (!cookies.isEmpty()) {
+                decoratedHeaders.put(RESTConstants.COOKIE, cookies);
+            }
             if (headers != null) {
                 decoratedHeaders.putAll(headers);
             }
@@ -261,9 +271,7 @@ public class RestClient implements Client {
                     getUsername(),
                     resourceAccessLevel);
 
-            prepareHttpRequest(connection, decoratedHeaders, data);
-            connection.connect();
-            ret = retrieveHtmlResponse(connection);
+            ret = _transport.execute(type, url, decoratedHeaders, data);
             updateCookies(ret);
         } catch (Exception cause) {
             throw new SSEException(cause);
@@ -272,102 +280,6 @@ public class RestClient implements Client {
         return ret;
     }
 
-    /**
-     * Prepare http request
-     */
-    private void prepareHttpRequest(
-            HttpURLConnection connnection,
-            Map<String, String> headers,
-            byte[] bytes) {
-
-        // set all cookies for request
-        connnection.setRequestProperty(RESTConstants.COOKIE, getCookiesString());
-
-        setConnectionHeaders(connnection, headers);
-
-        setConnectionData(connnection, bytes);
-    }
-
-    /**
-     * Set connection data
-     */
-    private void setConnectionData(HttpURLConnection connnection, byte[] bytes) {
-
-        if (bytes != null && bytes.length > 0) {
-            connnection.setDoOutput(true);
-            try {
-                OutputStream out = connnection.getOutputStream();
-                out.write(bytes);
-                out.flush();
-                out.close();
-            } catch (Exception cause) {
-                throw new SSEException(cause);
-            }
-        }
-    }
-
-    /**
-     * Set connection headers
-     */
-    private void setConnectionHeaders(HttpURLConnection connnection, Map<String, String> headers) {
-
-        if (headers != null) {
-            Iterator<Entry<String, String>> headersIterator = headers.entrySet().iterator();
-            while (headersIterator.hasNext()) {
-                Entry<String, String> header = headersIterator.next();
-                connnection.setRequestProperty(header.getKey(), header.getValue());
-            }
-        }
-    }
-
-    /**
-     * Retrieve Html Response
-     * @param connection
-     *            that is already connected to its url with an http request, and that should contain
-     *            a response for us to retrieve
-     * @return a response from the server to the previously submitted http request
-     */
-    private Response retrieveHtmlResponse(HttpURLConnection connection) {
-
-        Response ret = new Response();
-
-        try {
-            ret.setStatusCode(connection.getResponseCode());
-            ret.setHeaders(connection.getHeaderFields());
-        } catch (Exception cause) {
-            throw new SSEException(cause);
-        }
-
-        InputStream inputStream;
-        // select the source of the input bytes, first try 'regular' input
-        try {
-            inputStream = connection.getInputStream();
-        }
-        // if the connection to the server somehow failed, for example 404 or 500,
-        // con.getInputStream() will throw an exception, which we'll keep.
-        // we'll also store the body of the exception page, in the response data. */
-        catch (Exception e) {
-            inputStream = connection.getErrorStream();
-            ret.setFailure(e);
-        }
-
-        // this takes data from the previously set stream (error or input)
-        // and stores it in a byte[] inside the response
-        ByteArrayOutputStream container = new ByteArrayOutputStream();
-        byte[] buf = new byte[1024];
-        int read;
-        try {
-            while ((read = inputStream.read(buf, 0, 1024)) > 0) {
-                container.write(buf, 0, read);
-            }
-            ret.setData(container.toByteArray());
-        } catch (Exception ex) {
-            throw new SSEException(ex);
-        }
-
-        return ret;
-    }
-
     /**
      * Update cookies
      */
@@ -0,0 +1,95 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.rest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import hudson.ProxyConfiguration;
+
+/***
+ * Transport opening an {@link HttpURLConnection} per request through the Jenkins proxy configuration.
+ * Response bodies are read fully and closed, so the JDK may keep the connection alive for the next request.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Override
+    public Response execute(String method, String url, Map<String, String> headers, byte[] data) throws IOException {
+
+        HttpURLConnection connection = (HttpURLConnection) ProxyConfiguration.open(new URL(url));
+        connection.setRequestMethod(method);
+        if (headers != null) {
+            for (Entry<String, String> header : headers.entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+        }
+        if (data != null && data.length > 0) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(data);
+            }
+        }
+        connection.connect();
+
+        Response ret = new Response();
+        ret.setStatusCode(connection.getResponseCode());
+        ret.setHeaders(connection.getHeaderFields());
+
+        InputStream inputStream;
+        // for an error status (404, 500...) getInputStream throws; the failure is kept and the error page is read instead
+        try {
+            inputStream = connection.getInputStream();
+        } catch (IOException e) {
+            inputStream = connection.getErrorStream();
+            ret.setFailure(e);
+        }
+        ret.setData(readBody(inputStream, connection.getContentLength()));
+
+        return ret;
+    }
+
+    private static byte[] readBody(InputStream inputStream, int contentLength) throws IOException {
+
+        if (inputStream == null) {
+            return new byte[0];
+        }
+        try (InputStream in = inputStream) {
+            ByteArrayOutputStream container = new ByteArrayOutputStream(contentLength > 0 ? contentLength : BUFFER_SIZE);
+            byte[] buf = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buf)) != -1) {
+                container.write(buf, 0, read);
+            }
+            return container.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,462 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.results.projectparser.performance.AvgTransactionResponseTime;
+import com.microfocus.application.automation.tools.results.projectparser.performance.GoalResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrProjectScenarioResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrTest;
+import com.microfocus.application.automation.tools.results.projectparser.performance.PercentileTransactionWholeRun;
+import com.microfocus.application.automation.tools.results.projectparser.performance.ProjectLrResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.TimeRangeResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.WholeRunResult;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult
+        .DEFAULT_CONNECTION_MAX;
+import static com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult
+        .DEFAULT_SCENARIO_DURATION;
+
+/**
+ * Project level LoadRunner trend of a job, maintained incrementally and persisted in the job directory.
+ * <p>
+ * Scenario results of each finished build are appended once (on build completion, or by a catch-up scan of the
+ * builds newer than the last recorded one), and only the last {@link #MAX_BUILDS_PER_SCENARIO} builds of each
+ * scenario are kept. The project results served to the project action are derived from the kept builds only,
+ * so their cost doesn't grow with the build history of the job.
+ * <p>
+ * Loaded stores are kept by the full name of their job, and dropped when the job is deleted or renamed.
+ */
+public class PerformanceProjectTrendStore {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(PerformanceProjectTrendStore.class.getName());
+    private static final String STORE_FILE = "lrProjectTrend.xml";
+    /**
+     * Number of builds kept per scenario, newest first.
+     */
+    static final int MAX_BUILDS_PER_SCENARIO = 21;
+    private static final Map<String, PerformanceProjectTrendStore> STORES =
+            new HashMap<String, PerformanceProjectTrendStore>();
+
+    // scenario name -> build number -> scenario result of the build
+    private TreeMap<String, TreeMap<Integer, JobLrScenarioResult>> scenarioBuilds;
+    private int lastRecordedBuild = -1;
+    private boolean historyScanned;
+
+    private transient Job<?, ?> job;
+    private transient ProjectLrResults projectResult;
+
+    private PerformanceProjectTrendStore() {
+        scenarioBuilds = new TreeMap<String, TreeMap<Integer, JobLrScenarioResult>>();
+    }
+
+    /**
+     * Gets the trend store of the job, loading it from the job directory on first access.
+     *
+     * @param job the job
+     * @return the trend store
+     */
+    public static PerformanceProjectTrendStore get(Job<?, ?> job) {
+        synchronized (STORES) {
+            PerformanceProjectTrendStore store = STORES.get(job.getFullName());
+            // a reloaded job is a new object, its store is loaded again
+            if (store == null || store.job != job) {
+                store = load(job);
+                STORES.put(job.getFullName(), store);
+            }
+            return store;
+        }
+    }
+
+    /**
+     * Drops the loaded store of the job, or of all the jobs inside the folder.
+     *
+     * @param fullName full name of the job or folder
+     */
+    static void evict(String fullName) {
+        synchronized (STORES) {
+            STORES.keySet().removeIf(name -> name.equals(fullName) || name.startsWith(fullName + "/"));
+        }
+    }
+
+    static boolean isLoaded(String fullName) {
+        synchronized (STORES) {
+            return STORES.containsKey(fullName);
+        }
+    }
+
+    int getLastRecordedBuild() {
+        return lastRecordedBuild;
+    }
+
+    /**
+     * Gets the project results, after appending the builds finished since the last call.
+     *
+     * @return the project results, shared between callers and must not be modified
+     */
+    public synchronized ProjectLrResults getProjectResults() {
+        if (catchUp()) {
+            save();
+        }
+        if (projectResult == null) {
+            projectResult = buildProjectResults();
+        }
+        return projectResult;
+    }
+
+    /**
+     * Appends the scenario results of the finished build.
+     *
+     * @param run the finished build
+     */
+    public synchronized void record(Run<?, ?> run) {
+        if (append(run)) {
+            save();
+        }
+    }
+
+    /**
+     * Removes the scenario results of the deleted build.
+     *
+     * @param buildNumber the deleted build number
+     */
+    public synchronized void remove(int buildNumber) {
+        boolean removed = false;
+        for (TreeMap<Integer, JobLrScenarioResult> builds : scenarioBuilds.values()) {
+            removed |= builds.remove(buildNumber) != null;
+        }
+        if (removed) {
+            projectResult = null;
+            save();
+        }
+    }
+
+    private static PerformanceProjectTrendStore load(Job<?, ?> job) {
+        PerformanceProjectTrendStore store = null;
+        XmlFile storeFile = getStoreFile(job);
+        if (storeFile.exists()) {
+            try {
+                store = (PerformanceProjectTrendStore) storeFile.read();
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to load the LoadRunner trend of " + job.getFullName()
+                        + ", it will be rebuilt from the builds", e);
+            }
+        }
+        if (store == null || store.scenarioBuilds == null) {
+            store = new PerformanceProjectTrendStore();
+        }
+        store.job = job;
+        return store;
+    }
+
+    private static XmlFile getStoreFile(Job<?, ?> job) {
+        return new XmlFile(Run.XSTREAM2, new File(job.getRootDir(), STORE_FILE));
+    }
+
+    private void save() {
+        try {
+            getStoreFile(job).write(this);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save the LoadRunner trend of " + job.getFullName(), e);
+        }
+    }
+
+    /**
+     * Appends the finished builds not recorded yet; the whole history is scanned only the first time.
+     * Builds still running are skipped here, they are appended on completion.
+     * Finished builds without LoadRunner results are marked as seen as well, so they are not scanned again.
+     */
+    private boolean catchUp() {
+        boolean changed = false;
+        for (Run<?, ?> run : job.getBuilds()) {
+            if (historyScanned && run.getNumber() <= lastRecordedBuild) {
+                break;
+            }
+            if (!run.isBuilding()) {
+                changed |= append(run);
+                if (run.getNumber() > lastRecordedBuild) {
+                    lastRecordedBuild = run.getNumber();
+                    changed = true;
+                }
+            }
+        }
+        if (!historyScanned) {
+            historyScanned = true;
+            changed = true;
+        }
+        return changed;
+    }
+
+    private boolean append(Run<?, ?> run) {
+        PerformanceJobReportAction performanceJobReportAction = run.getAction(PerformanceJobReportAction.class);
+        if (performanceJobReportAction == null) {
+            return false;
+        }
+        LrJobResults jobLrResult = performanceJobReportAction.getLrResultBuildDataset();
+        if (jobLrResult == null) {
+            return false;
+        }
+
+        int runNumber = run.getNumber();
+        for (Map.Entry<String, JobLrScenarioResult> runResult : jobLrResult.getLrScenarioResults().entrySet()) {
+            TreeMap<Integer, JobLrScenarioResult> builds = scenarioBuilds.get(runResult.getKey());
+            if (builds == null) {
+                builds = new TreeMap<Integer, JobLrScenarioResult>();
+                scenarioBuilds.put(runResult.getKey(), builds);
+            }
+            builds.put(runNumber, runResult.getValue());
+            while (builds.size() > MAX_BUILDS_PER_SCENARIO) {
+                builds.remove(builds.firstKey());
+            }
+        }
+        lastRecordedBuild = Math.max(lastRecordedBuild, runNumber);
+        projectResult = null;
+        return true;
+    }
+
+    private ProjectLrResults buildProjectResults() {
+        ProjectLrResults results = new ProjectLrResults();
+        for (Map.Entry<String, TreeMap<Integer, JobLrScenarioResult>> scenario : scenarioBuilds.entrySet()) {
+            if (scenario.getValue().isEmpty()) {
+                continue;
+            }
+            LrProjectScenarioResults lrProjectScenarioResults = new LrProjectScenarioResults(scenario.getKey());
+            results.addScenario(lrProjectScenarioResults);
+            // newest build first, as the builds of the job are listed
+            for (Map.Entry<Integer, JobLrScenarioResult> build : scenario.getValue().descendingMap().entrySet()) {
+                int runNumber = build.getKey();
+                JobLrScenarioResult scenarioRunResult = build.getValue();
+                lrProjectScenarioResults.incBuildCount();
+                // Join the SLA rule results
+                for (GoalResult goalResult : scenarioRunResult.scenarioSlaResults) {
+                    scenarioGoalResult(runNumber, lrProjectScenarioResults, goalResult);
+                }
+
+                // Join sceanrio stats
+                joinSceanrioConnectionsStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
+                joinVUserScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
+                joinTransactionScenarioStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
+                joinDurationStats(runNumber, lrProjectScenarioResults, scenarioRunResult);
+            }
+        }
+        return results;
+    }
+
+    private static void joinDurationStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+                                   JobLrScenarioResult scenarioRunResult) {
+        long scenarioConnectionMax = scenarioRunResult.getScenarioDuration();
+        if (scenarioConnectionMax != DEFAULT_SCENARIO_DURATION) {
+            lrProjectScenarioResults.getDurationData().put(runNumber, scenarioConnectionMax);
+        }
+    }
+
+    private static void joinTransactionScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+                                              JobLrScenarioResult scenarioRunResult) {
+        SortedMap<Integer, TreeMap<String, TreeMap<String, Integer>>> projectTransactionPerRun =
+                lrProjectScenarioResults.getTransactionPerRun();
+        SortedMap<String, Integer> projectTransactionSum = lrProjectScenarioResults.getTransactionSum();
+
+        final TreeMap<String, TreeMap<String, Integer>> scenarioTransactionData =
+                scenarioRunResult.transactionData;
+        final TreeMap<String, Integer> scenarioTransactionSum = scenarioRunResult.transactionSum;
+
+        if (scenarioTransactionData == null || scenarioTransactionSum == null) {
+            return;
+        }
+
+        if (!scenarioTransactionData.isEmpty()) {
+            //store transaction state data per run
+            projectTransactionPerRun.put(runNumber, scenarioTransactionData);
+            //add all summary transcation states to project level summary
+            for (SortedMap.Entry<String, Integer> transactionState : scenarioTransactionSum.entrySet()) {
+                int previousCount = 0;
+                if (projectTransactionSum.containsKey(transactionState.getKey())) {
+                    previousCount = projectTransactionSum.get(transactionState.getKey());
+                }
+                projectTransactionSum.put(transactionState.getKey(), previousCount + transactionState.getValue());
+            }
+
+
+            //add all per transcation states to project level per transaction summary
+            SortedMap<String, TreeMap<String, Integer>> projectTransactionsData =
+                    lrProjectScenarioResults.getTransactionData();
+            for (SortedMap.Entry<String, TreeMap<String, Integer>> scenarioTransactionDataSet :
+                    scenarioTransactionData.entrySet()) {
+                String transactionName = scenarioTransactionDataSet.getKey();
+                TreeMap<String, Integer> TransactionStateData = scenarioTransactionDataSet.getValue();
+                if (!projectTransactionsData.containsKey(transactionName)) {
+                    projectTransactionsData.put(transactionName, new TreeMap<String, Integer>(TransactionStateData));
+                    continue;
+                }
+
+                TreeMap<String, Integer> projectTransactionState = projectTransactionsData.get(transactionName);
+                for (Map.Entry<String, Integer> scenarioTransactionState : TransactionStateData.entrySet()) {
+                    Integer currentValue = scenarioTransactionState.getValue();
+                    projectTransactionState.put(scenarioTransactionState.getKey(), currentValue +
+                            scenarioTransactionState.getValue());
+                }
+            }
+        }
+    }
+
+    private static void joinVUserScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+                                        JobLrScenarioResult scenarioRunResult) {
+        SortedMap<Integer, TreeMap<String, Integer>> vUserPerRun = lrProjectScenarioResults.getvUserPerRun();
+        if (scenarioRunResult.vUserSum != null && !scenarioRunResult.vUserSum.isEmpty()) {
+            for (SortedMap.Entry<String, Integer> vUserStat : scenarioRunResult.vUserSum.entrySet()) {
+                if (!vUserPerRun.containsKey(runNumber)) {
+                    vUserPerRun.put(runNumber, new TreeMap<String, Integer>());
+                    LrProjectScenarioResults.vUserMapInit(vUserPerRun.get(runNumber));
+                }
+                vUserPerRun.get(runNumber).put(vUserStat.getKey(), vUserStat.getValue());
+                int previousCount = 0;
+                if (lrProjectScenarioResults.getvUserSummary().containsKey(vUserStat.getKey())) {
+                    previousCount = lrProjectScenarioResults.getvUserSummary().get(vUserStat.getKey());
+                }
+                lrProjectScenarioResults.getvUserSummary()
+                        .put(vUserStat.getKey(), previousCount + vUserStat.getValue());
+            }
+        }
+    }
+
+    private static void joinSceanrioConnectionsStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+                                              JobLrScenarioResult scenarioRunResult) {
+        int scenarioConnectionMax = scenarioRunResult.getConnectionMax();
+        if (scenarioConnectionMax != DEFAULT_CONNECTION_MAX) {
+            lrProjectScenarioResults.getMaxConnectionsCount().put(runNumber, scenarioConnectionMax);
+        }
+    }
+
+    private static void scenarioGoalResult(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+                                           GoalResult goalResult) {
+        if(goalResult.getStatus().equals(LrTest.SLA_STATUS.NoData))
+        {
+            return;
+        }
+        switch (goalResult.getSlaGoal()) {
+            case AverageThroughput:
+                lrProjectScenarioResults.getAverageThroughputResults()
+                        .put(runNumber, (WholeRunResult) goalResult);
+                break;
+            case TotalThroughput:
+                lrProjectScenarioResults.getTotalThroughtputResults().put(runNumber, (WholeRunResult) goalResult);
+                break;
+            case AverageHitsPerSecond:
+                lrProjectScenarioResults.getAverageHitsPerSecondResults()
+                        .put(runNumber, (WholeRunResult) goalResult);
+                break;
+            case TotalHits:
+                lrProjectScenarioResults.getTotalHitsResults().put(runNumber, (WholeRunResult) goalResult);
+                break;
+            case ErrorsPerSecond:
+                lrProjectScenarioResults.getErrPerSecResults()
+                        .put(runNumber, (TimeRangeResult) goalResult);
+                break;
+            case PercentileTRT:
+                if (!lrProjectScenarioResults.getPercentileTransactionResults().containsKey(runNumber)) {
+                    lrProjectScenarioResults.getPercentileTransactionResults()
+                            .put(runNumber, new TreeMap<String, PercentileTransactionWholeRun>());
+                }
+                lrProjectScenarioResults.getTransactions()
+                        .add(((PercentileTransactionWholeRun) goalResult).getName());
+                lrProjectScenarioResults.getPercentileTransactionResults().get(runNumber)
+                        .put(((PercentileTransactionWholeRun) goalResult).getName(),
+                                (PercentileTransactionWholeRun) goalResult);
+                break;
+            case AverageTRT:
+                if (!lrProjectScenarioResults.getAvgTransactionResponseTimeResults()
+                        .containsKey(runNumber)) {
+                    lrProjectScenarioResults.getAvgTransactionResponseTimeResults()
+                            .put(runNumber, new TreeMap<String, AvgTransactionResponseTime>());
+                }
+                lrProjectScenarioResults.getTransactions()
+                        .add(((AvgTransactionResponseTime) goalResult).getName());
+                lrProjectScenarioResults.getAvgTransactionResponseTimeResults().get(runNumber)
+                        .put(((AvgTransactionResponseTime) goalResult).getName(),
+                                (AvgTransactionResponseTime) goalResult);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Appends the LoadRunner results of builds to the trend of their job once they are completed.
+     */
+    @Extension
+    public static class RunListenerImpl extends RunListener<Run> {
+
+        @Override
+        public void onCompleted(Run run, TaskListener listener) {
+            if (run.getAction(PerformanceJobReportAction.class) != null) {
+                get(run.getParent()).record(run);
+            }
+        }
+
+        @Override
+        public void onDeleted(Run run) {
+            if (run.getAction(PerformanceJobReportAction.class) != null) {
+                get(run.getParent()).remove(run.getNumber());
+            }
+        }
+    }
+
+    /**
+     * Drops the loaded stores of deleted or renamed jobs and folders; a renamed job loads its store again
+     * from its new directory.
+     */
+    @Extension
+    public static class ItemListenerImpl extends ItemListener {
+
+        @Override
+        public void onDeleted(Item item) {
+            evict(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            evict(oldFullName);
+        }
+    }
+}
@@ -40,9 +40,12 @@ import hudson.model.*;
 import hudson.tasks.*;
 import hudson.tasks.junit.*;
 import hudson.tasks.test.TestResultAggregator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import jenkins.tasks.SimpleBuildStep;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.WildcardFileFilter;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -62,6 +65,12 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static com.microfocus.application.automation.tools.results.projectparser.performance.XmlParserUtil.getNode;
 import static com.microfocus.application.automation.tools.results.projectparser.performance.XmlParserUtil.getNodeAttr;
@@ -97,6 +106,8 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
     private static final String NO_TRANSACTION_SUMMARY_REPORT_ERROR = "Template contains no transaction summary " +
             "report.";
     private static final String PARALLEL_RESULT_FILE = "parallelrun_results.html";
+    private static final int ARCHIVE_CONCURRENCY = Math.max(1, Integer.getInteger("RunResultRecorder.ArchiveConcurrency", 4));
+    private static final ExecutorService ARCHIVE_EXECUTOR = createArchiveExecutor();
 
     private final ResultsPublisherModel _resultsPublisherModel;
     private List<FilePath> runReportList;
@@ -311,6 +322,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 
         ArrayList<String> zipFileNames = new ArrayList<String>();
         ArrayList<FilePath> reportFolders = new ArrayList<FilePath>();
+        List<ReportArchiveTask> archiveTasks = new ArrayList<ReportArchiveTask>();
         List<String> reportNames = new ArrayList<String>();
 
         listener.getLogger().println(
@@ -375,6 +387,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
                     Node testCaseNode = testSuiteElement.getElementsByTagName("testcase").item(0);
                     if (testCaseNode == null) {
                         listener.getLogger().println("No report folder was found in results");
+                        archiveReportFolders(archiveTasks, listener);
                         return;
                     }
                     if (testCaseNode.getNodeType() == Node.ELEMENT_NODE) {
@@ -393,7 +406,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
                         String zipFileName = getUniqueZipFileNameInFolder(zipFileNames, testFolder.getName());
                         FilePath archivedFile = new FilePath(new FilePath(artifactsDir), zipFileName);
 
-                        if (archiveFolder(reportFolder, testStatus, archivedFile, listener)) {
+                        if (archiveFolder(reportFolder, testStatus, archivedFile, archiveTasks, listener)) {
                             zipFileNames.add(zipFileName);
                         }
 
@@ -414,6 +427,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
                         }
                     }
                 }
+                archiveReportFolders(archiveTasks, listener);
             } else { // UFT Test
                 boolean reportIsHtml = false;
                 NodeList testCasesNodes = ((Element) testSuiteNode).getElementsByTagName("testcase");
@@ -504,31 +518,8 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
                                 String zipFileName = getUniqueZipFileNameInFolder(zipFileNames, testFolder.getName());
                                 zipFileNames.add(zipFileName);
 
-                                listener.getLogger().println(
-                                        "Zipping report folder: " + reportFolderPath);
-
-                                ByteArrayOutputStream outstr = new ByteArrayOutputStream();
-
-                                //don't use FileFilter for zip, or it will cause bug when files are on slave
-                                reportFolder.zip(outstr);
-
-                                /*
-                                 * I did't use copyRecursiveTo or copyFrom due to
-                                 * bug in
-                                 * jekins:https://issues.jenkins-ci.org/browse
-                                 * /JENKINS-9189 //(which is cleaimed to have been
-                                 * fixed, but not. So I zip the folder to stream and
-                                 * copy it to the master.
-                                 */
-
-                                ByteArrayInputStream instr = new ByteArrayInputStream(outstr.toByteArray());
-
                                 FilePath archivedFile = new FilePath(new FilePath(artifactsDir), zipFileName);
-                                archivedFile.copyFrom(instr);
-                                listener.getLogger().println(
-                                        "copy from slave to master: " + archivedFile);
-                                outstr.close();
-                                instr.close();
+                                archiveTasks.add(new ReportArchiveTask(reportFolder, archivedFile));
 
                                 // add to Report list
                                 ReportMetaData reportMetaData = new ReportMetaData();
@@ -555,6 +546,8 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
                     }
                 }
 
+                archiveReportFolders(archiveTasks, listener);
+
                 if (reportIsHtml && !ReportInfoToCollect.isEmpty()) {
 
                     listener.getLogger().println("begin to collectAndPrepareHtmlReports");
@@ -673,20 +666,10 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
                 // (x86)\Jenkins\jobs\testAction\builds\35\archive\UFTReport\GuiTest1"
 
                 // zip copy and unzip
-                ByteArrayOutputStream outstr = new ByteArrayOutputStream();
-
-                // don't use FileFilter for zip, or it will cause bug when files are on slave
-                source.zip(outstr);
-                ByteArrayInputStream instr = new ByteArrayInputStream(outstr.toByteArray());
-
                 String zipFileName = "UFT_Report_HTML_tmp.zip";
                 FilePath archivedFile = new FilePath(rootTarget, zipFileName);
 
-                archivedFile.copyFrom(instr);
-
-                listener.getLogger().println("copy from slave to master: " + archivedFile);
-                outstr.close();
-                instr.close();
+                zipFolder(source, archivedFile, listener);
 
                 // unzip
                 archivedFile.unzip(rootTarget);
@@ -741,18 +724,15 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
             throws IOException, InterruptedException {
         FilePath slaReportFilePath = new FilePath(reportFolder, "RunReport.xml");
         if (slaReportFilePath.exists()) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            slaReportFilePath.zip(baos);
             File slaDirectory = new File(buildDir, "RunReport");
             if (!slaDirectory.exists()) {
                 slaDirectory.mkdir();
             }
-            ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
             FilePath slaDirectoryFilePath = new FilePath(slaDirectory);
             FilePath tmpZipFile = new FilePath(slaDirectoryFilePath, "runReport.zip");
-            tmpZipFile.copyFrom(bais);
-            bais.close();
-            baos.close();
+            try (OutputStream out = tmpZipFile.write()) {
+                slaReportFilePath.zip(out);
+            }
             tmpZipFile.unzip(slaDirectoryFilePath);
             FilePath slaFile = new FilePath(slaDirectoryFilePath, "RunReport.xml");
             slaFile.getBaseName();
@@ -768,6 +748,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
     private boolean archiveFolder(FilePath reportFolder,
                                   String testStatus,
                                   FilePath archivedFile,
+                                  List<ReportArchiveTask> archiveTasks,
                                   TaskListener listener) throws IOException, InterruptedException {
         String archiveTestResultMode = _resultsPublisherModel.getArchiveTestResultsMode();
         boolean archiveTestResult;
@@ -777,28 +758,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
         if (archiveTestResult) {
 
             if (reportFolder.exists()) {
-
-                listener.getLogger().println(
-                        "Zipping report folder: " + reportFolder);
-
-                ByteArrayOutputStream outstr = new ByteArrayOutputStream();
-                reportFolder.zip(outstr);
-
-                /*
-                 * I did't use copyRecursiveTo or copyFrom due to
-                 * bug in
-                 * jekins:https://issues.jenkins-ci.org/browse
-                 * /JENKINS-9189 //(which is cleaimed to have been
-                 * fixed, but not. So I zip the folder to stream and
-                 * copy it to the master.
-                 */
-
-                ByteArrayInputStream instr = new ByteArrayInputStream(outstr.toByteArray());
-
-                archivedFile.copyFrom(instr);
-
-                outstr.close();
-                instr.close();
+                archiveTasks.add(new ReportArchiveTask(reportFolder, archivedFile));
                 return true;
             } else {
                 listener.getLogger().println(
@@ -809,6 +769,82 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
         return false;
     }
 
+    /**
+     * Zips the report folders into the artifacts directory on a pool shared by all builds, so no more than
+     * {@link #ARCHIVE_CONCURRENCY} folders are zipped at a time.
+     * Zipping is done on the node owning the folder and streamed directly to the target file, so nothing is buffered in memory.
+     *
+     * @param archiveTasks report folders to archive, cleared once archived
+     * @param listener     build listener
+     * @throws IOException          if any of the folders failed to be archived
+     * @throws InterruptedException if interrupted while waiting for the archiving to finish
+     */
+    private void archiveReportFolders(List<ReportArchiveTask> archiveTasks, TaskListener listener)
+            throws IOException, InterruptedException {
+        if (archiveTasks.isEmpty()) {
+            return;
+        }
+
+        List<Future<Long>> results = new ArrayList<Future<Long>>();
+        try {
+            for (final ReportArchiveTask task : archiveTasks) {
+                results.add(ARCHIVE_EXECUTOR.submit(() -> zipFolder(task.reportFolder, task.archivedFile, listener)));
+            }
+
+            IOException failure = null;
+            for (Future<Long> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    listener.getLogger().println("Failed to archive report folder: " + e.getCause());
+                    if (failure == null) {
+                        failure = new IOException(e.getCause());
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            // on interruption, folders of this build still queued or being zipped are abandoned
+            for (Future<Long> result : results) {
+                result.cancel(true);
+            }
+            archiveTasks.clear();
+        }
+    }
+
+    private static ExecutorService createArchiveExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(ARCHIVE_CONCURRENCY, ARCHIVE_CONCURRENCY,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "RunResultRecorder report archiver"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Zips the folder on the node owning it, streaming the archive straight into the target file
+     *
+     * @return the size of the archive in bytes
+     */
+    private static long zipFolder(FilePath source, FilePath target, TaskListener listener)
+            throws IOException, InterruptedException {
+        listener.getLogger().println("Zipping report folder: " + source);
+        long startTime = System.currentTimeMillis();
+
+        //don't use FileFilter for zip, or it will cause bug when files are on slave
+        CountingOutputStream out = new CountingOutputStream(new BufferedOutputStream(target.write()));
+        try {
+            source.zip(out);
+        } finally {
+            out.close();
+        }
+
+        listener.getLogger().println(String.format("Archived report folder %s to %s: %d bytes in %d ms",
+                source, target, out.getByteCount(), System.currentTimeMillis() - startTime));
+        return out.getByteCount();
+    }
+
     private boolean isArchiveTestResult(String testStatus, String archiveTestResultMode) {
         if (archiveTestResultMode.equals(ResultsPublisherModel.alwaysArchiveResults.getValue()) ||
                 archiveTestResultMode.equals(ResultsPublisherModel.CreateHtmlReportResults.getValue())) {
@@ -850,18 +886,15 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
             if (srcDirectoryFilePath.exists()) {
                 FilePath srcFilePath = new FilePath(srcDirectoryFilePath, IE_REPORT_FOLDER);
                 if (srcFilePath.exists()) {
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    srcFilePath.zip(baos);
                     File reportDirectory = new File(artifactsDir.getParent(), PERFORMANCE_REPORT_FOLDER);
                     if (!reportDirectory.exists()) {
                         reportDirectory.mkdir();
                     }
-                    ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
                     FilePath reportDirectoryFilePath = new FilePath(reportDirectory);
                     FilePath tmpZipFile = new FilePath(reportDirectoryFilePath, "tmp.zip");
-                    tmpZipFile.copyFrom(bais);
-                    bais.close();
-                    baos.close();
+                    try (OutputStream out = tmpZipFile.write()) {
+                        srcFilePath.zip(out);
+                    }
                     tmpZipFile.unzip(reportDirectoryFilePath);
                     String newFolderName = org.apache.commons.io.FilenameUtils.getName(testFolderPathFile.getPath());
                     FileUtils.moveDirectory(new File(reportDirectory, IE_REPORT_FOLDER),
@@ -1510,6 +1543,19 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
         }
     }
 
+    /**
+     * Report folder to be zipped into the artifacts directory
+     */
+    private static final class ReportArchiveTask {
+        private final FilePath reportFolder;
+        private final FilePath archivedFile;
+
+        private ReportArchiveTask(FilePath reportFolder, FilePath archivedFile) {
+            this.reportFolder = reportFolder;
+            this.archivedFile = archivedFile;
+        }
+    }
+
     /**
      * The type Rrv file filter.
      */
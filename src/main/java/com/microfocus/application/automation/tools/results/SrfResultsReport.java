@@ -37,8 +37,6 @@ import hudson.tasks.*;
 import hudson.tasks.junit.*;
 import hudson.tasks.test.TestObject;
 import hudson.tasks.test.TestResultProjectAction;
-import net.sf.json.JSONArray;
-import net.sf.json.JSONObject;
 import org.apache.tools.ant.DirectoryScanner;
 import org.jenkinsci.remoting.RoleChecker;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -55,6 +53,7 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.*;
+import java.lang.ref.SoftReference;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.*;
@@ -69,18 +68,14 @@ import java.util.logging.Logger;
 public class SrfResultsReport extends Recorder implements Serializable {
     private static final Logger logger = Logger.getLogger(SrfResultsReport.class.getName());
     private static final long serialVersionUID = 1L;
-    public  static Hashtable<String, SrfTestResultAction> myHash = new Hashtable<String, SrfTestResultAction>();
 
     @DataBoundConstructor
     public SrfResultsReport() {
-        if(myHash == null)
-            myHash = new Hashtable<String, SrfTestResultAction>();
-
     }
 
     public class SrfTestResultAction extends TestResultAction {
         private final Logger logger = Logger.getLogger(SrfResultsReport.class.getName());
-        private JSONArray _buildInfo;
+        private transient SoftReference<SrfScriptRunIndex> _scriptRunIndex;
         private PrintStream _logger;
         private TestObject _target;
         private TestResult _result;
@@ -103,30 +98,23 @@ public class SrfResultsReport extends Recorder implements Serializable {
         public Object getWrappedTarget(){
             return _target;
         }
-        private void getBuildInfo(ClassResult p){
-            String data = null;
-            BufferedReader reader = null;
-            try {
-                String path = p.getRun().getRootDir().getPath().concat("/report.json");
-                reader = new BufferedReader(new FileReader(path));
-                String line = null;
-                StringBuffer buf = new StringBuffer();
-                while ( (line = reader.readLine() ) != null){
-                    buf.append(line);
-                }
-                data = buf.toString();
-            }
-            catch (Exception e) {
+        /**
+         * @return script runs of the build, parsed once from its report.json and kept while memory allows
+         */
+        private synchronized SrfScriptRunIndex getScriptRunIndex(Run<?, ?> run) {
+            File report = new File(run.getRootDir(), SrfScriptRunIndex.REPORT_FILE);
+            SrfScriptRunIndex index = _scriptRunIndex == null ? null : _scriptRunIndex.get();
+            if (index != null && index.isCurrent(report)) {
+                return index;
             }
-            finally {
-                try {
-                    if(reader != null)
-                        reader.close();
-                } catch (IOException e) {
-
-                }
+            try {
+                index = SrfScriptRunIndex.read(report);
+            } catch (Exception e) {
+                logger.warning(String.format("Failed to read SRF script runs from %s: %s", report, e.getMessage()));
+                return null;
             }
-            _buildInfo = JSONArray.fromObject(data);
+            _scriptRunIndex = new SoftReference<>(index);
+            return index;
         }
         public SrfTestResultAction(AbstractBuild owner, TestResult result, BuildListener listener) {
             super(owner, result, listener);
@@ -141,62 +129,27 @@ public class SrfResultsReport extends Recorder implements Serializable {
         }
 
         public SrfScriptRunModel[] getScriptRuns(ClassResult classResult) {
-            JSONArray scriptRunsJson = null;
-            ArrayList<SrfScriptRunModel> scriptRuns = new ArrayList<>();
-            String testName = "";
-
+            String testName;
             try{
-                testName = classResult.getClassName().toLowerCase();
+                testName = classResult.getClassName();
             } catch (Exception e){
-                this._logger.println(e);
+                logger.warning(e.toString());
                 return null;
             }
 
-            getBuildInfo(classResult);
-
-            JSONObject jTest = null;
-            for (int i = 0; i < _buildInfo.size(); i++) {
-                jTest = _buildInfo.getJSONObject(i);
-                if (jTest == null)
-                    return null;
-
-                String name = jTest.getString("name").toLowerCase();
-                String yac = jTest.getString("yac");
-                String normalizedName = String.format("%s_%s", SrfScriptRunModel.normalizeName(name), yac);
-                if(normalizedName.compareTo(testName) == 0) {
-                    scriptRunsJson = jTest.getJSONArray("scriptRuns");
-                    break;
-                }
-            }
-
-            for(Iterator<JSONObject> i =  scriptRunsJson.iterator(); i.hasNext(); ) {
-                JSONObject scriptRunJson = i.next();
-
-                JSONObject assetInfo = scriptRunJson.getJSONObject("assetInfo");
-
-                SrfScriptRunModel srfScriptRunModel = new SrfScriptRunModel(
-                        scriptRunJson.getString("id"),
-                        assetInfo.getString("name"),
-                        scriptRunJson.getInt("durationMs"),
-                        SrfScriptRunModel.SrfStatus.valueOf(scriptRunJson.getString("status")),
-                        scriptRunJson.getJSONObject("environment"),
-                        scriptRunJson.getString("yac"),
-                        jTest
-                );
-
-                scriptRuns.add(srfScriptRunModel);
-            }
-            return scriptRuns.toArray(new SrfScriptRunModel[scriptRuns.size()]);
+            SrfScriptRunIndex index = getScriptRunIndex(classResult.getRun());
+            if (index == null)
+                return null;
+            return index.getScriptRuns(testName);
         }
 
         public SrfScriptRunModel getScriptRunModel(CaseResult caseResult) {
-            SrfScriptRunModel scriptRuns[] = this.getScriptRuns(caseResult.getParent());
-            for (SrfScriptRunModel scriptRun: scriptRuns) {
-                if (scriptRun.getLinkName().equals(caseResult.getSafeName()))
-                     return scriptRun;
-            }
-            _logger.println(String.format("Failed to find script run: %s in script runs", caseResult.getName()));
-            return null;
+            ClassResult classResult = caseResult.getParent();
+            SrfScriptRunIndex index = getScriptRunIndex(classResult.getRun());
+            SrfScriptRunModel scriptRun = index == null ? null : index.getScriptRun(classResult.getClassName(), caseResult.getSafeName());
+            if (scriptRun == null)
+                logger.warning(String.format("Failed to find script run: %s in script runs", caseResult.getName()));
+            return scriptRun;
         }
 
         public String getDeepLink(SrfScriptRunModel srfScriptRunModel){
@@ -211,9 +164,8 @@ public class SrfResultsReport extends Recorder implements Serializable {
             // There will always be one package level (root)
             return testResult.getChildren().iterator().next();
         }
-        private void setTarget(TestObject t, Hashtable<String, SrfTestResultAction>  h){
+        private void setTarget(TestObject t){
             _target = t;
-            myHash.putAll(h);
         }
     }
 
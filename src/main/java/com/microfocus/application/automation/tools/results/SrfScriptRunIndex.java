@@ -0,0 +1,123 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.srf.model.SrfScriptRunModel;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Script runs of an SRF build, read from the report.json in the build directory with a single parse.
+ * Script runs are indexed by the normalized test name (the class name of the JUnit result, lower case)
+ * and, within a test, by their link name (the safe name of the JUnit case).
+ */
+class SrfScriptRunIndex {
+
+    static final String REPORT_FILE = "report.json";
+
+    private static final SrfScriptRunModel[] NO_SCRIPT_RUNS = new SrfScriptRunModel[0];
+
+    private final Map<String, SrfScriptRunModel[]> scriptRunsByTest;
+    private final Map<String, Map<String, SrfScriptRunModel>> scriptRunsByLink;
+    private final long lastModified;
+
+    private SrfScriptRunIndex(Map<String, SrfScriptRunModel[]> scriptRunsByTest, Map<String, Map<String, SrfScriptRunModel>> scriptRunsByLink, long lastModified) {
+        this.scriptRunsByTest = scriptRunsByTest;
+        this.scriptRunsByLink = scriptRunsByLink;
+        this.lastModified = lastModified;
+    }
+
+    static SrfScriptRunIndex read(File report) throws IOException {
+        long lastModified = report.lastModified();
+        String data = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+        return parse(JSONArray.fromObject(data), lastModified);
+    }
+
+    static SrfScriptRunIndex parse(JSONArray buildInfo, long lastModified) {
+        Map<String, SrfScriptRunModel[]> scriptRunsByTest = new HashMap<>();
+        Map<String, Map<String, SrfScriptRunModel>> scriptRunsByLink = new HashMap<>();
+        for (int i = 0; i < buildInfo.size(); i++) {
+            JSONObject jTest = buildInfo.getJSONObject(i);
+            String name = jTest.getString("name").toLowerCase();
+            String yac = jTest.getString("yac");
+            String normalizedName = String.format("%s_%s", SrfScriptRunModel.normalizeName(name), yac);
+            if (scriptRunsByTest.containsKey(normalizedName)) {
+                // the first test of the report wins, as it always did
+                continue;
+            }
+
+            JSONArray scriptRunsJson = jTest.getJSONArray("scriptRuns");
+            SrfScriptRunModel[] scriptRuns = new SrfScriptRunModel[scriptRunsJson.size()];
+            Map<String, SrfScriptRunModel> byLink = new HashMap<>();
+            for (int j = 0; j < scriptRuns.length; j++) {
+                JSONObject scriptRunJson = scriptRunsJson.getJSONObject(j);
+                JSONObject assetInfo = scriptRunJson.getJSONObject("assetInfo");
+                scriptRuns[j] = new SrfScriptRunModel(
+                        scriptRunJson.getString("id"),
+                        assetInfo.getString("name"),
+                        scriptRunJson.getInt("durationMs"),
+                        SrfScriptRunModel.SrfStatus.valueOf(scriptRunJson.getString("status")),
+                        scriptRunJson.getJSONObject("environment"),
+                        scriptRunJson.getString("yac"),
+                        jTest
+                );
+                String linkName = scriptRuns[j].getLinkName();
+                if (!byLink.containsKey(linkName)) {
+                    byLink.put(linkName, scriptRuns[j]);
+                }
+            }
+            scriptRunsByTest.put(normalizedName, scriptRuns);
+            scriptRunsByLink.put(normalizedName, Collections.unmodifiableMap(byLink));
+        }
+        return new SrfScriptRunIndex(Collections.unmodifiableMap(scriptRunsByTest), Collections.unmodifiableMap(scriptRunsByLink), lastModified);
+    }
+
+    /**
+     * @return script runs of the test, in the report order; empty if the report doesn't contain the test
+     */
+    SrfScriptRunModel[] getScriptRuns(String testName) {
+        SrfScriptRunModel[] scriptRuns = scriptRunsByTest.get(testName.toLowerCase());
+        return scriptRuns == null ? NO_SCRIPT_RUNS : scriptRuns.clone();
+    }
+
+    /**
+     * @return the script run of the test with the given link name, null if there is none
+     */
+    SrfScriptRunModel getScriptRun(String testName, String linkName) {
+        Map<String, SrfScriptRunModel> byLink = scriptRunsByLink.get(testName.toLowerCase());
+        return byLink == null ? null : byLink.get(linkName);
+    }
+
+    /**
+     * @return whether the index was read from the current content of the report
+     */
+    boolean isCurrent(File report) {
+        return report.lastModified() == lastModified;
+    }
+}
@@ -293,20 +293,22 @@ public class TestResultToALMUploader extends Recorder implements Serializable, M
         } else {
         	logger.log("INFO: "+ ds.getIncludedFilesCount() +" test result file found.");
         	String[] files = ds.getIncludedFiles();
+        	AlmRestInfo loginInfo = new AlmRestInfo(
+        			serverUrl,
+        			Util.replaceMacro(uploadTestResultToAlmModel.getAlmDomain(), varResolver),
+        			clientType,
+        			Util.replaceMacro(uploadTestResultToAlmModel.getAlmProject(), varResolver),
+        			uploadTestResultToAlmModel.getAlmUserName(),
+        			uploadTestResultToAlmModel.getAlmPassword(),
+        			Util.replaceMacro(uploadTestResultToAlmModel.getAlmTestSetFolder(), varResolver)
+        	);
+        	// one authenticated session and one service (with its resolved folders) for all the report files
+        	AlmRestTool u = new AlmRestTool(loginInfo, logger);
+        	IExternalEntityUploadService service = new DefaultExternalEntityUploadServiceImpl(u, workspace, logger);
         	for(String fileName : files) {
         		String fullpath = root.getAbsolutePath() + File.separator + fileName;
-    			AlmRestInfo loginInfo = new AlmRestInfo(
-    					serverUrl,
-    					Util.replaceMacro(uploadTestResultToAlmModel.getAlmDomain(), varResolver),
-                        clientType,
-    					Util.replaceMacro(uploadTestResultToAlmModel.getAlmProject(), varResolver),
-    					uploadTestResultToAlmModel.getAlmUserName(),
-    					uploadTestResultToAlmModel.getAlmPassword(),
-                        Util.replaceMacro(uploadTestResultToAlmModel.getAlmTestSetFolder(), varResolver)
-                );
-    			AlmRestTool u = new AlmRestTool(loginInfo, logger);
     			logger.log("INFO: Start to upload "+fullpath);
-    			IExternalEntityUploadService service = new DefaultExternalEntityUploadServiceImpl(u, workspace, logger);
+    			long uploadStart = System.currentTimeMillis();
     			try {
 	    			service.UploadExternalTestSet(loginInfo,
 	    					fullpath,
@@ -318,7 +320,7 @@ public class TestResultToALMUploader extends Recorder implements Serializable, M
                             build.getParent().getDisplayName(),
                             runUrl
                     );
-	    			logger.log("INFO: Uploaded "+fullpath + ".");
+	    			logger.log("INFO: Uploaded "+fullpath + " in " + (System.currentTimeMillis() - uploadStart) + " ms.");
     			} catch (Exception e) {
     				logger.log("WARN: there's exception while uploading "+fullpath + ".");
     				build.setResult(Result.UNSTABLE);
@@ -22,10 +22,19 @@
 
 package com.microfocus.application.automation.tools.results.parser;
 
+import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 
 import com.microfocus.application.automation.tools.results.parser.antjunit.AntJUnitReportParserImpl;
 import com.microfocus.application.automation.tools.results.parser.jenkinsjunit.JenkinsJUnitReportParserImpl;
@@ -42,6 +51,7 @@ public class ReportParserManager {
 	private static ReportParserManager instance = new ReportParserManager();
 
 	private List<ReportParser> parserList;
+	private Map<String, List<ReportParser>> parsersByRootElement;
 	private FilePath workspace;
 	private Logger logger;
 
@@ -59,17 +69,62 @@ public class ReportParserManager {
 
 	public List<AlmTestSet> parseTestSets(String reportFilePath, String testingFramework, String testingTool) {
 		init();
-		List<AlmTestSet> testsets = null;
-		for (ReportParser reportParser : parserList) {
-			try {
-				InputStream in = new FileInputStream(reportFilePath);
-				testsets = reportParser.parseTestSets(in, testingFramework, testingTool);
-				break;
+		List<ReportParser> candidates = getCandidateParsers(reportFilePath);
+		List<AlmTestSet> testsets = parseTestSets(candidates, reportFilePath, testingFramework, testingTool);
+		if (testsets == null && candidates.size() < parserList.size()) {
+			// the root element was misleading, fall back to the rest of the parsers
+			List<ReportParser> others = new ArrayList<ReportParser>(parserList);
+			others.removeAll(candidates);
+			testsets = parseTestSets(others, reportFilePath, testingFramework, testingTool);
+		}
+		return testsets;
+	}
+
+	private List<AlmTestSet> parseTestSets(List<ReportParser> parsers, String reportFilePath, String testingFramework, String testingTool) {
+		for (ReportParser reportParser : parsers) {
+			try (InputStream in = new BufferedInputStream(new FileInputStream(reportFilePath))) {
+				return reportParser.parseTestSets(in, testingFramework, testingTool);
 			} catch (Exception e) {
 				logger.log("Failed to parse file with: " + reportParser.getClass().getName());
 			}
 		}
-		return testsets;
+		return null;
+	}
+
+	/**
+	 * Parsers supporting the report root element, in the order they are tried; all the parsers if the root element is unknown
+	 */
+	List<ReportParser> getCandidateParsers(String reportFilePath) {
+		init();
+		String rootElement = getRootElement(reportFilePath);
+		List<ReportParser> candidates = rootElement == null ? null : parsersByRootElement.get(rootElement);
+		return candidates == null ? parserList : candidates;
+	}
+
+	/**
+	 * Reads the report up to its root element only
+	 *
+	 * @return local name of the root element, null if the report is not a well formed XML
+	 */
+	static String getRootElement(String reportFilePath) {
+		try (InputStream in = new BufferedInputStream(new FileInputStream(reportFilePath))) {
+			XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+			XMLStreamReader reader = factory.createXMLStreamReader(in);
+			try {
+				while (reader.hasNext()) {
+					if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+						return reader.getLocalName();
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (Exception e) {
+			// not sniffable, all the parsers will be tried
+		}
+		return null;
 	}
 
 	private void init() {
@@ -78,12 +133,28 @@ public class ReportParserManager {
 		}
 
 		if (parserList.isEmpty()) {
-			parserList.add(new JenkinsJUnitReportParserImpl());
-			parserList.add(new MavenSureFireReportParserImpl());
-			parserList.add(new TestNGXmlReportParserImpl());
-			parserList.add(new NUnit3ReportParserImpl(workspace));
-			parserList.add(new NUnitReportParserImpl());
-			parserList.add(new AntJUnitReportParserImpl());
+			ReportParser jenkinsJUnitParser = new JenkinsJUnitReportParserImpl();
+			ReportParser mavenSureFireParser = new MavenSureFireReportParserImpl();
+			ReportParser testNGParser = new TestNGXmlReportParserImpl();
+			ReportParser nunit3Parser = new NUnit3ReportParserImpl(workspace);
+			ReportParser nunitParser = new NUnitReportParserImpl();
+			ReportParser antJUnitParser = new AntJUnitReportParserImpl();
+
+			Map<String, List<ReportParser>> byRootElement = new HashMap<String, List<ReportParser>>();
+			byRootElement.put("result", Collections.singletonList(jenkinsJUnitParser));
+			byRootElement.put("testsuite", Collections.singletonList(mavenSureFireParser));
+			byRootElement.put("testng-results", Collections.singletonList(testNGParser));
+			byRootElement.put("test-run", Collections.singletonList(nunit3Parser));
+			byRootElement.put("test-results", Arrays.asList(nunit3Parser, nunitParser));
+			byRootElement.put("testsuites", Collections.singletonList(antJUnitParser));
+			parsersByRootElement = byRootElement;
+
+			parserList.add(jenkinsJUnitParser);
+			parserList.add(mavenSureFireParser);
+			parserList.add(testNGParser);
+			parserList.add(nunit3Parser);
+			parserList.add(nunitParser);
+			parserList.add(antJUnitParser);
 		}
 	}
 }
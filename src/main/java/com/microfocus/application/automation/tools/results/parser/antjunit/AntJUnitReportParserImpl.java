@@ -67,7 +67,7 @@ public class AntJUnitReportParserImpl implements ReportParser {
 	}	
 	
 	private Testsuites parseFromAntJUnitReport(InputStream reportInputStream) throws JAXBException {
-		JAXBContext jaxbContext = JAXBContext.newInstance(Testsuites.class);
+		JAXBContext jaxbContext = ParserUtil.getJAXBContext(Testsuites.class);
 		Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
 		return (Testsuites)unmarshaller.unmarshal(reportInputStream);
 	}
@@ -60,7 +60,7 @@ public class TestNGXmlReportParserImpl implements ReportParser {
 	}	
     
 	private TestngResults parseFromTestNGXmlReport(InputStream reportInputStream) throws JAXBException {
-		JAXBContext jaxbContext = JAXBContext.newInstance(TestngResults.class);
+		JAXBContext jaxbContext = ParserUtil.getJAXBContext(TestngResults.class);
 		Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
 		return (TestngResults)unmarshaller.unmarshal(reportInputStream);
 	}
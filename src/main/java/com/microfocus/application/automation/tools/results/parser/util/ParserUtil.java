@@ -24,8 +24,11 @@ package com.microfocus.application.automation.tools.results.parser.util;
 
 import java.io.StringWriter;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 
 import com.microfocus.application.automation.tools.results.parser.ReportParser;
@@ -38,6 +41,17 @@ public class ParserUtil {
 	public static char nameConnector = '_';
 	public static char[] testNameInvalidChars = new char[] { '\\', '/', ':', '"', '?', '\'', '<', '>', '|', '*', '%' };
 	public static char[] testSetNameInvalidChars = new char[] { '\\', '^', ',', '"', '*' };
+	// JAXB contexts are thread safe and expensive to create, so they are created once per class
+	private static final Map<Class, JAXBContext> jaxbContexts = new ConcurrentHashMap<Class, JAXBContext>();
+
+	public static JAXBContext getJAXBContext(Class c) throws JAXBException {
+		JAXBContext jaxbContext = jaxbContexts.get(c);
+		if (jaxbContext == null) {
+			jaxbContext = JAXBContext.newInstance(c);
+			jaxbContexts.put(c, jaxbContext);
+		}
+		return jaxbContext;
+	}
 
 	public static String repaceInvalidChars(char[] invalidChars, char newChar, String source)
     {
@@ -92,8 +106,7 @@ public class ParserUtil {
 	public static String marshallerObject(Class c, Object o){
 		String s = "<?xml version=\"1.0\" ?>";
 		try {
-			JAXBContext jaxbContext = JAXBContext.newInstance(c);
-			Marshaller marshaller =  jaxbContext.createMarshaller();
+			Marshaller marshaller =  getJAXBContext(c).createMarshaller();
 			marshaller.setProperty(Marshaller.JAXB_ENCODING,"utf-8");
 			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
 			marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
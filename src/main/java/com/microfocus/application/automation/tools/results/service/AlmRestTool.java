@@ -22,35 +22,49 @@
 
 package com.microfocus.application.automation.tools.results.service;
 
+import java.net.HttpURLConnection;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import com.microfocus.application.automation.tools.common.Pair;
 import com.microfocus.application.automation.tools.rest.RestClient;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmEntity;
+import com.microfocus.application.automation.tools.results.service.rest.CreateAlmEntitiesRequest;
 import com.microfocus.application.automation.tools.results.service.rest.CreateAlmEntityRequest;
 import com.microfocus.application.automation.tools.results.service.rest.GetAlmEntityRequest;
 import com.microfocus.application.automation.tools.results.service.rest.UpdateAlmEntityRequest;
 import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
+import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
 import com.microfocus.application.automation.tools.sse.sdk.authenticator.AuthenticationTool;
+import com.microfocus.application.automation.tools.sse.sdk.authenticator.RestAuthenticator;
+import com.microfocus.application.automation.tools.sse.sdk.request.GeneralRequest;
 
 public class AlmRestTool {
 	
 	private Logger _logger ;
 	private RestClient restClient;
 	private AlmRestInfo almLoginInfo;
+	private boolean loggedIn;
 	
 	public AlmRestTool (AlmRestInfo almLoginInfo, Logger logger) {
-		this.restClient = new RestClient(
+		this(new RestClient(
         							almLoginInfo.getServerUrl(),
         							almLoginInfo.getDomain(),
         							almLoginInfo.getProject(),
-        							almLoginInfo.getUserName());
+        							almLoginInfo.getUserName()),
+				almLoginInfo,
+				logger);
+	}
+
+	AlmRestTool (RestClient restClient, AlmRestInfo almLoginInfo, Logger logger) {
+		this.restClient = restClient;
 		this.almLoginInfo = almLoginInfo;
 		this._logger = logger;
 	}
@@ -74,9 +88,45 @@ public class AlmRestTool {
             ret = false;
             throw new AlmRestException (cause);
         }
+        loggedIn = ret;
         return ret;
 	}
 
+    /**
+     * Login only if there is no authenticated session, so the session is reused for several uploads
+     * as long as the server still accepts it
+     */
+	public boolean ensureLoggedIn() throws Exception {
+		return (loggedIn && isSessionAuthenticated()) || login();
+	}
+
+	private boolean isSessionAuthenticated() {
+		try {
+			return restClient.httpGet(restClient.build(RestAuthenticator.IS_AUTHENTICATED), null, null, ResourceAccessLevel.PUBLIC).isOk();
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+    /**
+     * Execute the request, logging in again and retrying once if the session has expired in the meantime
+     */
+	private Response execute(GeneralRequest request) {
+		Response response = request.execute();
+		if (response.getStatusCode() == HttpURLConnection.HTTP_UNAUTHORIZED) {
+			_logger.log("INFO: ALM session expired, logging in again.");
+			loggedIn = false;
+			try {
+				if (login()) {
+					response = request.execute();
+				}
+			} catch (Exception e) {
+				_logger.log("Failed to login to ALM Server: " + e.getMessage());
+			}
+		}
+		return response;
+	}
+
     /**
      * Get Pair list for ALM entity fields
      */
@@ -165,7 +215,7 @@ public class AlmRestTool {
 		try {
 			AlmEntity entity = entityClass.newInstance();
 			GetAlmEntityRequest getRequest = new GetAlmEntityRequest(entity, getRestClient(), getEntityUnderParentFolderQuery);
-			Response response = getRequest.perform();
+			Response response = execute(getRequest);
 			if(response.isOk() ) {
 				List<Map<String, String>> entities2 = XPathUtils.toEntities(response.toString());
 				List<E> entities = getAlmEntityList(entities2, entityClass);
@@ -195,7 +245,7 @@ public class AlmRestTool {
 		
 		try {
 			GetAlmEntityRequest getRequest = new GetAlmEntityRequest(entity, getRestClient(), queryString);
-			Response response = getRequest.perform();
+			Response response = execute(getRequest);
 			if(response.isOk() && !response.toString().equals("")) {
 				List<Map<String, String>> entities2 = XPathUtils.toEntities(response.toString());
 				List entities = getAlmEntityList(entities2, entity.getClass());
@@ -218,7 +268,7 @@ public class AlmRestTool {
 	public <E extends AlmEntity> E createAlmEntity (E entity, String[] fieldsForCreation) throws ExternalEntityUploadException {
 		
 		CreateAlmEntityRequest createRequest = new CreateAlmEntityRequest(getRestClient(), entity, getPairListForAlmEntityFields(entity, fieldsForCreation) );
-		Response response = createRequest.perform();	
+		Response response = execute(createRequest);
 		if(response.isOk() && !response.toString().equals("")){
 			List<Map<String, String>> entities2 = XPathUtils.toEntities(response.toString());
 			List entities = getAlmEntityList(entities2, entity.getClass());
@@ -243,7 +293,7 @@ public class AlmRestTool {
 	public <E extends AlmEntity> void updateAlmEntity (E entity, String[] fieldsForUpdate) {
 		
 		UpdateAlmEntityRequest updateRequest = new UpdateAlmEntityRequest(getRestClient(), entity, getMapListForAlmEntityFields(entity, fieldsForUpdate)) ;
-		Response response = updateRequest.execute();
+		Response response = execute(updateRequest);
 		
 		if(!response.isOk()) {
 			_logger.log("Failed to update entity:" + entity.toString());
@@ -251,4 +301,91 @@ public class AlmRestTool {
 
 	}	
 	
+    /**
+     * Get all the ALM entities matching the query, page by page.
+     * Unlike getAlmEntity, a failed request is reported, since a partial result can't be told from a complete one.
+     */
+	public <E extends AlmEntity> List<E> getAlmEntityPages(E entity, String queryString, int pageSize) throws ExternalEntityUploadException {
+
+		List<E> ret = new ArrayList<E>();
+		int startIndex = 1;
+		while (true) {
+			String pageQueryString = String.format("%s&page-size=%d&start-index=%d", queryString, pageSize, startIndex);
+			GetAlmEntityRequest getRequest = new GetAlmEntityRequest(entity, getRestClient(), pageQueryString);
+			Response response = execute(getRequest);
+			if (!response.isOk()) {
+				_logger.log("Failed to get Entity:" + entity.toString() + " with query string:" + pageQueryString);
+				throw new ExternalEntityUploadException("Failed to get Entity:" + entity.toString() + " with query string:" + pageQueryString);
+			}
+			List<E> page = response.toString().equals("") ?
+					new ArrayList<E>() :
+					getAlmEntityList(XPathUtils.toEntities(response.toString()), (Class<E>) entity.getClass());
+			ret.addAll(page);
+			if (page.size() < pageSize) {
+				return ret;
+			}
+			startIndex += pageSize;
+		}
+	}
+
+    /**
+     * Create ALM entities of the same type with bulk requests of up to bulkSize entities.
+     * The created entities are matched to the requested ones by their key, so the result is in the order of the request.
+     * Falls back to creating the entities one by one if the server rejects the bulk request,
+     * or for the entities missing in its response.
+     *
+     * @param keyFunction key of a requested or created entity, null if the created entities are not needed
+     */
+	public <E extends AlmEntity> List<E> createAlmEntities (List<E> entities, String[] fieldsForCreation, int bulkSize, Function<E, String> keyFunction) throws ExternalEntityUploadException {
+
+		List<E> created = new ArrayList<E>();
+		for (int from = 0; from < entities.size(); from += bulkSize) {
+			List<E> chunk = entities.subList(from, Math.min(from + bulkSize, entities.size()));
+			List<List<Pair<String, String>>> attrs = new ArrayList<List<Pair<String, String>>>();
+			for (E entity : chunk) {
+				attrs.add(getPairListForAlmEntityFields(entity, fieldsForCreation));
+			}
+
+			CreateAlmEntitiesRequest createRequest = new CreateAlmEntitiesRequest(getRestClient(), chunk.get(0).getRestPrefix(), attrs);
+			Response response = execute(createRequest);
+			if (!response.isOk()) {
+				_logger.log("INFO: Bulk creation of " + chunk.size() + " entities failed, creating them one by one.");
+				for (E entity : chunk) {
+					created.add(createAlmEntity(entity, fieldsForCreation));
+				}
+				continue;
+			}
+
+			List<E> chunkCreated = response.toString().equals("") ?
+					new ArrayList<E>() :
+					getAlmEntityList(XPathUtils.toEntities(response.toString()), (Class<E>) chunk.get(0).getClass());
+			if (keyFunction == null) {
+				if (chunkCreated.size() != chunk.size()) {
+					_logger.log("INFO: Bulk creation of " + chunk.size() + " entities returned " + chunkCreated.size() + " entities.");
+				}
+				created.addAll(chunkCreated);
+				continue;
+			}
+
+			Map<String, LinkedList<E>> createdByKey = new HashMap<String, LinkedList<E>>();
+			for (E createdEntity : chunkCreated) {
+				String key = keyFunction.apply(createdEntity);
+				if (!createdByKey.containsKey(key)) {
+					createdByKey.put(key, new LinkedList<E>());
+				}
+				createdByKey.get(key).add(createdEntity);
+			}
+			for (E entity : chunk) {
+				LinkedList<E> matching = createdByKey.get(keyFunction.apply(entity));
+				if (matching != null && !matching.isEmpty()) {
+					created.add(matching.removeFirst());
+				} else {
+					_logger.log("INFO: Entity missing in the bulk creation response, creating it alone: " + entity.toString());
+					created.add(createAlmEntity(entity, fieldsForCreation));
+				}
+			}
+		}
+		return created;
+	}
+
 }
@@ -24,8 +24,10 @@ package com.microfocus.application.automation.tools.results.service;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
@@ -54,9 +56,23 @@ import hudson.FilePath;
 public class DefaultExternalEntityUploadServiceImpl implements
 		IExternalEntityUploadService {
 
+	/**
+	 * Batched upload prefetches the existing tests, test configurations and test instances with paged queries
+	 * and creates the missing entities with bulk requests, instead of a query and a request per entity.
+	 */
+	private static final boolean BATCHED_UPLOAD =
+			Boolean.parseBoolean(System.getProperty("DefaultExternalEntityUploadServiceImpl.BatchedUpload", "true"));
+	private static final int PAGE_SIZE = Integer.getInteger("DefaultExternalEntityUploadServiceImpl.PageSize", 2000);
+	private static final int BULK_SIZE = Integer.getInteger("DefaultExternalEntityUploadServiceImpl.BulkSize", 100);
+	// number of ids in a single "OR" query condition
+	private static final int QUERY_IDS_CHUNK = 100;
+
 	Logger logger;
 	private AlmRestTool restTool;
 	private FilePath workspace;
+	// folders resolved by previous uploads of this service, by path
+	private Map<String, AlmTestFolder> testFolders = new HashMap<String, AlmTestFolder>();
+	private Map<String, AlmTestSetFolder> testsetFolders = new HashMap<String, AlmTestSetFolder>();
 	
 	public DefaultExternalEntityUploadServiceImpl(AlmRestTool restTool, FilePath workspace, Logger logger) {
 		this.restTool = restTool;
@@ -246,6 +262,20 @@ public class DefaultExternalEntityUploadServiceImpl implements
 								String jobName,
 								String buildUrl) throws ExternalEntityUploadException{
 		
+		prepareRun(tester, run, testsetId, testId, testInstanceId, testconfigId, subversion, jobName, buildUrl);
+		return restTool.createAlmEntity(run, getRunCreationFields());
+	}
+
+	private void prepareRun(String tester,
+							AlmRun run,
+							String testsetId,
+							String testId,
+							String testInstanceId,
+							String testconfigId,
+							String subversion,
+							String jobName,
+							String buildUrl) {
+
 		run.setFieldValue(AlmRun.RUN_CONFIG_ID, String.valueOf(testconfigId));
 		run.setFieldValue(AlmRun.RUN_CYCLE_ID, String.valueOf(testsetId));
 		run.setFieldValue(AlmRun.RUN_TEST_ID, String.valueOf(testId));
@@ -262,10 +292,6 @@ public class DefaultExternalEntityUploadServiceImpl implements
 		
 		run.setFieldValue(AlmCommonProperties.NAME, generateImportRunName());
 		run.setFieldValue(AlmCommonProperties.OWNER, tester);
-		
-		return restTool.createAlmEntity(run, getRunCreationFields());
-
-
 	}
 
 	private String[] getCreationFieldsForTestFolder() {
@@ -379,23 +405,43 @@ public class DefaultExternalEntityUploadServiceImpl implements
 		if(testsets != null && testsets.size() >0 ) {
 			logger.log("INFO: Start to login to ALM Server.");
 			try {
-				if( restTool.login() ) {
+				if( restTool.ensureLoggedIn() ) {
 				
 					logger.log("INFO: Checking test folder...");
-					AlmTestFolder testFolder = createTestFolderPath(2, testFolderPath);
+					AlmTestFolder testFolder = testFolders.get(testFolderPath);
+					if(testFolder == null) {
+						testFolder = createTestFolderPath(2, testFolderPath);
+						testFolders.put(testFolderPath, testFolder);
+					}
 					logger.log("INFO: Checking testset folder...");
-					AlmTestSetFolder testsetFolder = createTestSetFolderPath (0, testsetFolderPath);
+					AlmTestSetFolder testsetFolder = testsetFolders.get(testsetFolderPath);
+					if(testsetFolder == null) {
+						testsetFolder = createTestSetFolderPath (0, testsetFolderPath);
+						testsetFolders.put(testsetFolderPath, testsetFolder);
+					}
 					if(testFolder != null && testsetFolder != null){
 						logger.log("INFO: Uploading ALM Entities...");
-						importExternalTestSet(
-								testsets, 
-								loginInfo.getUserName(), 
-								Integer.valueOf(testsetFolder.getId()), 
-								Integer.valueOf(testFolder.getId()), 
-								testingTool, 
-								subversion, 
-								jobName, 
-								buildUrl);
+						if(BATCHED_UPLOAD) {
+							importExternalTestSetBatched(
+									testsets,
+									loginInfo.getUserName(),
+									Integer.valueOf(testsetFolder.getId()),
+									Integer.valueOf(testFolder.getId()),
+									testingTool,
+									subversion,
+									jobName,
+									buildUrl);
+						} else {
+							importExternalTestSet(
+									testsets,
+									loginInfo.getUserName(),
+									Integer.valueOf(testsetFolder.getId()),
+									Integer.valueOf(testFolder.getId()),
+									testingTool,
+									subversion,
+									jobName,
+									buildUrl);
+						}
 					}
 				} else {
 					throw new ExternalEntityUploadException("Failed to login to ALM Server.");
@@ -460,4 +506,252 @@ public class DefaultExternalEntityUploadServiceImpl implements
 		
 	}
 	
+	void importExternalTestSetBatched(List<AlmTestSet> testsets, String tester, int testsetFolderId, int testFolderId, String testingTool, String subversion, String jobName, String buildUrl ) throws ExternalEntityUploadException{
+
+		// tests
+		long phaseStart = System.currentTimeMillis();
+		Map<String, List<AlmTest>> existingTests = prefetchTests(testFolderId);
+		Map<AlmTest, AlmTest> importedTests = new HashMap<AlmTest, AlmTest>();
+		Map<String, AlmTest> testsToCreate = new LinkedHashMap<String, AlmTest>();
+		for (AlmTestSet testset : testsets) {
+			for (AlmTestInstance testInstance : getTestInstances(testset)) {
+				AlmTest test = getTest(testInstance);
+				if (test == null || testsToCreate.containsKey(test.getKey())) {
+					continue;
+				}
+				AlmTest importedTest = findExistingTest(existingTests, test);
+				if (importedTest != null) {
+					importedTests.put(test, importedTest);
+				} else {
+					test.setFieldValue(AlmCommonProperties.PARENT_ID, String.valueOf(testFolderId));
+					test.setFieldValue(AlmTest.TS_TESTING_TOOL, testingTool);
+					test.setFieldValue(AlmTest.TEST_RESPONSIBLE, tester);
+					testsToCreate.put(test.getKey(), test);
+					// the following tests are matched and named against the queued one, as if it was already created
+					addExistingTest(existingTests, test);
+				}
+			}
+		}
+		List<AlmTest> requestedTests = new ArrayList<AlmTest>(testsToCreate.values());
+		List<AlmTest> createdTestList = restTool.createAlmEntities(requestedTests, getTestCreationFields(), BULK_SIZE, AlmTest::getKey);
+		Map<String, AlmTest> createdTests = new HashMap<String, AlmTest>();
+		for (int i = 0; i < requestedTests.size(); i++) {
+			createdTests.put(requestedTests.get(i).getKey(), createdTestList.get(i));
+		}
+		// tests matched to a queued test resolve to the created one
+		for (Map.Entry<AlmTest, AlmTest> importedTest : new ArrayList<Map.Entry<AlmTest, AlmTest>>(importedTests.entrySet())) {
+			if (testsToCreate.get(importedTest.getValue().getKey()) == importedTest.getValue()) {
+				importedTests.put(importedTest.getKey(), createdTests.get(importedTest.getValue().getKey()));
+			}
+		}
+		logPhase("tests", importedTests.size() + " existing, " + createdTests.size() + " created", phaseStart);
+
+		// main test configurations of the tests
+		phaseStart = System.currentTimeMillis();
+		Map<String, String> testIds = new LinkedHashMap<String, String>();
+		for (AlmTest importedTest : importedTests.values()) {
+			testIds.put(importedTest.getId(), importedTest.getId());
+		}
+		for (AlmTest createdTest : createdTests.values()) {
+			testIds.put(createdTest.getId(), createdTest.getId());
+		}
+		Map<String, AlmTestConfig> mainTestConfigs = prefetchMainTestConfigs(testIds.keySet());
+		logPhase("test configurations", mainTestConfigs.size() + " found", phaseStart);
+
+		for (AlmTestSet testset : testsets){
+			AlmTestSet importedTestSet = importTestSet(testset, testsetFolderId);
+			if(importedTestSet == null ) {
+				continue;
+			}
+
+			// test instances
+			phaseStart = System.currentTimeMillis();
+			Map<String, AlmTestInstance> existingTestInstances = prefetchTestInstances(importedTestSet.getId());
+			List<AlmTestInstance> testInstancesToCreate = new ArrayList<AlmTestInstance>();
+			// parsed test instance -> the resolved test and config ids
+			Map<AlmTestInstance, String[]> testInstanceTargets = new LinkedHashMap<AlmTestInstance, String[]>();
+			for (AlmTestInstance testInstance : getTestInstances(testset)) {
+				AlmTest test = getTest(testInstance);
+				if (test == null) {
+					continue;
+				}
+				AlmTest importedTest = importedTests.containsKey(test) ? importedTests.get(test) : createdTests.get(test.getKey());
+				if (importedTest == null) {
+					continue;
+				}
+				AlmTestConfig mainTestConfig = mainTestConfigs.get(importedTest.getId());
+				if (mainTestConfig == null) {
+					continue;
+				}
+				testInstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TESTSET_ID, String.valueOf(importedTestSet.getId()));
+				testInstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_CONFIG_ID, String.valueOf(mainTestConfig.getId()));
+				testInstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TEST_ID, String.valueOf(importedTest.getId()));
+				testInstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TESTER_NAME, tester);
+				testInstanceTargets.put(testInstance, new String[] {importedTest.getId(), mainTestConfig.getId()});
+				if (!existingTestInstances.containsKey(testInstance.getKey())) {
+					testInstancesToCreate.add(testInstance);
+					// several runs of the same test in the test set share its test instance
+					existingTestInstances.put(testInstance.getKey(), null);
+				}
+			}
+			for (AlmTestInstance createdTestInstance : restTool.createAlmEntities(testInstancesToCreate, getTestInstanceCreationFields(), BULK_SIZE, AlmTestInstance::getKey)) {
+				existingTestInstances.put(createdTestInstance.getKey(), createdTestInstance);
+			}
+			logPhase("test instances of " + importedTestSet.getName(), testInstancesToCreate.size() + " created", phaseStart);
+
+			// runs
+			phaseStart = System.currentTimeMillis();
+			List<AlmRun> runsToCreate = new ArrayList<AlmRun>();
+			for (Map.Entry<AlmTestInstance, String[]> testInstanceTarget : testInstanceTargets.entrySet()) {
+				AlmTestInstance testInstance = testInstanceTarget.getKey();
+				AlmTestInstance importedTestInstance = existingTestInstances.get(testInstance.getKey());
+				List<AlmEntity> runs = testInstance.getRelatedEntities().get(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION);
+				if(importedTestInstance == null || runs == null || runs.size() <= 0) {
+					continue;
+				}
+
+				AlmRun run = (AlmRun) runs.get(0);
+				prepareRun(tester,
+						run,
+						importedTestSet.getId(),
+						testInstanceTarget.getValue()[0],
+						importedTestInstance.getId(),
+						testInstanceTarget.getValue()[1],
+						subversion,
+						jobName,
+						buildUrl);
+				runsToCreate.add(run);
+			}
+			restTool.createAlmEntities(runsToCreate, getRunCreationFields(), BULK_SIZE, null);
+			logPhase("runs of " + importedTestSet.getName(), runsToCreate.size() + " created", phaseStart);
+		}
+	}
+
+	private void logPhase(String phase, String summary, long phaseStart) {
+		logger.log(String.format("INFO: Uploaded %s: %s in %d ms.", phase, summary, System.currentTimeMillis() - phaseStart));
+	}
+
+	private static List<AlmTestInstance> getTestInstances(AlmTestSet testset) {
+		List<AlmTestInstance> ret = new ArrayList<AlmTestInstance>();
+		List<AlmEntity> testinstances = testset.getRelatedEntities().get(EntityRelation.TESTSET_TO_TESTINSTANCE_CONTAINMENT_RELATION);
+		if(testinstances != null) {
+			for(AlmEntity testinstanceEntity: testinstances){
+				ret.add((AlmTestInstance) testinstanceEntity);
+			}
+		}
+		return ret;
+	}
+
+	private static AlmTest getTest(AlmTestInstance testInstance) {
+		List<AlmEntity> tests = testInstance.getRelatedEntities().get(EntityRelation.TEST_TO_TESTINSTANCE_REALIZATION_RELATION);
+		if(tests == null || tests.size() <= 0) {
+			return null;
+		}
+		return (AlmTest) tests.get(0);
+	}
+
+	private static String getClassMethodKey(AlmEntity test) {
+		return test.getFieldValue(AlmTest.TS_UT_CLASS_NAME) + "_" + test.getFieldValue(AlmTest.TS_UT_METHOD_NAME);
+	}
+
+	/**
+	 * All the external tests of the folder, grouped by their class and method names
+	 */
+	private Map<String, List<AlmTest>> prefetchTests(int testFolderId) throws ExternalEntityUploadException {
+		String queryString = String.format("query={parent-id[%s];subtype-id[EXTERNAL-TEST]}&fields=id,name,ut-package-name,ut-class-name,ut-method-name,testing-framework",
+				String.valueOf(testFolderId));
+		Map<String, List<AlmTest>> ret = new HashMap<String, List<AlmTest>>();
+		for (AlmTestImpl existingTest : restTool.getAlmEntityPages(new AlmTestImpl(), queryString, PAGE_SIZE)) {
+			addExistingTest(ret, existingTest);
+		}
+		return ret;
+	}
+
+	private static void addExistingTest(Map<String, List<AlmTest>> existingTests, AlmTest test) {
+		String key = getClassMethodKey(test);
+		List<AlmTest> tests = existingTests.get(key);
+		if (tests == null) {
+			tests = new ArrayList<AlmTest>();
+			existingTests.put(key, tests);
+		}
+		tests.add(test);
+	}
+
+	/**
+	 * Same matching and naming as importTest, against the prefetched tests
+	 */
+	private AlmTest findExistingTest(Map<String, List<AlmTest>> existingTests, AlmTest test) {
+		List<AlmTest> candidates = existingTests.get(getClassMethodKey(test));
+		if (candidates == null || candidates.isEmpty()) {
+			return null;
+		}
+
+		Map<String, AlmTest> existingTestMap = new HashMap<String, AlmTest>();
+		for (AlmTest existingTest : candidates) {
+			if (existingTest.getKey().endsWith(test.getKey())) {
+				return existingTest;
+			}
+			existingTestMap.put(existingTest.getName(), existingTest);
+		}
+
+		String className = (String) test.getFieldValue(AlmTest.TS_UT_CLASS_NAME);
+		String methodName = (String) test.getFieldValue(AlmTest.TS_UT_METHOD_NAME);
+		String packageName = (String) test.getFieldValue(AlmTest.TS_UT_PACKAGE_NAME);
+		String testingFramework = (String) test.getFieldValue(AlmTest.TS_TESTING_FRAMEWORK);
+		String tempName = className + "_" + methodName;
+		if(!existingTestMap.containsKey(tempName)) {
+			test.setFieldValue(AlmTest.TEST_NAME, tempName);
+		} else {
+			tempName = packageName + "_" +tempName;
+			if(!existingTestMap.containsKey(tempName)) {
+				test.setFieldValue(AlmTest.TEST_NAME, tempName);
+			} else {
+				tempName = tempName +"_" +testingFramework;
+				if(!existingTestMap.containsKey(tempName)) {
+					test.setFieldValue(AlmTest.TEST_NAME, tempName);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The first test configuration of each test, by test id
+	 */
+	private Map<String, AlmTestConfig> prefetchMainTestConfigs(Collection<String> testIds) throws ExternalEntityUploadException {
+		Map<String, AlmTestConfig> ret = new HashMap<String, AlmTestConfig>();
+		List<String> ids = new ArrayList<String>(testIds);
+		for (int from = 0; from < ids.size(); from += QUERY_IDS_CHUNK) {
+			StringBuilder condition = new StringBuilder();
+			for (String id : ids.subList(from, Math.min(from + QUERY_IDS_CHUNK, ids.size()))) {
+				if (condition.length() > 0) {
+					condition.append("%20OR%20");
+				}
+				condition.append(id);
+			}
+			String queryString = String.format("query={parent-id[%s]}&fields=id,name,parent-id", condition);
+			for (AlmTestConfigImpl testConfig : restTool.getAlmEntityPages(new AlmTestConfigImpl(), queryString, PAGE_SIZE)) {
+				String testId = (String) testConfig.getFieldValue(AlmCommonProperties.PARENT_ID);
+				if (!ret.containsKey(testId)) {
+					ret.put(testId, testConfig);
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * All the test instances of the test set, by their key
+	 */
+	private Map<String, AlmTestInstance> prefetchTestInstances(String testsetId) throws ExternalEntityUploadException {
+		String queryString = String.format("query={cycle-id[%s]}&fields=id,name,cycle-id,test-config-id,test-id", testsetId);
+		Map<String, AlmTestInstance> ret = new HashMap<String, AlmTestInstance>();
+		for (AlmTestInstanceImpl testInstance : restTool.getAlmEntityPages(new AlmTestInstanceImpl(), queryString, PAGE_SIZE)) {
+			if (!ret.containsKey(testInstance.getKey())) {
+				ret.put(testInstance.getKey(), testInstance);
+			}
+		}
+		return ret;
+	}
+
 }
@@ -0,0 +1,89 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.results.service.rest;
+
+import com.microfocus.adm.performancecenter.plugins.common.rest.RESTConstants;
+import com.microfocus.application.automation.tools.common.Pair;
+import com.microfocus.application.automation.tools.sse.common.RestXmlUtils;
+import com.microfocus.application.automation.tools.sse.sdk.Client;
+import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import com.microfocus.application.automation.tools.sse.sdk.request.GeneralRequest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates several entities of the same type with a single bulk POST request.
+ */
+public class CreateAlmEntitiesRequest extends GeneralRequest {
+
+	private static final String IGNORE_REQUIRED_FIELDS_VALIDATION = "X-QC-Ignore-Customizable-Required-Fields-Validation";
+	private String restPrefix;
+	private List<List<Pair<String, String>>> attrsForCreation;
+
+	public CreateAlmEntitiesRequest(Client client, String restPrefix, List<List<Pair<String, String>>> attrsForCreation) {
+		super(client);
+		this.restPrefix = restPrefix;
+		this.attrsForCreation = attrsForCreation;
+	}
+
+	@Override
+	protected Map<String, String> getHeaders() {
+
+		Map<String, String> ret = new HashMap<String, String>();
+		ret.put(RESTConstants.CONTENT_TYPE, RESTConstants.APP_XML_BULK);
+		ret.put(RESTConstants.ACCEPT, RESTConstants.APP_XML);
+		ret.put(IGNORE_REQUIRED_FIELDS_VALIDATION, "Y");
+		return ret;
+	}
+
+	@Override
+	protected String getSuffix() {
+		return restPrefix;
+	}
+
+	@Override
+	public Response perform() {
+		return _client.httpPost(
+				getUrl(),
+				getDataBytes(),
+				getHeaders(),
+				ResourceAccessLevel.PROTECTED);
+	}
+
+	private byte[] getDataBytes() {
+
+		StringBuilder builder = new StringBuilder("<Entities>");
+		for (List<Pair<String, String>> fields : attrsForCreation) {
+			builder.append("<Entity><Fields>");
+			for (Pair<String, String> currPair : fields) {
+				builder.append(RestXmlUtils.fieldXml(currPair.getFirst(), currPair.getSecond()));
+			}
+			builder.append("</Fields></Entity>");
+		}
+
+		return builder.append("</Entities>").toString().getBytes();
+	}
+}
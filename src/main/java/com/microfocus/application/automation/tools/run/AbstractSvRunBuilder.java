@@ -28,7 +28,11 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -77,6 +81,36 @@ class ConfigurationException extends Exception {
     }
 }
 
+/**
+ * Services deployed on the server, fetched once and indexed by id and by name
+ */
+class DeployedServices {
+    private final Map<String, ServiceInfo> byId = new HashMap<>();
+    private final Map<String, ServiceInfo> byName = new HashMap<>();
+    private final Set<String> ambiguousNames = new HashSet<>();
+
+    DeployedServices(ICommandExecutor exec) throws CommunicatorException, CommandExecutorException {
+        for (ServiceListAtom.ServiceEntry entry : exec.getServiceList(null).getEntries()) {
+            ServiceInfo service = new ServiceInfo(entry.getId(), entry.getTitle());
+            byId.put(service.getId(), service);
+            if (byName.put(service.getName(), service) != null) {
+                ambiguousNames.add(service.getName());
+            }
+        }
+    }
+
+    /**
+     * @return service of given id or unique name, null if there is no such service or the name is ambiguous
+     */
+    ServiceInfo find(String idOrName) {
+        ServiceInfo service = byId.get(idOrName);
+        if (service == null && !ambiguousNames.contains(idOrName)) {
+            service = byName.get(idOrName);
+        }
+        return service;
+    }
+}
+
 public abstract class AbstractSvRunBuilder<T extends AbstractSvRunModel> extends Builder implements SimpleBuildStep {
     private static final Logger LOG = Logger.getLogger(AbstractSvRunBuilder.class.getName());
 
@@ -162,20 +196,20 @@ public abstract class AbstractSvRunBuilder<T extends AbstractSvRunModel> extends
         logger.println(prefix + "Force: " + model.isForce());
     }
 
-    protected List<ServiceInfo> getServiceList(boolean ignoreMissingServices, PrintStream logger, FilePath workspace) throws Exception {
+    protected List<ServiceInfo> getServiceList(boolean ignoreMissingServices, PrintStream logger, FilePath workspace, ICommandExecutor exec) throws Exception {
         SvServiceSelectionModel s = getServiceSelection();
-        ICommandExecutor exec = createCommandExecutor();
 
         ArrayList<ServiceInfo> res = new ArrayList<>();
 
         switch (s.getSelectionType()) {
             case SERVICE:
-                addServiceIfDeployed(s.getService(), res, ignoreMissingServices, exec, logger);
+                addServiceIfDeployed(s.getService(), res, ignoreMissingServices, exec, null, logger);
                 break;
             case PROJECT:
                 IProject project = loadProject(workspace);
+                DeployedServices deployedServices = new DeployedServices(exec);
                 for (IService svc : project.getServices()) {
-                    addServiceIfDeployed(svc.getId(), res, ignoreMissingServices, exec, logger);
+                    addServiceIfDeployed(svc.getId(), res, ignoreMissingServices, exec, deployedServices, logger);
                 }
                 break;
             case ALL_DEPLOYED:
@@ -190,7 +224,13 @@ public abstract class AbstractSvRunBuilder<T extends AbstractSvRunModel> extends
     }
 
     private void addServiceIfDeployed(String service, ArrayList<ServiceInfo> results, boolean ignoreMissingServices,
-                                      ICommandExecutor exec, PrintStream logger) throws CommunicatorException, CommandExecutorException {
+                                      ICommandExecutor exec, DeployedServices deployedServices, PrintStream logger) throws CommunicatorException, CommandExecutorException {
+        ServiceInfo deployed = deployedServices != null ? deployedServices.find(service) : null;
+        if (deployed != null) {
+            results.add(deployed);
+            return;
+        }
+        // single service, not in the list or ambiguous name: let the server resolve it
         try {
             IService svc = exec.findService(service, null);
             results.add(new ServiceInfo(svc.getId(), svc.getName()));
@@ -202,6 +242,38 @@ public abstract class AbstractSvRunBuilder<T extends AbstractSvRunModel> extends
         }
     }
 
+    /**
+     * Operation on a single service, performed with the command executor of the worker thread
+     */
+    protected interface ServiceCommand {
+        void process(ServiceInfo service, PrintStream logger, ICommandExecutor exec) throws Exception;
+    }
+
+    /**
+     * Runs the command on every service in parallel, prints the summary and fails if any service failed.
+     * The command executor is not documented as thread-safe, so every worker thread creates and keeps its own.
+     */
+    protected void processServices(String operationName, List<ServiceInfo> services, PrintStream logger,
+                                   final ServiceCommand command) throws Exception {
+        final ThreadLocal<ICommandExecutor> executors = new ThreadLocal<>();
+        SvParallelExecutor.Report report = new SvParallelExecutor(SvParallelExecutor.DEFAULT_PARALLELISM)
+                .run(operationName, services, logger, new SvParallelExecutor.ServiceOperation() {
+                    @Override
+                    public void process(ServiceInfo service, PrintStream logger) throws Exception {
+                        ICommandExecutor exec = executors.get();
+                        if (exec == null) {
+                            exec = createCommandExecutor();
+                            executors.set(exec);
+                        }
+                        command.process(service, logger, exec);
+                    }
+                });
+        if (report.getTotal() > 1) {
+            report.print(logger);
+        }
+        report.throwIfFailed();
+    }
+
     protected IProject loadProject(FilePath workspace) throws ProjectBuilderException {
         SvServiceSelectionModel s = getServiceSelection();
         FilePath projectPath = workspace.child(s.getProjectPath());
@@ -29,6 +29,7 @@ package com.microfocus.application.automation.tools.run;
 import com.microfocus.adm.performancecenter.plugins.common.pcentities.*;
 import com.microfocus.application.automation.tools.pc.PcClient;
 import com.microfocus.application.automation.tools.pc.PcModel;
+import com.microfocus.application.automation.tools.pc.TrendReportTable;
 import com.microfocus.application.automation.tools.pc.helper.DateFormatter;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Error;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Failure;
@@ -755,28 +756,29 @@ public class PcBuilder extends Builder implements SimpleBuildStep{
                 new TriTrendReportTypes(TrendReportTypes.DataType.Regular, TrendReportTypes.PctType.WEB, TrendReportTypes.Measurement.PCT_SUM1)
         };
 
-        for (TriTrendReportTypes triTrendReportType : triTrendReportTypes
-             ) {
-            saveFileToWorkspacePath(pcClient,getPcModel().getTrendReportId(true),runId, triTrendReportType.getDataType(), triTrendReportType.getPctType(), triTrendReportType.getMeasurement());
+        // the trend report is downloaded and indexed once, all the plot files are produced from it
+        TrendReportTable trendReportTable = pcClient.getTrendReportTable(getPcModel().getTrendReportId(true), runId);
+        for (TriTrendReportTypes triTrendReportType : triTrendReportTypes) {
+            saveFileToWorkspacePath(trendReportTable, runId, triTrendReportType.getDataType(), triTrendReportType.getPctType(), triTrendReportType.getMeasurement());
         }
 
     }
 
 
-    private boolean saveFileToWorkspacePath(PcClient pcClient, String trendReportID, int runId,TrendReportTypes.DataType dataType, TrendReportTypes.PctType pctType, TrendReportTypes.Measurement measurement)throws IOException, PcException, IntrospectionException, NoSuchMethodException{
+    private boolean saveFileToWorkspacePath(TrendReportTable trendReportTable, int runId,TrendReportTypes.DataType dataType, TrendReportTypes.PctType pctType, TrendReportTypes.Measurement measurement)throws IOException {
         String fileName = measurement.toString().toLowerCase()  + "_" +  pctType.toString().toLowerCase() + ".csv";
-        Map<String, String> measurementMap = pcClient.getTrendReportByXML(trendReportID, runId, dataType, pctType, measurement);
+        Map<String, String> measurementMap = PcClient.getTrendReportMeasurements(trendReportTable, runId, dataType, pctType, measurement);
         try {
             FilePath filePath = new FilePath(Workspace.getChannel(), getWorkspacePath().getPath() + "/" + fileName);
-            String filepathContent="";
+            StringBuilder filepathContent = new StringBuilder();
             for (String key : measurementMap.keySet()) {
-                filepathContent += key + ",";
+                filepathContent.append(key).append(',');
             }
-            filepathContent += "\r\n";
+            filepathContent.append("\r\n");
             for (String value : measurementMap.values()) {
-                filepathContent += value + ",";
+                filepathContent.append(value).append(',');
             }
-            filePath.write(filepathContent, null);
+            filePath.write(filepathContent.toString(), null);
             return true;
         } catch (InterruptedException e) {
             if (getWorkspacePath().getPath() != null)
@@ -59,6 +59,7 @@ import org.kohsuke.stapler.QueryParameter;
 
 import com.microfocus.application.automation.tools.AlmToolsUtils;
 import com.microfocus.application.automation.tools.EncryptionUtils;
+import com.microfocus.application.automation.tools.LauncherToolsCache;
 import com.microfocus.application.automation.tools.model.AlmServerSettingsModel;
 import com.microfocus.application.automation.tools.model.EnumDescription;
 import com.microfocus.application.automation.tools.model.RunFromAlmModel;
@@ -238,7 +239,7 @@ public class RunFromAlmBuilder extends Builder implements SimpleBuildStep {
             propsFileName.copyFrom(propsStream);
             
             // Copy the script to the project workspace
-            CmdLineExe.copyFrom(cmdExeUrl);
+            LauncherToolsCache.install(HpToolsLauncher_SCRIPT_NAME, projectWS, listener);
         } catch (IOException e1) {
             build.setResult(Result.FAILURE);
             // TODO Auto-generated catch block
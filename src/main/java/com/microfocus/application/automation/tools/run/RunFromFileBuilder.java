@@ -24,6 +24,7 @@ package com.microfocus.application.automation.tools.run;
 
 import com.microfocus.application.automation.tools.AlmToolsUtils;
 import com.microfocus.application.automation.tools.EncryptionUtils;
+import com.microfocus.application.automation.tools.LauncherToolsCache;
 import com.microfocus.application.automation.tools.Messages;
 import com.microfocus.application.automation.tools.mc.JobConfigurationProxy;
 import com.microfocus.application.automation.tools.model.*;
@@ -746,16 +747,15 @@ public class RunFromFileBuilder extends Builder implements SimpleBuildStep {
 
             FilePath propsFileName = workspace.child(ParamFileName);
             CmdLineExe = workspace.child(HP_TOOLS_LAUNCHER_EXE);
-            FilePath CmdLineExe2 = workspace.child(LRANALYSIS_LAUNCHER_EXE);
 
             try {
                 // create a file for the properties file, and save the properties
                 propsFileName.copyFrom(propsStream);
 
                 // Copy the script to the project workspace
-                CmdLineExe.copyFrom(cmdExeUrl);
+                LauncherToolsCache.install(HP_TOOLS_LAUNCHER_EXE, workspace, listener);
 
-                CmdLineExe2.copyFrom(cmdExe2Url);
+                LauncherToolsCache.install(LRANALYSIS_LAUNCHER_EXE, workspace, listener);
 
             } catch (IOException | InterruptedException e) {
                 build.setResult(Result.FAILURE);
@@ -82,9 +82,13 @@ public class SvChangeModeBuilder extends AbstractSvRunBuilder<SvChangeModeModel>
         PrintStream logger = listener.getLogger();
 
         ICommandExecutor exec = createCommandExecutor();
-        for (ServiceInfo service : getServiceList(false, logger, workspace)) {
-            changeServiceMode(service, logger, exec);
-        }
+        processServices("change mode of", getServiceList(false, logger, workspace, exec), logger,
+                new ServiceCommand() {
+                    @Override
+                    public void process(ServiceInfo service, PrintStream logger, ICommandExecutor exec) throws Exception {
+                        changeServiceMode(service, logger, exec);
+                    }
+                });
     }
 
     private void changeServiceMode(ServiceInfo serviceInfo, PrintStream logger, ICommandExecutor commandExecutor) throws Exception {
@@ -100,7 +104,7 @@ public class SvChangeModeBuilder extends AbstractSvRunBuilder<SvChangeModeModel>
 
         logger.printf("    Changing mode of service '%s' [%s] to %s mode%n", serviceInfo.getName(), serviceInfo.getId(), model.getMode());
 
-        IChmodeProcessor processor = new ChmodeProcessor(null);
+        IChmodeProcessor processor = createProcessor();
 
         try {
             processor.process(chmodeInput, commandExecutor);
@@ -109,6 +113,10 @@ public class SvChangeModeBuilder extends AbstractSvRunBuilder<SvChangeModeModel>
         }
     }
 
+    IChmodeProcessor createProcessor() {
+        return new ChmodeProcessor(null);
+    }
+
     private ServiceRuntimeConfiguration.RuntimeMode getTargetMode() {
         // Set STAND_BY with PM in case of simulation without data model to be in accord with designer & SVM
         if (model.getMode() == ServiceRuntimeConfiguration.RuntimeMode.SIMULATING
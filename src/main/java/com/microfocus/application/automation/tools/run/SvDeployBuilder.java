@@ -25,6 +25,7 @@ package com.microfocus.application.automation.tools.run;
 import javax.annotation.Nonnull;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.List;
 
 import com.microfocus.application.automation.tools.model.SvDeployModel;
 import com.hp.sv.jsvconfigurator.core.IDataModel;
@@ -65,7 +66,7 @@ public class SvDeployBuilder extends AbstractSvRunBuilder<SvDeployModel> {
 
         IProject project = loadProject(workspace);
         printProjectContent(project, logger);
-        deployServiceFromProject(project, logger);
+        deployServiceFromProject(project, workspace, logger);
     }
 
     private Iterable<IService> getServiceList(IProject project) {
@@ -78,16 +79,32 @@ public class SvDeployBuilder extends AbstractSvRunBuilder<SvDeployModel> {
         }
     }
 
-    private void deployServiceFromProject(IProject project, PrintStream logger) throws Exception {
-        IDeployProcessor processor = new DeployProcessor(null);
-        ICommandExecutor commandExecutor = createCommandExecutor();
-
+    private void deployServiceFromProject(IProject project, final FilePath workspace, PrintStream logger) throws Exception {
+        List<ServiceInfo> services = new ArrayList<>();
         for (IService service : getServiceList(project)) {
-            logger.printf("  Deploying service '%s' [%s] %n", service.getName(), service.getId());
-            DeployProcessorInput deployInput = new DeployProcessorInput(model.isForce(), false, project, model.getService(), null);
-            deployInput.setFirstAgentFailover(model.isFirstAgentFallback());
-            processor.process(deployInput, commandExecutor);
+            services.add(new ServiceInfo(service.getId(), service.getName()));
         }
+        // like the command executor, the loaded project is not shared between worker threads
+        final ThreadLocal<IProject> projects = new ThreadLocal<>();
+        processServices("deploy", services, logger, new ServiceCommand() {
+            @Override
+            public void process(ServiceInfo service, PrintStream logger, ICommandExecutor commandExecutor) throws Exception {
+                IProject workerProject = projects.get();
+                if (workerProject == null) {
+                    workerProject = loadProject(workspace);
+                    projects.set(workerProject);
+                }
+                logger.printf("  Deploying service '%s' [%s] %n", service.getName(), service.getId());
+                IDeployProcessor processor = createProcessor();
+                DeployProcessorInput deployInput = new DeployProcessorInput(model.isForce(), false, workerProject, service.getId(), null);
+                deployInput.setFirstAgentFailover(model.isFirstAgentFallback());
+                processor.process(deployInput, commandExecutor);
+            }
+        });
+    }
+
+    IDeployProcessor createProcessor() {
+        return new DeployProcessor(null);
     }
 
     private void printProjectContent(IProject project, PrintStream logger) {
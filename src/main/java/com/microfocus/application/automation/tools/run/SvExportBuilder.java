@@ -82,37 +82,39 @@ public class SvExportBuilder extends AbstractSvRunBuilder<SvExportModel> {
     protected void performImpl(@Nonnull Run<?, ?> run, @Nonnull FilePath workspace, Launcher launcher, TaskListener listener) throws Exception {
         PrintStream logger = listener.getLogger();
 
-        ExportProcessor exportProcessor = new ExportProcessor(null);
-        IChmodeProcessor chmodeProcessor = new ChmodeProcessor(null);
-
-        ICommandExecutor exec = createCommandExecutor();
+        final ICommandExecutor exec = createCommandExecutor();
         IProject project = null;
 
         verifyNotNull(model.getTargetDirectory(), "Target directory must be set");
 
-        String targetDirectory = workspace.child(model.getTargetDirectory()).getRemote();
+        final String targetDirectory = workspace.child(model.getTargetDirectory()).getRemote();
 
         if (model.isCleanTargetDirectory()) {
             cleanTargetDirectory(logger, targetDirectory);
         }
 
-        if (model.getServiceSelection().getSelectionType().equals(SvServiceSelectionModel.SelectionType.PROJECT)) {
+        final boolean projectSelection = model.getServiceSelection().getSelectionType().equals(SvServiceSelectionModel.SelectionType.PROJECT);
+        if (projectSelection) {
             project = new ProjectBuilder().buildProject(new File(model.getServiceSelection().getProjectPath()), model.getServiceSelection().getProjectPassword());
         }
 
-        for (ServiceInfo serviceInfo : getServiceList(false, logger, workspace)) {
-            if (model.isSwitchToStandByFirst()) {
-                switchToStandBy(serviceInfo, chmodeProcessor, exec, logger);
-            }
-
-            logger.printf("  Exporting service '%s' [%s] to %s %n", serviceInfo.getName(), serviceInfo.getId(), targetDirectory);
-            verifyNotLearningBeforeExport(logger, exec, serviceInfo);
-            if (!model.getServiceSelection().getSelectionType().equals(SvServiceSelectionModel.SelectionType.PROJECT)) {
-                exportProcessor.process(exec, targetDirectory, serviceInfo.getId(), project, false, model.isArchive());
-            }
-        }
-        if (model.getServiceSelection().getSelectionType().equals(SvServiceSelectionModel.SelectionType.PROJECT)) {
-            exportProcessor.process(exec, targetDirectory, null, project, false, model.isArchive());
+        processServices("export", getServiceList(false, logger, workspace, exec), logger,
+                new ServiceCommand() {
+                    @Override
+                    public void process(ServiceInfo serviceInfo, PrintStream logger, ICommandExecutor exec) throws Exception {
+                        if (model.isSwitchToStandByFirst()) {
+                            switchToStandBy(serviceInfo, new ChmodeProcessor(null), exec, logger);
+                        }
+
+                        logger.printf("  Exporting service '%s' [%s] to %s %n", serviceInfo.getName(), serviceInfo.getId(), targetDirectory);
+                        verifyNotLearningBeforeExport(logger, exec, serviceInfo);
+                        if (!projectSelection) {
+                            new ExportProcessor(null).process(exec, targetDirectory, serviceInfo.getId(), null, false, model.isArchive());
+                        }
+                    }
+                });
+        if (projectSelection) {
+            new ExportProcessor(null).process(exec, targetDirectory, null, project, false, model.isArchive());
         }
     }
 
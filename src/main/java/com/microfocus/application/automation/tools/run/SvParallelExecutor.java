@@ -0,0 +1,205 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.run;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Runs an operation on each virtual service on a bounded pool of threads. A failure of one service doesn't stop
+ * the others; all the failures are collected into one {@link Report}. Console output of every service is buffered
+ * and printed at once when the service is done, so output of services processed in parallel doesn't interleave.
+ */
+class SvParallelExecutor {
+    static final int DEFAULT_PARALLELISM = Integer.getInteger("AbstractSvRunBuilder.Parallelism", 4);
+
+    private final int parallelism;
+
+    SvParallelExecutor(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    interface ServiceOperation {
+        void process(ServiceInfo service, PrintStream logger) throws Exception;
+    }
+
+    Report run(String operationName, List<ServiceInfo> services, PrintStream logger, ServiceOperation operation) throws InterruptedException {
+        Report report = new Report(operationName, services.size());
+        if (services.isEmpty()) {
+            return report;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, services.size()),
+                new NamingThreadFactory(new DaemonThreadFactory(), "SV " + operationName));
+        try {
+            List<Future<?>> futures = new ArrayList<>(services.size());
+            for (ServiceInfo service : services) {
+                futures.add(executor.submit(new ServiceTask(service, operation, logger, report)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            // ServiceTask records every failure in the report
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return report;
+    }
+
+    private static class ServiceTask implements Runnable {
+        private final ServiceInfo service;
+        private final ServiceOperation operation;
+        private final PrintStream logger;
+        private final Report report;
+
+        ServiceTask(ServiceInfo service, ServiceOperation operation, PrintStream logger, Report report) {
+            this.service = service;
+            this.operation = operation;
+            this.logger = logger;
+            this.report = report;
+        }
+
+        @Override
+        public void run() {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            PrintStream serviceLogger = createPrintStream(buffer);
+            try {
+                operation.process(service, serviceLogger);
+                report.succeeded();
+            } catch (Exception e) {
+                serviceLogger.printf("    Failed to %s service '%s' [%s]: %s%n", report.operationName, service.getName(), service.getId(), e.getMessage());
+                report.failed(service, e);
+            } finally {
+                serviceLogger.flush();
+                synchronized (logger) {
+                    logger.print(buffer.toString());
+                    logger.flush();
+                }
+            }
+        }
+
+        private static PrintStream createPrintStream(ByteArrayOutputStream buffer) {
+            try {
+                return new PrintStream(buffer, true, "UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Outcome of an operation over a set of services
+     */
+    static class Report {
+        private final String operationName;
+        private final int total;
+        private final List<Failure> failures = new ArrayList<>();
+        private int succeeded;
+
+        Report(String operationName, int total) {
+            this.operationName = operationName;
+            this.total = total;
+        }
+
+        synchronized void succeeded() {
+            succeeded++;
+        }
+
+        synchronized void failed(ServiceInfo service, Exception cause) {
+            failures.add(new Failure(service, cause));
+        }
+
+        synchronized int getSucceeded() {
+            return succeeded;
+        }
+
+        synchronized List<Failure> getFailures() {
+            return Collections.unmodifiableList(new ArrayList<>(failures));
+        }
+
+        int getTotal() {
+            return total;
+        }
+
+        void print(PrintStream logger) {
+            List<Failure> currentFailures = getFailures();
+            logger.printf("  Services to %s: %d succeeded, %d failed (of %d)%n", operationName, getSucceeded(), currentFailures.size(), total);
+            for (Failure failure : currentFailures) {
+                logger.printf("    '%s' [%s]: %s%n", failure.service.getName(), failure.service.getId(), failure.cause.getMessage());
+            }
+        }
+
+        /**
+         * @throws Exception listing all the failed services, if there is any
+         */
+        void throwIfFailed() throws Exception {
+            List<Failure> currentFailures = getFailures();
+            if (currentFailures.isEmpty()) {
+                return;
+            }
+            if (currentFailures.size() == 1 && total == 1) {
+                throw currentFailures.get(0).cause;
+            }
+            StringBuilder message = new StringBuilder(String.format("Failed to %s %d of %d services:", operationName, currentFailures.size(), total));
+            for (Failure failure : currentFailures) {
+                message.append(String.format(" '%s' [%s] (%s);", failure.service.getName(), failure.service.getId(), failure.cause.getMessage()));
+            }
+            Exception exception = new Exception(message.substring(0, message.length() - 1));
+            for (Failure failure : currentFailures) {
+                exception.addSuppressed(failure.cause);
+            }
+            throw exception;
+        }
+    }
+
+    static class Failure {
+        private final ServiceInfo service;
+        private final Exception cause;
+
+        Failure(ServiceInfo service, Exception cause) {
+            this.service = service;
+            this.cause = cause;
+        }
+
+        ServiceInfo getService() {
+            return service;
+        }
+
+        Exception getCause() {
+            return cause;
+        }
+    }
+}
@@ -58,15 +58,21 @@ public class SvUndeployBuilder extends AbstractSvRunBuilder<SvUndeployModel> {
 
         PrintStream logger = listener.getLogger();
 
-        IUndeployProcessor processor = new UndeployProcessor(null);
-
         ICommandExecutor exec = createCommandExecutor();
-        for (ServiceInfo service : getServiceList(model.isContinueIfNotDeployed(), logger, workspace)) {
-            logger.printf("  Undeploying service '%s' [%s] %n", service.getName(), service.getId());
-            UndeployProcessorInput undeployProcessorInput = new UndeployProcessorInput(model.isForce(), null, service.getId());
-            processor.process(undeployProcessorInput, exec);
+        processServices("undeploy", getServiceList(model.isContinueIfNotDeployed(), logger, workspace, exec), logger,
+                new ServiceCommand() {
+                    @Override
+                    public void process(ServiceInfo service, PrintStream logger, ICommandExecutor exec) throws Exception {
+                        logger.printf("  Undeploying service '%s' [%s] %n", service.getName(), service.getId());
+                        IUndeployProcessor processor = createProcessor();
+                        UndeployProcessorInput undeployProcessorInput = new UndeployProcessorInput(model.isForce(), null, service.getId());
+                        processor.process(undeployProcessorInput, exec);
+                    }
+                });
+    }
 
-        }
+    IUndeployProcessor createProcessor() {
+        return new UndeployProcessor(null);
     }
 
     @Override
@@ -23,6 +23,7 @@
 package com.microfocus.application.automation.tools.run;
 
 import com.microfocus.application.automation.tools.mc.JobConfigurationProxy;
+import com.microfocus.application.automation.tools.mc.UploadAppCallable;
 import com.microfocus.application.automation.tools.model.MCServerSettingsModel;
 import com.microfocus.application.automation.tools.model.ProxySettings;
 import com.microfocus.application.automation.tools.model.UploadAppModel;
@@ -30,19 +31,28 @@ import com.microfocus.application.automation.tools.model.UploadAppPathModel;
 import com.microfocus.application.automation.tools.settings.MCServerSettingsBuilder;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
 import hudson.Extension;
+import hudson.FilePath;
 import hudson.Launcher;
 import hudson.Util;
 import hudson.model.*;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Builder;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
 import org.kohsuke.stapler.DataBoundConstructor;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -55,6 +65,8 @@ import java.util.regex.Pattern;
  */
 public class UploadAppBuilder extends Builder {
 
+    private static final int MAX_PARALLEL_UPLOADS = Integer.getInteger("UploadAppBuilder.MaxParallelUploads", 2);
+
     private final UploadAppModel uploadAppModel;
 
     @DataBoundConstructor
@@ -88,74 +100,116 @@ public class UploadAppBuilder extends Builder {
         }else{
             mcServerUrl = mcServerSettingsModel.getProperties().getProperty("MobileHostAddress");
             out.println(String.format("There are %d apps to be uploaded.", paths.size()));
-            String workspace = new File(build.getWorkspace().toURI()).getCanonicalPath();
-            for(int i=1; i<=paths.size(); i++){
-                String path = paths.get(i-1).getMcAppPath();
-                if(StringUtils.isNullOrEmpty(path)){
-                    out.println(String.format("ignore the empty app %d upload", i));
-                    continue;
-                }
-                //case insensitive replace of workspace to its real path
-                path = path.replaceAll("(?i)"+ Pattern.quote("${WORKSPACE}"), Matcher.quoteReplacement(workspace));
-                try{
+            FilePath workspace = build.getWorkspace();
+            if(workspace == null){
+                out.println("Failed to upload app to MC server. Cause: workspace is not available.");
+                build.setResult(Result.FAILURE);
+                return false;
+            }
+            ProxySettings proxySettings = uploadAppModel.getProxySettings();
+            String proxyAddress = proxySettings == null ? null : proxySettings.getFsProxyAddress();
+            String proxyUserName = proxySettings == null ? null : proxySettings.getFsProxyUserName();
+            String proxyPassword = proxySettings == null ? null : proxySettings.getFsProxyPassword();
+
+            //one MC session is shared by all the uploads of the build, the apps are streamed by the node holding the workspace
+            JSONObject loginJson = job.loginToMC(mcServerUrl, uploadAppModel.getMcUserName(), uploadAppModel.getMcPassword(), uploadAppModel.getMcTenantId(), proxyAddress, proxyUserName, proxyPassword);
+            final UploadAppCallable uploader = new UploadAppCallable(mcServerUrl, loginJson, proxyAddress, proxyUserName, proxyPassword);
+
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(MAX_PARALLEL_UPLOADS, paths.size())),
+                    new NamingThreadFactory(new DaemonThreadFactory(), "MC app upload " + build.getFullDisplayName()));
+            List<Future<String>> uploads = new ArrayList<Future<String>>();
+            List<String> appPaths = new ArrayList<String>();
+            try{
+                for(int i=1; i<=paths.size(); i++){
+                    String path = paths.get(i-1).getMcAppPath();
+                    if(StringUtils.isNullOrEmpty(path)){
+                        out.println(String.format("ignore the empty app %d upload", i));
+                        uploads.add(null);
+                        appPaths.add(null);
+                        continue;
+                    }
+                    //case insensitive replace of workspace to its real path
+                    path = path.replaceAll("(?i)"+ Pattern.quote("${WORKSPACE}"), Matcher.quoteReplacement(workspace.getRemote()));
+                    final FilePath appFile = workspace.child(path);
                     out.println(String.format("starting to upload app %d %s", i, path));
-                    if(uploadAppModel.getProxySettings() == null){
-                        app = job.upload(mcServerUrl, uploadAppModel.getMcUserName(),uploadAppModel.getMcPassword(), uploadAppModel.getMcTenantId(), null, null, null, path);
-                    }else{
-                        app = job.upload(mcServerUrl, uploadAppModel.getMcUserName(),uploadAppModel.getMcPassword(), uploadAppModel.getMcTenantId(), uploadAppModel.getProxySettings().getFsProxyAddress(),uploadAppModel.getProxySettings().getFsProxyUserName(), uploadAppModel.getProxySettings().getFsProxyPassword(),path);
+                    uploads.add(executor.submit(new Callable<String>() {
+                        @Override
+                        public String call() throws Exception {
+                            return appFile.act(uploader);
+                        }
+                    }));
+                    appPaths.add(path);
+                }
+
+                for(int i=1; i<=uploads.size(); i++){
+                    Future<String> upload = uploads.get(i-1);
+                    String path = appPaths.get(i-1);
+                    if(upload == null){
+                        continue;
                     }
-                    if(app == null){
-                        if(uploadAppModel.isUseProxy()){
-                            out.println(String.format("Failed to upload app, Cause MC connection info is incorrect. url:%s, username:%s, Proxy url:%s",
-                                    mcServerUrl, uploadAppModel.getMcUserName(), uploadAppModel.getProxySettings().getFsProxyAddress()));
-                        }else if(uploadAppModel.isUseAuthentication()){
-                            out.println(String.format("Failed to upload app, Cause MC connection info is incorrect. url:%s, username:%s, Proxy url:%s, proxy userName:%s",
-                                    mcServerUrl, uploadAppModel.getMcUserName(), uploadAppModel.getProxySettings().getFsProxyAddress(), uploadAppModel.getProxySettings().getFsProxyUserName()));
-                        }else{
-                            out.println(String.format("Failed to upload app, Cause MC connection info is incorrect. url:%s, username:%s,",
-                                    mcServerUrl, uploadAppModel.getMcUserName()));
+                    try{
+                        String result = upload.get();
+                        app = result == null ? null : (JSONObject) JSONValue.parse(result);
+                        if(app == null){
+                            printConnectionFailure(out, mcServerUrl);
+                            build.setResult(Result.FAILURE);
+                            allSuccess = false;
+                            continue;
+                        }
+                        if((Boolean)app.get("error")){
+                            out.println("Job failed because got error message during the application uploading. " + app.toJSONString());
+                            allSuccess = false;
+                            build.setResult(Result.FAILURE);
+                        }
+                        out.println(String.format("uploaded app %d info: %s", i, app.toJSONString()));
+                    } catch(ExecutionException e){
+                        Throwable cause = e.getCause();
+                        if(findCause(cause, FileNotFoundException.class) != null){
+                            out.println(String.format("Failed to upload app to MC server. Cause: File: %s is not found.", path));
+                        } else if(findCause(cause, InterruptedException.class) != null){
+                            build.setResult(Result.ABORTED);
+                            return false;
+                        } else if(cause instanceof IOException){
+                            Util.displayIOException((IOException) cause, listener);
+                        } else {
+                            printConnectionFailure(out, mcServerUrl);
                         }
                         build.setResult(Result.FAILURE);
-                        return false;
-                    }
-                    if((Boolean)app.get("error")){
-                        out.println("Job failed because got error message during the application uploading. " + app.toJSONString());
                         allSuccess = false;
-                        build.setResult(Result.FAILURE);
-                    }
-                    out.println("uploaded app info: " + app.toJSONString());
-                } catch(FileNotFoundException fnf){
-                    out.println(String.format("Failed to upload app to MC server. Cause: File: %s is not found.", path));
-                    build.setResult(Result.FAILURE);
-                    allSuccess = false;
-                    continue;
-                } catch (IOException ioe) {
-                    Util.displayIOException(ioe, listener);
-                    build.setResult(Result.FAILURE);
-                    allSuccess = false;
-                    continue;
-                } catch (InterruptedException e) {
-                    build.setResult(Result.ABORTED);
-                    return false;
-                } catch (Exception e){
-                    if(uploadAppModel.isUseProxy()){
-                        out.println(String.format("Failed to upload app, Cause MC connection info is incorrect. url:%s, username:%s, Proxy url:%s",
-                                mcServerUrl, uploadAppModel.getMcUserName(), uploadAppModel.getProxySettings().getFsProxyAddress()));
-                    }else if(uploadAppModel.isUseAuthentication()){
-                        out.println(String.format("Failed to upload app, Cause MC connection info is incorrect. url:%s, username:%s, Proxy url:%s, proxy userName:%s",
-                                mcServerUrl, uploadAppModel.getMcUserName(), uploadAppModel.getProxySettings().getFsProxyAddress(), uploadAppModel.getProxySettings().getFsProxyUserName()));
-                    }else{
-                        out.println(String.format("Failed to upload app, Cause MC connection info is incorrect. url:%s, username:%s,",
-                                mcServerUrl, uploadAppModel.getMcUserName()));
                     }
-                    build.setResult(Result.FAILURE);
-                    return false;
                 }
+            } catch (InterruptedException e) {
+                build.setResult(Result.ABORTED);
+                return false;
+            } finally {
+                executor.shutdownNow();
             }
         }
         return allSuccess;
     }
 
+    private void printConnectionFailure(PrintStream out, String mcServerUrl) {
+        if(uploadAppModel.isUseProxy()){
+            out.println(String.format("Failed to upload app, Cause MC connection info is incorrect. url:%s, username:%s, Proxy url:%s",
+                    mcServerUrl, uploadAppModel.getMcUserName(), uploadAppModel.getProxySettings().getFsProxyAddress()));
+        }else if(uploadAppModel.isUseAuthentication()){
+            out.println(String.format("Failed to upload app, Cause MC connection info is incorrect. url:%s, username:%s, Proxy url:%s, proxy userName:%s",
+                    mcServerUrl, uploadAppModel.getMcUserName(), uploadAppModel.getProxySettings().getFsProxyAddress(), uploadAppModel.getProxySettings().getFsProxyUserName()));
+        }else{
+            out.println(String.format("Failed to upload app, Cause MC connection info is incorrect. url:%s, username:%s,",
+                    mcServerUrl, uploadAppModel.getMcUserName()));
+        }
+    }
+
+    private static <T extends Throwable> T findCause(Throwable throwable, Class<T> type) {
+        for(Throwable cause = throwable; cause != null; cause = cause.getCause()){
+            if(type.isInstance(cause)){
+                return type.cast(cause);
+            }
+        }
+        return null;
+    }
+
     public MCServerSettingsModel getMCServerSettingsModel() {
         for (MCServerSettingsModel mcServer : getDescriptor().getMcServers()) {
             if (this.uploadAppModel != null
@@ -0,0 +1,111 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.sse.common;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.microfocus.application.automation.tools.common.SSEException;
+
+/***
+ * Streaming reader of REST entities collections, an alternative to {@link XPathUtils#toEntities(String)}
+ * which doesn't build the whole document: every entity is handed to the handler as soon as it is read.
+ */
+public class EntityStreamReader {
+    
+    private static final XMLInputFactory FACTORY = createFactory();
+    
+    public interface EntityHandler {
+        
+        void onEntity(Map<String, String> fields);
+    }
+    
+    /**
+     * @return number of entities read
+     */
+    public static int read(byte[] xml, EntityHandler handler) {
+        
+        int ret = 0;
+        XMLStreamReader reader = null;
+        try {
+            reader = FACTORY.createXMLStreamReader(new ByteArrayInputStream(xml));
+            Map<String, String> currEntity = null;
+            String currField = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("Entity".equals(name)) {
+                        currEntity = new HashMap<String, String>();
+                    } else if ("Field".equals(name) && currEntity != null) {
+                        currField = reader.getAttributeValue(null, "Name");
+                        currEntity.put(currField, null);
+                    } else if ("Value".equals(name) && currField != null) {
+                        String value = reader.getElementText();
+                        currEntity.put(currField, value.isEmpty() ? null : value);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("Field".equals(name)) {
+                        currField = null;
+                    } else if ("Entity".equals(name) && currEntity != null) {
+                        handler.onEntity(currEntity);
+                        currEntity = null;
+                        ret++;
+                    }
+                }
+            }
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        } finally {
+            close(reader);
+        }
+        
+        return ret;
+    }
+    
+    private static void close(XMLStreamReader reader) {
+        
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException ignored) {
+                // nothing to release
+            }
+        }
+    }
+    
+    private static XMLInputFactory createFactory() {
+        
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -22,42 +22,67 @@
 
 package com.microfocus.application.automation.tools.sse.sdk.handler;
 
-import java.util.List;
 import java.util.Map;
 
+import com.microfocus.application.automation.tools.sse.common.EntityStreamReader;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
 import com.microfocus.application.automation.tools.sse.sdk.request.EventLogRequest;
 
+/***
+ * Prints the new events of the timeslot event log on each call.
+ * Once the first events are read, only the events following the last one read are requested (incremental mode),
+ * and the response is parsed with a streaming reader, so the cost of a poll doesn't grow with the event log.
+ */
 public class EventLogHandler extends Handler {
     
+    private static final boolean INCREMENTAL =
+            Boolean.parseBoolean(System.getProperty("EventLogHandler.Incremental", "true"));
+    private static final int PAGE_SIZE = Integer.getInteger("EventLogHandler.PageSize", 500);
+    
     private String _timeslotId = StringUtils.EMPTY_STRING;
     private int _lastRead = -1;
+    private final boolean _incremental;
     
     public EventLogHandler(Client client, String timeslotId) {
         
+        this(client, timeslotId, INCREMENTAL);
+    }
+    
+    public EventLogHandler(Client client, String timeslotId, boolean incremental) {
+        
         super(client, timeslotId);
         _timeslotId = timeslotId;
+        _incremental = incremental;
     }
     
-    public boolean log(Logger logger) {
+    public boolean log(final Logger logger) {
         
         boolean ret = false;
         Response eventLog = null;
         try {
-            eventLog = getEventLog();
-            String xml = eventLog.toString();
-            List<Map<String, String>> entities = XPathUtils.toEntities(xml);
-            for (Map<String, String> currEntity : entities) {
-                if (isNew(currEntity)) {
-                    logger.log(String.format(
-                            "%s:%s",
-                            currEntity.get("creation-time"),
-                            currEntity.get("description")));
-                }
+            boolean hasMore = true;
+            while (hasMore) {
+                int lastRead = _lastRead;
+                boolean paged = _incremental && lastRead >= 0;
+                eventLog = paged ? getEventLog(lastRead) : getEventLog();
+                int read = EntityStreamReader.read(eventLog.getData(), new EntityStreamReader.EntityHandler() {
+                    
+                    @Override
+                    public void onEntity(Map<String, String> currEntity) {
+                        
+                        if (isNew(currEntity)) {
+                            logger.log(String.format(
+                                    "%s:%s",
+                                    currEntity.get("creation-time"),
+                                    currEntity.get("description")));
+                        }
+                    }
+                });
+                // a full page means more events may be waiting, as long as the page moved us forward
+                hasMore = paged && read >= PAGE_SIZE && _lastRead > lastRead;
             }
             ret = true;
         } catch (Throwable cause) {
@@ -89,4 +114,9 @@ public class EventLogHandler extends Handler {
         return new EventLogRequest(_client, _timeslotId).execute();
     }
     
+    private Response getEventLog(int afterId) {
+        
+        return new EventLogRequest(_client, _timeslotId, afterId, PAGE_SIZE).execute();
+    }
+    
 }
@@ -38,6 +38,8 @@ import com.microfocus.application.automation.tools.sse.sdk.request.PollSSERunReq
  */
 public class LabPollHandler extends PollHandler {
     
+    private static final long EVENT_LOG_INTERVAL = Long.getLong("LabPollHandler.EventLogInterval", 10000); // millisecond
+    
     private EventLogHandler _eventLogHandler;
     
     public LabPollHandler(Client client, String entityId) {
@@ -67,6 +69,15 @@ public class LabPollHandler extends PollHandler {
         
     }
     
+    /**
+     * The event log is printed by each probe, so the backoff is capped to keep it from lagging behind the run
+     */
+    @Override
+    protected long getMaxInterval() {
+        
+        return Math.min(super.getMaxInterval(), EVENT_LOG_INTERVAL);
+    }
+    
     @Override
     protected Response getResponse() {
         
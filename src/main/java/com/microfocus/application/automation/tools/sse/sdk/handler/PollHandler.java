@@ -22,12 +22,21 @@
 
 package com.microfocus.application.automation.tools.sse.sdk.handler;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.microfocus.application.automation.tools.common.AdaptivePoller;
+import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
 
 public abstract class PollHandler extends Handler {
     
+    private static final long MAX_INTERVAL = Long.getLong("PollHandler.MaxInterval", 30000); // millisecond
+    private static final String FINISHED = "#finished";
+    private static final String FAILED = "#failed-";
+    
     private int _interval = 5000; // millisecond
     
     public PollHandler(Client client, String entityId) {
@@ -53,25 +62,74 @@ public abstract class PollHandler extends Handler {
         return doPoll(logger);
     }
     
-    protected boolean doPoll(Logger logger) throws InterruptedException {
+    protected boolean doPoll(final Logger logger) throws InterruptedException {
         
         boolean ret = false;
-        int failures = 0;
-        while (failures < 3) {
-            Response response = getResponse();
-            if (isOk(response, logger)) {
-                log(logger);
-                if (isFinished(response, logger)) {
+        final AtomicInteger failures = new AtomicInteger();
+        AdaptivePoller.Watch<String> watch =
+                AdaptivePoller.getShared().watch(new AdaptivePoller.Probe<String>() {
+                    
+                    @Override
+                    public String check() {
+                        
+                        Response response = getResponse();
+                        if (!isOk(response, logger)) {
+                            return FAILED + failures.incrementAndGet();
+                        }
+                        log(logger);
+                        
+                        return isFinished(response, logger) ? FINISHED : getState(response);
+                    }
+                }, getPollingPolicy());
+        try {
+            while (failures.get() < 3) {
+                if (FINISHED.equals(watch.awaitChange(0))) {
                     ret = true;
                     logRunEntityResults(getRunEntityResultsResponse(), logger);
                     break;
                 }
-            } else {
-                ++failures;
-            }
-            if (sleep(logger)) { // interrupted
-                break;
             }
+        } catch (InterruptedException ex) {
+            logger.log("Interrupted while polling");
+            throw ex;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            throw cause instanceof RuntimeException
+                    ? (RuntimeException) cause
+                    : new RuntimeException(cause);
+        } finally {
+            watch.close();
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Polling is backed off while the run stays in the same state, up to PollHandler.MaxInterval milliseconds
+     */
+    protected AdaptivePoller.Policy getPollingPolicy() {
+        
+        return new AdaptivePoller.Policy(_interval, Math.max(_interval, getMaxInterval()));
+    }
+    
+    /**
+     * @return longest interval between probes, in milliseconds
+     */
+    protected long getMaxInterval() {
+        
+        return MAX_INTERVAL;
+    }
+    
+    /**
+     * @return state of the run, a change of which resets the polling interval and wakes the build
+     */
+    protected String getState(Response response) {
+        
+        String ret = null;
+        try {
+            ret = XPathUtils.getAttributeValue(response.toString(), "state");
+        } catch (Throwable cause) {
+            // no state, polling keeps backing off
         }
         
         return ret;
@@ -101,18 +159,5 @@ public abstract class PollHandler extends Handler {
         return ret;
     }
     
-    protected boolean sleep(Logger logger) throws InterruptedException {
-        
-        boolean ret = false;
-        try {
-            Thread.sleep(_interval);
-        } catch (InterruptedException ex) {
-            logger.log("Interrupted while polling");
-            throw ex;
-        }
-        
-        return ret;
-    }
-    
     protected void log(Logger logger) {}
 }
@@ -26,19 +26,46 @@ import com.microfocus.application.automation.tools.sse.sdk.Client;
 
 public class EventLogRequest extends GetRequest {
     
+    private static final String FIELDS = "id,event-type,creation-time,action,description";
+    
     private final String _timeslotId;
+    private final int _afterId;
+    private final int _pageSize;
     
     public EventLogRequest(Client client, String timeslotId) {
         
+        this(client, timeslotId, -1, 0);
+    }
+    
+    /**
+     * Request for the events following the given one only, in id order
+     * 
+     * @param afterId id of the last event read, -1 for all events
+     * @param pageSize maximal number of events to return when afterId is given
+     */
+    public EventLogRequest(Client client, String timeslotId, int afterId, int pageSize) {
+        
         super(client, timeslotId);
         _timeslotId = timeslotId;
+        _afterId = afterId;
+        _pageSize = pageSize;
     }
     
     @Override
     protected String getSuffix() {
         
+        if (_afterId < 0) {
+            return String.format(
+                    "event-log-reads?query={context[\"*Timeslot:%%20%s%%3B*\"]}&fields=%s",
+                    _timeslotId,
+                    FIELDS);
+        }
+        
         return String.format(
-                "event-log-reads?query={context[\"*Timeslot:%%20%s%%3B*\"]}&fields=id,event-type,creation-time,action,description",
-                _timeslotId);
+                "event-log-reads?query={context[\"*Timeslot:%%20%s%%3B*\"];id[%%3E%d]}&fields=%s&order-by={id[ASC]}&page-size=%d",
+                _timeslotId,
+                _afterId,
+                FIELDS,
+                _pageSize);
     }
 }
\ No newline at end of file
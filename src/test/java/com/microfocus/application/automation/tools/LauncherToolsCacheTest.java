@@ -0,0 +1,94 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class LauncherToolsCacheTest {
+
+    private static final byte[] TOOL = "MZ launcher binary".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSha256() throws IOException {
+        long[] size = new long[1];
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                LauncherToolsCache.sha256(new ByteArrayInputStream(new byte[0]), size));
+        assertEquals(0, size[0]);
+        LauncherToolsCache.sha256(new ByteArrayInputStream(TOOL), size);
+        assertEquals(TOOL.length, size[0]);
+    }
+
+    @Test
+    public void testLinkCachedTool() throws IOException {
+        File cached = cache(TOOL);
+        File target = new File(folder.newFolder("workspace"), "HpToolsLauncher.exe");
+        Files.write(target.toPath(), "previous build".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(new LauncherToolsCache.LinkCachedTool(cached.getPath(), digest(TOOL), target.getPath()).call());
+        assertArrayEquals(TOOL, Files.readAllBytes(target.toPath()));
+
+        // removing the workspace copy keeps the cache intact
+        assertTrue(target.delete());
+        assertArrayEquals(TOOL, Files.readAllBytes(cached.toPath()));
+    }
+
+    @Test
+    public void testMissingCachedTool() throws IOException {
+        File target = new File(folder.getRoot(), "HpToolsLauncher.exe");
+
+        assertFalse(new LauncherToolsCache.LinkCachedTool(new File(folder.getRoot(), "missing.exe").getPath(), digest(TOOL), target.getPath()).call());
+        assertFalse(target.exists());
+    }
+
+    @Test
+    public void testStaleCachedTool() throws IOException {
+        File cached = cache("truncated".getBytes(StandardCharsets.UTF_8));
+        File target = new File(folder.getRoot(), "HpToolsLauncher.exe");
+
+        assertFalse(new LauncherToolsCache.LinkCachedTool(cached.getPath(), digest(TOOL), target.getPath()).call());
+        assertFalse(target.exists());
+    }
+
+    private File cache(byte[] content) throws IOException {
+        File cached = new File(folder.newFolder(LauncherToolsCache.CACHE_FOLDER, digest(TOOL)), "HpToolsLauncher.exe");
+        Files.write(cached.toPath(), content);
+        return cached;
+    }
+
+    private static String digest(byte[] content) throws IOException {
+        return LauncherToolsCache.sha256(new ByteArrayInputStream(content), null);
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the poller on a virtual clock: scheduled probes are executed in order of their due time, without real waiting
+ */
+public class AdaptivePollerTest {
+
+    private final VirtualTimer timer = new VirtualTimer();
+
+    @Test
+    public void testBackoffWhileStateUnchanged() throws Exception {
+
+        ScriptedProbe probe = new ScriptedProbe("Running", "Running", "Running", "Running", "Running", "Running", "Done");
+        AdaptivePoller.Watch<String> watch = poller().watch(probe, new AdaptivePoller.Policy(1000, 8000).withJitter(0));
+
+        assertEquals("Running", watch.awaitChange(0));
+        assertEquals("Done", watch.awaitChange(0));
+        assertEquals(Arrays.asList(0L, 1000L, 3000L, 7000L, 15000L, 23000L, 31000L), probe.times);
+        assertEquals(7, watch.getPolls());
+    }
+
+    @Test
+    public void testIntervalResetOnTransition() throws Exception {
+
+        ScriptedProbe probe = new ScriptedProbe("A", "A", "A", "B", "B", "C");
+        AdaptivePoller.Watch<String> watch = poller().watch(probe, new AdaptivePoller.Policy(100, 10000).withJitter(0));
+
+        assertEquals("A", watch.awaitChange(0));
+        assertEquals("B", watch.awaitChange(0));
+        assertEquals(Arrays.asList(0L, 100L, 300L, 700L), probe.times);
+        assertEquals("C", watch.awaitChange(0));
+        assertEquals(Arrays.asList(0L, 100L, 300L, 700L, 800L, 1000L), probe.times);
+    }
+
+    @Test
+    public void testPerStateRange() throws Exception {
+
+        ScriptedProbe probe = new ScriptedProbe("Collating", "Collating", "Collating", "Collating", "Finished");
+        AdaptivePoller.Policy policy = new AdaptivePoller.Policy(5000, 30000).withJitter(0).withState("Collating", 1000, 2000);
+        AdaptivePoller.Watch<String> watch = poller().watch(probe, policy);
+
+        assertEquals("Collating", watch.awaitChange(0));
+        assertEquals("Finished", watch.awaitChange(0));
+        assertEquals(Arrays.asList(0L, 1000L, 3000L, 5000L, 7000L), probe.times);
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+
+        ScriptedProbe probe = new ScriptedProbe("Collating");
+        AdaptivePoller.Watch<String> watch = poller().watch(probe, new AdaptivePoller.Policy(1000, 16000).withJitter(0));
+
+        assertEquals("Collating", watch.awaitChange(0));
+        assertEquals("Collating", watch.awaitChange(60000));
+        assertEquals(60000, timer.now());
+        assertEquals(Arrays.asList(0L, 1000L, 3000L, 7000L, 15000L, 31000L, 47000L, 60000L), probe.times);
+    }
+
+    @Test
+    public void testFailureWakesAndPollingResumes() throws Exception {
+
+        ScriptedProbe probe = new ScriptedProbe("Running", "Running", null, "Running", "Done");
+        AdaptivePoller.Watch<String> watch = poller().watch(probe, new AdaptivePoller.Policy(1000, 8000).withJitter(0));
+
+        assertEquals("Running", watch.awaitChange(0));
+        try {
+            watch.awaitChange(0);
+            fail("probe failure expected");
+        } catch (ExecutionException expected) {
+            assertEquals("server unavailable", expected.getCause().getMessage());
+        }
+        assertEquals("Done", watch.awaitChange(0));
+        assertEquals(Arrays.asList(0L, 1000L, 3000L, 4000L, 6000L), probe.times);
+    }
+
+    @Test
+    public void testJitterBounds() throws Exception {
+
+        String[] states = new String[50];
+        Arrays.fill(states, "Running");
+        ScriptedProbe probe = new ScriptedProbe(states);
+        AdaptivePoller.Watch<String> watch = poller().watch(probe, new AdaptivePoller.Policy(1000, 1000).withJitter(0.25));
+
+        watch.awaitChange(0);
+        watch.awaitChange(40000);
+        boolean spread = false;
+        for (int i = 1; i < probe.times.size() - 1; i++) {
+            long delay = probe.times.get(i) - probe.times.get(i - 1);
+            assertTrue("delay out of jitter bounds: " + delay, delay >= 750 && delay <= 1250);
+            spread |= delay != 1000;
+        }
+        assertTrue(spread);
+    }
+
+    @Test
+    public void testCloseStopsPolling() throws Exception {
+
+        ScriptedProbe probe = new ScriptedProbe("Running");
+        timer.hold = true;
+        AdaptivePoller.Watch<String> watch = poller().watch(probe, new AdaptivePoller.Policy(1000, 1000).withJitter(0));
+
+        watch.close();
+        timer.release();
+        assertNull(watch.awaitChange(0));
+        assertTrue(probe.times.isEmpty());
+        assertEquals(0, watch.getPolls());
+    }
+
+    @Test
+    public void testHungProbeDoesNotStallOtherWatches() throws Exception {
+
+        AdaptivePoller poller = new AdaptivePoller(new AdaptivePoller.ExecutorTimer(1), new Random(7));
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch hung = new CountDownLatch(1);
+        AdaptivePoller.Watch<String> stuck = poller.watch(new AdaptivePoller.Probe<String>() {
+
+            @Override
+            public String check() throws Exception {
+
+                hung.countDown();
+                release.await();
+                return "Running";
+            }
+        }, new AdaptivePoller.Policy(10, 10).withProbeTimeout(0));
+        try {
+            assertTrue(hung.await(10, TimeUnit.SECONDS));
+            ScriptedProbe probe = new ScriptedProbe("A", "A", "B", "C");
+            AdaptivePoller.Watch<String> watch = poller.watch(probe, new AdaptivePoller.Policy(10, 20));
+            assertEquals("A", watch.awaitChange(0));
+            assertEquals("B", watch.awaitChange(0));
+            assertEquals("C", watch.awaitChange(0));
+            watch.close();
+        } finally {
+            release.countDown();
+            stuck.close();
+        }
+    }
+
+    @Test
+    public void testProbeTimeout() throws Exception {
+
+        AdaptivePoller poller = new AdaptivePoller(new AdaptivePoller.ExecutorTimer(1), new Random(7));
+        final CountDownLatch release = new CountDownLatch(1);
+        AdaptivePoller.Watch<String> watch = poller.watch(new AdaptivePoller.Probe<String>() {
+
+            @Override
+            public String check() throws Exception {
+
+                release.await();
+                return "Running";
+            }
+        }, new AdaptivePoller.Policy(10, 10).withProbeTimeout(100));
+        try {
+            watch.awaitChange(0);
+            fail("probe timeout expected");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof TimeoutException);
+        } finally {
+            watch.close();
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testNoNewProbeWhileHungProbeRuns() throws Exception {
+
+        AdaptivePoller poller = new AdaptivePoller(new AdaptivePoller.ExecutorTimer(1), new Random(7));
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger checks = new AtomicInteger();
+        AdaptivePoller.Watch<String> watch = poller.watch(new AdaptivePoller.Probe<String>() {
+
+            @Override
+            public String check() throws Exception {
+
+                checks.incrementAndGet();
+                while (true) {
+                    try {
+                        release.await();
+                        return "Running";
+                    } catch (InterruptedException e) {
+                        // ignored, like by a blocking socket read
+                    }
+                }
+            }
+        }, new AdaptivePoller.Policy(10, 10).withProbeTimeout(50));
+        try {
+            for (int i = 0; i < 3; i++) {
+                try {
+                    watch.awaitChange(0);
+                    fail("probe timeout expected");
+                } catch (ExecutionException expected) {
+                    assertTrue(expected.getCause() instanceof TimeoutException);
+                }
+            }
+            assertEquals(1, checks.get());
+        } finally {
+            watch.close();
+            release.countDown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+
+        new AdaptivePoller.Policy(1000, 10);
+    }
+
+    private AdaptivePoller poller() {
+
+        return new AdaptivePoller(timer, new Random(7));
+    }
+
+    /**
+     * Returns the given states one per poll (the last one repeatedly), null stands for a failure
+     */
+    private class ScriptedProbe implements AdaptivePoller.Probe<String> {
+
+        private final Iterator<String> states;
+        private final List<Long> times = new ArrayList<Long>();
+        private String last;
+
+        private ScriptedProbe(String... states) {
+
+            this.states = Arrays.asList(states).iterator();
+        }
+
+        @Override
+        public String check() throws Exception {
+
+            times.add(timer.now());
+            if (states.hasNext()) {
+                last = states.next();
+                if (last == null) {
+                    throw new IllegalStateException("server unavailable");
+                }
+            }
+            return last;
+        }
+    }
+
+    /**
+     * Executes scheduled tasks on the calling thread, advancing the virtual time to the due time of each task
+     */
+    private static class VirtualTimer implements AdaptivePoller.Timer {
+
+        private final PriorityQueue<long[]> queue = new PriorityQueue<long[]>(11, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+        private long now;
+        private boolean running;
+        private boolean hold;
+
+        @Override
+        public long now() {
+
+            return now;
+        }
+
+        @Override
+        public void execute(Runnable probe, long timeoutMillis, Runnable onTimeout) {
+
+            probe.run();
+        }
+
+        @Override
+        public void schedule(Runnable task, long delayMillis) {
+
+            queue.add(new long[] { now + delayMillis, tasks.size() });
+            tasks.add(task);
+            if (!hold) {
+                drain();
+            }
+        }
+
+        private void release() {
+
+            hold = false;
+            drain();
+        }
+
+        private void drain() {
+
+            if (running) {
+                return;
+            }
+            running = true;
+            try {
+                while (!queue.isEmpty()) {
+                    long[] next = queue.poll();
+                    now = Math.max(now, next[0]);
+                    tasks.get((int) next[1]).run();
+                }
+            } finally {
+                running = false;
+            }
+        }
+    }
+}
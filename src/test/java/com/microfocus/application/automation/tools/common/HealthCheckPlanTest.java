@@ -0,0 +1,118 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors ("Micro Focus") are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+
+package com.microfocus.application.automation.tools.common;
+
+import com.microfocus.application.automation.tools.common.utils.HealthCheckCache;
+import com.microfocus.application.automation.tools.common.utils.HealthCheckPlan;
+import com.microfocus.application.automation.tools.common.utils.OperatingSystem;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HealthCheckPlanTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void evaluate_returnsStatusOfEveryCheckInOrder() throws Exception {
+        File file = folder.newFile("script.usr");
+        File directory = folder.newFolder("scripts");
+        String os = OperatingSystem.isWindows() ? "WINDOWS" : OperatingSystem.isMac() ? "MAC" : "LINUX";
+
+        HealthCheckPlan plan = new HealthCheckPlan()
+                .add(HealthCheckPlan.Kind.FILE, file.getPath(), "missing")
+                .add(HealthCheckPlan.Kind.FILE, new File(directory, "none").getPath(), "missing")
+                .add(HealthCheckPlan.Kind.FILE, directory.getPath(), "missing")
+                .add(HealthCheckPlan.Kind.OPERATING_SYSTEM, os, "wrong os");
+
+        assertArrayEquals(new HealthCheckPlan.Status[] {
+                HealthCheckPlan.Status.PASSED,
+                HealthCheckPlan.Status.FAILED,
+                HealthCheckPlan.Status.IS_DIRECTORY,
+                HealthCheckPlan.Status.PASSED}, plan.evaluate());
+    }
+
+    @Test
+    public void evaluate_registryIsUnsupported_onNonWindows() throws Exception {
+        if (!OperatingSystem.isWindows()) {
+            HealthCheckPlan plan = new HealthCheckPlan()
+                    .add(HealthCheckPlan.Kind.REGISTRY_KEY, "HKEY_LOCAL_MACHINE\\SOFTWARE", "not installed");
+            assertEquals(HealthCheckPlan.Status.UNSUPPORTED, plan.evaluate()[0]);
+        }
+    }
+
+    @Test
+    public void evaluate_emptyPlan() throws Exception {
+        assertEquals(0, new HealthCheckPlan().evaluate().length);
+    }
+
+    @Test
+    public void cache_remembersStableChecksUntilExpired() {
+        AtomicLong now = new AtomicLong(1000);
+        HealthCheckCache cache = new HealthCheckCache(600, now::get);
+        HealthCheckPlan.Check installed = new HealthCheckPlan()
+                .add(HealthCheckPlan.Kind.REGISTRY_KEY, "HKEY_LOCAL_MACHINE\\SOFTWARE\\LoadRunner", "not installed")
+                .getChecks().get(0);
+
+        assertFalse(cache.isPassed("agent1@1", "5.6", installed));
+        cache.passed("agent1@1", "5.6", installed);
+        assertTrue(cache.isPassed("agent1@1", "5.6", installed));
+        assertFalse(cache.isPassed("agent2@1", "5.6", installed));
+        assertFalse(cache.isPassed("agent1@2", "5.6", installed));
+        assertFalse(cache.isPassed("agent1@1", "5.7", installed));
+
+        now.addAndGet(600);
+        assertFalse(cache.isPassed("agent1@1", "5.6", installed));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void cache_neverRemembersFiles() {
+        HealthCheckCache cache = new HealthCheckCache(600, () -> 0);
+        HealthCheckPlan.Check file = new HealthCheckPlan()
+                .add(HealthCheckPlan.Kind.FILE, "C:\\scripts\\script.usr", "missing")
+                .getChecks().get(0);
+
+        cache.passed("agent1@1", "5.6", file);
+        assertFalse(cache.isPassed("agent1@1", "5.6", file));
+    }
+
+    @Test
+    public void cache_unknownNodeIsNotCached() {
+        HealthCheckCache cache = new HealthCheckCache(600, () -> 0);
+        HealthCheckPlan.Check os = new HealthCheckPlan()
+                .add(HealthCheckPlan.Kind.OPERATING_SYSTEM, "WINDOWS", "wrong os")
+                .getChecks().get(0);
+
+        cache.passed(null, "5.6", os);
+        assertFalse(cache.isPassed(null, "5.6", os));
+        assertEquals(0, cache.size());
+    }
+}
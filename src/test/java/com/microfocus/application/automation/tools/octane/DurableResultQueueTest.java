@@ -0,0 +1,239 @@
+/*
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import net.sf.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+public class DurableResultQueueTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File queueFile;
+	private TestQueue queue;
+
+	@Before
+	public void setUp() throws IOException {
+		queueFile = new File(tmp.getRoot(), "queue.journal");
+		queue = open();
+	}
+
+	@After
+	public void tearDown() {
+		queue.close();
+	}
+
+	@Test
+	public void testTakeCompleteInOrder() {
+		queue.add("job1", 1);
+		queue.add("job2", "type", 2);
+		queue.add("instance", "job3", 3, "ws");
+
+		ResultQueue.QueueItem item1 = queue.take();
+		ResultQueue.QueueItem item2 = queue.take();
+		ResultQueue.QueueItem item3 = queue.take();
+		assertNull(queue.take());
+		assertEquals("job1", item1.getProjectName());
+		assertEquals("type", item2.getType());
+		assertEquals("instance", item3.getInstanceId());
+		assertEquals("ws", item3.getWorkspace());
+
+		queue.complete(item2);
+		queue.complete(item1);
+		queue.complete(item3);
+		assertEquals(0, queue.size());
+	}
+
+	@Test
+	public void testFailedItemDoesNotBlockOthers() {
+		queue.add("job1", 1);
+		queue.add("job2", 1);
+
+		ResultQueue.QueueItem failing = queue.take();
+		assertTrue(queue.retry(failing));
+		assertEquals(1, failing.getFailCount());
+
+		ResultQueue.QueueItem next = queue.take();
+		assertEquals("job2", next.getProjectName());
+		queue.complete(next);
+		assertNull("failed item is in backoff", queue.take());
+
+		queue.time += 1000;
+		assertSame(failing, queue.take());
+	}
+
+	@Test
+	public void testExponentialBackoffAndDeadLetter() {
+		queue.add("job1", 1);
+
+		long[] expectedBackoffs = {1000, 2000, 4000};
+		for (long backoff : expectedBackoffs) {
+			ResultQueue.QueueItem item = queue.take();
+			assertTrue(queue.retry(item));
+			queue.time += backoff - 1;
+			assertNull(queue.take());
+			queue.time += 1;
+		}
+
+		ResultQueue.QueueItem item = queue.take();
+		assertFalse(queue.retry(item));
+		assertEquals(0, queue.size());
+		assertEquals(1, queue.getDeadLetters().size());
+		queue.time += 100000;
+		assertNull(queue.take());
+
+		assertEquals(1, queue.requeueDeadLetters());
+		assertEquals(0, queue.take().getFailCount());
+	}
+
+	@Test
+	public void testBuildsOfSameProjectAreTakenInOrder() {
+		queue.add("job1", 1);
+		queue.add("job1", 2);
+		queue.add("job2", 1);
+
+		ResultQueue.QueueItem first = queue.take();
+		ResultQueue.QueueItem other = queue.take();
+		assertEquals("job2", other.getProjectName());
+		assertNull("second build waits for the first one", queue.take());
+
+		queue.retry(first);
+		queue.time += 1000;
+		assertSame(first, queue.take());
+		queue.complete(first);
+		assertEquals(2, queue.take().getBuildNumber());
+	}
+
+	@Test
+	public void testReplay() throws IOException {
+		queue.add("job1", 1);
+		queue.add("job2", 2);
+		queue.add("job3", 3);
+		queue.complete(queue.take());
+		ResultQueue.QueueItem retried = queue.take();
+		queue.retry(retried);
+		queue.take();
+		queue.close();
+
+		queue = open();
+		assertEquals(2, queue.size());
+		assertEquals("item taken before restart is available again", "job3", queue.take().getProjectName());
+		queue.time += 1000;
+		ResultQueue.QueueItem replayed = queue.take();
+		assertEquals("job2", replayed.getProjectName());
+		assertEquals(1, replayed.getFailCount());
+	}
+
+	@Test
+	public void testReplayIgnoresTornRecord() throws IOException {
+		queue.add("job1", 1);
+		queue.add("job2", 2);
+		queue.close();
+		try (RandomAccessFile file = new RandomAccessFile(queueFile, "rw")) {
+			file.setLength(file.length() - 3);
+		}
+
+		queue = open();
+		assertEquals(1, queue.size());
+		assertEquals("job1", queue.take().getProjectName());
+		queue.add("job3", 3);
+		queue.close();
+
+		queue = open();
+		assertEquals(2, queue.size());
+	}
+
+	@Test
+	public void testJournalIsCompacted() throws IOException {
+		for (int i = 0; i < 5000; i++) {
+			queue.add("job", i);
+			queue.complete(queue.take());
+		}
+		queue.add("job", 5000);
+		assertTrue(queueFile.length() < 100000);
+		queue.close();
+
+		queue = open();
+		assertEquals(1, queue.size());
+		assertEquals(5000, queue.take().getBuildNumber());
+	}
+
+	@Test
+	public void testSingleConsumerApi() {
+		queue.add("job1", 1);
+		assertSame(queue.peekFirst(), queue.peekFirst());
+		assertTrue(queue.failed());
+		assertNull(queue.peekFirst());
+		queue.time += 1000;
+		assertEquals(1, queue.peekFirst().getFailCount());
+		queue.remove();
+		assertNull(queue.peekFirst());
+	}
+
+	@Test
+	public void testStatus() {
+		queue.add("job1", 1);
+		queue.add("job2", 2);
+		queue.add("job3", 3);
+		queue.time += 500;
+		queue.complete(queue.take());
+		queue.retry(queue.take());
+		queue.take();
+
+		JSONObject status = queue.getStatus();
+		assertEquals(2, status.getInt("depth"));
+		assertEquals(0, status.getInt("ready"));
+		assertEquals(1, status.getInt("inBackoff"));
+		assertEquals(1, status.getInt("inProgress"));
+		assertEquals(500, status.getLong("oldestItemAgeMs"));
+		assertEquals(1, status.getInt("completedLastMinute"));
+	}
+
+	private TestQueue open() throws IOException {
+		TestQueue result = new TestQueue();
+		result.init(queueFile);
+		return result;
+	}
+
+	private static class TestQueue extends DurableResultQueue {
+		private long time = 1000000;
+
+		private TestQueue() {
+			super(3, 1000, 60000);
+		}
+
+		@Override
+		protected long now() {
+			return time;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ *     Copyright 2017 Hewlett-Packard Development Company, L.P.
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+
+package com.microfocus.application.automation.tools.octane.actions;
+
+import hudson.FilePath;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class ResultFileTransferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCopy() throws Exception {
+        byte[] content = new byte[300 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i % 251);
+        }
+        File source = folder.newFile("lcov.info");
+        Files.write(source.toPath(), content);
+        File target = new File(folder.getRoot(), "coverage_report0-lcov.info");
+
+        ResultFileTransfer.Copy copy = ResultFileTransfer.copy(new FilePath(source), target);
+
+        assertEquals(content.length, copy.getBytes());
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void testReadPrefix() throws Exception {
+        File source = folder.newFile("OctaneGherkinResults.xml");
+        Files.write(source.toPath(), "<features><feature/></features>".getBytes("UTF-8"));
+
+        assertEquals("<features>", new String(ResultFileTransfer.readPrefix(new FilePath(source), 10), "UTF-8"));
+        assertEquals("<features><feature/></features>", new String(ResultFileTransfer.readPrefix(new FilePath(source), 2000), "UTF-8"));
+    }
+
+    @Test
+    public void testFailedCopyLeavesNoTarget() throws Exception {
+        File target = new File(folder.getRoot(), "jacoco.xml");
+
+        try {
+            ResultFileTransfer.copy(new FilePath(new File(folder.getRoot(), "missing.xml")), target);
+            fail("copy of a missing file must fail");
+        } catch (IOException expected) {
+            assertFalse(target.exists());
+        }
+    }
+}
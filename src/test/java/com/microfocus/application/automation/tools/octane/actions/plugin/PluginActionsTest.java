@@ -34,6 +34,7 @@ import com.microfocus.application.automation.tools.octane.configuration.Configur
 import com.microfocus.application.automation.tools.octane.tests.TestUtils;
 import hudson.model.*;
 import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
 import org.junit.Test;
 import org.xml.sax.SAXException;
 
@@ -80,6 +81,17 @@ public class PluginActionsTest extends OctanePluginTestBase {
 		assertEquals(ConfigurationService.getPluginVersion(), status.getPlugin().getVersion());
 	}
 
+	@Test
+	public void testPluginActions_REST_Metrics() throws IOException, SAXException {
+		Page page = client.goTo("nga/api/v1/metrics", "application/json");
+		JSONObject metrics = JSONObject.fromObject(page.getWebResponse().getContentAsString());
+
+		assertTrue(metrics.containsKey("testResultsProcessing"));
+		JSONObject testResultsProcessing = metrics.getJSONObject("testResultsProcessing");
+		assertTrue(testResultsProcessing.getInt("poolSize") > 0);
+		assertEquals(0, testResultsProcessing.getInt("failed"));
+	}
+
 	@Test
 	public void testPluginActions_REST_Jobs_NoParams() throws IOException, SAXException {
 		String projectName = "root-job-" + UUID.randomUUID().toString();
@@ -0,0 +1,121 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+package com.microfocus.application.automation.tools.octane.buildLogs;
+
+import hudson.console.HyperlinkNote;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PlainTextLogInputStreamTest {
+	private static final int LINES = 200000;
+
+	private static byte[] annotatedLog;
+	private static byte[] plainLog;
+
+	@BeforeClass
+	public static void generateLog() throws IOException {
+		ByteArrayOutputStream annotated = new ByteArrayOutputStream();
+		ByteArrayOutputStream plain = new ByteArrayOutputStream();
+		for (int i = 0; i < LINES; i++) {
+			String text = "step " + i + " of the load test, vusers running: " + (i % 500);
+			String link = "results/" + i;
+			String annotatedLine;
+			String plainLine;
+			if (i % 3 == 0) {
+				annotatedLine = text + " see " + HyperlinkNote.encodeTo("/job/lr/" + i, link);
+				plainLine = text + " see " + link;
+			} else {
+				annotatedLine = plainLine = text;
+			}
+			// the log of a build doesn't necessarily end with a new line
+			String eol = i == LINES - 1 ? "" : (i % 7 == 0 ? "\r\n" : "\n");
+			annotated.write((annotatedLine + eol).getBytes(StandardCharsets.UTF_8));
+			plain.write((plainLine + eol).getBytes(StandardCharsets.UTF_8));
+		}
+		annotatedLog = annotated.toByteArray();
+		plainLog = plain.toByteArray();
+		assertTrue(annotatedLog.length > plainLog.length);
+	}
+
+	@Test
+	public void testStripsAnnotations() throws IOException {
+		try (InputStream in = new PlainTextLogInputStream(new ByteArrayInputStream(annotatedLog))) {
+			assertArrayEquals(plainLog, readAll(in, 8192));
+		}
+	}
+
+	@Test
+	public void testSingleByteReads() throws IOException {
+		try (InputStream in = new PlainTextLogInputStream(new ByteArrayInputStream(annotatedLog))) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			int b;
+			while ((b = in.read()) != -1) {
+				out.write(b);
+			}
+			assertArrayEquals(plainLog, out.toByteArray());
+		}
+	}
+
+	@Test
+	public void testSkipCountsPlainTextBytes() throws IOException {
+		for (int offset : new int[]{0, 1, 65535, 65536, plainLog.length / 2, plainLog.length - 1, plainLog.length}) {
+			try (InputStream in = new PlainTextLogInputStream(new ByteArrayInputStream(annotatedLog))) {
+				assertEquals(offset, in.skip(offset));
+				assertArrayEquals("tail from " + offset, Arrays.copyOfRange(plainLog, offset, plainLog.length), readAll(in, 1000));
+			}
+		}
+	}
+
+	@Test
+	public void testSkipBeyondEnd() throws IOException {
+		try (InputStream in = new PlainTextLogInputStream(new ByteArrayInputStream(annotatedLog))) {
+			assertEquals(plainLog.length, in.skip(plainLog.length + 100L));
+			assertEquals(-1, in.read());
+		}
+	}
+
+	@Test
+	public void testEmptyLog() throws IOException {
+		try (InputStream in = new PlainTextLogInputStream(new ByteArrayInputStream(new byte[0]))) {
+			assertEquals(-1, in.read());
+		}
+	}
+
+	private static byte[] readAll(InputStream in, int bufferSize) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[bufferSize];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+package com.microfocus.application.automation.tools.octane.configuration;
+
+import com.hp.octane.integrations.dto.entities.Entity;
+import com.hp.octane.integrations.dto.entities.ResponseEntityList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OctaneLookupCacheTest {
+	private final AtomicLong now = new AtomicLong(1000);
+	private final OctaneLookupCache cache = new OctaneLookupCache(60000, 2, now::get);
+	private final AtomicInteger prefetches = new AtomicInteger();
+	private final AtomicInteger serverSearches = new AtomicInteger();
+
+	@Test
+	public void testSearchFiltersPrefetchedListLocally() {
+		List<Entity> releases = entities("Release 2", "release 10", "Sprint 1", "Release 1");
+
+		OctaneLookupCache.SearchResult found = search("releases", "RELEASE", 2, releases);
+		assertEquals(Arrays.asList("Release 1", "release 10"), names(found.getData()));
+		assertEquals(3, found.getTotalCount());
+
+		found = search("releases", "", 10, releases);
+		assertEquals(Arrays.asList("Release 1", "release 10", "Release 2", "Sprint 1"), names(found.getData()));
+		assertEquals(4, found.getTotalCount());
+
+		assertEquals(0, search("releases", "hotfix", 10, releases).getTotalCount());
+		assertEquals(1, prefetches.get());
+		assertEquals(0, serverSearches.get());
+	}
+
+	@Test
+	public void testEntriesExpire() {
+		List<Entity> workspaces = entities("default_workspace");
+		search("workspaces", "def", 5, workspaces);
+		now.addAndGet(59999);
+		search("workspaces", "def", 5, workspaces);
+		assertEquals(1, prefetches.get());
+
+		now.addAndGet(1);
+		search("workspaces", "def", 5, workspaces);
+		assertEquals(2, prefetches.get());
+	}
+
+	@Test
+	public void testLargeCollectionsSearchedOnServer() {
+		List<Entity> prefetched = entities("a", "b");
+		OctaneLookupCache.Query prefetch = limit -> {
+			prefetches.incrementAndGet();
+			return response(prefetched, OctaneLookupCache.PREFETCH_LIMIT + 1);
+		};
+		OctaneLookupCache.Query serverSearch = limit -> {
+			serverSearches.incrementAndGet();
+			return response(entities("b"), 1);
+		};
+
+		for (int i = 0; i < 3; i++) {
+			OctaneLookupCache.SearchResult found = cache.search("instance", 1002L, "list_nodes:list_node.test_level", "b", 10, entity -> Collections.singletonList(entity.getName()), prefetch, serverSearch);
+			assertEquals(Collections.singletonList("b"), names(found.getData()));
+		}
+		assertEquals(1, prefetches.get());
+		assertEquals(3, serverSearches.get());
+	}
+
+	@Test
+	public void testInvalidateAndEviction() {
+		List<Entity> releases = entities("Release 1");
+		search("releases", "", 5, releases);
+		search("taxonomy_nodes", "", 5, releases);
+		cache.invalidate("instance", 1002L);
+		search("releases", "", 5, releases);
+		assertEquals(3, prefetches.get());
+
+		search("taxonomy_nodes", "", 5, releases);
+		search("workspaces", "", 5, releases);
+		assertEquals(1, cache.getStatus().getLong("evictions"));
+		assertEquals(2, cache.getStatus().getInt("entries"));
+	}
+
+	@Test
+	public void testGetList() {
+		AtomicInteger queries = new AtomicInteger();
+		List<Entity> fields = entities("test_level", "test_type");
+		for (int i = 0; i < 3; i++) {
+			assertEquals(Arrays.asList("test_level", "test_type"), names(cache.getList("instance", 1002L, "metadata/fields:pipeline_node", () -> {
+				queries.incrementAndGet();
+				return fields;
+			})));
+		}
+		assertEquals(1, queries.get());
+		assertEquals(2, cache.getStatus().getLong("hits"));
+		assertEquals(1, cache.getStatus().getLong("misses"));
+	}
+
+	private OctaneLookupCache.SearchResult search(String type, String term, int limit, List<Entity> all) {
+		Long workspaceId = "workspaces".equals(type) ? null : 1002L;
+		return cache.search("instance", workspaceId, type, term, limit, entity -> Collections.singletonList(entity.getName()),
+				prefetchLimit -> {
+					prefetches.incrementAndGet();
+					return response(all, all.size());
+				},
+				searchLimit -> {
+					serverSearches.incrementAndGet();
+					return response(all, all.size());
+				});
+	}
+
+	private static ResponseEntityList response(List<Entity> data, int totalCount) {
+		ResponseEntityList response = mock(ResponseEntityList.class);
+		when(response.getData()).thenReturn(data);
+		when(response.getTotalCount()).thenReturn(totalCount);
+		return response;
+	}
+
+	private static List<Entity> entities(String... names) {
+		List<Entity> ret = new ArrayList<>();
+		for (String name : names) {
+			Entity entity = mock(Entity.class);
+			when(entity.getName()).thenReturn(name);
+			ret.add(entity);
+		}
+		return ret;
+	}
+
+	private static List<String> names(List<Entity> entities) {
+		List<String> ret = new ArrayList<>();
+		for (Entity entity : entities) {
+			ret.add(entity.getName());
+		}
+		return ret;
+	}
+}
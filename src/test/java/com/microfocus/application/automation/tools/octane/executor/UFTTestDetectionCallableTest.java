@@ -0,0 +1,150 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.octane.executor;
+
+import com.hp.octane.integrations.uft.items.AutomatedTest;
+import com.hp.octane.integrations.uft.items.OctaneStatus;
+import com.hp.octane.integrations.uft.items.ScmResourceFile;
+import com.hp.octane.integrations.uft.items.UftTestDiscoveryResult;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class UFTTestDetectionCallableTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testFullDiscoverySkipsOnlyScmFolders() throws Exception {
+        File workspace = tmp.newFolder("workspace");
+        createTest(workspace, "b/Checkout");
+        createTest(workspace, "a/Login");
+        createTest(workspace, ".settings/tests/Login");
+        createTest(workspace, ".git/tests/Ignored");
+        createTest(workspace, ".svn/Ignored");
+        createFile(workspace, "a/data.xlsx");
+        createFile(workspace, "a/Login/inner.xlsx");
+        createFile(workspace, ".git/ignored.xlsx");
+
+        UFTTestDetectionCallable.Output output = new UFTTestDetectionCallable(null, 4).invoke(workspace, null);
+        UftTestDiscoveryResult result = read(output);
+
+        assertEquals(Arrays.asList("Login", "Login", "Checkout"), testNames(result.getAllTests()));
+        assertTrue(result.getAllTests().get(0).getPackage().startsWith(".settings"));
+        assertEquals(1, result.getAllScmResourceFiles().size());
+        assertTrue(result.getAllScmResourceFiles().get(0).getRelativePath().endsWith("data.xlsx"));
+        assertTrue(output.getScannedFolders() > 0);
+    }
+
+    @Test
+    public void testFullDiscoveryOrderIsStable() throws Exception {
+        File workspace = tmp.newFolder("workspace");
+        for (int i = 0; i < 20; i++) {
+            createTest(workspace, "folder" + (i % 4) + "/Test" + i);
+            createFile(workspace, "folder" + (i % 4) + "/table" + i + ".xlsx");
+        }
+
+        UftTestDiscoveryResult first = read(new UFTTestDetectionCallable(null, 4).invoke(workspace, null));
+        for (int i = 0; i < 5; i++) {
+            UftTestDiscoveryResult next = read(new UFTTestDetectionCallable(null, 4).invoke(workspace, null));
+            assertEquals(testPaths(first.getAllTests()), testPaths(next.getAllTests()));
+            assertEquals(resourcePaths(first.getAllScmResourceFiles()), resourcePaths(next.getAllScmResourceFiles()));
+        }
+        assertEquals(20, first.getAllTests().size());
+        assertEquals(20, first.getAllScmResourceFiles().size());
+    }
+
+    @Test
+    public void testChangeSetDetection() throws Exception {
+        File workspace = tmp.newFolder("workspace");
+        createTest(workspace, "a/Added");
+        createTest(workspace, "a/Edited");
+        createFile(workspace, "a/data.xlsx");
+
+        List<UFTTestDetectionCallable.AffectedPath> affectedPaths = Arrays.asList(
+                new UFTTestDetectionCallable.AffectedPath("a/Added/Test.st", UFTTestDetectionCallable.AffectedPath.EditType.ADD, false, null, null),
+                new UFTTestDetectionCallable.AffectedPath("a/Edited/Test.st", UFTTestDetectionCallable.AffectedPath.EditType.EDIT, false, null, null),
+                new UFTTestDetectionCallable.AffectedPath("a/Missing/Test.st", UFTTestDetectionCallable.AffectedPath.EditType.EDIT, false, null, null),
+                new UFTTestDetectionCallable.AffectedPath("b/Removed/Test.st", UFTTestDetectionCallable.AffectedPath.EditType.DELETE, false, null, null),
+                new UFTTestDetectionCallable.AffectedPath("a/data.xlsx", UFTTestDetectionCallable.AffectedPath.EditType.ADD, false, null, null),
+                new UFTTestDetectionCallable.AffectedPath("old", UFTTestDetectionCallable.AffectedPath.EditType.DELETE, true, null, null));
+
+        UFTTestDetectionCallable.Output output = new UFTTestDetectionCallable(affectedPaths, 0).invoke(workspace, null);
+        UftTestDiscoveryResult result = read(output);
+
+        assertEquals(Arrays.asList("Added", "Edited", "Removed"), testNames(result.getAllTests()));
+        assertEquals(OctaneStatus.MODIFIED, result.getAllTests().get(1).getOctaneStatus());
+        assertEquals(OctaneStatus.DELETED, result.getAllTests().get(2).getOctaneStatus());
+        assertEquals(1, result.getAllScmResourceFiles().size());
+        assertEquals(Arrays.asList("old"), result.getDeletedFolders());
+        assertEquals(0, output.getScannedFolders());
+    }
+
+    private static void createTest(File workspace, String path) throws IOException {
+        createFile(workspace, path + "/Test.st");
+    }
+
+    private static void createFile(File workspace, String path) throws IOException {
+        FileUtils.writeStringToFile(new File(workspace, path), "");
+    }
+
+    private UftTestDiscoveryResult read(UFTTestDetectionCallable.Output output) throws Exception {
+        File resultFile = tmp.newFile();
+        FileUtils.writeByteArrayToFile(resultFile, output.getResult());
+        return UftTestDiscoveryResult.readFromFile(resultFile);
+    }
+
+    private static List<String> testNames(List<AutomatedTest> tests) {
+        List<String> names = new ArrayList<>();
+        for (AutomatedTest test : tests) {
+            names.add(test.getName());
+        }
+        return names;
+    }
+
+    private static List<String> testPaths(List<AutomatedTest> tests) {
+        List<String> paths = new ArrayList<>();
+        for (AutomatedTest test : tests) {
+            paths.add(test.getPackage() + "/" + test.getName());
+        }
+        return paths;
+    }
+
+    private static List<String> resourcePaths(List<ScmResourceFile> resourceFiles) {
+        List<String> paths = new ArrayList<>();
+        for (ScmResourceFile resourceFile : resourceFiles) {
+            paths.add(resourceFile.getRelativePath());
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+package com.microfocus.application.automation.tools.octane.executor;
+
+import com.microfocus.application.automation.tools.octane.OctanePluginTestBase;
+import hudson.XmlFile;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.StringParameterDefinition;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class UftJobRegistryTest extends OctanePluginTestBase {
+
+    @Test
+    public void testLastRunIsRecordedAndPersisted() throws Exception {
+        XmlFile file = new XmlFile(new File(rule.jenkins.getRootDir(), UUID.randomUUID().toString() + ".xml"));
+        UftJobRegistry registry = UftJobRegistry.load(file);
+        FreeStyleProject job = createExecutionJob();
+        registry.register(job, UftJobRegistry.Kind.EXECUTION);
+        assertEquals(0, registry.getRecord(job.getFullName()).getLastRun());
+
+        FreeStyleBuild build = rule.buildAndAssertSuccess(job);
+        registry.recordRun(build);
+
+        UftJobRegistry reloaded = UftJobRegistry.load(file);
+        assertEquals(UftJobRegistry.Kind.EXECUTION, reloaded.getRecord(job.getFullName()).getKind());
+        assertEquals(build.getTimeInMillis(), reloaded.getRecord(job.getFullName()).getLastRun());
+        assertEquals(Collections.singletonList(job.getFullName()), reloaded.getJobsNotRunSince(UftJobRegistry.Kind.EXECUTION, build.getTimeInMillis() + 1));
+        assertTrue(reloaded.getJobsNotRunSince(UftJobRegistry.Kind.EXECUTION, build.getTimeInMillis()).isEmpty());
+        assertTrue(reloaded.getJobs(UftJobRegistry.Kind.DISCOVERY).isEmpty());
+    }
+
+    @Test
+    public void testCleanerDeletesOnlyOutdatedJobs() throws Exception {
+        UftJobRegistry registry = UftJobRegistry.load(new XmlFile(new File(rule.jenkins.getRootDir(), UUID.randomUUID().toString() + ".xml")));
+        FreeStyleProject outdated = createExecutionJob();
+        FreeStyleProject neverRun = createExecutionJob();
+        registry.register(outdated, UftJobRegistry.Kind.EXECUTION);
+        registry.register(neverRun, UftJobRegistry.Kind.EXECUTION);
+        FreeStyleBuild build = rule.buildAndAssertSuccess(outdated);
+        registry.recordRun(build);
+        UftJobCleaner cleaner = new UftJobCleaner();
+
+        cleaner.clearExecutionJobs(registry, build.getTimeInMillis(), false);
+        assertNotNull(rule.jenkins.getItem(outdated.getName()));
+
+        cleaner.clearExecutionJobs(registry, build.getTimeInMillis() + 1, true);
+        assertNotNull(rule.jenkins.getItem(outdated.getName()));
+
+        cleaner.clearExecutionJobs(registry, build.getTimeInMillis() + 1, false);
+        assertNull(rule.jenkins.getItem(outdated.getName()));
+        assertNotNull(rule.jenkins.getItem(neverRun.getName()));
+    }
+
+    private static FreeStyleProject createExecutionJob() throws Exception {
+        FreeStyleProject job = rule.createFreeStyleProject(UftConstants.EXECUTION_JOB_MIDDLE_NAME + " " + UUID.randomUUID().toString());
+        job.addProperty(new ParametersDefinitionProperty(new StringParameterDefinition(UftConstants.SUITE_ID_PARAMETER_NAME, "1", "")));
+        return job;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import com.hp.octane.integrations.dto.causes.CIEventCause;
+import com.microfocus.application.automation.tools.octane.OctanePluginTestBase;
+import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.graphanalysis.DepthFirstScanner;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmarks the memoized causes resolution against the plain one on a pipeline of ~2k flow nodes
+ */
+public class CIEventCausesFactoryTest extends OctanePluginTestBase {
+	private static final int BRANCHES = 300;
+
+	@Test
+	public void testMemoizedCausesOfLargeGraph() throws Exception {
+		WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "causes-" + UUID.randomUUID().toString());
+		job.setDefinition(new CpsFlowDefinition("" +
+				"def branches = [:]\n" +
+				"for (int i = 0; i < " + BRANCHES + "; i++) {\n" +
+				"  def n = i\n" +
+				"  branches['b' + n] = { stage('stage-' + n) { echo 'in ' + n } }\n" +
+				"}\n" +
+				"stage('prepare') { echo 'prepare' }\n" +
+				"parallel branches\n" +
+				"stage('report') { echo 'done' }", true));
+		WorkflowRun run = rule.buildAndAssertSuccess(job);
+
+		List<FlowNode> nodes = new ArrayList<>(new DepthFirstScanner().allNodes(run.getExecution()));
+		nodes.sort(Comparator.comparingInt(node -> Integer.parseInt(node.getId())));
+		List<FlowNode> stageNodes = new ArrayList<>();
+		for (FlowNode node : nodes) {
+			if (BuildHandlerUtils.isStageStartNode(node) || BuildHandlerUtils.isStageEndNode(node)) {
+				stageNodes.add(node);
+			}
+		}
+		assertTrue("graph too small: " + nodes.size(), nodes.size() >= 2000);
+		assertEquals(2 * (BRANCHES + 2), stageNodes.size());
+
+		//  stage events come in the order of the graph growth
+		long start = System.nanoTime();
+		List<String> plain = new ArrayList<>();
+		for (FlowNode node : stageNodes) {
+			plain.add(describe(CIEventCausesFactory.processCauses(node, null)));
+		}
+		long plainNanos = System.nanoTime() - start;
+
+		FlowCausesCache cache = new FlowCausesCache();
+		start = System.nanoTime();
+		List<String> memoized = new ArrayList<>();
+		for (FlowNode node : stageNodes) {
+			memoized.add(describe(CIEventCausesFactory.processCauses(node, cache)));
+		}
+		long memoizedNanos = System.nanoTime() - start;
+
+		assertEquals(plain, memoized);
+		assertTrue(cache.size() > 0);
+
+		//  memoized causes are handed out as copies, an event never shares them with another one
+		FlowNode lastStageNode = stageNodes.get(stageNodes.size() - 1);
+		List<CIEventCause> first = CIEventCausesFactory.processCauses(lastStageNode, cache);
+		List<CIEventCause> second = CIEventCausesFactory.processCauses(lastStageNode, cache);
+		assertEquals(describe(first), describe(second));
+		assertNotSame(first.get(0), second.get(0));
+		cache.drop();
+		assertEquals(0, cache.size());
+		System.out.println(String.format("causes of %d stage nodes in a graph of %d nodes: plain %d ms, memoized %d ms",
+				stageNodes.size(), nodes.size(), plainNanos / 1000000, memoizedNanos / 1000000));
+	}
+
+	private static String describe(List<CIEventCause> causes) {
+		StringBuilder result = new StringBuilder("[");
+		for (CIEventCause cause : causes) {
+			result.append(cause.getType()).append(':').append(cause.getProject()).append('#').append(cause.getBuildCiId())
+					.append(describe(cause.getCauses()));
+		}
+		return result.append(']').toString();
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import com.microfocus.application.automation.tools.octane.OctanePluginTestBase;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.tasks.BuildTrigger;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class DownstreamRunsActionTest extends OctanePluginTestBase {
+
+	@Test
+	public void testDownstreamRunIsRecordedWhenStarted() throws Exception {
+		String prefix = UUID.randomUUID().toString();
+		FreeStyleProject upstream = rule.createFreeStyleProject(prefix + "-upstream");
+		FreeStyleProject downstream = rule.createFreeStyleProject(prefix + "-downstream");
+		FreeStyleProject other = rule.createFreeStyleProject(prefix + "-other");
+		upstream.getPublishersList().add(new BuildTrigger(downstream.getName(), Result.SUCCESS));
+		rule.jenkins.rebuildDependencyGraph();
+
+		FreeStyleBuild upstreamBuild = rule.buildAndAssertSuccess(upstream);
+		rule.waitUntilNoActivity();
+		FreeStyleBuild downstreamBuild = downstream.getLastBuild();
+		assertNotNull(downstreamBuild);
+
+		assertEquals(Collections.singletonList(downstreamBuild), DownstreamRunsAction.getDownstreamRuns(upstreamBuild, downstream));
+		assertEquals(Collections.emptyList(), DownstreamRunsAction.getDownstreamRuns(upstreamBuild, other));
+		assertEquals(Collections.emptyList(), DownstreamRunsAction.getDownstreamRuns(downstreamBuild, upstream));
+	}
+
+	@Test
+	public void testRunStartedWithoutIndexIsRemembered() throws Exception {
+		String prefix = UUID.randomUUID().toString();
+		FreeStyleProject upstream = rule.createFreeStyleProject(prefix + "-upstream");
+		FreeStyleProject downstream = rule.createFreeStyleProject(prefix + "-downstream");
+		FreeStyleBuild upstreamBuild = rule.buildAndAssertSuccess(upstream);
+		FreeStyleBuild downstreamBuild = rule.buildAndAssertSuccess(downstream);
+
+		// as if the run started before the index existed
+		upstreamBuild.getActions().removeIf(action -> action instanceof DownstreamRunsAction);
+		assertNull(DownstreamRunsAction.getDownstreamRuns(upstreamBuild, downstream));
+
+		DownstreamRunsAction.remember(upstreamBuild, downstream, Collections.<Run>singletonList(downstreamBuild));
+		List<Run> remembered = DownstreamRunsAction.getDownstreamRuns(upstreamBuild, downstream);
+		assertEquals(Collections.singletonList(downstreamBuild), remembered);
+		assertNull(DownstreamRunsAction.getDownstreamRuns(upstreamBuild, upstream));
+	}
+
+	@Test
+	public void testParallelDownstreamRunsAreAllRecorded() throws Exception {
+		int count = 20;
+		String prefix = UUID.randomUUID().toString();
+		FreeStyleProject upstream = rule.createFreeStyleProject(prefix + "-upstream");
+		List<FreeStyleProject> downstreams = new ArrayList<>();
+		List<String> downstreamNames = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			FreeStyleProject downstream = rule.createFreeStyleProject(prefix + "-downstream-" + i);
+			downstreams.add(downstream);
+			downstreamNames.add(downstream.getName());
+		}
+		upstream.getPublishersList().add(new BuildTrigger(String.join(",", downstreamNames), Result.SUCCESS));
+		rule.jenkins.setNumExecutors(count);
+		rule.jenkins.rebuildDependencyGraph();
+
+		FreeStyleBuild upstreamBuild = rule.buildAndAssertSuccess(upstream);
+		rule.waitUntilNoActivity();
+
+		String buildXml = FileUtils.readFileToString(new File(upstreamBuild.getRootDir(), "build.xml"), StandardCharsets.UTF_8);
+		for (FreeStyleProject downstream : downstreams) {
+			FreeStyleBuild downstreamBuild = downstream.getLastBuild();
+			assertNotNull(downstreamBuild);
+			assertEquals(Collections.singletonList(downstreamBuild), DownstreamRunsAction.getDownstreamRuns(upstreamBuild, downstream));
+			assertTrue(downstream.getFullName() + " is not saved", buildXml.contains(downstream.getFullName()));
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import com.cloudbees.hudson.plugins.folder.Folder;
+import com.microfocus.application.automation.tools.octane.OctanePluginTestBase;
+import hudson.model.FreeStyleProject;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that the jobs list index, updated by item events, stays equal to a full scan
+ */
+public class JobsListIndexTest extends OctanePluginTestBase {
+	private final JobsListIndex index = JobsListIndex.getInstance();
+
+	@Before
+	public void buildIndex() {
+		index.invalidate();
+		index.getEntries();
+	}
+
+	@Test
+	public void testIndexFollowsItemEvents() throws Exception {
+		String prefix = UUID.randomUUID().toString();
+		FreeStyleProject freeStyle = rule.createFreeStyleProject(prefix + "-freestyle");
+		rule.jenkins.createProject(WorkflowJob.class, prefix + "-pipeline");
+		Folder folder = rule.jenkins.createProject(Folder.class, prefix + "-folder");
+		FreeStyleProject inFolder = folder.createProject(FreeStyleProject.class, "in-folder");
+		Folder nested = folder.createProject(Folder.class, "nested");
+		nested.createProject(FreeStyleProject.class, "in-nested");
+		assertConsistent();
+		assertNotNull(find(prefix + "-freestyle"));
+		assertNotNull(find("in-nested"));
+
+		freeStyle.renameTo(prefix + "-renamed");
+		inFolder.renameTo("in-folder-renamed");
+		assertConsistent();
+		assertNull(find(prefix + "-freestyle"));
+		assertNotNull(find(prefix + "-renamed"));
+		assertNotNull(find("in-folder-renamed"));
+
+		rule.jenkins.copy(freeStyle, prefix + "-copy");
+		nested.delete();
+		assertConsistent();
+		assertNotNull(find(prefix + "-copy"));
+		assertNull(find("in-nested"));
+
+		folder.delete();
+		assertConsistent();
+		assertNull(find("in-folder-renamed"));
+	}
+
+	@Test
+	public void testFilterAndPaging() throws Exception {
+		String prefix = UUID.randomUUID().toString();
+		for (int i = 0; i < 5; i++) {
+			rule.createFreeStyleProject(prefix + "-paged-" + i);
+		}
+		FreeStyleProject disabled = rule.createFreeStyleProject(prefix + "-paged-disabled");
+		disabled.disable();
+
+		List<JobsListIndex.VisibleEntry> all = index.getVisibleEntries(prefix.toUpperCase() + "-PAGED", 0, Integer.MAX_VALUE);
+		assertEquals(5, all.size());
+		for (JobsListIndex.VisibleEntry entry : all) {
+			assertNotNull(entry.getJob());
+			assertNotEquals(disabled, entry.getJob());
+		}
+
+		List<JobsListIndex.VisibleEntry> page = index.getVisibleEntries(prefix + "-paged", 2, 2);
+		assertEquals(2, page.size());
+		assertEquals(all.get(2).getEntry(), page.get(0).getEntry());
+		assertEquals(all.get(3).getEntry(), page.get(1).getEntry());
+		assertEquals(1, index.getVisibleEntries(prefix + "-paged", 4, 10).size());
+	}
+
+	private void assertConsistent() {
+		assertEquals(JobsListIndex.scan(), index.getEntries());
+	}
+
+	private JobsListIndex.Entry find(String name) {
+		for (JobsListIndex.Entry entry : index.getEntries()) {
+			if (name.equals(entry.getName())) {
+				return entry;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.octane.tests;
+
+import com.microfocus.application.automation.tools.octane.OctanePluginTestBase;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Run;
+import hudson.tasks.test.AbstractTestResultAction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class TestResultsProcessorTest extends OctanePluginTestBase {
+
+	@Rule
+	public final TemporaryFolder tmp = new TemporaryFolder();
+
+	private final Set<String> processingThreads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	private final CountDownLatch release = new CountDownLatch(1);
+	private TestListener testListener;
+	private TestResultsProcessingQueue journal;
+	private File journalFile;
+	private FreeStyleProject project;
+
+	@Before
+	public void setUp() throws Exception {
+		testListener = mock(TestListener.class);
+		when(testListener.processBuild(any(Run.class))).thenAnswer(invocation -> {
+			processingThreads.add(Thread.currentThread().getName());
+			assertTrue(release.await(60, TimeUnit.SECONDS));
+			return false;
+		});
+		journalFile = tmp.newFile();
+		journalFile.delete();
+		journal = new TestResultsProcessingQueue(journalFile);
+		project = rule.createFreeStyleProject("test-results-processor-" + UUID.randomUUID().toString());
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		journal.close();
+	}
+
+	@Test
+	public void testBuildWithoutTestResultsIsNotQueued() throws Exception {
+		TestResultsProcessor processor = createProcessor(1, 1);
+		FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+
+		assertFalse(processor.enqueue(build));
+		assertEquals(0, journal.size());
+	}
+
+	@Test
+	public void testQueuedBuildIsProcessedOnce() throws Exception {
+		release.countDown();
+		TestResultsProcessor processor = createProcessor(1, 10);
+		FreeStyleBuild build = buildWithTestResults();
+
+		assertTrue(processor.enqueue(build));
+		assertTrue(processor.enqueue(build));
+		assertTrue(processor.awaitIdle(60000));
+		verify(testListener, times(1)).processBuild(build);
+		assertTrue(new File(build.getRootDir(), TestResultsProcessor.TEST_RESULT_PROCESSED_MARKER).exists());
+		assertEquals(0, journal.size());
+
+		//  processed marker prevents reporting the build twice
+		assertTrue(processor.enqueue(build));
+		assertTrue(processor.awaitIdle(60000));
+		verify(testListener, times(1)).processBuild(build);
+		assertEquals(1, processor.getStatus().getInt("processed"));
+	}
+
+	@Test
+	public void testJournalIsReplayed() throws Exception {
+		release.countDown();
+		FreeStyleBuild first = buildWithTestResults();
+		FreeStyleBuild second = buildWithTestResults();
+		journal.add(project.getFullName(), first.getNumber());
+		journal.add(project.getFullName(), second.getNumber());
+		journal.add(project.getFullName(), second.getNumber());
+		journal.close();
+
+		journal = new TestResultsProcessingQueue(journalFile);
+		TestResultsProcessor processor = createProcessor(2, 10);
+		processor.recoverPendingBuilds();
+
+		assertTrue(processor.awaitIdle(60000));
+		verify(testListener, times(1)).processBuild(first);
+		verify(testListener, times(1)).processBuild(second);
+		assertEquals(0, journal.size());
+	}
+
+	@Test
+	public void testSaturatedQueueDefersBuildsToWorkers() throws Exception {
+		TestResultsProcessor processor = createProcessor(1, 1);
+		FreeStyleBuild first = buildWithTestResults();
+		FreeStyleBuild second = buildWithTestResults();
+		FreeStyleBuild third = buildWithTestResults();
+
+		//  first is taken by the worker, second fills the buffer, third is deferred - none of them blocks the caller
+		assertTrue(processor.enqueue(first));
+		assertTrue(processor.enqueue(second));
+		assertTrue(processor.enqueue(third));
+		assertEquals(1, processor.getStatus().getInt("deferred"));
+		assertEquals(1, processor.getStatus().getInt("deferredBuilds"));
+		assertEquals(3, journal.size());
+
+		release.countDown();
+		assertTrue(processor.awaitIdle(60000));
+		verify(testListener, times(1)).processBuild(first);
+		verify(testListener, times(1)).processBuild(second);
+		verify(testListener, times(1)).processBuild(third);
+		assertFalse(processingThreads.contains(Thread.currentThread().getName()));
+		assertEquals(0, processor.getStatus().getInt("deferredBuilds"));
+		assertEquals(0, journal.size());
+	}
+
+	private TestResultsProcessor createProcessor(int poolSize, int queueCapacity) {
+		TestResultsProcessor processor = new TestResultsProcessor(poolSize, queueCapacity);
+		processor.setTestListener(testListener);
+		processor.setJournal(journal);
+		return processor;
+	}
+
+	private FreeStyleBuild buildWithTestResults() throws Exception {
+		FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+		build.addAction(mock(AbstractTestResultAction.class));
+		return build;
+	}
+}
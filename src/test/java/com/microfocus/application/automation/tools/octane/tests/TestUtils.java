@@ -35,6 +35,7 @@ import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.Result;
 import hudson.util.Secret;
+import jenkins.model.Jenkins;
 import org.junit.Assert;
 
 import java.util.HashMap;
@@ -63,9 +64,18 @@ public class TestUtils {
 		if (!build.getResult().isBetterOrEqualTo(Result.UNSTABLE)) { // avoid expensive build.getLog() until condition is met
 			Assert.fail("Build status: " + build.getResult() + ", log follows:\n" + build.getLog());
 		}
+		waitForTestResultsProcessing();
 		return build;
 	}
 
+	/**
+	 * Test results of finished builds are processed asynchronously, wait for them before inspecting mqmTests.xml
+	 */
+	public static void waitForTestResultsProcessing() throws InterruptedException {
+		TestResultsProcessor processor = Jenkins.getInstance().getExtensionList(TestResultsProcessor.class).get(0);
+		Assert.assertTrue("test results processing timed out", processor.awaitIdle(60000));
+	}
+
 	private static String testSignature(JUnitTestResult testResult) {
 		return testSignature(testResult.getModuleName(), testResult.getPackageName(), testResult.getClassName(),
 				testResult.getTestName(), testResult.getResult());
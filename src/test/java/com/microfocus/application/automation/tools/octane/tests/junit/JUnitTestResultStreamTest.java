@@ -0,0 +1,162 @@
+/*
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import com.microfocus.application.automation.tools.octane.tests.testResult.TestResult;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trip tests of the binary test results stream, including a comparison benchmark against Java serialization
+ */
+public class JUnitTestResultStreamTest {
+
+	private static final int BENCHMARK_TESTS = 50000;
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		List<JUnitTestResult> expected = Arrays.asList(
+				new JUnitTestResult("module", "com.example", "AppTest", "testPassed", TestResultStatus.PASSED, 12, 1500000000000L, null, null),
+				new JUnitTestResult("module", "com.example", "AppTest", "testFailed", TestResultStatus.FAILED, 0, 1500000000000L,
+						new TestError("java.lang.AssertionError\n\tat AppTest.testFailed(AppTest.java:10)", "java.lang.AssertionError", "expected:<1> but was:<2>"), "http://example.com/report"),
+				new JUnitTestResult(null, "", "", "skipped שלום", TestResultStatus.SKIPPED, -1, 0, new TestError(null, null, null), null));
+
+		Iterator<TestResult> iterator = new JUnitTestResultIterator(new ByteArrayInputStream(write(expected)));
+		for (JUnitTestResult expectedResult : expected) {
+			assertTrue(iterator.hasNext());
+			assertEqualResults(expectedResult, (JUnitTestResult) iterator.next());
+		}
+		assertFalse(iterator.hasNext());
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testEmptyStream() throws IOException {
+		Iterator<TestResult> iterator = new JUnitTestResultIterator(new ByteArrayInputStream(write(new ArrayList<>())));
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testTruncatedStream() throws IOException {
+		byte[] bytes = write(generate(10));
+		Iterator<TestResult> iterator = new JUnitTestResultIterator(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)));
+		while (iterator.hasNext()) {
+			iterator.next();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testForeignStream() throws IOException {
+		new JUnitTestResultIterator(new ByteArrayInputStream("<?xml version=\"1.0\"?>".getBytes("UTF-8")));
+	}
+
+	@Test
+	public void testBenchmarkAgainstObjectStream() throws IOException, ClassNotFoundException {
+		List<JUnitTestResult> results = generate(BENCHMARK_TESTS);
+
+		long start = System.nanoTime();
+		ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(serialized)) {
+			for (JUnitTestResult result : results) {
+				oos.writeObject(result);
+			}
+		}
+		int count = 0;
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serialized.toByteArray()))) {
+			while (count < results.size()) {
+				ois.readObject();
+				count++;
+			}
+		}
+		long serializationNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		byte[] binary = write(results);
+		count = 0;
+		Iterator<TestResult> iterator = new JUnitTestResultIterator(new ByteArrayInputStream(binary));
+		while (iterator.hasNext()) {
+			iterator.next();
+			count++;
+		}
+		long binaryNanos = System.nanoTime() - start;
+
+		assertEquals(results.size(), count);
+		System.out.println(String.format("Java serialization: %.1f bytes/test, %.0f tests/sec",
+				(double) serialized.size() / results.size(), results.size() / (serializationNanos / 1e9)));
+		System.out.println(String.format("Binary stream:      %.1f bytes/test, %.0f tests/sec",
+				(double) binary.length / results.size(), results.size() / (binaryNanos / 1e9)));
+		assertTrue("binary stream is expected to be smaller than Java serialization", binary.length < serialized.size());
+	}
+
+	private static List<JUnitTestResult> generate(int count) {
+		List<JUnitTestResult> results = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			boolean failed = i % 20 == 0;
+			results.add(new JUnitTestResult(
+					"module-" + (i % 5),
+					"com.example.package" + (i % 50),
+					"SomeTestClass" + (i % 500),
+					"testMethod" + i,
+					failed ? TestResultStatus.FAILED : TestResultStatus.PASSED,
+					i % 1000,
+					1500000000000L,
+					failed ? new TestError("java.lang.AssertionError: failed\n\tat SomeTestClass.testMethod" + i, "java.lang.AssertionError", "failed") : null,
+					null));
+		}
+		return results;
+	}
+
+	private static byte[] write(List<JUnitTestResult> results) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (JUnitTestResultWriter writer = new JUnitTestResultWriter(bytes)) {
+			for (JUnitTestResult result : results) {
+				writer.write(result);
+			}
+			assertEquals(results.size(), writer.getCount());
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void assertEqualResults(JUnitTestResult expected, JUnitTestResult actual) {
+		assertEquals(expected.getModuleName(), actual.getModuleName());
+		assertEquals(expected.getPackageName(), actual.getPackageName());
+		assertEquals(expected.getClassName(), actual.getClassName());
+		assertEquals(expected.getTestName(), actual.getTestName());
+		assertEquals(expected.getResult(), actual.getResult());
+		assertEquals(expected.getDuration(), actual.getDuration());
+		assertEquals(expected.getStarted(), actual.getStarted());
+		assertEquals(expected.getExternalReportUrl(), actual.getExternalReportUrl());
+		if (expected.getTestError() == null) {
+			assertNull(actual.getTestError());
+		} else {
+			assertEquals(expected.getTestError().getErrorType(), actual.getTestError().getErrorType());
+			assertEquals(expected.getTestError().getErrorMsg(), actual.getTestError().getErrorMsg());
+			assertEquals(expected.getTestError().getStackTraceStr(), actual.getTestError().getStackTraceStr());
+		}
+	}
+}
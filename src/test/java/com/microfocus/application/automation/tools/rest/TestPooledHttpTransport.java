@@ -0,0 +1,304 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.rest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/***
+ * Runs the pooled transport against a local HTTPS stub with a self-signed certificate
+ */
+public class TestPooledHttpTransport {
+
+    private static final String KEYSTORE = "stub-server.jks";
+    private static final char[] KEYSTORE_PASSWORD = "changeit".toCharArray();
+
+    private HttpsServer _server;
+    private ExecutorService _serverExecutor;
+    private String _baseUrl;
+    private final Set<Integer> _clientPorts = Collections.synchronizedSet(new HashSet<Integer>());
+    private final List<String> _receivedCookies = Collections.synchronizedList(new ArrayList<String>());
+    private final AtomicInteger _activeRequests = new AtomicInteger();
+    private final AtomicInteger _maxActiveRequests = new AtomicInteger();
+    private final CountDownLatch _releaseHungRequests = new CountDownLatch(1);
+
+    @Before
+    public void startServer() throws Exception {
+
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        try (InputStream in = getClass().getResourceAsStream(KEYSTORE)) {
+            keyStore.load(in, KEYSTORE_PASSWORD);
+        }
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, KEYSTORE_PASSWORD);
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+
+        _server = HttpsServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        _server.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+        _server.createContext("/", new StubHandler());
+        _serverExecutor = Executors.newFixedThreadPool(10);
+        _server.setExecutor(_serverExecutor);
+        _server.start();
+        _baseUrl = String.format("https://127.0.0.1:%d/qcbin", _server.getAddress().getPort());
+    }
+
+    @After
+    public void stopServer() {
+
+        _releaseHungRequests.countDown();
+        _server.stop(0);
+        _serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testGetOverHttps() throws IOException {
+
+        try (PooledHttpTransport transport = new PooledHttpTransport(2, 10)) {
+            Response response = transport.execute("GET", _baseUrl + "/rest/ok", null, null);
+            Assert.assertTrue(response.isOk());
+            Assert.assertEquals("ok /qcbin/rest/ok", response.toString());
+            Assert.assertEquals("text/plain", response.getHeaders().get("Content-Type").get(0));
+        }
+    }
+
+    @Test
+    public void testPostBody() throws IOException {
+
+        try (PooledHttpTransport transport = new PooledHttpTransport(2, 10)) {
+            Response response = transport.execute("POST", _baseUrl + "/rest/echo", null, "<Entity/>".getBytes());
+            Assert.assertTrue(response.isOk());
+            Assert.assertEquals("<Entity/>", response.toString());
+        }
+    }
+
+    @Test
+    public void testErrorStatusKeepsBody() throws IOException {
+
+        try (PooledHttpTransport transport = new PooledHttpTransport(2, 10)) {
+            Response response = transport.execute("GET", _baseUrl + "/rest/missing", null, null);
+            Assert.assertFalse(response.isOk());
+            Assert.assertEquals(404, response.getStatusCode());
+            Assert.assertNotNull(response.getFailure());
+            Assert.assertEquals("not found", response.toString());
+        }
+    }
+
+    @Test
+    public void testConnectionIsKeptAlive() throws IOException {
+
+        try (PooledHttpTransport transport = new PooledHttpTransport(2, 10)) {
+            for (int i = 0; i < 20; i++) {
+                Assert.assertTrue(transport.execute("GET", _baseUrl + "/rest/ok", null, null).isOk());
+            }
+        }
+        Assert.assertEquals("sequential requests are expected to share one connection", 1, _clientPorts.size());
+    }
+
+    @Test
+    public void testMaxConnectionsPerRoute() throws Exception {
+
+        final PooledHttpTransport transport = new PooledHttpTransport(2, 10);
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Response>> responses = new ArrayList<Future<Response>>();
+            for (int i = 0; i < 16; i++) {
+                responses.add(clients.submit(new Callable<Response>() {
+                    @Override
+                    public Response call() throws IOException {
+                        return transport.execute("GET", _baseUrl + "/rest/slow", null, null);
+                    }
+                }));
+            }
+            for (Future<Response> response : responses) {
+                Assert.assertTrue(response.get().isOk());
+            }
+        } finally {
+            clients.shutdownNow();
+            transport.close();
+        }
+        Assert.assertTrue("at most 2 concurrent requests per route, got " + _maxActiveRequests.get(), _maxActiveRequests.get() <= 2);
+        Assert.assertTrue(_clientPorts.size() <= 2);
+    }
+
+    @Test
+    public void testStuckServerTimesOut() throws IOException {
+
+        try (PooledHttpTransport transport = new PooledHttpTransport(2, 10, 1000, 500, 1000)) {
+            long start = System.currentTimeMillis();
+            try {
+                transport.execute("GET", _baseUrl + "/rest/hang", null, null);
+                Assert.fail("a request to a stuck server is expected to time out");
+            } catch (SocketTimeoutException expected) {
+                Assert.assertTrue(System.currentTimeMillis() - start < 10000);
+            }
+        }
+    }
+
+    @Test
+    public void testExhaustedPoolTimesOut() throws Exception {
+
+        final PooledHttpTransport transport = new PooledHttpTransport(1, 1, 1000, 60000, 500);
+        ExecutorService clients = Executors.newSingleThreadExecutor();
+        try {
+            clients.submit(new Callable<Response>() {
+                @Override
+                public Response call() throws IOException {
+                    return transport.execute("GET", _baseUrl + "/rest/hang", null, null);
+                }
+            });
+            while (_activeRequests.get() == 0) {
+                Thread.sleep(10);
+            }
+            try {
+                transport.execute("GET", _baseUrl + "/rest/ok", null, null);
+                Assert.fail("waiting for a pooled connection is expected to time out");
+            } catch (ConnectionPoolTimeoutException expected) {
+                // the only connection is held by the hung request
+            }
+        } finally {
+            _releaseHungRequests.countDown();
+            clients.shutdownNow();
+            transport.close();
+        }
+    }
+
+    @Test
+    public void testRestClientCookies() throws IOException {
+
+        try (PooledHttpTransport transport = new PooledHttpTransport(2, 10)) {
+            RestClient client = new RestClient(_baseUrl, "DEFAULT", "demo", "sa", transport);
+            client.httpGet(client.build("authentication-point/authenticate"), null, null, ResourceAccessLevel.PUBLIC);
+            Assert.assertEquals("token", client.getCookies().get("LWSSO_COOKIE_KEY"));
+
+            Response response = client.httpGet(client.buildRestRequest("runs/1"), null, null, ResourceAccessLevel.PROTECTED);
+            Assert.assertTrue(response.isOk());
+            Assert.assertTrue(_receivedCookies.get(1).contains("LWSSO_COOKIE_KEY=token"));
+        }
+    }
+
+    private class StubHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+
+            int active = _activeRequests.incrementAndGet();
+            try {
+                _maxActiveRequests.accumulateAndGet(active, Math::max);
+                _clientPorts.add(exchange.getRemoteAddress().getPort());
+                String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+                _receivedCookies.add(cookie == null ? "" : cookie);
+
+                String path = exchange.getRequestURI().getPath();
+                byte[] requestBody = readFully(exchange.getRequestBody());
+                int status = 200;
+                byte[] body;
+                if (path.endsWith("/echo")) {
+                    body = requestBody;
+                } else if (path.endsWith("/missing")) {
+                    status = 404;
+                    body = "not found".getBytes();
+                } else if (path.endsWith("/authenticate")) {
+                    exchange.getResponseHeaders().add("Set-Cookie", "LWSSO_COOKIE_KEY=token;Path=/;HTTPOnly");
+                    body = new byte[0];
+                } else {
+                    if (path.endsWith("/slow")) {
+                        sleep();
+                    } else if (path.endsWith("/hang")) {
+                        awaitRelease();
+                    }
+                    body = ("ok " + path).getBytes();
+                }
+                exchange.getResponseHeaders().add("Content-Type", "text/plain");
+                exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } finally {
+                _activeRequests.decrementAndGet();
+            }
+        }
+
+        private byte[] readFully(InputStream in) throws IOException {
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buf = new byte[1024];
+            int read;
+            while ((read = in.read(buf)) != -1) {
+                bytes.write(buf, 0, read);
+            }
+            return bytes.toByteArray();
+        }
+
+        private void awaitRelease() {
+
+            try {
+                _releaseHungRequests.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void sleep() {
+
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
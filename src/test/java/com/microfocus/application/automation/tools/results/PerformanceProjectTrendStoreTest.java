@@ -0,0 +1,84 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.ProjectLrResults;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PerformanceProjectTrendStoreTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Test
+    public void testBuildsWithoutResultsAreScannedOnce() throws Exception {
+        FreeStyleProject project = jenkins.createFreeStyleProject("lr-trend");
+        FreeStyleBuild withResults = jenkins.buildAndAssertSuccess(project);
+        addScenario(withResults, "scenario");
+        jenkins.buildAndAssertSuccess(project);
+
+        PerformanceProjectTrendStore store = PerformanceProjectTrendStore.get(project);
+        ProjectLrResults results = store.getProjectResults();
+        assertEquals(1, results.getScenarioResults().get("scenario").getBuildCount());
+        assertEquals(2, store.getLastRecordedBuild());
+
+        jenkins.buildAndAssertSuccess(project);
+        assertSame(results, store.getProjectResults());
+        assertEquals(3, store.getLastRecordedBuild());
+    }
+
+    @Test
+    public void testStoreIsDroppedWithItsJob() throws Exception {
+        FreeStyleProject project = jenkins.createFreeStyleProject("lr-trend");
+        PerformanceProjectTrendStore store = PerformanceProjectTrendStore.get(project);
+        assertSame(store, PerformanceProjectTrendStore.get(project));
+
+        project.renameTo("lr-trend-renamed");
+        assertFalse(PerformanceProjectTrendStore.isLoaded("lr-trend"));
+        PerformanceProjectTrendStore renamedStore = PerformanceProjectTrendStore.get(project);
+        assertNotSame(store, renamedStore);
+        assertTrue(PerformanceProjectTrendStore.isLoaded("lr-trend-renamed"));
+
+        project.delete();
+        assertFalse(PerformanceProjectTrendStore.isLoaded("lr-trend-renamed"));
+    }
+
+    private static void addScenario(FreeStyleBuild build, String scenarioName) throws Exception {
+        LrJobResults results = new LrJobResults();
+        results.addScenario(new JobLrScenarioResult(scenarioName));
+        build.addAction(new PerformanceJobReportAction(build, results));
+        build.save();
+    }
+}
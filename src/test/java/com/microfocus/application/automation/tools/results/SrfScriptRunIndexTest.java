@@ -0,0 +1,95 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.srf.model.SrfScriptRunModel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class SrfScriptRunIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testIndexByTestAndLinkName() throws Exception {
+        SrfScriptRunIndex index = SrfScriptRunIndex.read(report(
+                test("Login Test", "y1", scriptRun("r1", "login.flow", "success", "s1"), scriptRun("r2", "logout", "failed", "s2")),
+                test("Search", "y2", scriptRun("r3", "search", "errored", "s3"))));
+
+        SrfScriptRunModel[] scriptRuns = index.getScriptRuns("LOGIN_TEST_y1");
+        assertEquals(2, scriptRuns.length);
+        assertEquals("r1", scriptRuns[0].id);
+        assertEquals("r2", scriptRuns[1].id);
+        assertEquals(1, index.getScriptRuns("search_y2").length);
+
+        SrfScriptRunModel scriptRun = index.getScriptRun("login_test_y1", "login_flow_s1");
+        assertNotNull(scriptRun);
+        assertEquals("r1", scriptRun.id);
+        assertEquals(SrfScriptRunModel.SrfStatus.success, scriptRun.getStatus());
+        assertEquals("Login Test", scriptRun.parent.getString("name"));
+    }
+
+    @Test
+    public void testUnknownTest() throws Exception {
+        SrfScriptRunIndex index = SrfScriptRunIndex.read(report(test("Search", "y2", scriptRun("r3", "search", "success", "s3"))));
+
+        assertEquals(0, index.getScriptRuns("login_y1").length);
+        assertNull(index.getScriptRun("login_y1", "search_s3"));
+        assertNull(index.getScriptRun("search_y2", "other_s4"));
+    }
+
+    @Test
+    public void testStaleAfterReportRewritten() throws Exception {
+        File report = report(test("Search", "y2"));
+        SrfScriptRunIndex index = SrfScriptRunIndex.read(report);
+        assertTrue(index.isCurrent(report));
+
+        assertTrue(report.setLastModified(report.lastModified() - 10000));
+        assertFalse(index.isCurrent(report));
+    }
+
+    private File report(String... tests) throws Exception {
+        File report = folder.newFile(SrfScriptRunIndex.REPORT_FILE);
+        Files.write(report.toPath(), ("[" + String.join(",", tests) + "]").getBytes(StandardCharsets.UTF_8));
+        return report;
+    }
+
+    private static String test(String name, String yac, String... scriptRuns) {
+        return String.format("{\"name\":\"%s\",\"yac\":\"%s\",\"workspaceId\":\"1\",\"tenantid\":\"2\",\"scriptRuns\":[%s]}",
+                name, yac, String.join(",", scriptRuns));
+    }
+
+    private static String scriptRun(String id, String name, String status, String yac) {
+        return String.format("{\"id\":\"%s\",\"assetInfo\":{\"name\":\"%s\"},\"durationMs\":1000,\"status\":\"%s\",\"yac\":\"%s\","
+                + "\"environment\":{\"os\":{\"name\":\"Windows\",\"version\":\"10\"},\"browser\":{\"name\":\"Chrome\",\"version\":\"60\"}}}",
+                id, name, status, yac);
+    }
+}
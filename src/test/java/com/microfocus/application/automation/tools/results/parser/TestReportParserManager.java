@@ -0,0 +1,176 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+package com.microfocus.application.automation.tools.results.parser;
+
+import com.microfocus.application.automation.tools.results.parser.antjunit.AntJUnitReportParserImpl;
+import com.microfocus.application.automation.tools.results.parser.jenkinsjunit.JenkinsJUnitReportParserImpl;
+import com.microfocus.application.automation.tools.results.parser.mavensurefire.MavenSureFireReportParserImpl;
+import com.microfocus.application.automation.tools.results.parser.testngxml.TestNGXmlReportParserImpl;
+import com.microfocus.application.automation.tools.results.service.SystemOutLogger;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
+import com.microfocus.application.automation.tools.results.service.almentities.EntityRelation;
+import hudson.FilePath;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Format detection of the report parser manager, and a parse benchmark of each supported report format
+ */
+public class TestReportParserManager {
+
+	private static final int BENCHMARK_TESTS = 5000;
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void testRootElementDetection() throws IOException {
+		ReportParserManager manager = getManager();
+
+		Assert.assertEquals("testng-results", ReportParserManager.getRootElement(write("testng.xml", testNGReport(1)).getPath()));
+		Assert.assertEquals("testsuites", ReportParserManager.getRootElement(write("ant.xml", antReport(1)).getPath()));
+
+		List<ReportParser> candidates = manager.getCandidateParsers(write("jenkins.xml", jenkinsJUnitReport(1)).getPath());
+		Assert.assertEquals(1, candidates.size());
+		Assert.assertTrue(candidates.get(0) instanceof JenkinsJUnitReportParserImpl);
+		candidates = manager.getCandidateParsers(write("surefire.xml", sureFireReport(1)).getPath());
+		Assert.assertEquals(1, candidates.size());
+		Assert.assertTrue(candidates.get(0) instanceof MavenSureFireReportParserImpl);
+		candidates = manager.getCandidateParsers(write("testng.xml", testNGReport(1)).getPath());
+		Assert.assertTrue(candidates.get(0) instanceof TestNGXmlReportParserImpl);
+		candidates = manager.getCandidateParsers(write("ant.xml", antReport(1)).getPath());
+		Assert.assertTrue(candidates.get(0) instanceof AntJUnitReportParserImpl);
+		Assert.assertEquals(2, manager.getCandidateParsers(write("nunit.xml", nunitReport(1)).getPath()).size());
+	}
+
+	@Test
+	public void testUnknownReportTriesAllParsers() throws IOException {
+		File notXml = write("report.txt", "not an xml report");
+		Assert.assertNull(ReportParserManager.getRootElement(notXml.getPath()));
+		Assert.assertEquals(6, getManager().getCandidateParsers(notXml.getPath()).size());
+		Assert.assertEquals(6, getManager().getCandidateParsers(write("other.xml", "<?xml version=\"1.0\"?><other/>").getPath()).size());
+		Assert.assertNull(getManager().parseTestSets(notXml.getPath(), "JUnit", "Jenkins"));
+	}
+
+	@Test
+	public void testBenchmarkJenkinsJUnit() throws IOException {
+		benchmark("Jenkins JUnit", write("junitResult.xml", jenkinsJUnitReport(BENCHMARK_TESTS)));
+	}
+
+	@Test
+	public void testBenchmarkMavenSureFire() throws IOException {
+		benchmark("Maven Surefire", write("TEST-surefire.xml", sureFireReport(BENCHMARK_TESTS)));
+	}
+
+	@Test
+	public void testBenchmarkTestNG() throws IOException {
+		benchmark("TestNG", write("testng-results.xml", testNGReport(BENCHMARK_TESTS)));
+	}
+
+	@Test
+	public void testBenchmarkNUnit() throws IOException {
+		benchmark("NUnit", write("nunit-results.xml", nunitReport(BENCHMARK_TESTS)));
+	}
+
+	@Test
+	public void testBenchmarkAntJUnit() throws IOException {
+		benchmark("Ant JUnit", write("TESTS-TestSuites.xml", antReport(BENCHMARK_TESTS)));
+	}
+
+	private void benchmark(String format, File report) {
+		ReportParserManager manager = getManager();
+		long start = System.nanoTime();
+		List<AlmTestSet> testsets = manager.parseTestSets(report.getPath(), "JUnit", "Jenkins");
+		long nanos = System.nanoTime() - start;
+
+		Assert.assertNotNull(format + " report is expected to be parsed", testsets);
+		int tests = 0;
+		for (AlmTestSet testset : testsets) {
+			tests += testset.getRelatedEntities().get(EntityRelation.TESTSET_TO_TESTINSTANCE_CONTAINMENT_RELATION).size();
+		}
+		Assert.assertEquals(BENCHMARK_TESTS, tests);
+		System.out.println(String.format("%-15s %d tests, %d KB: %d ms, %.0f tests/sec",
+				format, tests, report.length() / 1024, nanos / 1000000, tests / (nanos / 1e9)));
+	}
+
+	private ReportParserManager getManager() {
+		return ReportParserManager.getInstance(new FilePath(tempFolder.getRoot()), new SystemOutLogger());
+	}
+
+	private File write(String fileName, String content) throws IOException {
+		File file = new File(tempFolder.getRoot(), fileName);
+		try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+			writer.print(content);
+		}
+		return file;
+	}
+
+	private static String jenkinsJUnitReport(int tests) {
+		StringBuilder xml = new StringBuilder("<?xml version='1.0' encoding='UTF-8'?><result><suites><suite><name>JenkinsSuite</name><cases>");
+		for (int i = 0; i < tests; i++) {
+			xml.append("<case><duration>0.01</duration><className>com.example.SomeTest").append(i % 50)
+					.append("</className><testName>test").append(i).append("</testName><skipped>false</skipped><failedSince>0</failedSince></case>");
+		}
+		return xml.append("</cases></suite></suites><duration>1.0</duration></result>").toString();
+	}
+
+	private static String sureFireReport(int tests) {
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><testsuite name=\"SureFireSuite\" tests=\"" + tests + "\">");
+		for (int i = 0; i < tests; i++) {
+			xml.append("<testcase classname=\"com.example.SomeTest").append(i % 50).append("\" name=\"test").append(i).append("\" time=\"0.01\"/>");
+		}
+		return xml.append("</testsuite>").toString();
+	}
+
+	private static String antReport(int tests) {
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><testsuites><testsuite name=\"AntSuite\" tests=\"" + tests + "\">");
+		for (int i = 0; i < tests; i++) {
+			xml.append("<testcase classname=\"com.example.SomeTest").append(i % 50).append("\" name=\"test").append(i).append("\" time=\"0.01\"/>");
+		}
+		return xml.append("</testsuite></testsuites>").toString();
+	}
+
+	private static String testNGReport(int tests) {
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><testng-results total=\"" + tests + "\"><suite name=\"TestNGSuite\"><test name=\"TestNGTest\"><class name=\"com.example.SomeTest\">");
+		for (int i = 0; i < tests; i++) {
+			xml.append("<test-method status=\"PASS\" name=\"test").append(i).append("\" duration-ms=\"10\"/>");
+		}
+		return xml.append("</class></test></suite></testng-results>").toString();
+	}
+
+	private static String nunitReport(int tests) {
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?><test-results name=\"NUnitResults\" total=\"" + tests
+				+ "\" failures=\"0\" not-run=\"0\" date=\"2018-01-01\" time=\"10:00:00\"><test-suite name=\"NUnitSuite\" success=\"True\" time=\"1.0\"><results>");
+		for (int i = 0; i < tests; i++) {
+			xml.append("<test-case name=\"Example.SomeTest").append(i % 50).append(".Test").append(i).append("\" executed=\"True\" success=\"True\" time=\"0.01\"/>");
+		}
+		return xml.append("</results></test-suite></test-results>").toString();
+	}
+}
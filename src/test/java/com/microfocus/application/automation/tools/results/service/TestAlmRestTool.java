@@ -0,0 +1,171 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.results.service;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.microfocus.application.automation.tools.rest.HttpTransport;
+import com.microfocus.application.automation.tools.rest.RestClient;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTest;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestImpl;
+import com.microfocus.application.automation.tools.sse.common.RestXmlUtils;
+import com.microfocus.application.automation.tools.sse.common.XPathUtils;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/***
+ * Runs the tool against an in-memory ALM server
+ */
+public class TestAlmRestTool {
+
+	private static final String SERVER_URL = "http://localhost:8085/qcbin";
+
+	private final List<String> requests = new ArrayList<String>();
+	private int nextId = 100;
+	private boolean authenticated;
+	private boolean sessionExpired;
+	private boolean reverseBulkResponse;
+	private boolean truncateBulkResponse;
+	private AlmRestTool restTool;
+
+	@Before
+	public void setUp() {
+		HttpTransport transport = (method, url, headers, data) -> handle(method, url, data);
+		RestClient restClient = new RestClient(SERVER_URL, "DEFAULT", "project", "sa", transport);
+		restTool = new AlmRestTool(restClient, new AlmRestInfo(SERVER_URL, "DEFAULT", "ALM", "project", "sa", "", ""), new SystemOutLogger());
+	}
+
+	@Test
+	public void testBulkResponseIsMatchedByKey() throws Exception {
+		reverseBulkResponse = true;
+		List<AlmTest> tests = Arrays.asList(createTest("a", "Calc", "add"), createTest("b", "Calc", "add"), createTest("a", "Calc", "sub"));
+
+		List<AlmTest> created = restTool.createAlmEntities(tests, new String[] {"ut-package-name", "ut-class-name", "ut-method-name"}, 10, AlmTest::getKey);
+
+		Assert.assertEquals(3, created.size());
+		for (int i = 0; i < tests.size(); i++) {
+			Assert.assertEquals(tests.get(i).getKey(), created.get(i).getKey());
+			Assert.assertNotNull(created.get(i).getId());
+		}
+		Assert.assertEquals(Collections.singletonList("POST tests"), requests);
+	}
+
+	@Test
+	public void testEntitiesMissingInBulkResponseAreCreatedAlone() throws Exception {
+		truncateBulkResponse = true;
+		List<AlmTest> tests = Arrays.asList(createTest("a", "Calc", "add"), createTest("b", "Calc", "add"));
+
+		List<AlmTest> created = restTool.createAlmEntities(tests, new String[] {"ut-package-name", "ut-class-name", "ut-method-name"}, 10, AlmTest::getKey);
+
+		Assert.assertEquals(2, created.size());
+		Assert.assertEquals(tests.get(1).getKey(), created.get(1).getKey());
+		Assert.assertEquals(Arrays.asList("POST tests", "POST tests"), requests);
+	}
+
+	@Test
+	public void testExpiredSessionIsRenewed() throws Exception {
+		Assert.assertTrue(restTool.ensureLoggedIn());
+		sessionExpired = true;
+		requests.clear();
+
+		List<AlmTestImpl> tests = restTool.getAlmEntityPages(new AlmTestImpl(), "query={parent-id[2]}", 10);
+
+		Assert.assertTrue(tests.isEmpty());
+		Assert.assertEquals(Arrays.asList("GET tests", "GET rest/is-authenticated", "GET authentication-point/authenticate", "POST rest/site-session", "GET tests"), requests);
+	}
+
+	@Test
+	public void testSessionIsVerifiedBeforeReuse() throws Exception {
+		Assert.assertTrue(restTool.ensureLoggedIn());
+		requests.clear();
+
+		Assert.assertTrue(restTool.ensureLoggedIn());
+		Assert.assertEquals(Collections.singletonList("GET rest/is-authenticated"), requests);
+	}
+
+	private static AlmTest createTest(String packageName, String className, String methodName) {
+		AlmTest test = new AlmTestImpl();
+		test.setFieldValue(AlmTest.TS_UT_PACKAGE_NAME, packageName);
+		test.setFieldValue(AlmTest.TS_UT_CLASS_NAME, className);
+		test.setFieldValue(AlmTest.TS_UT_METHOD_NAME, methodName);
+		return test;
+	}
+
+	private Response handle(String method, String url, byte[] data) {
+		String path = url.contains("/projects/project/") ?
+				url.substring(url.indexOf("/projects/project/") + "/projects/project/".length()) :
+				url.substring(SERVER_URL.length() + 1);
+		if (path.contains("?")) {
+			path = path.substring(0, path.indexOf('?'));
+		}
+		requests.add(method + " " + path);
+
+		Map<String, List<String>> headers = new HashMap<String, List<String>>();
+		if (path.equals("rest/is-authenticated")) {
+			if (authenticated && !sessionExpired) {
+				return new Response(headers, "<AuthenticationInfo><Username>sa</Username></AuthenticationInfo>".getBytes(), null, HttpURLConnection.HTTP_OK);
+			}
+			headers.put("WWW-Authenticate", Collections.singletonList("LWSSO realm=" + SERVER_URL + "/authentication-point"));
+			return new Response(headers, null, null, HttpURLConnection.HTTP_UNAUTHORIZED);
+		}
+		if (path.equals("authentication-point/authenticate")) {
+			authenticated = true;
+			sessionExpired = false;
+			return new Response(headers, null, null, HttpURLConnection.HTTP_OK);
+		}
+		if (path.equals("rest/site-session")) {
+			return new Response(headers, null, null, HttpURLConnection.HTTP_OK);
+		}
+		if (sessionExpired) {
+			return new Response(headers, null, null, HttpURLConnection.HTTP_UNAUTHORIZED);
+		}
+		if (method.equals("GET")) {
+			return new Response(headers, "<Entities TotalResults=\"0\"></Entities>".getBytes(), null, HttpURLConnection.HTTP_OK);
+		}
+
+		List<Map<String, String>> entities = XPathUtils.toEntities(new String(data));
+		if (reverseBulkResponse) {
+			Collections.reverse(entities);
+		}
+		if (truncateBulkResponse && entities.size() > 1) {
+			entities = entities.subList(0, 1);
+		}
+		StringBuilder body = new StringBuilder("<Entities>");
+		for (Map<String, String> entity : entities) {
+			body.append("<Entity Type=\"test\"><Fields>").append(RestXmlUtils.fieldXml("id", String.valueOf(nextId++)));
+			for (Map.Entry<String, String> field : entity.entrySet()) {
+				body.append(RestXmlUtils.fieldXml(field.getKey(), field.getValue()));
+			}
+			body.append("</Fields></Entity>");
+		}
+		return new Response(headers, body.append("</Entities>").toString().getBytes(), null, HttpURLConnection.HTTP_CREATED);
+	}
+}
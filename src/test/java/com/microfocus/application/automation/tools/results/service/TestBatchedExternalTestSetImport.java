@@ -0,0 +1,173 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.results.service;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.microfocus.application.automation.tools.results.service.almentities.AlmEntity;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmRunImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTest;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestConfigImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestInstance;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestInstanceImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSet;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestSetImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.EntityRelation;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/***
+ * Runs the batched import against a mocked ALM REST tool, which assigns ids to the created entities
+ */
+public class TestBatchedExternalTestSetImport {
+
+	private static final Pattern PARENT_IDS = Pattern.compile("parent-id\\[([^\\]]*)\\]");
+
+	private final List<AlmTestImpl> existingTests = new ArrayList<AlmTestImpl>();
+	// entities of each createAlmEntities call: tests, test instances, runs
+	private final List<List<AlmEntity>> created = new ArrayList<List<AlmEntity>>();
+	private int nextId = 100;
+	private DefaultExternalEntityUploadServiceImpl service;
+
+	@Before
+	public void setUp() throws Exception {
+		AlmRestTool restTool = mock(AlmRestTool.class);
+		when(restTool.getAlmEntityPages(isA(AlmTestImpl.class), anyString(), anyInt())).thenReturn(existingTests);
+		when(restTool.getAlmEntityPages(isA(AlmTestInstanceImpl.class), anyString(), anyInt())).thenReturn(new ArrayList<AlmTestInstanceImpl>());
+		when(restTool.getAlmEntityPages(isA(AlmTestConfigImpl.class), anyString(), anyInt())).thenAnswer(invocation -> {
+			List<AlmTestConfigImpl> configs = new ArrayList<AlmTestConfigImpl>();
+			Matcher matcher = PARENT_IDS.matcher((String) invocation.getArguments()[1]);
+			Assert.assertTrue(matcher.find());
+			for (String testId : matcher.group(1).split("%20OR%20")) {
+				AlmTestConfigImpl config = new AlmTestConfigImpl();
+				config.setId("config-" + testId);
+				config.setFieldValue("parent-id", testId);
+				configs.add(config);
+			}
+			return configs;
+		});
+		AlmTestSetImpl importedTestSet = new AlmTestSetImpl();
+		importedTestSet.setId("7");
+		when(restTool.getEntityUnderParentFolder(eq(AlmTestSetImpl.class), anyInt(), anyString())).thenReturn(importedTestSet);
+		when(restTool.createAlmEntities(anyList(), any(String[].class), anyInt(), any(Function.class))).thenAnswer(invocation -> {
+			List<AlmEntity> requested = new ArrayList<AlmEntity>((List<AlmEntity>) invocation.getArguments()[0]);
+			for (AlmEntity entity : requested) {
+				entity.setFieldValue("id", String.valueOf(nextId++));
+			}
+			created.add(requested);
+			return requested;
+		});
+		service = new DefaultExternalEntityUploadServiceImpl(restTool, null, new SystemOutLogger());
+	}
+
+	@Test
+	public void testNewTestsWithSameClassAndMethodGetDistinctNames() throws Exception {
+		AlmTestSet testset = createTestSet("a.Calc.add", "b.Calc.add");
+
+		service.importExternalTestSetBatched(Collections.singletonList(testset), "sa", 1, 2, "Jenkins", "1", "job", "url");
+
+		List<AlmEntity> tests = created.get(0);
+		Assert.assertEquals(2, tests.size());
+		Assert.assertEquals("Calc_add", tests.get(0).getFieldValue(AlmTest.TEST_NAME));
+		Assert.assertEquals("b_Calc_add", tests.get(1).getFieldValue(AlmTest.TEST_NAME));
+		List<AlmEntity> testInstances = created.get(1);
+		Assert.assertEquals(2, testInstances.size());
+		Assert.assertEquals(tests.get(0).getFieldValue("id"), testInstances.get(0).getFieldValue(AlmTestInstance.TEST_INSTANCE_TEST_ID));
+		Assert.assertEquals(tests.get(1).getFieldValue("id"), testInstances.get(1).getFieldValue(AlmTestInstance.TEST_INSTANCE_TEST_ID));
+		Assert.assertEquals(2, created.get(2).size());
+	}
+
+	@Test
+	public void testNewTestIsNamedAgainstExistingTests() throws Exception {
+		AlmTestImpl existingTest = createTest("x.Calc.add");
+		existingTest.setId("50");
+		existingTests.add(existingTest);
+		AlmTestSet testset = createTestSet("a.Calc.add", "x.Calc.add");
+
+		service.importExternalTestSetBatched(Collections.singletonList(testset), "sa", 1, 2, "Jenkins", "1", "job", "url");
+
+		List<AlmEntity> tests = created.get(0);
+		Assert.assertEquals(1, tests.size());
+		Assert.assertEquals("a_Calc_add", tests.get(0).getFieldValue(AlmTest.TEST_NAME));
+		List<AlmEntity> testInstances = created.get(1);
+		Assert.assertEquals(2, testInstances.size());
+		Assert.assertEquals("50", testInstances.get(1).getFieldValue(AlmTestInstance.TEST_INSTANCE_TEST_ID));
+		Assert.assertEquals("config-50", testInstances.get(1).getFieldValue(AlmTestInstance.TEST_INSTANCE_CONFIG_ID));
+	}
+
+	@Test
+	public void testTestMatchingQueuedTestIsNotCreatedTwice() throws Exception {
+		AlmTestSet testset = createTestSet("a.pkg.Calc.add", "pkg.Calc.add");
+
+		service.importExternalTestSetBatched(Collections.singletonList(testset), "sa", 1, 2, "Jenkins", "1", "job", "url");
+
+		List<AlmEntity> tests = created.get(0);
+		Assert.assertEquals(1, tests.size());
+		String testId = tests.get(0).getFieldValue("id");
+		List<AlmEntity> testInstances = created.get(1);
+		Assert.assertEquals(1, testInstances.size());
+		Assert.assertEquals(testId, testInstances.get(0).getFieldValue(AlmTestInstance.TEST_INSTANCE_TEST_ID));
+		Assert.assertEquals(2, created.get(2).size());
+	}
+
+	private static AlmTestImpl createTest(String classAndMethod) {
+		int methodIndex = classAndMethod.lastIndexOf('.');
+		String className = classAndMethod.substring(0, methodIndex);
+		int classIndex = className.lastIndexOf('.');
+		AlmTestImpl test = new AlmTestImpl();
+		test.setFieldValue(AlmTest.TS_UT_PACKAGE_NAME, className.substring(0, classIndex));
+		test.setFieldValue(AlmTest.TS_UT_CLASS_NAME, className.substring(classIndex + 1));
+		test.setFieldValue(AlmTest.TS_UT_METHOD_NAME, classAndMethod.substring(methodIndex + 1));
+		test.setFieldValue(AlmTest.TS_TESTING_FRAMEWORK, "JUnit");
+		test.setFieldValue(AlmTest.TEST_NAME, className.substring(classIndex + 1) + "_" + classAndMethod.substring(methodIndex + 1));
+		return test;
+	}
+
+	private static AlmTestSet createTestSet(String... tests) {
+		AlmTestSet testset = new AlmTestSetImpl();
+		testset.setFieldValue("name", "suite");
+		for (String test : tests) {
+			AlmTestInstance testInstance = new AlmTestInstanceImpl();
+			testInstance.addRelatedEntity(EntityRelation.TEST_TO_TESTINSTANCE_REALIZATION_RELATION, createTest(test));
+			testInstance.addRelatedEntity(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION, new AlmRunImpl());
+			testset.addRelatedEntity(EntityRelation.TESTSET_TO_TESTINSTANCE_CONTAINMENT_RELATION, testInstance);
+		}
+		return testset;
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.run;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SvParallelExecutorTest {
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final PrintStream logger = new PrintStream(output, true);
+
+    @Test
+    public void testAllSucceeded() throws Exception {
+        final List<String> processed = new ArrayList<>();
+        SvParallelExecutor.Report report = new SvParallelExecutor(2).run("undeploy", services(5), logger,
+                new SvParallelExecutor.ServiceOperation() {
+                    @Override
+                    public void process(ServiceInfo service, PrintStream logger) {
+                        synchronized (processed) {
+                            processed.add(service.getId());
+                        }
+                    }
+                });
+
+        assertEquals(5, report.getSucceeded());
+        assertTrue(report.getFailures().isEmpty());
+        assertEquals(5, processed.size());
+        report.throwIfFailed();
+    }
+
+    @Test
+    public void testFailuresAreAggregated() throws Exception {
+        SvParallelExecutor.Report report = new SvParallelExecutor(3).run("undeploy", services(4), logger,
+                new SvParallelExecutor.ServiceOperation() {
+                    @Override
+                    public void process(ServiceInfo service, PrintStream logger) throws Exception {
+                        if (service.getId().equals("id1") || service.getId().equals("id3")) {
+                            throw new IOException("server refused " + service.getName());
+                        }
+                    }
+                });
+
+        assertEquals(2, report.getSucceeded());
+        assertEquals(2, report.getFailures().size());
+        try {
+            report.throwIfFailed();
+            fail("aggregated failure expected");
+        } catch (Exception e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Failed to undeploy 2 of 4 services:"));
+            assertTrue(e.getMessage(), e.getMessage().contains("'service1' [id1] (server refused service1)"));
+            assertTrue(e.getMessage(), e.getMessage().contains("'service3' [id3] (server refused service3)"));
+            assertEquals(2, e.getSuppressed().length);
+        }
+    }
+
+    @Test
+    public void testSingleFailureIsRethrown() throws Exception {
+        final IOException failure = new IOException("not found");
+        SvParallelExecutor.Report report = new SvParallelExecutor(4).run("export", services(1), logger,
+                new SvParallelExecutor.ServiceOperation() {
+                    @Override
+                    public void process(ServiceInfo service, PrintStream logger) throws Exception {
+                        throw failure;
+                    }
+                });
+
+        try {
+            report.throwIfFailed();
+            fail("failure expected");
+        } catch (IOException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    @Test
+    public void testParallelismIsBounded() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch twoRunning = new CountDownLatch(2);
+        new SvParallelExecutor(2).run("deploy", services(6), logger, new SvParallelExecutor.ServiceOperation() {
+            @Override
+            public void process(ServiceInfo service, PrintStream logger) throws Exception {
+                int current = running.incrementAndGet();
+                synchronized (maxRunning) {
+                    maxRunning.set(Math.max(maxRunning.get(), current));
+                }
+                twoRunning.countDown();
+                twoRunning.await(5, TimeUnit.SECONDS);
+                Thread.sleep(10);
+                running.decrementAndGet();
+            }
+        });
+
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void testOutputOfServicesDoesNotInterleave() throws Exception {
+        new SvParallelExecutor(4).run("deploy", services(8), logger, new SvParallelExecutor.ServiceOperation() {
+            @Override
+            public void process(ServiceInfo service, PrintStream logger) throws Exception {
+                for (int i = 0; i < 20; i++) {
+                    logger.println(service.getId());
+                    Thread.yield();
+                }
+            }
+        });
+
+        String[] lines = output.toString().split("\\r?\\n");
+        assertEquals(160, lines.length);
+        for (int i = 0; i < lines.length; i += 20) {
+            for (int j = i; j < i + 20; j++) {
+                assertEquals(lines[i], lines[j]);
+            }
+        }
+    }
+
+    private static List<ServiceInfo> services(int count) {
+        List<ServiceInfo> services = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            services.add(new ServiceInfo("id" + i, "service" + i));
+        }
+        return services;
+    }
+}
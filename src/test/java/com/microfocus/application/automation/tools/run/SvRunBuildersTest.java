@@ -0,0 +1,240 @@
+/*
+ *
+ *  Certain versions of software and/or documents (“Material”) accessible here may contain branding from
+ *  Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ *  the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ *  and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ *  marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * © Copyright 2012-2018 Micro Focus or one of its affiliates.
+ *
+ * The only warranties for products and services of Micro Focus and its affiliates
+ * and licensors (“Micro Focus”) are set forth in the express warranty statements
+ * accompanying such products and services. Nothing herein should be construed as
+ * constituting an additional warranty. Micro Focus shall not be liable for technical
+ * or editorial errors or omissions contained herein.
+ * The information contained herein is subject to change without notice.
+ * ___________________________________________________________________
+ *
+ */
+
+package com.microfocus.application.automation.tools.run;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.hp.sv.jsvconfigurator.core.IProject;
+import com.hp.sv.jsvconfigurator.core.IService;
+import com.hp.sv.jsvconfigurator.core.impl.exception.CommandExecutorException;
+import com.hp.sv.jsvconfigurator.core.impl.jaxb.atom.ServiceListAtom;
+import com.hp.sv.jsvconfigurator.processor.DeployProcessorInput;
+import com.hp.sv.jsvconfigurator.processor.IDeployProcessor;
+import com.hp.sv.jsvconfigurator.processor.IUndeployProcessor;
+import com.hp.sv.jsvconfigurator.processor.UndeployProcessorInput;
+import com.hp.sv.jsvconfigurator.serverclient.ICommandExecutor;
+import com.microfocus.application.automation.tools.model.SvServiceSelectionModel;
+import hudson.FilePath;
+import hudson.model.TaskListener;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class SvRunBuildersTest {
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final PrintStream logger = new PrintStream(output, true);
+
+    @Test
+    public void testDeployedServicesIndex() throws Exception {
+        DeployedServices services = new DeployedServices(executor(entry("id1", "Login"), entry("id2", "Dup"), entry("id3", "Dup")));
+
+        assertEquals("Login", services.find("id1").getName());
+        assertEquals("id1", services.find("Login").getId());
+        assertEquals("id2", services.find("id2").getId());
+        assertNull("ambiguous name must be resolved by the server", services.find("Dup"));
+        assertNull(services.find("missing"));
+    }
+
+    @Test
+    public void testProjectServicesFallBackToServerLookup() throws Exception {
+        ICommandExecutor exec = executor(entry("id1", "Login"), entry("id2", "Dup"), entry("id3", "Dup"));
+        IService dup = service("id3", "Dup");
+        when(exec.findService("Dup", null)).thenReturn(dup);
+        when(exec.findService("gone", null)).thenThrow(CommandExecutorException.class);
+        final IProject project = project(service("id1", "Login"), service("Dup", "Dup"), service("gone", "Gone"));
+        SvUndeployBuilder builder = new SvUndeployBuilder("server", true, false,
+                new SvServiceSelectionModel(SvServiceSelectionModel.SelectionType.PROJECT, null, "project.vproj", null)) {
+            @Override
+            protected IProject loadProject(FilePath workspace) {
+                return project;
+            }
+        };
+
+        List<ServiceInfo> services = builder.getServiceList(true, logger, null, exec);
+
+        assertEquals(Arrays.asList("id1", "id3"), ids(services));
+        verify(exec, never()).findService("id1", null);
+        verify(exec).findService("Dup", null);
+        assertTrue(output.toString().contains("Service 'gone' is not deployed, ignoring"));
+    }
+
+    @Test
+    public void testUndeployUsesOneExecutorPerWorker() throws Exception {
+        ServiceListAtom.ServiceEntry[] entries = new ServiceListAtom.ServiceEntry[8];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = entry("id" + i, "Service " + i);
+        }
+        final ICommandExecutor listingExec = executor(entries);
+        final List<ICommandExecutor> created = Collections.synchronizedList(new ArrayList<ICommandExecutor>());
+        final Map<ICommandExecutor, Set<Thread>> threadsByExec = new HashMap<>();
+        final CountDownLatch concurrent = new CountDownLatch(2);
+        final IUndeployProcessor processor = mock(IUndeployProcessor.class);
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                ICommandExecutor exec = (ICommandExecutor) invocation.getArguments()[1];
+                synchronized (threadsByExec) {
+                    if (!threadsByExec.containsKey(exec)) {
+                        threadsByExec.put(exec, new HashSet<Thread>());
+                    }
+                    threadsByExec.get(exec).add(Thread.currentThread());
+                }
+                concurrent.countDown();
+                concurrent.await(10, TimeUnit.SECONDS);
+                return null;
+            }
+        }).when(processor).process(any(UndeployProcessorInput.class), any(ICommandExecutor.class));
+
+        SvUndeployBuilder builder = new SvUndeployBuilder("server", false, false,
+                new SvServiceSelectionModel(SvServiceSelectionModel.SelectionType.ALL_DEPLOYED, null, null, null)) {
+            @Override
+            protected ICommandExecutor createCommandExecutor() {
+                if (created.isEmpty()) {
+                    created.add(listingExec);
+                    return listingExec;
+                }
+                ICommandExecutor exec = mock(ICommandExecutor.class);
+                created.add(exec);
+                return exec;
+            }
+
+            @Override
+            IUndeployProcessor createProcessor() {
+                return processor;
+            }
+        };
+
+        builder.performImpl(null, null, null, listener());
+
+        verify(processor, times(8)).process(any(UndeployProcessorInput.class), any(ICommandExecutor.class));
+        assertEquals(0, concurrent.getCount());
+        assertFalse("services are listed with the executor of the build, not of the workers", threadsByExec.containsKey(listingExec));
+        assertEquals(created.size() - 1, threadsByExec.size());
+        assertTrue(threadsByExec.size() <= SvParallelExecutor.DEFAULT_PARALLELISM);
+        for (Set<Thread> threads : threadsByExec.values()) {
+            assertEquals("an executor must not be shared by worker threads", 1, threads.size());
+        }
+    }
+
+    @Test
+    public void testDeployLoadsProjectPerWorker() throws Exception {
+        IService[] services = new IService[6];
+        for (int i = 0; i < services.length; i++) {
+            services[i] = service("id" + i, "Service " + i);
+        }
+        final IProject buildProject = project(services);
+        final AtomicInteger projectLoads = new AtomicInteger();
+        final Set<Thread> workers = Collections.synchronizedSet(new HashSet<Thread>());
+        final IDeployProcessor processor = mock(IDeployProcessor.class);
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                workers.add(Thread.currentThread());
+                return null;
+            }
+        }).when(processor).process(any(DeployProcessorInput.class), any(ICommandExecutor.class));
+
+        SvDeployBuilder builder = new SvDeployBuilder("server", false, null, "project.vproj", null, false) {
+            @Override
+            protected ICommandExecutor createCommandExecutor() {
+                return mock(ICommandExecutor.class);
+            }
+
+            @Override
+            protected IProject loadProject(FilePath workspace) {
+                return projectLoads.getAndIncrement() == 0 ? buildProject : project();
+            }
+
+            @Override
+            IDeployProcessor createProcessor() {
+                return processor;
+            }
+        };
+
+        builder.performImpl(null, null, null, listener());
+
+        verify(processor, times(6)).process(any(DeployProcessorInput.class), any(ICommandExecutor.class));
+        assertEquals("the project is loaded by the build and by each worker", 1 + workers.size(), projectLoads.get());
+        assertFalse(workers.contains(Thread.currentThread()));
+    }
+
+    private TaskListener listener() {
+        TaskListener listener = mock(TaskListener.class);
+        when(listener.getLogger()).thenReturn(logger);
+        return listener;
+    }
+
+    private static ICommandExecutor executor(ServiceListAtom.ServiceEntry... entries) throws Exception {
+        ServiceListAtom serviceList = mock(ServiceListAtom.class);
+        doReturn(Arrays.asList(entries)).when(serviceList).getEntries();
+        ICommandExecutor exec = mock(ICommandExecutor.class);
+        when(exec.getServiceList(null)).thenReturn(serviceList);
+        return exec;
+    }
+
+    private static ServiceListAtom.ServiceEntry entry(String id, String title) {
+        ServiceListAtom.ServiceEntry entry = mock(ServiceListAtom.ServiceEntry.class);
+        when(entry.getId()).thenReturn(id);
+        when(entry.getTitle()).thenReturn(title);
+        return entry;
+    }
+
+    private static IService service(String id, String name) {
+        IService service = mock(IService.class);
+        when(service.getId()).thenReturn(id);
+        when(service.getName()).thenReturn(name);
+        doReturn(Collections.emptyList()).when(service).getDataModels();
+        doReturn(Collections.emptyList()).when(service).getPerfModels();
+        return service;
+    }
+
+    private static IProject project(IService... services) {
+        IProject project = mock(IProject.class);
+        doReturn(Arrays.asList(services)).when(project).getServices();
+        return project;
+    }
+
+    private static List<String> ids(List<ServiceInfo> services) {
+        List<String> ids = new ArrayList<>();
+        for (ServiceInfo service : services) {
+            ids.add(service.getId());
+        }
+        return ids;
+    }
+}
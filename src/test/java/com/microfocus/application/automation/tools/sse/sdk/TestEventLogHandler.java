@@ -23,9 +23,13 @@
 package com.microfocus.application.automation.tools.sse.sdk;
 
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+import com.microfocus.application.automation.tools.sse.common.EntityStreamReader;
 import com.microfocus.application.automation.tools.sse.common.TestCase;
+import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.handler.EventLogHandler;
 import org.junit.Assert;
 import org.junit.Test;
@@ -72,6 +76,141 @@ public class TestEventLogHandler extends TestCase {
         Assert.assertFalse(isOk);
     }
     
+    @Test
+    public void testLogIncremental() {
+        
+        MockRestClientIncremental client = new MockRestClientIncremental(URL, DOMAIN, PROJECT, USER);
+        EventLogHandler eventLogHandler = new EventLogHandler(client, TIMESLOT_ID, true);
+        List<String> logged = new ArrayList<String>();
+        
+        client._events = 3;
+        Assert.assertTrue(eventLogHandler.log(new CollectingLogger(logged)));
+        Assert.assertEquals(_expectedEventLogUrl, client._urls.get(0));
+        Assert.assertEquals(3, logged.size());
+        
+        client._events = 5;
+        client._urls.clear();
+        Assert.assertTrue(eventLogHandler.log(new CollectingLogger(logged)));
+        Assert.assertEquals(1, client._urls.size());
+        Assert.assertTrue(client._urls.get(0).contains(";id[%3E3]}"));
+        Assert.assertTrue(client._urls.get(0).contains("&page-size="));
+        Assert.assertEquals(5, logged.size());
+        Assert.assertEquals("creation-time-5:event 5", logged.get(4));
+    }
+    
+    @Test
+    public void testBenchmarkIncrementalStreamingAgainstFullDom() {
+        
+        final int totalEvents = 10000;
+        final int newEvents = 20;
+        String fullLog = createEventLog(1, totalEvents);
+        String newLog = createEventLog(totalEvents - newEvents + 1, totalEvents);
+        final int lastRead = totalEvents - newEvents;
+        
+        long start = System.nanoTime();
+        int domNew = 0;
+        for (Map<String, String> entity : XPathUtils.toEntities(fullLog)) {
+            if (Integer.parseInt(entity.get("id")) > lastRead) {
+                domNew++;
+            }
+        }
+        long domNanos = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        final int[] streamNew = {0};
+        EntityStreamReader.read(newLog.getBytes(), new EntityStreamReader.EntityHandler() {
+            
+            @Override
+            public void onEntity(Map<String, String> fields) {
+                
+                if (Integer.parseInt(fields.get("id")) > lastRead) {
+                    streamNew[0]++;
+                }
+            }
+        });
+        long streamNanos = System.nanoTime() - start;
+        
+        final int[] streamAll = {0};
+        int read = EntityStreamReader.read(fullLog.getBytes(), new EntityStreamReader.EntityHandler() {
+            
+            @Override
+            public void onEntity(Map<String, String> fields) {
+                
+                streamAll[0]++;
+            }
+        });
+        
+        Assert.assertEquals(newEvents, domNew);
+        Assert.assertEquals(newEvents, streamNew[0]);
+        Assert.assertEquals(totalEvents, read);
+        Assert.assertEquals(totalEvents, streamAll[0]);
+        System.out.println(String.format(
+                "Full log DOM poll: %d bytes, %.1f ms; incremental streaming poll: %d bytes, %.1f ms",
+                fullLog.length(),
+                domNanos / 1e6,
+                newLog.length(),
+                streamNanos / 1e6));
+    }
+    
+    private static String createEventLog(int fromId, int toId) {
+        
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+        xml.append("<Entities TotalResults=\"").append(toId - fromId + 1).append("\">");
+        for (int id = fromId; id <= toId; id++) {
+            xml.append("<Entity Type=\"event-log-read\"><Fields>")
+                    .append("<Field Name=\"id\"><Value>").append(id).append("</Value></Field>")
+                    .append("<Field Name=\"description\"><Value>event ").append(id).append("</Value></Field>")
+                    .append("<Field Name=\"action\"><Value>Run</Value></Field>")
+                    .append("<Field Name=\"creation-time\"><Value>creation-time-").append(id).append("</Value></Field>")
+                    .append("<Field Name=\"event-type\"><Value>Info</Value></Field>")
+                    .append("</Fields><RelatedEntities/></Entity>");
+        }
+        return xml.append("</Entities>").toString();
+    }
+    
+    private static class CollectingLogger implements Logger {
+        
+        private final List<String> _messages;
+        
+        CollectingLogger(List<String> messages) {
+            
+            _messages = messages;
+        }
+        
+        @Override
+        public void log(String message) {
+            
+            _messages.add(message);
+        }
+    }
+    
+    private class MockRestClientIncremental extends RestClient4Test {
+        
+        private final List<String> _urls = new ArrayList<String>();
+        private int _events;
+        
+        public MockRestClientIncremental(String url, String domain, String project, String username) {
+            
+            super(url, domain, project, username);
+        }
+        
+        @Override
+        public Response httpGet(
+                String url,
+                String queryString,
+                Map<String, String> headers,
+                ResourceAccessLevel resourceAccessLevel) {
+            
+            _urls.add(url);
+            int fromId = 1;
+            int idFilter = url.indexOf("id[%3E");
+            if (idFilter != -1) {
+                fromId = Integer.parseInt(url.substring(idFilter + 6, url.indexOf(']', idFilter))) + 1;
+            }
+            return new Response(null, createEventLog(fromId, _events).getBytes(), null, HttpURLConnection.HTTP_OK);
+        }
+    }
+    
     private class MockRestClient extends RestClient4Test {
         
         public MockRestClient(String url, String domain, String project, String username) {